@@ -4,9 +4,11 @@ package com.ams;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.openfeign.EnableFeignClients;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication(scanBasePackages = "com.ams")
 @EnableFeignClients
+@EnableScheduling
 public class ClientServiceApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,61 @@
+package com.ams.config;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+/**
+ * {@code ReactiveReadConfig} wires the R2DBC connection pool used by the reactive read path.
+ *
+ * <p>
+ * Boot's R2DBC auto-configuration is excluded for this service so that it does not compete with JPA for
+ * the transaction manager; this configuration reuses the standard {@code spring.r2dbc.*} properties instead
+ * and is only active with the {@code reactive} profile.
+ * </p>
+ *
+ * @author Yosef Nago
+ */
+@Configuration
+@Profile("reactive")
+@EnableConfigurationProperties(R2dbcProperties.class)
+public class ReactiveReadConfig {
+
+    /**
+     * Creates a pooled R2DBC connection factory for Postgres.
+     *
+     * @param properties the {@code spring.r2dbc.*} settings
+     * @return the connection pool
+     */
+    @Bean(destroyMethod = "dispose")
+    public ConnectionPool r2dbcConnectionFactory(R2dbcProperties properties) {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(properties.getUrl())
+                .mutate()
+                .option(ConnectionFactoryOptions.USER, properties.getUsername())
+                .option(ConnectionFactoryOptions.PASSWORD, properties.getPassword())
+                .build();
+        ConnectionFactory connectionFactory = ConnectionFactories.get(options);
+
+        ConnectionPoolConfiguration poolConfiguration = ConnectionPoolConfiguration.builder(connectionFactory)
+                .initialSize(properties.getPool().getInitialSize())
+                .maxSize(properties.getPool().getMaxSize())
+                .build();
+        return new ConnectionPool(poolConfiguration);
+    }
+
+    /**
+     * @param connectionFactory the pooled connection factory
+     * @return a {@link DatabaseClient} for reactive SQL
+     */
+    @Bean
+    public DatabaseClient databaseClient(ConnectionFactory connectionFactory) {
+        return DatabaseClient.create(connectionFactory);
+    }
+}
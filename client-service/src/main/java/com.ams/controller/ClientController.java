@@ -2,31 +2,55 @@ package com.ams.controller;
 
 
 
+import com.ams.commonsecurity.jdbc.QueryBudget;
 import com.ams.commonsecurity.utils.JwtUtil;
 import com.ams.dtos.clientDto.*;
+import com.ams.dtos.documentDto.BatchUploadResponse;
+import com.ams.dtos.documentDto.DeleteDocumentsRequest;
+import com.ams.dtos.documentDto.DeleteDocumentsResponse;
 import com.ams.dtos.documentDto.DocumentGrid;
 import com.ams.dtos.documentDto.DocumentUploadRequest;
 import com.ams.dtos.documentDto.DocumentUploadResponse;
+import com.ams.dtos.documentDto.DocumentUploadResult;
 import com.ams.dtos.documentDto.LoadDocumentsResponse;
+import com.ams.dtos.documentDto.SearchDocumentsResponse;
 import com.ams.dtos.loginDto.ClientLoginRequest;
 import com.ams.dtos.loginDto.ClientLoginResponse;
 import com.ams.entity.ClientDetails;
 import com.ams.entity.Documents;
 import com.ams.repository.ClientRepository;
+import com.ams.repository.DocumentFilter;
+import com.ams.repository.DocumentSort;
+import com.ams.service.ChangeSyncService;
 import com.ams.service.ClientService;
 import com.ams.service.DocumentService;
+import com.ams.typeahead.ClientTypeaheadService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 
@@ -55,22 +79,40 @@ import java.util.stream.Collectors;
 @RequestMapping("/client")
 public class ClientController {
 
+    /**
+     * Case reads are requested by several layouts at once; the gateway may reuse them per user for a few seconds.
+     */
+    private static final CacheControl CASE_READ_CACHE = CacheControl.maxAge(Duration.ofSeconds(5)).cachePrivate();
+
+    static final int MAX_SEARCH_PAGE_SIZE = 100;
+    static final int MAX_TYPEAHEAD_LIMIT = 50;
+    static final int MAX_DOCUMENT_PAGE_SIZE = 200;
+    static final int MAX_BATCH_UPLOAD_FILES = 50;
+    static final int MAX_DELETE_BATCH = 1000;
+
     private final PasswordEncoder passwordEncoder;
     private final JwtUtil jwtUtil;
     private final ClientService clientService;
     private final DocumentService documentService;
+    private final ChangeSyncService changeSyncService;
+    private final ClientTypeaheadService clientTypeaheadService;
     /**
      * Constructs a {@code ClientController} with required dependencies.
      *
      * @param clientService the business logic layer for client operations
      * @param jwtUtil utility for handling JWT tokens
+     * @param changeSyncService computes client and document changes for delta sync
+     * @param clientTypeaheadService answers the search box from the in-memory client index
      */
     @Autowired
-    public ClientController(ClientService clientService,DocumentService documentService, JwtUtil jwtUtil,PasswordEncoder passwordEncoder) {
+    public ClientController(ClientService clientService,DocumentService documentService, JwtUtil jwtUtil,PasswordEncoder passwordEncoder,
+                            ChangeSyncService changeSyncService, ClientTypeaheadService clientTypeaheadService) {
         this.clientService = clientService;
         this.documentService = documentService;
         this.jwtUtil = jwtUtil;
         this.passwordEncoder = passwordEncoder;
+        this.changeSyncService = changeSyncService;
+        this.clientTypeaheadService = clientTypeaheadService;
     }
 
     @GetMapping("/load-documents")
@@ -83,12 +125,148 @@ public class ClientController {
             return ResponseEntity.status(500).body(new LoadDocumentsResponse(false, "שגיאה: " + e.getMessage(), List.of()));
         }
     }
+    /**
+     * Lists one page of a client's documents, filtered and sorted on the server.
+     * <p>
+     * Pages are chained by cursor: pass the {@code nextCursor} of a response, with the same filters and order,
+     * to get the page after it. The total is only counted when asked for, typically for the first page.
+     * </p>
+     *
+     * <p>
+     * Query budget: one select for the page, plus one count with {@code includeTotal}.
+     * </p>
+     *
+     * @param clientId     the client's tax ID (sent via header)
+     * @param status       accepted statuses; all if none
+     * @param from         first upload date, inclusive
+     * @param to           last upload date, inclusive
+     * @param name         text the document name must contain, ignoring case
+     * @param sort         {@code UPLOADED_AT} or {@code NAME}
+     * @param descending   whether to sort descending (newest first by default)
+     * @param cursor       the {@code nextCursor} of the previous page
+     * @param size         the page size, at most {@value #MAX_DOCUMENT_PAGE_SIZE}
+     * @param includeTotal whether to count all matching documents
+     * @return a {@link SearchDocumentsResponse} with the page and the next cursor
+     */
+    @QueryBudget(2)
+    @GetMapping("/documents")
+    public ResponseEntity<SearchDocumentsResponse> searchDocuments(
+            @RequestHeader("clientId") String clientId,
+            @RequestParam(required = false) Set<String> status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String name,
+            @RequestParam(defaultValue = "UPLOADED_AT") DocumentSort sort,
+            @RequestParam(defaultValue = "true") boolean descending,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        if (size < 1 || size > MAX_DOCUMENT_PAGE_SIZE) {
+            return ResponseEntity.badRequest()
+                    .body(new SearchDocumentsResponse(false, "פרמטרי עימוד לא תקינים", List.of(), null, null));
+        }
+        try {
+            DocumentService.DocumentPage page = documentService.searchDocuments(
+                    new DocumentFilter(clientId, status, from, to, name), sort, descending, cursor, size, includeTotal);
+            return ResponseEntity.ok(new SearchDocumentsResponse(true, "מסמכים נטענו",
+                    page.documents(), page.nextCursor(), page.total()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(new SearchDocumentsResponse(false, "סמן עימוד לא תקין", List.of(), null, null));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new SearchDocumentsResponse(false, "שגיאה בטעינת מסמכים", List.of(), null, null));
+        }
+    }
+
+    /**
+     * Downloads a client's document.
+     * <p>
+     * Compressed documents are inflated while they are written to the response.
+     * </p>
+     *
+     * <p>
+     * Query budget: a single select.
+     * </p>
+     *
+     * @param clientId the client's tax ID (sent via header)
+     * @param id       the document id
+     * @return the original file content, or 404 if the client has no such document
+     */
+    @QueryBudget(1)
+    @GetMapping("/documents/{id}/content")
+    public ResponseEntity<StreamingResponseBody> downloadDocument(@RequestHeader("clientId") String clientId,
+                                                                  @PathVariable long id) {
+        return documentService.openDocument(id, clientId)
+                .map(document -> {
+                    StreamingResponseBody body = out -> {
+                        try (InputStream content = document.content()) {
+                            content.transferTo(out);
+                        }
+                    };
+                    return ResponseEntity.ok()
+                            .contentType(MediaTypeFactory.getMediaType(document.fileName())
+                                    .orElse(MediaType.APPLICATION_OCTET_STREAM))
+                            .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                                    .filename(document.fileName(), StandardCharsets.UTF_8).build().toString())
+                            .body(body);
+                })
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Deletes every document with the given name.
+     *
+     * @deprecated deletes same-named documents of all clients; use {@code DELETE /documents/{id}} or
+     * {@code /documents/delete}
+     */
+    @Deprecated
     @DeleteMapping("/delete-document/{fileName}")
     public ResponseEntity<Void> deleteDocument(@PathVariable String fileName){
         documentService.deleteDocumentByDocId(fileName);
         return ResponseEntity.ok().build();
     }
 
+    /**
+     * Deletes one of the client's documents. Its blob is released in the background.
+     *
+     * <p>Query budget: the delete and its outbox row.</p>
+     *
+     * @param clientId the owning client's tax ID
+     * @param id       the document id
+     * @return 204 if deleted, 404 if the client has no such document
+     */
+    @QueryBudget(2)
+    @DeleteMapping("/documents/{id}")
+    public ResponseEntity<Void> deleteDocumentById(@RequestHeader("clientId") String clientId, @PathVariable long id) {
+        return documentService.deleteDocuments(clientId, List.of(id)).isEmpty()
+                ? ResponseEntity.notFound().build()
+                : ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Deletes many of the client's documents with one statement. Their blobs are released in the background.
+     *
+     * <p>Query budget: the delete and one batch of outbox rows.</p>
+     *
+     * @param clientId the owning client's tax ID
+     * @param request  the ids, at most {@value #MAX_DELETE_BATCH} distinct ones
+     * @return a {@link DeleteDocumentsResponse} listing the deleted ids
+     */
+    @QueryBudget(2)
+    @PostMapping("/documents/delete")
+    public ResponseEntity<DeleteDocumentsResponse> deleteDocuments(@RequestHeader("clientId") String clientId,
+                                                                   @RequestBody DeleteDocumentsRequest request) {
+        Set<Long> ids = request.ids() == null ? Set.of() : new LinkedHashSet<>(request.ids());
+        if (ids.isEmpty() || ids.size() > MAX_DELETE_BATCH) {
+            return ResponseEntity.badRequest()
+                    .body(new DeleteDocumentsResponse(false, "ניתן למחוק עד " + MAX_DELETE_BATCH + " מסמכים בבת אחת", List.of()));
+        }
+        List<Long> deleted = documentService.deleteDocuments(clientId, ids);
+        return ResponseEntity.ok(new DeleteDocumentsResponse(deleted.size() == ids.size(),
+                "נמחקו " + deleted.size() + " מתוך " + ids.size() + " מסמכים", deleted));
+    }
+
     @PostMapping(value = "/upload", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public ResponseEntity<DocumentUploadResponse> uploadDocument(
             @RequestPart("file") MultipartFile file,
@@ -120,15 +298,101 @@ public class ClientController {
         }
 
     }
+    /**
+     * Uploads many documents of one client in a single multipart request.
+     * <p>
+     * The client is checked once, and the documents, their staged content and their outbox events are
+     * written as one JDBC batch each; ingestion then continues in the background as for {@code /upload}.
+     * The parts are streamed from the request's spool files into the staging rows, not read into memory.
+     * Files that are empty are reported as failed without failing the others.
+     * </p>
+     *
+     * <p>
+     * Query budget: the client check, document id allocation (two sequence calls at most) and the three
+     * insert batches.
+     * </p>
+     *
+     * @param files         the files, at most {@value #MAX_BATCH_UPLOAD_FILES}
+     * @param clientId      the owning client's tax ID
+     * @param status        the status the documents get once ingested
+     * @param uploadedAtStr the upload date, ISO formatted
+     * @return a {@link BatchUploadResponse} with one result per file
+     */
+    @QueryBudget(6)
+    @PostMapping(value = "/upload-batch", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<BatchUploadResponse> uploadDocuments(
+            @RequestPart("files") List<MultipartFile> files,
+            @RequestParam("clientId") String clientId,
+            @RequestParam("status") String status,
+            @RequestParam("uploadedAt") String uploadedAtStr) {
+
+        if (files.isEmpty() || files.size() > MAX_BATCH_UPLOAD_FILES) {
+            return ResponseEntity.badRequest()
+                    .body(new BatchUploadResponse(false, "ניתן להעלות עד " + MAX_BATCH_UPLOAD_FILES + " קבצים בבת אחת", List.of()));
+        }
+        if (!clientService.existsClientById(clientId)) {
+            return ResponseEntity.badRequest().body(new BatchUploadResponse(false, "לקוח לא נמצא", List.of()));
+        }
+        LocalDate uploadedAt;
+        try {
+            uploadedAt = LocalDate.parse(uploadedAtStr);
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().body(new BatchUploadResponse(false, "תאריך העלאה לא תקין", List.of()));
+        }
+
+        DocumentUploadResult[] results = new DocumentUploadResult[files.size()];
+        List<DocumentService.Upload> uploads = new ArrayList<>();
+        List<Integer> positions = new ArrayList<>();
+        for (int i = 0; i < files.size(); i++) {
+            MultipartFile file = files.get(i);
+            String fileName = file.getOriginalFilename();
+            if (file.isEmpty() || fileName == null || fileName.isBlank()) {
+                results[i] = new DocumentUploadResult(fileName, false, "קובץ ריק", null);
+                continue;
+            }
+            // the part is read only while it is staged, straight from where the request spooled it
+            uploads.add(new DocumentService.Upload(fileName, file, file.getSize(), clientId, status, uploadedAt));
+            positions.add(i);
+        }
+
+        boolean saved = true;
+        if (!uploads.isEmpty()) {
+            try {
+                List<Long> ids = documentService.saveDocuments(uploads);
+                for (int i = 0; i < ids.size(); i++) {
+                    results[positions.get(i)] = new DocumentUploadResult(uploads.get(i).documentName(), true, "ההעלאה בוצעה", ids.get(i));
+                }
+            } catch (RuntimeException e) {
+                saved = false;
+                for (int i = 0; i < uploads.size(); i++) {
+                    results[positions.get(i)] = new DocumentUploadResult(uploads.get(i).documentName(), false, "שגיאה בהעלאת קובץ", null);
+                }
+            }
+        }
+
+        long uploaded = Arrays.stream(results).filter(DocumentUploadResult::success).count();
+        BatchUploadResponse response = new BatchUploadResponse(uploaded == files.size(),
+                "הועלו " + uploaded + " מתוך " + files.size() + " קבצים", List.of(results));
+        return saved
+                ? ResponseEntity.ok(response)
+                : ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+    }
+
     /**
      * Creates a new client if the identifiers (tax ID, email, bank account) are valid and unique.
      *
+     * <p>
+     * Query budget: three uniqueness checks, saving the client (at most a select and an insert) and the
+     * outbox row.
+     * </p>
+     *
      * @param createClientRequest request body containing all required client details
      * @return a {@link ResponseEntity} with {@link CreateClientResponse} indicating success or validation error
      */
+    @QueryBudget(6)
     @PostMapping("/create")
     public ResponseEntity<CreateClientResponse> createClient(@RequestBody CreateClientRequest createClientRequest) {
-        if (clientService.existsClientById(createClientRequest.tax_id())) {
+        if (clientService.isClientIdTaken(createClientRequest.tax_id())) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .body(new CreateClientResponse(false, "מספר ח.פ/ת.ז לא תקין"));
         } else if (clientService.existsClientByEmail(createClientRequest.email())) {
@@ -151,16 +415,40 @@ public class ClientController {
 
     /**
      * Deletes a client from the system by tax ID.
+     * <p>
+     * The client is only marked as deleted and can be restored with {@code /restore/{id}} until it is
+     * purged together with its documents; see {@code ClientPurgeService}.
+     * </p>
+     *
+     * <p>Query budget: the tombstone update and the outbox row.</p>
      *
      * @param id the client's tax ID or national ID
      * @return HTTP 200 OK if deletion is successful
      */
+    @QueryBudget(2)
     @DeleteMapping("/delete/{id}")
     public ResponseEntity<Void> deleteClient(@PathVariable String id) {
         clientService.deleteClientByClientId(id);
         return ResponseEntity.ok().build();
     }
 
+    /**
+     * Restores one of the accountant's deleted clients, with its documents, within the restore window.
+     *
+     * <p>Query budget: the restore update and the outbox row.</p>
+     *
+     * @param username the accountant's username
+     * @param id       the client's tax ID
+     * @return HTTP 200 OK if restored, 404 if there is nothing to restore
+     */
+    @QueryBudget(2)
+    @PostMapping("/restore/{id}")
+    public ResponseEntity<Void> restoreClient(@RequestHeader("X-User-Name") String username, @PathVariable String id) {
+        return clientService.restoreClient(id, username)
+                ? ResponseEntity.ok().build()
+                : ResponseEntity.notFound().build();
+    }
+
     /**
      * Loads summary client details for display in the case view header.
      *
@@ -176,8 +464,9 @@ public class ClientController {
                     new LoadClientDetailsCaseResponse(false, "לקוח לא נמצא", null, null, null, null, null, null));
         }
 
-        return ResponseEntity.ok(
-                new LoadClientDetailsCaseResponse(
+        return ResponseEntity.ok()
+                .cacheControl(CASE_READ_CACHE)
+                .body(new LoadClientDetailsCaseResponse(
                         true,
                         "פרטי לקוח נטענו בהצלחה",
                         clientDetails.getBusinessName(),
@@ -216,6 +505,61 @@ public class ClientController {
 
         return ResponseEntity.ok(new UpdateClientResponse("לקוח עודכן בהצלחה"));
     }
+    /**
+     * Partially updates a client's details with optimistic locking.
+     * <p>
+     * Only the non-null fields of the body are written. The expected row version must be sent in the
+     * {@code If-Match} header, as returned in the {@code ETag} of {@code /client/load-client-case};
+     * the new version is returned in the {@code ETag} of the response.
+     * </p>
+     *
+     * @param clientId the client's tax ID
+     * @param username the accountant's username (sent via header)
+     * @param ifMatch  the expected version
+     * @param request  the fields to change
+     * @return 200 with the new version, 404 if not found, 409 on a concurrent modification,
+     *         428 if {@code If-Match} is missing or malformed
+     */
+    @PatchMapping("/update/{clientId}")
+    public ResponseEntity<PatchClientResponse> patchClient(@PathVariable String clientId,
+                                                           @RequestHeader("X-User-Name") String username,
+                                                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                           @RequestBody PatchClientRequest request) {
+        Long expectedVersion = parseVersion(ifMatch);
+        if (expectedVersion == null) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_REQUIRED)
+                    .body(new PatchClientResponse(false, "חסרה גרסת לקוח", null));
+        }
+
+        try {
+            long version = clientService.patchClient(clientId, username, expectedVersion, request);
+            return ResponseEntity.ok()
+                    .eTag(String.valueOf(version))
+                    .body(new PatchClientResponse(true, "לקוח עודכן בהצלחה", version));
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(new PatchClientResponse(false, "הלקוח עודכן על ידי משתמש אחר, יש לטעון מחדש", null));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(new PatchClientResponse(false, "לקוח לא נמצא", null));
+        }
+    }
+
+    private static Long parseVersion(String ifMatch) {
+        if (ifMatch == null) {
+            return null;
+        }
+        String value = ifMatch.trim();
+        if (value.startsWith("W/")) {
+            value = value.substring(2);
+        }
+        value = value.replace("\"", "");
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
     /**
      * Loads full editable case details for a client based on their ID.
      *
@@ -228,8 +572,10 @@ public class ClientController {
         if (clientDetails == null){
             return ResponseEntity.ok(new LoadClientCaseDetailsRequest(null,null,null,null,null,null,null,null,null,null));
         }
-        return ResponseEntity.ok(
-                new LoadClientCaseDetailsRequest(
+        return ResponseEntity.ok()
+                .cacheControl(CASE_READ_CACHE)
+                .eTag(String.valueOf(clientDetails.getVersion()))
+                .body(new LoadClientCaseDetailsRequest(
                         clientDetails.getClientId(),
                         clientDetails.getBusinessName(),
                         clientDetails.getEmail(),
@@ -249,9 +595,14 @@ public class ClientController {
     /**
      * Loads all clients associated with a given accountant.
      *
+     * <p>
+     * Query budget: a single select, however many clients the accountant has.
+     * </p>
+     *
      * @param username the accountant’s username (sent via header)
      * @return a {@link LoadClientResponse} containing a list of {@link ClientGridDto}
      */
+    @QueryBudget(1)
     @GetMapping("/load-clients")
     public ResponseEntity<LoadClientResponse> loadClients(@RequestHeader("X-User-Name") String username) {
 
@@ -275,6 +626,101 @@ public class ClientController {
 
     }
 
+    /**
+     * Searches the accountant's clients by business name, tax ID, e-mail or phone.
+     * <p>
+     * Typos are tolerated from three characters on; results are ranked, an exact tax ID first.
+     * </p>
+     *
+     * <p>
+     * Query budget: a single select.
+     * </p>
+     *
+     * @param username the accountant's username (sent via header)
+     * @param q        the search text
+     * @param page     the zero-based page number
+     * @param size     the page size, at most {@value #MAX_SEARCH_PAGE_SIZE}
+     * @return a {@link SearchClientsResponse} with one page of matching clients
+     */
+    @QueryBudget(1)
+    @GetMapping("/search")
+    public ResponseEntity<SearchClientsResponse> searchClients(@RequestHeader("X-User-Name") String username,
+                                                               @RequestParam String q,
+                                                               @RequestParam(defaultValue = "0") int page,
+                                                               @RequestParam(defaultValue = "20") int size) {
+        if (page < 0 || size < 1 || size > MAX_SEARCH_PAGE_SIZE) {
+            return ResponseEntity.badRequest()
+                    .body(new SearchClientsResponse(false, "פרמטרי עימוד לא תקינים", List.of(), page, false));
+        }
+        try {
+            List<ClientGridDto> clients = clientService.searchClients(username, q, page, size);
+            boolean hasMore = clients.size() > size;
+            return ResponseEntity.ok(new SearchClientsResponse(true, "חיפוש הושלם",
+                    hasMore ? clients.subList(0, size) : clients, page, hasMore));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new SearchClientsResponse(false, "שגיאה בחיפוש לקוחות", List.of(), page, false));
+        }
+    }
+
+    /**
+     * Suggests the accountant's clients for the text typed so far, from memory.
+     * <p>
+     * Matches words of the business name, tax ID, e-mail or phone by prefix, and by substring from three
+     * characters on; no typo tolerance, see {@link #searchClients} for that.
+     * </p>
+     *
+     * <p>
+     * Query budget: none once the accountant's index is warm; the first call loads it with a single select.
+     * </p>
+     *
+     * @param username the accountant's username (sent via header)
+     * @param q        the text typed so far
+     * @param limit    the maximum number of suggestions, at most {@value #MAX_TYPEAHEAD_LIMIT}
+     * @return a {@link LoadClientResponse} with the best matches first
+     */
+    @QueryBudget(1)
+    @GetMapping("/typeahead")
+    public ResponseEntity<LoadClientResponse> typeahead(@RequestHeader("X-User-Name") String username,
+                                                        @RequestParam String q,
+                                                        @RequestParam(defaultValue = "10") int limit) {
+        if (limit < 1 || limit > MAX_TYPEAHEAD_LIMIT) {
+            return ResponseEntity.badRequest().body(new LoadClientResponse(false, "מספר תוצאות לא תקין", List.of()));
+        }
+        try {
+            return ResponseEntity.ok(new LoadClientResponse(true, "חיפוש הושלם",
+                    clientTypeaheadService.search(username, q, limit)));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new LoadClientResponse(false, "שגיאה בחיפוש לקוחות", List.of()));
+        }
+    }
+
+    /**
+     * Returns the clients, and optionally documents, created, updated or deleted since the given sync token.
+     * <p>
+     * Without a token (or with an expired or unknown one) a snapshot of the clients is returned together with
+     * a fresh token.
+     * </p>
+     *
+     * @param username  the accountant's username (sent via header)
+     * @param since     the {@code nextToken} from the previous call, if any
+     * @param documents whether document changes are returned as well
+     * @return a {@link ClientChangesResponse} with upserts, tombstones and the next token
+     */
+    @GetMapping("/changes")
+    public ResponseEntity<ClientChangesResponse> loadChanges(@RequestHeader("X-User-Name") String username,
+                                                             @RequestParam(value = "since", required = false) String since,
+                                                             @RequestParam(value = "documents", defaultValue = "false") boolean documents) {
+        try {
+            return ResponseEntity.ok(changeSyncService.changesSince(username, since, documents));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ClientChangesResponse(false, "שגיאה בטעינת שינויים", since, false, false,
+                            List.of(), List.of(), List.of(), List.of()));
+        }
+    }
+
     /**
      * Retrieves the total number of clients associated with a given accountant.
      *
@@ -0,0 +1,74 @@
+package com.ams.controller;
+
+import com.ams.dtos.clientDto.ClientGridDto;
+import com.ams.dtos.clientDto.LoadClientDetailsCaseResponse;
+import com.ams.dtos.documentDto.DocumentGrid;
+import com.ams.repository.ReactiveClientReadRepository;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * {@code ReactiveClientController} is the streaming counterpart of the read endpoints in {@link ClientController}.
+ *
+ * <p>
+ * List endpoints answer with newline-delimited JSON ({@code application/x-ndjson}): one object per line,
+ * written as soon as the row arrives from Postgres. Demand from the HTTP connection is propagated down to the
+ * R2DBC cursor, so a slow consumer slows the database reads instead of buffering the whole list in memory.
+ * </p>
+ *
+ * <p>Active only with the {@code reactive} profile.</p>
+ *
+ * @author Yosef Nago
+ */
+@RestController
+@Profile("reactive")
+@RequestMapping("/client/stream")
+public class ReactiveClientController {
+
+    private final ReactiveClientReadRepository readRepository;
+
+    public ReactiveClientController(ReactiveClientReadRepository readRepository) {
+        this.readRepository = readRepository;
+    }
+
+    /**
+     * Streams all clients associated with the accountant.
+     *
+     * @param username the accountant’s username (sent via header)
+     * @return one {@link ClientGridDto} per line
+     */
+    @GetMapping(value = "/load-clients", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<ClientGridDto> loadClients(@RequestHeader("X-User-Name") String username) {
+        return readRepository.streamClientsByAccountant(username);
+    }
+
+    /**
+     * Loads summary client details for display in the case view header.
+     *
+     * @param clientId the unique identifier of the client
+     * @return the client details, or an unsuccessful response if not found
+     */
+    @GetMapping("/load-case-details")
+    public Mono<LoadClientDetailsCaseResponse> loadClientDetails(@RequestParam String clientId) {
+        return readRepository.findCaseDetails(clientId)
+                .defaultIfEmpty(new LoadClientDetailsCaseResponse(false, "לקוח לא נמצא", null, null, null, null, null, null));
+    }
+
+    /**
+     * Streams the documents of a client.
+     *
+     * @param clientId the client's tax ID (sent via header)
+     * @return one {@link DocumentGrid} per line
+     */
+    @GetMapping(value = "/load-documents", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<DocumentGrid> loadDocuments(@RequestHeader("clientId") String clientId) {
+        return readRepository.streamDocumentsByClient(clientId);
+    }
+}
@@ -2,14 +2,23 @@ package com.ams.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.SQLRestriction;
 
+import java.time.Instant;
 import java.time.LocalDate;
 
 /**
  * Represents a client entity in the AMS system.
  * This entity stores all the necessary information about a client.
+ * <p>
+ * Deleted clients stay in the table as tombstones until {@code ClientPurgeService} removes them, so a
+ * deletion can be undone for a while. Entity queries never see tombstones; native SQL has to exclude
+ * them itself ({@code NOT deleted}).
+ * </p>
  */
 @Entity
+@SQLRestriction("deleted = false")
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -66,4 +75,16 @@ public class ClientDetails {
     @Column(name = "client_password",unique = true)
     private String clientPassword;
 
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private long version; // optimistic-locking row version
+
+    @ColumnDefault("false")
+    @Column(name = "deleted", nullable = false)
+    private boolean deleted; // tombstone
+
+    @Column(name = "deleted_at")
+    private Instant deletedAt;
+
 }
@@ -0,0 +1,55 @@
+package com.ams.entity;
+
+import com.ams.storage.BlobCodec;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.time.Instant;
+
+/**
+ * The content of an uploaded file, stored once however many {@link Documents} refer to it.
+ * <p>
+ * Blobs are identified by the SHA-256 of their content. {@code refCount} is the number of documents
+ * pointing at the blob; it is only changed by the atomic statements of
+ * {@link com.ams.repository.DocumentBlobRepository}, and the blob is deleted when it drops to zero.
+ * </p>
+ *
+ * <p>{@code data} is {@code bytea}, not a large object, so deleting the row also frees its storage. It holds
+ * the content encoded with {@code codec}; {@code size} is always the size of the original content.</p>
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@Table(name = "document_blobs", uniqueConstraints =
+        @UniqueConstraint(name = "uk_document_blobs_sha256", columnNames = "sha256"))
+public class DocumentBlob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "sha256", nullable = false, length = 64)
+    private String sha256; // hex
+
+    @Column(name = "size", nullable = false)
+    private long size; // original, before encoding
+
+    @Enumerated(EnumType.STRING)
+    @ColumnDefault("'NONE'")
+    @Column(name = "codec", nullable = false, length = 16)
+    private BlobCodec codec;
+
+    @Column(name = "ref_count", nullable = false)
+    private int refCount;
+
+    @ToString.Exclude
+    @Column(name = "data", nullable = false)
+    private byte[] data;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+}
@@ -0,0 +1,34 @@
+package com.ams.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * A reference to a {@link DocumentBlob} that a deleted document no longer holds.
+ * <p>
+ * Deleting documents only queues one row per released reference, in the same statement as the delete;
+ * {@code DocumentBlobSweeper} later decrements the reference counts and deletes the blobs that are no
+ * longer used. Until then a blob's {@code refCount} may be higher than the number of documents using it,
+ * never lower.
+ * </p>
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@Table(name = "document_blob_releases")
+public class DocumentBlobRelease {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "blob_id", nullable = false)
+    private Long blobId;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+}
@@ -0,0 +1,70 @@
+package com.ams.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.springframework.data.domain.Persistable;
+
+import java.time.Instant;
+
+/**
+ * The raw bytes of an upload that has been acknowledged but not ingested yet.
+ * <p>
+ * Written in the upload transaction together with its {@link Documents} row, so an acknowledged upload is
+ * durable; {@code DocumentIngestionService} turns it into a blob and deletes it. {@code claimedAt} marks the
+ * row as taken by a worker, and a claim older than the stale timeout is taken over after a crash.
+ * </p>
+ * <p>
+ * The id is the document's, so the entity reports itself as new until it is stored or loaded; otherwise
+ * {@code save} would look the row up before every insert and uploads could not be batched.
+ * </p>
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@Table(name = "document_staging", indexes =
+        @Index(name = "idx_document_staging_claim", columnList = "claimed_at, staged_at"))
+public class DocumentStaging implements Persistable<Long> {
+
+    @Id
+    @Column(name = "document_id")
+    private Long documentId;
+
+    @ToString.Exclude
+    @Column(name = "data", nullable = false)
+    private byte[] data;
+
+    @Column(name = "requested_status")
+    private String requestedStatus; // becomes Documents.status once ingested
+
+    @Column(name = "staged_at", nullable = false)
+    private Instant stagedAt;
+
+    @Column(name = "claimed_at")
+    private Instant claimedAt;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Transient
+    @ToString.Exclude
+    private boolean stored;
+
+    @Override
+    public Long getId() {
+        return documentId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return !stored;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markStored() {
+        stored = true;
+    }
+
+}
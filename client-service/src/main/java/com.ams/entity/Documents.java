@@ -3,6 +3,8 @@ package com.ams.entity;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 
 import java.time.LocalDate;
 
@@ -19,16 +21,30 @@ public class Documents {
     @Column(name = "document_name")
     public String documentName;
 
+    // only set on documents uploaded before content was deduplicated into blobs; while a new upload is
+    // being ingested its content is in DocumentStaging and blob is still null
     @Lob
     @Basic(fetch = FetchType.LAZY)
     @Column(name = "file_data")
     public byte[] fileData;
 
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "blob_id")
+    public DocumentBlob blob;
+
     @Column(name = "client_id")
     public String clientId;
 
     @Column(name = "status")
-    public String status;
+    public String status; // STAGED / PROCESSING / FAILED during ingestion, then the status given on upload
+
+    @Column(name = "content_type")
+    public String contentType;
+
+    @Column(name = "size_bytes")
+    public Long sizeBytes;
 
     @Column(name = "uploadedAt")
     public LocalDate uploadedAt;
@@ -0,0 +1,65 @@
+package com.ams.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.time.Instant;
+
+/**
+ * Represents a single change record in the transactional outbox.
+ * <p>
+ * A row is written in the same transaction as the client or document mutation it describes,
+ * so a change is never visible without its event (and vice versa). The {@code OutboxRelay}
+ * later publishes unpublished rows and stamps {@code publishedAt}.
+ * </p>
+ *
+ * <p>
+ * {@code id} is drawn when the row is inserted, not when it commits, so a transaction that commits late can
+ * leave a lower id behind ids that are already visible. Readers therefore order events by
+ * {@code (txId, id)} and only take events whose transaction is older than every transaction still running
+ * ({@code pg_snapshot_xmin}). Every event that becomes visible later sorts after them, so a position in that
+ * order never has to be revisited.
+ * </p>
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@Table(name = "outbox_events", indexes = {
+        @Index(name = "idx_outbox_accountant", columnList = "accountant_name, id"),
+        @Index(name = "idx_outbox_client", columnList = "client_id, id")
+})
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /** The inserting transaction's id, filled in by Postgres. */
+    @ColumnDefault("(pg_current_xact_id()::text::bigint)")
+    @Column(name = "tx_id", nullable = false, insertable = false, updatable = false)
+    private Long txId;
+
+    @Column(name = "aggregate_type", nullable = false, length = 32)
+    private String aggregateType; // CLIENT / DOCUMENT
+
+    @Column(name = "aggregate_id", nullable = false)
+    private String aggregateId;
+
+    @Column(name = "event_type", nullable = false, length = 32)
+    private String eventType; // CREATED / UPDATED / DELETED
+
+    @Column(name = "client_id")
+    private String clientId;
+
+    @Column(name = "accountant_name")
+    private String accountantName;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "published_at")
+    private Instant publishedAt;
+
+}
@@ -0,0 +1,32 @@
+package com.ams.events;
+
+import java.time.Instant;
+
+/**
+ * {@code ChangeEvent} is the immutable form of an outbox row as it is handed to {@link ChangeEventSink}s.
+ *
+ * @param sequence       the outbox id; increasing within one transaction, but not across transactions, since
+ *                       ids are drawn at insert time. Events are delivered ordered by their transaction first.
+ * @param aggregateType  {@code CLIENT} or {@code DOCUMENT}
+ * @param aggregateId    the client tax ID or the document identifier
+ * @param eventType      {@code CREATED}, {@code UPDATED} or {@code DELETED}
+ * @param clientId       the owning client's tax ID (equal to {@code aggregateId} for clients)
+ * @param accountantName the accountant that owns the client, if known
+ * @param occurredAt     the time the change was recorded
+ */
+public record ChangeEvent(
+        long sequence,
+        String aggregateType,
+        String aggregateId,
+        String eventType,
+        String clientId,
+        String accountantName,
+        Instant occurredAt) {
+
+    public static final String CLIENT = "CLIENT";
+    public static final String DOCUMENT = "DOCUMENT";
+
+    public static final String CREATED = "CREATED";
+    public static final String UPDATED = "UPDATED";
+    public static final String DELETED = "DELETED";
+}
@@ -0,0 +1,22 @@
+package com.ams.events;
+
+import java.util.List;
+
+/**
+ * A destination for batches of {@link ChangeEvent}s published by the outbox relay.
+ * <p>
+ * Batches are delivered in commit-safe order: by the recording transaction, then by sequence within it
+ * (see {@code OutboxRelay}). Delivery is at-least-once: if {@link #publish(List)}
+ * throws, the whole batch is retried on the next relay run, so implementations must tolerate
+ * seeing the same sequence more than once.
+ * </p>
+ */
+public interface ChangeEventSink {
+
+    /**
+     * Publishes a batch of events, in order.
+     *
+     * @param events the events to publish, in delivery order
+     */
+    void publish(List<ChangeEvent> events);
+}
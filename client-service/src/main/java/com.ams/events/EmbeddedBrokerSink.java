@@ -0,0 +1,65 @@
+package com.ams.events;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code EmbeddedBrokerSink} is an in-memory stand-in for an external message broker.
+ * <p>
+ * Each {@link #subscribe()} call returns a dedicated queue that receives every event published after
+ * the subscription, in order. It is meant for tests and local runs where no real broker is available,
+ * and is enabled with {@code outbox.sinks.embedded-broker.enabled=true}.
+ * </p>
+ */
+@Component
+@ConditionalOnProperty(prefix = "outbox.sinks.embedded-broker", name = "enabled", havingValue = "true")
+public class EmbeddedBrokerSink implements ChangeEventSink {
+
+    private final List<BlockingQueue<ChangeEvent>> subscribers = new CopyOnWriteArrayList<>();
+
+    /**
+     * Registers a new subscriber.
+     *
+     * @return a queue that receives all events published from now on
+     */
+    public BlockingQueue<ChangeEvent> subscribe() {
+        BlockingQueue<ChangeEvent> queue = new LinkedBlockingQueue<>();
+        subscribers.add(queue);
+        return queue;
+    }
+
+    /**
+     * Removes a subscriber previously returned by {@link #subscribe()}.
+     *
+     * @param queue the subscriber queue
+     */
+    public void unsubscribe(BlockingQueue<ChangeEvent> queue) {
+        subscribers.remove(queue);
+    }
+
+    /**
+     * Waits for the next event on a subscriber queue.
+     *
+     * @param queue   the subscriber queue
+     * @param timeout how long to wait
+     * @return the next event, or {@code null} if none arrived in time
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public ChangeEvent poll(BlockingQueue<ChangeEvent> queue, Duration timeout) throws InterruptedException {
+        return queue.poll(timeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void publish(List<ChangeEvent> events) {
+        for (BlockingQueue<ChangeEvent> subscriber : subscribers) {
+            subscriber.addAll(events);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.ams.events;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * {@code InProcessEventSink} republishes each {@link ChangeEvent} as a Spring application event,
+ * so in-process consumers (caches, counters, indexes) can subscribe with {@code @EventListener}.
+ * <p>
+ * Listeners run synchronously on the relay thread; an exception from a listener fails the batch
+ * and causes it to be redelivered.
+ * </p>
+ *
+ * <p>
+ * Only one relay publishes each batch, so with several client-service instances a listener sees just the
+ * batches its own instance's relay happened to publish. Listeners that keep per-instance state must not
+ * rely on seeing every event.
+ * </p>
+ */
+@Component
+public class InProcessEventSink implements ChangeEventSink {
+
+    private final ApplicationEventPublisher publisher;
+
+    public InProcessEventSink(ApplicationEventPublisher publisher) {
+        this.publisher = publisher;
+    }
+
+    @Override
+    public void publish(List<ChangeEvent> events) {
+        for (ChangeEvent event : events) {
+            publisher.publishEvent(event);
+        }
+    }
+}
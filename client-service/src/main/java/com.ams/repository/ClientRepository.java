@@ -1,11 +1,15 @@
 package com.ams.repository;
 
 
+import com.ams.dtos.clientDto.ClientGridDto;
 import com.ams.entity.ClientDetails;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -23,12 +27,13 @@ import java.util.Optional;
  *   <li>{@link #findByEmail(String)} – find a client by email</li>
  *   <li>{@link #findByClientId(String)} – find a client by tax ID</li>
  *   <li>{@link #getAllByAccountantName(String)} – retrieve clients for a given accountant</li>
+ *   <li>{@link #patchClient(String, String, long, java.util.Map)} – single-statement partial update</li>
  * </ul>
  *
  * @author Yosef
  */
 @Repository
-public interface ClientRepository extends JpaRepository<ClientDetails,Long> {
+public interface ClientRepository extends JpaRepository<ClientDetails,Long>, ClientRepositoryCustom {
 
     /**
      * Finds a client entity by their email address.
@@ -47,11 +52,64 @@ public interface ClientRepository extends JpaRepository<ClientDetails,Long> {
     boolean existsByEmail(String email);
     boolean existsByBankAccountNumber(String bankAccountNumber);
     /**
-     * Deletes a client by their unique client ID (tax ID).
+     * Turns a client into a tombstone with a single statement.
      *
-     * @param clientId the client's tax ID
+     * @param clientId  the client's tax ID
+     * @param deletedAt the deletion time
+     * @return the accountant of every tombstoned row; empty if there was no such client
+     */
+    @Query(value = "UPDATE client_details SET deleted = true, deleted_at = :deletedAt " +
+            "WHERE client_id = :clientId AND NOT deleted RETURNING accountant_name", nativeQuery = true)
+    List<String> softDeleteByClientId(@Param("clientId") String clientId, @Param("deletedAt") Instant deletedAt);
+
+    /**
+     * Brings back an accountant's client deleted at or after {@code deletedSince}.
+     *
+     * @param clientId       the client's tax ID
+     * @param accountantName the username of the accountant
+     * @param deletedSince   the start of the restore window
+     * @return the ids of the restored rows; empty if nothing could be restored
+     */
+    @Query(value = "UPDATE client_details SET deleted = false, deleted_at = NULL " +
+            "WHERE client_id = :clientId AND accountant_name = :accountantName AND deleted " +
+            "AND deleted_at >= :deletedSince RETURNING id", nativeQuery = true)
+    List<Long> restore(@Param("clientId") String clientId, @Param("accountantName") String accountantName,
+                       @Param("deletedSince") Instant deletedSince);
+
+    /**
+     * Checks if a client or a tombstone holds the tax ID. Documents are keyed by tax ID, so it cannot be
+     * reused before the tombstone is purged.
+     *
+     * @param clientId the tax ID to check
+     * @return {@code true} if the tax ID is taken
+     */
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM client_details WHERE client_id = :clientId)", nativeQuery = true)
+    boolean existsIncludingDeletedByClientId(@Param("clientId") String clientId);
+
+    /**
+     * Finds tombstones whose restore window has passed, oldest first.
+     *
+     * @param deletedBefore the end of the restore window
+     * @param limit         the maximum number of tombstones
+     * @return the tombstones
+     */
+    @Query(value = "SELECT id AS id, client_id AS \"clientId\" FROM client_details " +
+            "WHERE deleted AND deleted_at < :deletedBefore ORDER BY deleted_at LIMIT :limit", nativeQuery = true)
+    List<Tombstone> findExpiredTombstones(@Param("deletedBefore") Instant deletedBefore, @Param("limit") int limit);
+
+    @Query(value = "SELECT count(*) FROM client_details WHERE deleted AND deleted_at < :deletedBefore",
+            nativeQuery = true)
+    long countExpiredTombstones(@Param("deletedBefore") Instant deletedBefore);
+
+    /**
+     * Removes a tombstone for good.
+     *
+     * @param id the row id
+     * @return the number of deleted rows (0 or 1)
      */
-    void deleteByClientId(String clientId);
+    @Modifying
+    @Query(value = "DELETE FROM client_details WHERE id = :id AND deleted", nativeQuery = true)
+    int purgeTombstone(@Param("id") Long id);
 
     /**
      * Finds a client entity by their tax ID.
@@ -77,5 +135,42 @@ public interface ClientRepository extends JpaRepository<ClientDetails,Long> {
     @Query("SELECT c FROM ClientDetails c WHERE c.accountantName = :accountantName")
     List<ClientDetails> getAllByAccountantName(@Param("accountantName") String accountantName);
 
+    /**
+     * Retrieves the clients with the given tax IDs that belong to a specific accountant.
+     *
+     * @param clientIds      the tax IDs to load
+     * @param accountantName the username of the accountant
+     * @return the matching clients
+     */
+    List<ClientDetails> findAllByClientIdInAndAccountantName(Collection<String> clientIds, String accountantName);
+
+    /**
+     * Reads only the row version of an accountant's client.
+     *
+     * @param clientId       the client's tax ID
+     * @param accountantName the username of the accountant
+     * @return the version, or {@code null} if no such client exists
+     */
+    @Query("SELECT c.version FROM ClientDetails c WHERE c.clientId = :clientId AND c.accountantName = :accountantName")
+    Long findVersionByClientIdAndAccountantName(@Param("clientId") String clientId,
+                                                @Param("accountantName") String accountantName);
+
+    /**
+     * Reads only the grid columns of all clients of an accountant.
+     *
+     * @param accountantName the username of the accountant
+     * @return one {@link ClientGridDto} per client
+     */
+    @Query("SELECT new com.ams.dtos.clientDto.ClientGridDto(c.businessName, c.clientId, c.email, c.phone) " +
+            "FROM ClientDetails c WHERE c.accountantName = :accountantName")
+    List<ClientGridDto> findGridRowsByAccountantName(@Param("accountantName") String accountantName);
 
+    /**
+     * Closed projection of a deleted client waiting to be purged. Native aliases must be quoted, Postgres
+     * folds unquoted ones to lower case and the projection would read {@code null}.
+     */
+    interface Tombstone {
+        Long getId();
+        String getClientId();
+    }
 }
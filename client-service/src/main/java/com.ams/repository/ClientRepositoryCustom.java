@@ -0,0 +1,47 @@
+package com.ams.repository;
+
+import com.ams.dtos.clientDto.ClientGridDto;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Custom persistence operations for {@link com.ams.entity.ClientDetails} that cannot be expressed
+ * as derived or annotated queries.
+ *
+ * @author Yosef Nago
+ */
+public interface ClientRepositoryCustom {
+
+    /**
+     * Applies a partial update in a single {@code UPDATE} statement.
+     * <p>
+     * Only the given columns are written and the row version is incremented. The row is matched on
+     * client ID, owning accountant and expected version, and only if at least one column actually differs,
+     * so an unchanged or concurrently modified row is left untouched.
+     * </p>
+     *
+     * @param clientId        the client's tax ID
+     * @param accountantName  the accountant that owns the client
+     * @param expectedVersion the version the caller last read
+     * @param changes         entity attribute name to new value; must only contain patchable attributes
+     * @return the number of updated rows (0 or 1)
+     */
+    int patchClient(String clientId, String accountantName, long expectedVersion, Map<String, Object> changes);
+
+    /**
+     * Searches an accountant's clients by business name, tax ID, e-mail and phone.
+     * <p>
+     * A client matches when every typed word is a prefix of one of its words, or, for input of at least
+     * three characters, when the text occurs anywhere in it or is a close (trigram) match, which tolerates
+     * typos. An exact tax ID comes first, then the best matches. Only the grid columns are read.
+     * </p>
+     *
+     * @param accountantName the accountant that owns the clients
+     * @param text           the search text as typed
+     * @param limit          the maximum number of rows
+     * @param offset         the number of rows to skip
+     * @return the matching clients; empty if the text contains no letters or digits
+     */
+    List<ClientGridDto> searchClients(String accountantName, String text, int limit, int offset);
+}
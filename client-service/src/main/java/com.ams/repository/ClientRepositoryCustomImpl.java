@@ -0,0 +1,111 @@
+package com.ams.repository;
+
+import com.ams.dtos.clientDto.ClientGridDto;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * JPA implementation of {@link ClientRepositoryCustom}.
+ *
+ * @author Yosef Nago
+ */
+public class ClientRepositoryCustomImpl implements ClientRepositoryCustom {
+
+    /**
+     * Attributes that may be written by {@link #patchClient}. Attribute names are interpolated into JPQL,
+     * so anything outside this set is rejected.
+     */
+    static final Set<String> PATCHABLE_ATTRIBUTES = Set.of(
+            "businessName", "email", "phone", "address", "zip",
+            "businessType", "bankName", "bankBranch", "bankAccountNumber");
+
+    /**
+     * Prefix matches use {@code search_vector}, substring and typo-tolerant matches {@code search_text};
+     * both columns and their indexes are created by {@code db/client-search.sql}.
+     */
+    private static final String SEARCH_SQL = """
+            SELECT c.business_name, c.client_id, c.email, c.phone
+            FROM client_details c
+            WHERE c.accountant_name = :accountant
+              AND NOT c.deleted
+              AND (c.search_vector @@ to_tsquery('simple', :prefixQuery)%s)
+            ORDER BY c.client_id = :term DESC,
+                     %s DESC,
+                     c.business_name, c.id
+            LIMIT :limit OFFSET :offset
+            """;
+
+    private static final String FUZZY_CONDITION =
+            " OR c.search_text LIKE :contains OR :term <% c.search_text";
+
+    private static final String PREFIX_RANK = "ts_rank(c.search_vector, to_tsquery('simple', :prefixQuery))";
+
+    private static final String FUZZY_RANK = "greatest(" + PREFIX_RANK + ", word_similarity(:term, c.search_text))";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public int patchClient(String clientId, String accountantName, long expectedVersion, Map<String, Object> changes) {
+        if (changes.isEmpty()) {
+            return 0;
+        }
+
+        StringBuilder set = new StringBuilder();
+        StringBuilder differs = new StringBuilder();
+        for (String attribute : changes.keySet()) {
+            if (!PATCHABLE_ATTRIBUTES.contains(attribute)) {
+                throw new IllegalArgumentException("Attribute is not patchable: " + attribute);
+            }
+            set.append("c.").append(attribute).append(" = :").append(attribute).append(", ");
+            if (!differs.isEmpty()) {
+                differs.append(" OR ");
+            }
+            differs.append("c.").append(attribute).append(" IS NULL OR c.")
+                    .append(attribute).append(" <> :").append(attribute);
+        }
+
+        String jpql = "UPDATE ClientDetails c SET " + set + "c.version = c.version + 1"
+                + " WHERE c.clientId = :clientId AND c.accountantName = :accountantName AND c.deleted = false"
+                + " AND c.version = :expectedVersion AND (" + differs + ")";
+
+        Query query = entityManager.createQuery(jpql)
+                .setParameter("clientId", clientId)
+                .setParameter("accountantName", accountantName)
+                .setParameter("expectedVersion", expectedVersion);
+        changes.forEach(query::setParameter);
+        return query.executeUpdate();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<ClientGridDto> searchClients(String accountantName, String text, int limit, int offset) {
+        ClientSearchQuery search = ClientSearchQuery.parse(text);
+        if (search == null) {
+            return List.of();
+        }
+
+        String sql = search.fuzzy()
+                ? SEARCH_SQL.formatted(FUZZY_CONDITION, FUZZY_RANK)
+                : SEARCH_SQL.formatted("", PREFIX_RANK);
+        Query query = entityManager.createNativeQuery(sql)
+                .setParameter("accountant", accountantName)
+                .setParameter("prefixQuery", search.prefixQuery())
+                .setParameter("term", search.term())
+                .setParameter("limit", limit)
+                .setParameter("offset", offset);
+        if (search.fuzzy()) {
+            query.setParameter("contains", search.containsPattern());
+        }
+
+        List<Object[]> rows = query.getResultList();
+        return rows.stream()
+                .map(row -> new ClientGridDto((String) row[0], (String) row[1], (String) row[2], (String) row[3]))
+                .toList();
+    }
+}
@@ -0,0 +1,47 @@
+package com.ams.repository;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * {@code ClientSearchQuery} turns the text typed into the client search box into the terms used by
+ * {@link ClientRepositoryCustom#searchClients}.
+ *
+ * <ul>
+ *     <li>{@code prefixQuery}: a {@code tsquery} requiring every word as a prefix, e.g. {@code כהן:* & 052:*}</li>
+ *     <li>{@code term}: the lower-cased text for fuzzy (trigram) matching and ranking. Text made only of digits
+ *     and phone separators is reduced to its digits, so {@code 052-123} finds the phone {@code 0521234567}.</li>
+ *     <li>{@code fuzzy}: whether substring and trigram matching apply; trigrams need at least three
+ *     characters, shorter input only matches by prefix</li>
+ * </ul>
+ *
+ * @author Yosef Nago
+ */
+record ClientSearchQuery(String prefixQuery, String term, boolean fuzzy) {
+
+    static final int MIN_FUZZY_LENGTH = 3;
+
+    /**
+     * @return the parsed query, or {@code null} if the text contains no letters or digits
+     */
+    static ClientSearchQuery parse(String text) {
+        String trimmed = text == null ? "" : text.strip().toLowerCase(Locale.ROOT);
+        String[] words = Arrays.stream(trimmed.split("[^\\p{L}\\p{N}]+"))
+                .filter(word -> !word.isEmpty())
+                .toArray(String[]::new);
+        if (words.length == 0) {
+            return null;
+        }
+        String term = trimmed.matches("[\\d\\s\\-()+]+") ? trimmed.replaceAll("\\D", "") : trimmed;
+        String prefixQuery = Arrays.stream(words).map(word -> word + ":*").collect(Collectors.joining(" & "));
+        return new ClientSearchQuery(prefixQuery, term, term.length() >= MIN_FUZZY_LENGTH);
+    }
+
+    /**
+     * @return {@link #term} as a {@code LIKE} pattern matching it anywhere, with wildcards escaped
+     */
+    String containsPattern() {
+        return "%" + term.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+    }
+}
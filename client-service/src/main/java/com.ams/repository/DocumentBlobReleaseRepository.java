@@ -0,0 +1,32 @@
+package com.ams.repository;
+
+import com.ams.entity.DocumentBlobRelease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Blob references waiting to be released by {@code DocumentBlobSweeper}.
+ *
+ * @author Yosef Nago
+ */
+@Repository
+public interface DocumentBlobReleaseRepository extends JpaRepository<DocumentBlobRelease, Long> {
+
+    /**
+     * Removes the oldest queued releases and returns their blobs. Rows another sweeper holds are skipped,
+     * so several instances can sweep at once.
+     *
+     * @param limit the maximum number of releases to take
+     * @return the blob id of every taken release, one entry per release
+     */
+    @Query(value = """
+            DELETE FROM document_blob_releases WHERE id IN (
+                SELECT id FROM document_blob_releases ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED)
+            RETURNING blob_id
+            """, nativeQuery = true)
+    List<Long> take(@Param("limit") int limit);
+}
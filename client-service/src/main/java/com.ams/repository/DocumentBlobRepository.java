@@ -0,0 +1,80 @@
+package com.ams.repository;
+
+import com.ams.entity.DocumentBlob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * Reference-counted storage of {@link DocumentBlob}s.
+ * <p>
+ * Reference counts are only changed by single-row {@code UPDATE}/{@code INSERT ... ON CONFLICT} statements,
+ * which lock the blob row until the transaction ends. A release that drops the last reference and an
+ * upload of the same content therefore serialize: the upload either increments the surviving row, or finds
+ * it deleted and inserts a new one.
+ * </p>
+ *
+ * @author Yosef Nago
+ */
+@Repository
+public interface DocumentBlobRepository extends JpaRepository<DocumentBlob, Long> {
+
+    /**
+     * Adds a reference to an existing blob, without sending its content to the database.
+     *
+     * @param sha256 the hex SHA-256 of the content
+     * @return the blob id, or empty if no blob has this hash
+     */
+    @Query(value = "UPDATE document_blobs SET ref_count = ref_count + 1 WHERE sha256 = :sha256 RETURNING id",
+            nativeQuery = true)
+    Optional<Long> acquireExisting(@Param("sha256") String sha256);
+
+    /**
+     * Stores new content with one reference, or adds a reference if a concurrent upload stored it first.
+     *
+     * @param sha256 the hex SHA-256 of the original content
+     * @param size   the size of the original content
+     * @param codec  the name of the {@link com.ams.storage.BlobCodec} {@code data} is encoded with
+     * @param data   the encoded content
+     * @return the blob id
+     */
+    @Query(value = """
+            INSERT INTO document_blobs (sha256, size, codec, data, ref_count, created_at)
+            VALUES (:sha256, :size, :codec, :data, 1, now())
+            ON CONFLICT (sha256) DO UPDATE SET ref_count = document_blobs.ref_count + 1
+            RETURNING id
+            """, nativeQuery = true)
+    Long acquireNew(@Param("sha256") String sha256, @Param("size") long size, @Param("codec") String codec,
+                    @Param("data") byte[] data);
+
+    /**
+     * Drops references.
+     *
+     * @param id    the blob id
+     * @param count the number of references to drop
+     * @return the number of updated rows (0 or 1)
+     */
+    @Modifying
+    @Query(value = "UPDATE document_blobs SET ref_count = ref_count - :count WHERE id = :id", nativeQuery = true)
+    int release(@Param("id") long id, @Param("count") int count);
+
+    /**
+     * Deletes the blob if nothing refers to it any more.
+     *
+     * @return the number of deleted rows (0 or 1)
+     */
+    @Modifying
+    @Query(value = "DELETE FROM document_blobs WHERE id = :id AND ref_count <= 0", nativeQuery = true)
+    int deleteIfUnreferenced(@Param("id") long id);
+
+    /**
+     * @return the bytes not stored thanks to deduplication: every reference beyond the first of each blob
+     */
+    @Query(value = "SELECT coalesce(sum(size * (ref_count - 1)), 0) FROM document_blobs WHERE ref_count > 1",
+            nativeQuery = true)
+    long savedBytes();
+}
@@ -0,0 +1,51 @@
+package com.ams.repository;
+
+import com.ams.dtos.documentDto.DocumentGrid;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * {@code DocumentCursor} marks the last document of a page, so the next page starts right after it
+ * (keyset pagination) instead of skipping an ever-growing offset.
+ * <p>
+ * It is handed to clients as an opaque URL-safe string. The sort is part of the cursor, so a cursor can
+ * not be replayed against a different order.
+ * </p>
+ *
+ * @param sort       the order the page was read in
+ * @param descending whether the order was descending
+ * @param value      the last document's value of the sort column
+ * @param id         the last document's id
+ *
+ * @author Yosef Nago
+ */
+public record DocumentCursor(DocumentSort sort, boolean descending, String value, long id) {
+
+    /**
+     * @return the cursor that continues after {@code last}
+     */
+    public static DocumentCursor after(DocumentGrid last, DocumentSort sort, boolean descending) {
+        return new DocumentCursor(sort, descending, sort.valueOf(last), last.id());
+    }
+
+    public String encode() {
+        String raw = sort.name() + ':' + (descending ? 'd' : 'a') + ':' + id + ':' + value;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the text is not a cursor
+     */
+    public static DocumentCursor decode(String encoded) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(encoded), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":", 4);
+            DocumentSort sort = DocumentSort.valueOf(parts[0]);
+            sort.parse(parts[3]);
+            return new DocumentCursor(sort, "d".equals(parts[1]), parts[3], Long.parseLong(parts[2]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid document cursor", e);
+        }
+    }
+}
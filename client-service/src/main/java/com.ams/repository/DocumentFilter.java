@@ -0,0 +1,38 @@
+package com.ams.repository;
+
+import java.time.LocalDate;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * {@code DocumentFilter} selects a client's documents for {@link DocumentRepositoryCustom#searchDocuments}.
+ * Every criterion except the client is optional ({@code null} or empty) and all given criteria must hold.
+ *
+ * @param clientId     the owning client's tax ID
+ * @param statuses     the accepted statuses
+ * @param uploadedFrom the first upload date, inclusive
+ * @param uploadedTo   the last upload date, inclusive
+ * @param nameContains text the document name must contain, ignoring case
+ *
+ * @author Yosef Nago
+ */
+public record DocumentFilter(String clientId, Set<String> statuses, LocalDate uploadedFrom, LocalDate uploadedTo,
+                             String nameContains) {
+
+    public DocumentFilter {
+        statuses = statuses == null ? Set.of() : Set.copyOf(statuses);
+        nameContains = nameContains == null || nameContains.isBlank() ? null : nameContains.strip();
+    }
+
+    /**
+     * @return {@link #nameContains} lower-cased as a {@code LIKE} pattern, wildcards escaped; {@code null} if unset
+     */
+    String namePattern() {
+        if (nameContains == null) {
+            return null;
+        }
+        String escaped = nameContains.toLowerCase(Locale.ROOT)
+                .replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+        return "%" + escaped + "%";
+    }
+}
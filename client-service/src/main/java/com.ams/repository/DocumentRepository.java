@@ -2,28 +2,123 @@ package com.ams.repository;
 
 import com.ams.dtos.documentDto.DocumentGrid;
 import com.ams.entity.Documents;
+import com.ams.storage.BlobCodec;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface DocumentRepository extends JpaRepository<Documents, Long> {
+public interface DocumentRepository extends JpaRepository<Documents, Long>, DocumentRepositoryCustom {
 
     List<Documents> findAllByClientId(String clientId);
 
     List<Documents> findAllByStatus(String status);
     @Query("SELECT new com.ams.dtos.documentDto.DocumentGrid" +
-            "(d.documentName, d.clientId, d.uploadedAt, d.status)" +
+            "(d.id, d.documentName, d.clientId, d.uploadedAt, d.status)" +
             " FROM Documents d " +
             "WHERE d.clientId = :clientId")
     List<DocumentGrid> findAllGridByClientId(@Param("clientId") String clientId);
 
-    @Modifying
-    @Query("DELETE FROM Documents d WHERE d.documentName = :documentName")
-    void deleteByDocumentName(@Param("documentName") String documentName);
+    @Query("SELECT new com.ams.dtos.documentDto.DocumentGrid" +
+            "(d.id, d.documentName, d.clientId, d.uploadedAt, d.status)" +
+            " FROM Documents d " +
+            "WHERE d.id IN :ids")
+    List<DocumentGrid> findAllGridByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Loads the id and owning client of every document with the given name, without touching the file data.
+     *
+     * @param documentName the document name
+     * @return lightweight keys of the matching documents
+     */
+    @Query("SELECT d.id AS id, d.clientId AS clientId FROM Documents d WHERE d.documentName = :documentName")
+    List<DocumentKey> findKeysByDocumentName(@Param("documentName") String documentName);
+
+    /**
+     * Reads the ids of a client's documents, lowest first.
+     *
+     * @param clientId the owning client's tax ID
+     * @param page     the number of ids to read
+     * @return the ids
+     */
+    @Query("SELECT d.id FROM Documents d WHERE d.clientId = :clientId ORDER BY d.id")
+    List<Long> findIdsByClientId(@Param("clientId") String clientId, Pageable page);
+
+    /**
+     * Loads the stored content of a client's document.
+     *
+     * @param id       the document id
+     * @param clientId the owning client's tax ID
+     * @return the content, or empty if the client has no such document
+     */
+    @Query("SELECT d.documentName AS documentName, b.codec AS codec, b.data AS data, d.fileData AS legacyData " +
+            "FROM Documents d LEFT JOIN d.blob b WHERE d.id = :id AND d.clientId = :clientId")
+    Optional<StoredContent> findStoredContent(@Param("id") Long id, @Param("clientId") String clientId);
+
+    /**
+     * Loads a document and locks its row until the transaction ends. Ingestion and deletion both lock the
+     * document first, so a document is never deleted halfway through being ingested.
+     *
+     * @param id the document id
+     * @return the document, or empty if it was deleted
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT d FROM Documents d WHERE d.id = :id")
+    Optional<Documents> findForUpdate(@Param("id") Long id);
+
+    /**
+     * Deletes documents of one client with a single statement. The rows are locked in id order first, the
+     * staged content of documents still being ingested is deleted with them, and a
+     * {@link com.ams.entity.DocumentBlobRelease} is queued for every blob reference they held.
+     * <p>
+     * A document that is being ingested is deleted after its ingestion commits, so its new blob reference
+     * is released too.
+     * </p>
+     *
+     * @param clientId the owning client's tax ID; documents of other clients are left alone
+     * @param ids      the document ids
+     * @return the ids of the deleted documents
+     */
+    @Query(value = """
+            WITH locked AS (
+                SELECT id FROM documents WHERE client_id = :clientId AND id IN (:ids) ORDER BY id FOR UPDATE
+            ), deleted AS (
+                DELETE FROM documents d USING locked l WHERE d.id = l.id RETURNING d.id, d.blob_id
+            ), unstaged AS (
+                DELETE FROM document_staging s USING deleted x WHERE s.document_id = x.id
+            ), released AS (
+                INSERT INTO document_blob_releases (blob_id, created_at)
+                SELECT blob_id, now() FROM deleted WHERE blob_id IS NOT NULL
+            )
+            SELECT id FROM deleted
+            """, nativeQuery = true)
+    List<Long> deleteByClientIdAndIdIn(@Param("clientId") String clientId, @Param("ids") Collection<Long> ids);
+
+    /**
+     * Closed projection exposing only the identity of a document.
+     */
+    interface DocumentKey {
+        Long getId();
+        String getClientId();
+    }
+
+    /**
+     * Closed projection of a document's stored bytes: {@code data} encoded with {@code codec}, or
+     * {@code legacyData} for documents uploaded before blobs existed.
+     */
+    interface StoredContent {
+        String getDocumentName();
+        BlobCodec getCodec();
+        byte[] getData();
+        byte[] getLegacyData();
+    }
 }
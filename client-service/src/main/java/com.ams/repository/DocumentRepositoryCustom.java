@@ -0,0 +1,40 @@
+package com.ams.repository;
+
+import com.ams.dtos.documentDto.DocumentGrid;
+
+import java.util.List;
+
+/**
+ * Custom persistence operations for {@link com.ams.entity.Documents} that cannot be expressed
+ * as derived or annotated queries.
+ *
+ * @author Yosef Nago
+ */
+public interface DocumentRepositoryCustom {
+
+    /**
+     * Reads one page of a client's documents, without touching the file data.
+     * <p>
+     * Pages are read by keyset: {@code after} is the last document of the previous page and the query seeks
+     * past it on the {@code (client_id, <sort column>, id)} index, so every page costs the same however deep
+     * it is. Created by {@code db/document-search.sql}.
+     * </p>
+     *
+     * @param filter     the documents to return
+     * @param sort       the order
+     * @param descending whether the order is descending
+     * @param after      the last document of the previous page, or {@code null} for the first page
+     * @param limit      the maximum number of rows
+     * @return the matching documents in order
+     */
+    List<DocumentGrid> searchDocuments(DocumentFilter filter, DocumentSort sort, boolean descending,
+                                       DocumentCursor after, int limit);
+
+    /**
+     * Counts all documents matching the filter.
+     *
+     * @param filter the documents to count
+     * @return the number of matching documents
+     */
+    long countDocuments(DocumentFilter filter);
+}
@@ -0,0 +1,103 @@
+package com.ams.repository;
+
+import com.ams.dtos.documentDto.DocumentGrid;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * JPA implementation of {@link DocumentRepositoryCustom}.
+ *
+ * @author Yosef Nago
+ */
+public class DocumentRepositoryCustomImpl implements DocumentRepositoryCustom {
+
+    private static final String SEARCH_SQL = """
+            SELECT d.id, d.document_name, d.client_id, d.uploaded_at, d.status
+            FROM documents d
+            WHERE %s
+            ORDER BY %s %s, d.id %s
+            LIMIT :limit
+            """;
+
+    private static final String COUNT_SQL = "SELECT count(*) FROM documents d WHERE %s";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<DocumentGrid> searchDocuments(DocumentFilter filter, DocumentSort sort, boolean descending,
+                                              DocumentCursor after, int limit) {
+        String direction = descending ? "DESC" : "ASC";
+        StringBuilder where = where(filter);
+        if (after != null) {
+            // row comparison, so Postgres seeks on the index instead of filtering from the start
+            where.append(" AND (").append(sort.column()).append(", d.id) ")
+                    .append(descending ? "<" : ">").append(" (:afterValue, :afterId)");
+        }
+
+        Query query = entityManager.createNativeQuery(
+                        SEARCH_SQL.formatted(where, sort.column(), direction, direction))
+                .setParameter("limit", limit);
+        bind(query, filter);
+        if (after != null) {
+            query.setParameter("afterValue", sort.parse(after.value()))
+                    .setParameter("afterId", after.id());
+        }
+
+        List<Object[]> rows = query.getResultList();
+        return rows.stream()
+                .map(row -> new DocumentGrid(((Number) row[0]).longValue(), (String) row[1], (String) row[2],
+                        toLocalDate(row[3]), (String) row[4]))
+                .toList();
+    }
+
+    @Override
+    public long countDocuments(DocumentFilter filter) {
+        Query query = entityManager.createNativeQuery(COUNT_SQL.formatted(where(filter)));
+        bind(query, filter);
+        return ((Number) query.getSingleResult()).longValue();
+    }
+
+    private static StringBuilder where(DocumentFilter filter) {
+        StringBuilder where = new StringBuilder("d.client_id = :clientId");
+        if (!filter.statuses().isEmpty()) {
+            where.append(" AND d.status IN (:statuses)");
+        }
+        if (filter.uploadedFrom() != null) {
+            where.append(" AND d.uploaded_at >= :uploadedFrom");
+        }
+        if (filter.uploadedTo() != null) {
+            where.append(" AND d.uploaded_at <= :uploadedTo");
+        }
+        if (filter.nameContains() != null) {
+            where.append(" AND lower(d.document_name) LIKE :namePattern");
+        }
+        return where;
+    }
+
+    private static void bind(Query query, DocumentFilter filter) {
+        query.setParameter("clientId", filter.clientId());
+        if (!filter.statuses().isEmpty()) {
+            query.setParameter("statuses", filter.statuses());
+        }
+        if (filter.uploadedFrom() != null) {
+            query.setParameter("uploadedFrom", filter.uploadedFrom());
+        }
+        if (filter.uploadedTo() != null) {
+            query.setParameter("uploadedTo", filter.uploadedTo());
+        }
+        if (filter.nameContains() != null) {
+            query.setParameter("namePattern", filter.namePattern());
+        }
+    }
+
+    private static LocalDate toLocalDate(Object value) {
+        return value instanceof Date date ? date.toLocalDate() : (LocalDate) value;
+    }
+}
@@ -0,0 +1,46 @@
+package com.ams.repository;
+
+import com.ams.dtos.documentDto.DocumentGrid;
+
+import java.time.LocalDate;
+import java.util.function.Function;
+
+/**
+ * The orders in which a client's documents can be listed. Each order is completed by the document id,
+ * which makes it total and lets {@link DocumentCursor} continue exactly after the last row of a page.
+ *
+ * @author Yosef Nago
+ */
+public enum DocumentSort {
+
+    UPLOADED_AT("d.uploaded_at", LocalDate::parse, document -> String.valueOf(document.uploadedAt())),
+    NAME("d.document_name", value -> value, DocumentGrid::fileName);
+
+    private final String column;
+    private final Function<String, Object> parser;
+    private final Function<DocumentGrid, String> extractor;
+
+    DocumentSort(String column, Function<String, Object> parser, Function<DocumentGrid, String> extractor) {
+        this.column = column;
+        this.parser = parser;
+        this.extractor = extractor;
+    }
+
+    String column() {
+        return column;
+    }
+
+    /**
+     * @return the cursor value as a query parameter of the column's type
+     */
+    Object parse(String value) {
+        return parser.apply(value);
+    }
+
+    /**
+     * @return the document's value of the sort column, as stored in a cursor
+     */
+    String valueOf(DocumentGrid document) {
+        return extractor.apply(document);
+    }
+}
@@ -0,0 +1,62 @@
+package com.ams.repository;
+
+import com.ams.entity.DocumentStaging;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Staged uploads waiting for ingestion.
+ *
+ * @author Yosef Nago
+ */
+@Repository
+public interface DocumentStagingRepository extends JpaRepository<DocumentStaging, Long> {
+
+    /**
+     * Claims a staged upload for one worker: succeeds if nobody holds it or the holder's claim went stale.
+     *
+     * @return the number of claimed rows (0 or 1)
+     */
+    @Modifying
+    @Query("UPDATE DocumentStaging s SET s.claimedAt = :now, s.attempts = s.attempts + 1 " +
+            "WHERE s.documentId = :documentId AND s.attempts < :maxAttempts " +
+            "AND (s.claimedAt IS NULL OR s.claimedAt < :staleBefore)")
+    int claim(@Param("documentId") Long documentId, @Param("now") Instant now,
+              @Param("staleBefore") Instant staleBefore, @Param("maxAttempts") int maxAttempts);
+
+    /**
+     * Finds uploads no worker holds, oldest first.
+     */
+    @Query("SELECT s.documentId FROM DocumentStaging s WHERE s.attempts < :maxAttempts " +
+            "AND (s.claimedAt IS NULL OR s.claimedAt < :staleBefore) ORDER BY s.stagedAt")
+    List<Long> findClaimable(@Param("staleBefore") Instant staleBefore, @Param("maxAttempts") int maxAttempts,
+                             Pageable page);
+
+    /**
+     * Finds claims that went stale on the last permitted attempt, e.g. because the instance died during it.
+     * {@link #claim} no longer accepts them, so nobody else would ever release them.
+     */
+    @Query("SELECT s.documentId FROM DocumentStaging s WHERE s.attempts >= :maxAttempts " +
+            "AND s.claimedAt < :staleBefore ORDER BY s.stagedAt")
+    List<Long> findAbandoned(@Param("staleBefore") Instant staleBefore, @Param("maxAttempts") int maxAttempts,
+                             Pageable page);
+
+    /**
+     * @return the staged bytes kept for documents whose ingestion failed for good
+     */
+    @Query(value = "SELECT coalesce(sum(octet_length(data)), 0) FROM document_staging " +
+            "WHERE attempts >= :maxAttempts AND claimed_at IS NULL", nativeQuery = true)
+    long failedBytes(@Param("maxAttempts") int maxAttempts);
+
+    @Modifying
+    @Query("DELETE FROM DocumentStaging s WHERE s.documentId IN :documentIds")
+    void deleteByDocumentIdIn(@Param("documentIds") Collection<Long> documentIds);
+}
@@ -0,0 +1,140 @@
+package com.ams.repository;
+
+import com.ams.entity.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * {@code OutboxEventRepository} is the JPA repository for {@link OutboxEvent} rows.
+ *
+ * @author Yosef Nago
+ */
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Takes the relay lock for the rest of the current transaction, so only one relay publishes at a time.
+     *
+     * @return {@code true} if the lock was taken, {@code false} if another relay holds it
+     */
+    @Query(value = "SELECT pg_try_advisory_xact_lock(hashtext('outbox_relay'))", nativeQuery = true)
+    boolean tryLockRelay();
+
+    /**
+     * Loads the next batch of unpublished events in commit-safe order.
+     * <p>
+     * Only events of transactions older than every running transaction are returned, so no event that is
+     * still uncommitted can later sort before them.
+     * </p>
+     *
+     * @param limit the batch size
+     * @return unpublished events ordered by transaction, then id
+     */
+    @Query(value = "SELECT * FROM outbox_events WHERE published_at IS NULL" +
+            " AND tx_id < pg_snapshot_xmin(pg_current_snapshot())::text::bigint" +
+            " ORDER BY tx_id, id LIMIT :limit", nativeQuery = true)
+    List<OutboxEvent> findPublishable(@Param("limit") int limit);
+
+    /**
+     * Loads the changes visible to an accountant after a position in the outbox, in commit-safe order.
+     * <p>
+     * An event is visible if it was recorded for the accountant directly (client events), or if it belongs
+     * to one of the accountant's current clients (document events). Like the relay, only events of
+     * transactions older than every running transaction are returned.
+     * </p>
+     *
+     * @param accountantName   the accountant's username
+     * @param sinceTxId        transaction id of the exclusive lower bound
+     * @param sinceId          event id of the exclusive lower bound
+     * @param includeDocuments whether document events are returned as well
+     * @param limit            the maximum number of events
+     * @return matching events ordered by transaction, then id
+     */
+    @Query(value = """
+            SELECT * FROM outbox_events e
+            WHERE (e.tx_id, e.id) > (:sinceTxId, :sinceId)
+              AND e.tx_id < pg_snapshot_xmin(pg_current_snapshot())::text::bigint
+              AND (:includeDocuments OR e.aggregate_type = 'CLIENT')
+              AND (e.accountant_name = :accountantName
+                   OR e.client_id IN (SELECT c.client_id FROM client_details c
+                                      WHERE c.accountant_name = :accountantName AND NOT c.deleted))
+            ORDER BY e.tx_id, e.id
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<OutboxEvent> findChangesForAccountant(@Param("accountantName") String accountantName,
+                                               @Param("sinceTxId") long sinceTxId,
+                                               @Param("sinceId") long sinceId,
+                                               @Param("includeDocuments") boolean includeDocuments,
+                                               @Param("limit") int limit);
+
+    /**
+     * Returns the position of the newest event whose transaction is older than every running transaction.
+     * Every event that becomes visible later sorts after it.
+     *
+     * @return the position, or {@code null} if there is no such event
+     */
+    @Query(value = "SELECT tx_id AS \"txId\", id AS id FROM outbox_events" +
+            " WHERE tx_id < pg_snapshot_xmin(pg_current_snapshot())::text::bigint" +
+            " ORDER BY tx_id DESC, id DESC LIMIT 1", nativeQuery = true)
+    Position findSettledPosition();
+
+    /**
+     * Returns the position of the oldest event kept. Retention never deletes it or anything after it.
+     *
+     * @return the position, or {@code null} if the outbox is empty
+     */
+    @Query(value = "SELECT tx_id AS \"txId\", id AS id FROM outbox_events ORDER BY tx_id, id LIMIT 1",
+            nativeQuery = true)
+    Position findOldestPosition();
+
+    /**
+     * Marks the given events as published.
+     *
+     * @param ids         the event ids
+     * @param publishedAt the publication timestamp
+     * @return the number of updated rows
+     */
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.publishedAt = :publishedAt WHERE e.id IN :ids")
+    int markPublished(@Param("ids") List<Long> ids, @Param("publishedAt") Instant publishedAt);
+
+    /**
+     * Deletes published events recorded before the cutoff.
+     * <p>
+     * Deletes a prefix of the {@code (tx_id, id)} order and keeps the newest expired event as its marker, so
+     * the oldest remaining event tells how far back the change log is complete. The prefix stops before the
+     * first unpublished event; events the relay has not delivered yet are never deleted.
+     * </p>
+     *
+     * @param cutoff events recorded before this instant may be deleted
+     * @return the number of deleted events
+     */
+    @Modifying
+    @Query(value = """
+            WITH first_pending AS (
+                SELECT tx_id, id FROM outbox_events WHERE published_at IS NULL ORDER BY tx_id, id LIMIT 1
+            ), marker AS (
+                SELECT e.tx_id, e.id FROM outbox_events e
+                WHERE e.created_at < :cutoff AND e.published_at IS NOT NULL
+                  AND NOT EXISTS (SELECT 1 FROM first_pending p WHERE (p.tx_id, p.id) < (e.tx_id, e.id))
+                ORDER BY e.tx_id DESC, e.id DESC LIMIT 1
+            )
+            DELETE FROM outbox_events e USING marker m WHERE (e.tx_id, e.id) < (m.tx_id, m.id)
+            """, nativeQuery = true)
+    int deleteExpired(@Param("cutoff") Instant cutoff);
+
+    /**
+     * Closed projection of an event's place in the {@code (tx_id, id)} order. Queries quote the
+     * {@code "txId"} alias, since Postgres folds unquoted aliases to lower case.
+     */
+    interface Position {
+        Long getTxId();
+        Long getId();
+    }
+}
@@ -0,0 +1,99 @@
+package com.ams.repository;
+
+import com.ams.dtos.clientDto.ClientGridDto;
+import com.ams.dtos.clientDto.LoadClientDetailsCaseResponse;
+import com.ams.dtos.documentDto.DocumentGrid;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+
+/**
+ * {@code ReactiveClientReadRepository} serves the read-only client queries over R2DBC.
+ *
+ * <p>
+ * List queries run with a fetch size, so Postgres returns rows in chunks as the subscriber requests them
+ * instead of materializing the full result first. The SQL mirrors the JPA mappings of
+ * {@link com.ams.entity.ClientDetails} and {@link com.ams.entity.Documents}.
+ * </p>
+ *
+ * @author Yosef Nago
+ */
+@Repository
+@Profile("reactive")
+public class ReactiveClientReadRepository {
+
+    private final DatabaseClient databaseClient;
+    private final int fetchSize;
+
+    public ReactiveClientReadRepository(DatabaseClient databaseClient,
+                                        @Value("${reactive.fetch-size:256}") int fetchSize) {
+        this.databaseClient = databaseClient;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Streams the grid rows of an accountant's clients.
+     *
+     * @param accountantName the accountant's username
+     * @return the clients, in insertion order
+     */
+    public Flux<ClientGridDto> streamClientsByAccountant(String accountantName) {
+        return databaseClient.sql("SELECT business_name, client_id, email, phone FROM client_details"
+                        + " WHERE accountant_name = :accountantName AND NOT deleted ORDER BY id")
+                .bind("accountantName", accountantName)
+                .filter(statement -> statement.fetchSize(fetchSize))
+                .map((row, metadata) -> new ClientGridDto(
+                        row.get("business_name", String.class),
+                        row.get("client_id", String.class),
+                        row.get("email", String.class),
+                        row.get("phone", String.class)))
+                .all();
+    }
+
+    /**
+     * Loads the case header details of a client.
+     *
+     * @param clientId the client's tax ID
+     * @return the details, or empty if no such client exists
+     */
+    public Mono<LoadClientDetailsCaseResponse> findCaseDetails(String clientId) {
+        return databaseClient.sql("SELECT business_name, client_id, email, phone, address, business_type"
+                        + " FROM client_details WHERE client_id = :clientId AND NOT deleted LIMIT 1")
+                .bind("clientId", clientId)
+                .map((row, metadata) -> new LoadClientDetailsCaseResponse(
+                        true,
+                        "פרטי לקוח נטענו בהצלחה",
+                        row.get("business_name", String.class),
+                        row.get("client_id", String.class),
+                        row.get("email", String.class),
+                        row.get("phone", String.class),
+                        row.get("address", String.class),
+                        row.get("business_type", String.class)))
+                .one();
+    }
+
+    /**
+     * Streams the grid rows of a client's documents without reading the file data.
+     *
+     * @param clientId the client's tax ID
+     * @return the documents, in insertion order
+     */
+    public Flux<DocumentGrid> streamDocumentsByClient(String clientId) {
+        return databaseClient.sql("SELECT id, document_name, client_id, uploaded_at, status FROM documents"
+                        + " WHERE client_id = :clientId ORDER BY id")
+                .bind("clientId", clientId)
+                .filter(statement -> statement.fetchSize(fetchSize))
+                .map((row, metadata) -> new DocumentGrid(
+                        row.get("id", Long.class),
+                        row.get("document_name", String.class),
+                        row.get("client_id", String.class),
+                        row.get("uploaded_at", LocalDate.class),
+                        row.get("status", String.class)))
+                .all();
+    }
+}
@@ -1,5 +1,7 @@
 package com.ams.security;
 
+import com.ams.commonsecurity.metrics.TimedPasswordEncoder;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -58,11 +60,14 @@ public class SecurityConfig {
     /**
      * Provides a {@link PasswordEncoder} bean that uses the BCrypt hashing algorithm.
      *
-     * @return a new instance of {@link BCryptPasswordEncoder}
+     * Hashing time is recorded by {@link TimedPasswordEncoder}.
+     *
+     * @param meterRegistry registry for the password hashing timers
+     * @return a {@link BCryptPasswordEncoder} wrapped in a {@link TimedPasswordEncoder}
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry) {
+        return new TimedPasswordEncoder(new BCryptPasswordEncoder(), meterRegistry);
     }
 
 
@@ -0,0 +1,193 @@
+package com.ams.service;
+
+import com.ams.dtos.clientDto.ClientChangesResponse;
+import com.ams.dtos.clientDto.ClientGridDto;
+import com.ams.dtos.documentDto.DocumentGrid;
+import com.ams.entity.ClientDetails;
+import com.ams.entity.OutboxEvent;
+import com.ams.events.ChangeEvent;
+import com.ams.repository.ClientRepository;
+import com.ams.repository.DocumentRepository;
+import com.ams.repository.OutboxEventRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * {@code ChangeSyncService} answers "what changed since token X" for an accountant's clients and documents.
+ * <p>
+ * The outbox doubles as the change log: a sync token is the position {@code "<txId>.<id>"} of the last
+ * outbox event the caller has applied. Events after the token are collapsed per row (last event wins); rows
+ * whose last event is a delete become tombstones, everything else is re-read and returned as an upsert.
+ * </p>
+ *
+ * <p>
+ * Events are read in the same commit-safe order as the relay uses (see {@link OutboxEvent}): only events of
+ * transactions older than every running transaction are handed out, so a transaction that commits late is
+ * never skipped. A token older than the oldest event kept by the outbox retention, or one that cannot be
+ * parsed, gets a full snapshot instead.
+ * </p>
+ *
+ * <p>
+ * A snapshot lists clients only. Document changes are returned only when asked for, and a caller that mirrors
+ * documents loads them per client and applies document changes from then on.
+ * </p>
+ *
+ * @author Yosef Nago
+ */
+@Service
+public class ChangeSyncService {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ClientRepository clientRepository;
+    private final DocumentRepository documentRepository;
+    private final int pageSize;
+
+    public ChangeSyncService(OutboxEventRepository outboxEventRepository,
+                             ClientRepository clientRepository,
+                             DocumentRepository documentRepository,
+                             @Value("${client.changes.page-size:1000}") int pageSize) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.clientRepository = clientRepository;
+        this.documentRepository = documentRepository;
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Returns the changes visible to the accountant since the given token.
+     *
+     * @param accountantName   the accountant's username
+     * @param token            the last token the caller received, or {@code null}/blank for a full snapshot
+     * @param includeDocuments whether document changes are returned as well
+     * @return the changes and the next token
+     */
+    @Transactional(readOnly = true)
+    public ClientChangesResponse changesSince(String accountantName, String token, boolean includeDocuments) {
+        Position since = Position.parse(token);
+        if (since == null || since.isBefore(Position.of(outboxEventRepository.findOldestPosition()))) {
+            return snapshot(accountantName);
+        }
+
+        List<OutboxEvent> events = outboxEventRepository.findChangesForAccountant(
+                accountantName, since.txId(), since.id(), includeDocuments, pageSize + 1);
+        boolean hasMore = events.size() > pageSize;
+        if (hasMore) {
+            events = events.subList(0, pageSize);
+        }
+        if (events.isEmpty()) {
+            return new ClientChangesResponse(true, "אין שינויים", since.toString(), false, false,
+                    List.of(), List.of(), List.of(), List.of());
+        }
+
+        Map<String, String> clientChanges = new LinkedHashMap<>();
+        Map<Long, String> documentChanges = new LinkedHashMap<>();
+        for (OutboxEvent event : events) {
+            if (ChangeEvent.CLIENT.equals(event.getAggregateType())) {
+                clientChanges.put(event.getAggregateId(), event.getEventType());
+            } else if (ChangeEvent.DOCUMENT.equals(event.getAggregateType())) {
+                documentChanges.put(Long.valueOf(event.getAggregateId()), event.getEventType());
+            }
+        }
+
+        Set<String> changedClientIds = keysWithout(clientChanges, ChangeEvent.DELETED);
+        List<ClientGridDto> clients = changedClientIds.isEmpty() ? List.of()
+                : toGrid(clientRepository.findAllByClientIdInAndAccountantName(changedClientIds, accountantName));
+        List<String> deletedClientIds = new ArrayList<>(keysWith(clientChanges, ChangeEvent.DELETED));
+        Set<String> foundClientIds = clients.stream().map(ClientGridDto::clientId).collect(Collectors.toSet());
+        changedClientIds.stream().filter(id -> !foundClientIds.contains(id)).forEach(deletedClientIds::add);
+
+        Set<Long> changedDocumentIds = keysWithout(documentChanges, ChangeEvent.DELETED);
+        List<DocumentGrid> documents = changedDocumentIds.isEmpty() ? List.of()
+                : documentRepository.findAllGridByIdIn(changedDocumentIds);
+        List<Long> deletedDocumentIds = new ArrayList<>(keysWith(documentChanges, ChangeEvent.DELETED));
+        Set<Long> foundDocumentIds = documents.stream().map(DocumentGrid::id).collect(Collectors.toSet());
+        changedDocumentIds.stream().filter(id -> !foundDocumentIds.contains(id)).forEach(deletedDocumentIds::add);
+
+        OutboxEvent last = events.get(events.size() - 1);
+        String nextToken = new Position(last.getTxId(), last.getId()).toString();
+        return new ClientChangesResponse(true, "שינויים נטענו", nextToken, hasMore, false,
+                clients, deletedClientIds, documents, deletedDocumentIds);
+    }
+
+    private ClientChangesResponse snapshot(String accountantName) {
+        // read the position before the clients: every event up to it is already reflected in them, later
+        // ones may be too and are simply applied again
+        Position position = Position.of(outboxEventRepository.findSettledPosition());
+        List<ClientGridDto> clients = clientRepository.findGridRowsByAccountantName(accountantName);
+
+        return new ClientChangesResponse(true, "לקוחות נטענו בהצלחה", position.toString(),
+                false, true, clients, List.of(), List.of(), List.of());
+    }
+
+    private static List<ClientGridDto> toGrid(List<ClientDetails> clients) {
+        return clients.stream()
+                .map(details -> new ClientGridDto(
+                        details.getBusinessName(),
+                        details.getClientId(),
+                        details.getEmail(),
+                        details.getPhone()))
+                .toList();
+    }
+
+    private static <K> Set<K> keysWith(Map<K, String> changes, String eventType) {
+        return changes.entrySet().stream()
+                .filter(e -> eventType.equals(e.getValue()))
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    private static <K> Set<K> keysWithout(Map<K, String> changes, String eventType) {
+        return changes.entrySet().stream()
+                .filter(e -> !eventType.equals(e.getValue()))
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    /**
+     * A place in the outbox's {@code (txId, id)} order, written as {@code "<txId>.<id>"} in sync tokens.
+     */
+    record Position(long txId, long id) {
+
+        static final Position START = new Position(0, 0);
+
+        static Position of(OutboxEventRepository.Position position) {
+            return position == null ? START : new Position(position.getTxId(), position.getId());
+        }
+
+        /**
+         * @return the position, or {@code null} if the token is missing or malformed
+         */
+        static Position parse(String token) {
+            if (token == null) {
+                return null;
+            }
+            int dot = token.indexOf('.');
+            if (dot < 0) {
+                return null;
+            }
+            try {
+                return new Position(Long.parseLong(token.substring(0, dot).trim()),
+                        Long.parseLong(token.substring(dot + 1).trim()));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        boolean isBefore(Position other) {
+            return txId < other.txId || txId == other.txId && id < other.id;
+        }
+
+        @Override
+        public String toString() {
+            return txId + "." + id;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.ams.service;
+
+import com.ams.repository.ClientRepository;
+import com.ams.repository.DocumentRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@code ClientPurgeService} removes deleted clients for good once they can no longer be restored.
+ * <p>
+ * A deleted client is a tombstone (see {@link ClientService#deleteClientByClientId}). Off-peak, this job
+ * takes the tombstones older than the restore window, deletes their documents through
+ * {@link DocumentService#deleteDocuments} in batches of bounded size, each in its own short transaction,
+ * and then deletes the client row. Blobs the documents used are released by {@link DocumentBlobSweeper}.
+ * A run stops after {@code max-duration}; an interrupted purge simply continues on the next run.
+ * </p>
+ *
+ * <p>Tuning properties:</p>
+ * <ul>
+ *     <li>{@code clients.purge.retention} – how long a deleted client can be restored (default 7d)</li>
+ *     <li>{@code clients.purge.cron} – when runs start (default every 15 minutes from 01:00 to 05:45)</li>
+ *     <li>{@code clients.purge.batch-size} – documents deleted per transaction (default 500)</li>
+ *     <li>{@code clients.purge.max-duration} – time budget of one run (default 10m)</li>
+ * </ul>
+ *
+ * <p>Metrics:</p>
+ * <ul>
+ *     <li>{@code ams.clients.purge.pending} – tombstones past the restore window, as of the last run</li>
+ *     <li>{@code ams.clients.purged} – clients removed</li>
+ *     <li>{@code ams.clients.purge.documents} – documents removed with them</li>
+ * </ul>
+ *
+ * @author Yosef Nago
+ */
+@Service
+public class ClientPurgeService {
+
+    private static final Logger log = LoggerFactory.getLogger(ClientPurgeService.class);
+
+    private static final int TOMBSTONES_PER_QUERY = 100;
+
+    private final ClientRepository clientRepository;
+    private final DocumentRepository documentRepository;
+    private final DocumentService documentService;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration retention;
+    private final int batchSize;
+    private final Duration maxDuration;
+    private final AtomicLong pending = new AtomicLong();
+    private final Counter purgedClients;
+    private final Counter purgedDocuments;
+
+    public ClientPurgeService(ClientRepository clientRepository,
+                              DocumentRepository documentRepository,
+                              DocumentService documentService,
+                              TransactionTemplate transactionTemplate,
+                              MeterRegistry meterRegistry,
+                              @Value("${clients.purge.retention:7d}") Duration retention,
+                              @Value("${clients.purge.batch-size:500}") int batchSize,
+                              @Value("${clients.purge.max-duration:10m}") Duration maxDuration) {
+        this.clientRepository = clientRepository;
+        this.documentRepository = documentRepository;
+        this.documentService = documentService;
+        this.transactionTemplate = transactionTemplate;
+        this.retention = retention;
+        this.batchSize = batchSize;
+        this.maxDuration = maxDuration;
+        Gauge.builder("ams.clients.purge.pending", pending, AtomicLong::get)
+                .description("Deleted clients past the restore window waiting to be purged")
+                .register(meterRegistry);
+        this.purgedClients = Counter.builder("ams.clients.purged")
+                .description("Deleted clients removed for good")
+                .register(meterRegistry);
+        this.purgedDocuments = Counter.builder("ams.clients.purge.documents")
+                .description("Documents removed with purged clients")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Purges expired tombstones until none are left or the run's time budget is used up.
+     */
+    @Scheduled(cron = "${clients.purge.cron:0 */15 1-5 * * *}")
+    public void purge() {
+        long deadline = System.nanoTime() + maxDuration.toNanos();
+        Instant deletedBefore = Instant.now().minus(retention);
+        try {
+            purge(deletedBefore, deadline);
+        } catch (RuntimeException e) {
+            log.warn("Client purge failed, will continue on the next run: {}", e.getMessage());
+        } finally {
+            pending.set(clientRepository.countExpiredTombstones(deletedBefore));
+        }
+    }
+
+    private void purge(Instant deletedBefore, long deadline) {
+        List<ClientRepository.Tombstone> tombstones;
+        do {
+            tombstones = clientRepository.findExpiredTombstones(deletedBefore, TOMBSTONES_PER_QUERY);
+            for (ClientRepository.Tombstone tombstone : tombstones) {
+                if (System.nanoTime() > deadline || !purgeClient(tombstone, deadline)) {
+                    return;
+                }
+            }
+        } while (tombstones.size() == TOMBSTONES_PER_QUERY);
+    }
+
+    /**
+     * @return {@code false} if the time budget ran out before the client was removed
+     */
+    private boolean purgeClient(ClientRepository.Tombstone tombstone, long deadline) {
+        // documents are keyed by tax ID; never delete those of a live client holding the same one
+        boolean shared = clientRepository.existsByClientId(tombstone.getClientId());
+        while (!shared) {
+            List<Long> ids = documentRepository.findIdsByClientId(tombstone.getClientId(), PageRequest.of(0, batchSize));
+            if (ids.isEmpty()) {
+                break;
+            }
+            purgedDocuments.increment(documentService.deleteDocuments(tombstone.getClientId(), ids).size());
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+        }
+        Integer deleted = transactionTemplate.execute(status -> clientRepository.purgeTombstone(tombstone.getId()));
+        if (deleted != null && deleted > 0) {
+            purgedClients.increment();
+            log.info("Purged deleted client {}", tombstone.getClientId());
+        }
+        return true;
+    }
+}
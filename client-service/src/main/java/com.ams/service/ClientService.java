@@ -2,14 +2,23 @@ package com.ams.service;
 
 
 import com.ams.commonsecurity.utils.JwtUtil;
+import com.ams.dtos.clientDto.ClientGridDto;
 import com.ams.dtos.clientDto.CreateClientRequest;
+import com.ams.dtos.clientDto.PatchClientRequest;
 import com.ams.entity.ClientDetails;
+import com.ams.events.ChangeEvent;
 import com.ams.repository.ClientRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -36,16 +45,23 @@ public class ClientService {
     private final ClientRepository clientRepository;
     private final JwtUtil jwtUtil;
     private final PasswordEncoder passwordEncoder;
+    private final OutboxService outboxService;
+    private final Duration retention;
     /**
      * Constructs a new {@code ClientService} with required dependencies.
      *
      * @param clientRepository the repository for data access operations
      * @param jwtUtil utility class for extracting information from JWT tokens
+     * @param outboxService records change events in the same transaction as the mutation
+     * @param retention how long a deleted client can be restored before it is purged
      */
-    public ClientService(@Autowired ClientRepository clientRepository, JwtUtil jwtUtil,PasswordEncoder passwordEncoder) {
+    public ClientService(@Autowired ClientRepository clientRepository, JwtUtil jwtUtil,PasswordEncoder passwordEncoder,
+                         OutboxService outboxService, @Value("${clients.purge.retention:7d}") Duration retention) {
         this.clientRepository = clientRepository;
         this.jwtUtil = jwtUtil;
         this.passwordEncoder = passwordEncoder;
+        this.outboxService = outboxService;
+        this.retention = retention;
     }
 
     /**
@@ -58,6 +74,7 @@ public class ClientService {
      * @param request the client data wrapped in {@link CreateClientRequest}
      * @throws IllegalStateException if saving fails or if an exception occurs
      */
+    @Transactional
     public void createNewClient(CreateClientRequest request) {
         try{
 
@@ -78,6 +95,7 @@ public class ClientService {
             clientEntity.setAccountantName(username);
 
             clientRepository.save(clientEntity);
+            outboxService.clientChanged(ChangeEvent.CREATED, clientEntity.getClientId(), username);
 
         } catch (Exception e) {
             throw new IllegalStateException("Connection is bad..");
@@ -115,14 +133,61 @@ public class ClientService {
     public List<ClientDetails> getAllClientsByaccountantName(String accountantName) {
         return clientRepository.getAllByAccountantName(accountantName);
     }
+
     /**
-     * Deletes a client from the system based on their client ID.
+     * Searches an accountant's clients, best matches first.
+     *
+     * @param accountantName the username of the accountant
+     * @param text           the search text as typed
+     * @param page           the zero-based page number
+     * @param size           the page size
+     * @return up to {@code size + 1} clients, the extra one only signalling that another page exists
+     */
+    @Transactional(readOnly = true)
+    public List<ClientGridDto> searchClients(String accountantName, String text, int page, int size) {
+        return clientRepository.searchClients(accountantName, text, size + 1, page * size);
+    }
+    /**
+     * Deletes a client based on their client ID.
+     * <p>
+     * The client only becomes a tombstone, which is a single update; it can be restored with
+     * {@link #restoreClient} until {@code ClientPurgeService} removes it and its documents.
+     * </p>
      *
      * @param id the client's unique ID
      */
     @Transactional
     public void deleteClientByClientId(String id) {
-        clientRepository.deleteByClientId(id);
+        for (String accountantName : clientRepository.softDeleteByClientId(id, Instant.now())) {
+            outboxService.clientChanged(ChangeEvent.DELETED, id, accountantName);
+        }
+    }
+
+    /**
+     * Restores an accountant's deleted client, if it was deleted within the restore window.
+     *
+     * @param id             the client's tax ID
+     * @param accountantName the username of the accountant
+     * @return {@code true} if the client was restored; {@code false} if there is no such deleted client or
+     * it was deleted more than {@code clients.purge.retention} ago
+     */
+    @Transactional
+    public boolean restoreClient(String id, String accountantName) {
+        if (clientRepository.restore(id, accountantName, Instant.now().minus(retention)).isEmpty()) {
+            return false;
+        }
+        outboxService.clientChanged(ChangeEvent.CREATED, id, accountantName);
+        return true;
+    }
+
+    /**
+     * Checks whether a tax ID is held by a client, including deleted clients that were not purged yet.
+     *
+     * @param id the tax ID
+     * @return {@code true} if a new client cannot use it
+     */
+    public boolean isClientIdTaken(String id) {
+        return clientRepository.existsIncludingDeletedByClientId(id);
     }
     /**
      * Checks whether a client exists by their tax ID.
@@ -160,6 +225,7 @@ public class ClientService {
      * @param clientDetails the {@link ClientDetails} object with updated fields
      * @throws IllegalStateException if the client does not exist
      */
+    @Transactional
     public void updateClient(ClientDetails clientDetails){
 
         ClientDetails existing = clientRepository.findByClientId(clientDetails.getClientId());
@@ -205,7 +271,62 @@ public class ClientService {
         }
 
         clientRepository.save(existing);
+        outboxService.clientChanged(ChangeEvent.UPDATED, existing.getClientId(), existing.getAccountantName());
     }
+    /**
+     * Applies a partial update to a client with optimistic locking.
+     * <p>
+     * Only the non-null fields of the request are written, in a single {@code UPDATE} statement that also
+     * checks the expected version. If the request sets no field, or every field already holds the requested
+     * value, nothing is written; the client and its version are still checked, with a single select.
+     * </p>
+     *
+     * @param clientId        the client's tax ID
+     * @param accountantName  the accountant that owns the client
+     * @param expectedVersion the version the caller last read
+     * @param request         the fields to change
+     * @return the client's version after the call
+     * @throws IllegalStateException if the client does not exist for this accountant
+     * @throws OptimisticLockingFailureException if the client was modified since {@code expectedVersion}
+     */
+    @Transactional
+    public long patchClient(String clientId, String accountantName, long expectedVersion, PatchClientRequest request) {
+        Map<String, Object> changes = new LinkedHashMap<>();
+        putIfSet(changes, "businessName", request.businessName());
+        putIfSet(changes, "email", request.email());
+        putIfSet(changes, "phone", request.phone());
+        putIfSet(changes, "address", request.address());
+        putIfSet(changes, "zip", request.zip());
+        putIfSet(changes, "businessType", request.businessType());
+        putIfSet(changes, "bankName", request.bankName());
+        putIfSet(changes, "bankBranch", request.bankBranch());
+        putIfSet(changes, "bankAccountNumber", request.bankAccountNumber());
+
+        if (!changes.isEmpty() && clientRepository.patchClient(clientId, accountantName, expectedVersion, changes) == 1) {
+            outboxService.clientChanged(ChangeEvent.UPDATED, clientId, accountantName);
+            return expectedVersion + 1;
+        }
+
+        // Nothing was updated, or nothing was asked for: find out whether the row is missing, stale, or simply
+        // unchanged, so an empty request is answered like any other.
+        Long currentVersion = clientRepository.findVersionByClientIdAndAccountantName(clientId, accountantName);
+        if (currentVersion == null) {
+            throw new IllegalStateException("Client not found with id: " + clientId);
+        }
+        if (currentVersion != expectedVersion) {
+            throw new OptimisticLockingFailureException(
+                    "Client " + clientId + " is at version " + currentVersion + ", expected " + expectedVersion);
+        }
+        return currentVersion;
+    }
+
+    private static void putIfSet(Map<String, Object> changes, String attribute, String value) {
+        if (value != null) {
+            changes.put(attribute, value);
+        }
+    }
+
+    @Transactional
     public void grantLoginAccess(String clientId, String clientUsername, String clientPassword) {
         ClientDetails client = clientRepository.findByClientId(clientId);
         if (client == null) {
@@ -215,5 +336,6 @@ public class ClientService {
         client.setClientUsername(clientUsername);
         client.setClientPassword(passwordEncoder.encode(clientPassword));
         clientRepository.save(client);
+        outboxService.clientChanged(ChangeEvent.UPDATED, clientId, client.getAccountantName());
     }
 }
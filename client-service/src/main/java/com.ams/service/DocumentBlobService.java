@@ -0,0 +1,151 @@
+package com.ams.service;
+
+import com.ams.repository.DocumentBlobRepository;
+import com.ams.storage.CompressionPolicy;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@code DocumentBlobService} stores uploaded file content once per distinct SHA-256 and keeps a
+ * reference count per blob.
+ * <p>
+ * {@link #acquire} must run in the transaction that points the document at the blob, so a committed
+ * document always holds a counted reference. Deletes queue their references as
+ * {@link com.ams.entity.DocumentBlobRelease}s and {@link DocumentBlobSweeper} calls {@link #release} later,
+ * so a count can be too high for a while but never too low.
+ * </p>
+ *
+ * <p>Metrics:</p>
+ * <ul>
+ *     <li>{@code ams.documents.dedup.hits} – uploads whose content was already stored</li>
+ *     <li>{@code ams.documents.dedup.saved} – bytes currently not stored thanks to deduplication,
+ *     refreshed every {@code documents.dedup.metrics-interval-ms} (default 60000)</li>
+ *     <li>{@code ams.documents.original.bytes} and {@code ams.documents.stored.bytes}, tagged with the
+ *     codec – content written to new blobs before and after compression</li>
+ *     <li>{@code ams.documents.encode} – time spent choosing a codec and encoding</li>
+ * </ul>
+ *
+ * @author Yosef Nago
+ */
+@Service
+public class DocumentBlobService {
+
+    private static final Logger log = LoggerFactory.getLogger(DocumentBlobService.class);
+
+    private final DocumentBlobRepository documentBlobRepository;
+    private final CompressionPolicy compressionPolicy;
+    private final MeterRegistry meterRegistry;
+    private final Counter dedupHits;
+    private final AtomicLong savedBytes = new AtomicLong();
+
+    public DocumentBlobService(DocumentBlobRepository documentBlobRepository, CompressionPolicy compressionPolicy,
+                               MeterRegistry meterRegistry) {
+        this.documentBlobRepository = documentBlobRepository;
+        this.compressionPolicy = compressionPolicy;
+        this.meterRegistry = meterRegistry;
+        this.dedupHits = Counter.builder("ams.documents.dedup.hits")
+                .description("Uploads whose content was already stored")
+                .register(meterRegistry);
+        Gauge.builder("ams.documents.dedup.saved", savedBytes, AtomicLong::get)
+                .description("Bytes not stored thanks to document deduplication")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Adds a reference to the blob holding {@code content}, storing it first if it is new.
+     * <p>
+     * New content is compressed as {@link CompressionPolicy} decides; deduplication always compares
+     * the original bytes.
+     * </p>
+     *
+     * @param fileName the uploaded file name
+     * @param content  the file content
+     * @return the blob id
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public long acquire(String fileName, byte[] content) {
+        return acquire(sha256(content), fileName, content);
+    }
+
+    /**
+     * Same as {@link #acquire(String, byte[])} for content whose SHA-256 the caller has computed already.
+     *
+     * @param sha256   the hex SHA-256 of {@code content}
+     * @param fileName the uploaded file name
+     * @param content  the file content
+     * @return the blob id
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public long acquire(String sha256, String fileName, byte[] content) {
+        // cheap path first: a duplicate only bumps the counter, its bytes are never sent to the database
+        Long existing = documentBlobRepository.acquireExisting(sha256).orElse(null);
+        if (existing != null) {
+            dedupHits.increment();
+            return existing;
+        }
+        long start = System.nanoTime();
+        CompressionPolicy.Encoded encoded = compressionPolicy.encode(fileName, content);
+        String codec = encoded.codec().name();
+        Timer.builder("ams.documents.encode").tag("codec", codec).register(meterRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        Counter.builder("ams.documents.original.bytes").tag("codec", codec).baseUnit("bytes")
+                .register(meterRegistry).increment(content.length);
+        Counter.builder("ams.documents.stored.bytes").tag("codec", codec).baseUnit("bytes")
+                .register(meterRegistry).increment(encoded.data().length);
+        return documentBlobRepository.acquireNew(sha256, content.length, codec, encoded.data());
+    }
+
+    /**
+     * Drops one reference per id and deletes the blobs nothing refers to any more.
+     *
+     * @param blobIds the released blobs, one entry per reference; {@code null}s are ignored
+     * @return the number of deleted blobs
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public int release(Collection<Long> blobIds) {
+        // one update per blob, in a fixed order so two sweeps sharing blobs cannot deadlock
+        Map<Long, Integer> counts = new TreeMap<>();
+        blobIds.stream().filter(Objects::nonNull).forEach(id -> counts.merge(id, 1, Integer::sum));
+        int deleted = 0;
+        for (Map.Entry<Long, Integer> entry : counts.entrySet()) {
+            documentBlobRepository.release(entry.getKey(), entry.getValue());
+            if (documentBlobRepository.deleteIfUnreferenced(entry.getKey()) > 0) {
+                log.debug("Deleted unreferenced document blob {}", entry.getKey());
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+
+    @Scheduled(fixedDelayString = "${documents.dedup.metrics-interval-ms:60000}")
+    public void refreshSavedBytes() {
+        savedBytes.set(documentBlobRepository.savedBytes());
+    }
+
+    static String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
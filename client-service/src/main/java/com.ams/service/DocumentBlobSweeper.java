@@ -0,0 +1,107 @@
+package com.ams.service;
+
+import com.ams.repository.DocumentBlobReleaseRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@code DocumentBlobSweeper} applies the blob releases queued by document deletes.
+ * <p>
+ * Each batch is taken from the queue and applied through {@link DocumentBlobService#release} in one
+ * transaction, so a failed batch goes back to the queue and a release is never applied twice. Document
+ * deletes therefore cost one statement however many blobs they free, and the blob rows are updated
+ * here, off the request path.
+ * </p>
+ *
+ * <p>Tuning properties:</p>
+ * <ul>
+ *     <li>{@code documents.blob-sweeper.batch-size} – releases per transaction (default 500)</li>
+ *     <li>{@code documents.blob-sweeper.interval-ms} – delay between runs when the queue is drained
+ *     (default 2000)</li>
+ * </ul>
+ *
+ * <p>Metrics:</p>
+ * <ul>
+ *     <li>{@code ams.documents.blob.releases.pending} – queued releases, as of the last run</li>
+ *     <li>{@code ams.documents.blob.releases.applied} – releases applied</li>
+ *     <li>{@code ams.documents.blob.deleted} – blobs deleted because nothing used them any more</li>
+ * </ul>
+ *
+ * @author Yosef Nago
+ */
+@Service
+public class DocumentBlobSweeper {
+
+    private static final Logger log = LoggerFactory.getLogger(DocumentBlobSweeper.class);
+
+    private final DocumentBlobReleaseRepository documentBlobReleaseRepository;
+    private final DocumentBlobService documentBlobService;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final AtomicLong pending = new AtomicLong();
+    private final Counter applied;
+    private final Counter deleted;
+
+    public DocumentBlobSweeper(DocumentBlobReleaseRepository documentBlobReleaseRepository,
+                               DocumentBlobService documentBlobService,
+                               TransactionTemplate transactionTemplate,
+                               MeterRegistry meterRegistry,
+                               @Value("${documents.blob-sweeper.batch-size:500}") int batchSize) {
+        this.documentBlobReleaseRepository = documentBlobReleaseRepository;
+        this.documentBlobService = documentBlobService;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        Gauge.builder("ams.documents.blob.releases.pending", pending, AtomicLong::get)
+                .description("Blob references released by deleted documents but not applied yet")
+                .register(meterRegistry);
+        this.applied = Counter.builder("ams.documents.blob.releases.applied")
+                .description("Blob references released")
+                .register(meterRegistry);
+        this.deleted = Counter.builder("ams.documents.blob.deleted")
+                .description("Blobs deleted because no document used them any more")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Applies batches until the queue is empty or a batch fails.
+     */
+    @Scheduled(fixedDelayString = "${documents.blob-sweeper.interval-ms:2000}")
+    public void sweep() {
+        try {
+            while (sweepBatch() == batchSize) {
+                // keep draining while full batches are available
+            }
+            pending.set(documentBlobReleaseRepository.count());
+        } catch (RuntimeException e) {
+            log.warn("Blob sweep failed, batch will be retried: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Applies a single batch of queued releases.
+     *
+     * @return the number of releases applied
+     */
+    public int sweepBatch() {
+        int[] result = transactionTemplate.execute(status -> {
+            List<Long> blobIds = documentBlobReleaseRepository.take(batchSize);
+            return new int[]{blobIds.size(), documentBlobService.release(blobIds)};
+        });
+        if (result == null) {
+            return 0;
+        }
+        applied.increment(result[0]);
+        deleted.increment(result[1]);
+        return result[0];
+    }
+}
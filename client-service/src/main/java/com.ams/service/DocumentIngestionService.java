@@ -0,0 +1,334 @@
+package com.ams.service;
+
+import com.ams.entity.DocumentStaging;
+import com.ams.entity.Documents;
+import com.ams.events.ChangeEvent;
+import com.ams.repository.DocumentBlobRepository;
+import com.ams.repository.DocumentRepository;
+import com.ams.repository.DocumentStagingRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * {@code DocumentIngestionService} turns staged uploads into stored documents in the background.
+ * <p>
+ * An upload only writes its {@link Documents} row with status {@link #STAGED} and the raw bytes to
+ * {@link DocumentStaging}, then hands the id to this service after commit. A worker claims the staged row
+ * (status {@link #PROCESSING}), hashes the content, stores it deduplicated and compressed through
+ * {@link DocumentBlobService}, records the content type and size, and finally sets the status the uploader
+ * asked for and deletes the staged bytes. A document whose ingestion failed {@code max-attempts} times is
+ * left {@link #FAILED} with its bytes still staged. They are kept on purpose: they are the only copy of the
+ * upload, downloads still serve them, and an operator can reset {@code attempts} to retry once the cause is
+ * fixed. {@code ams.documents.ingestion.failed.staged} shows how much they take up.
+ * </p>
+ *
+ * <p>Workers run on a bounded queue. When it is full the upload is still acknowledged, since its bytes are
+ * durable, and {@link #recover()} picks it up once the queue has room again; the same sweep takes over
+ * claims left stale by a crashed instance, and marks {@link #FAILED} those that went stale on their last
+ * attempt. Upload latency therefore does not depend on the ingestion backlog.</p>
+ *
+ * <p>Tuning properties:</p>
+ * <ul>
+ *     <li>{@code documents.ingestion.workers} – worker threads (default 4)</li>
+ *     <li>{@code documents.ingestion.queue-capacity} – ids waiting for a worker (default 1000)</li>
+ *     <li>{@code documents.ingestion.stale-after} – a claim this old is taken over (default 5m)</li>
+ *     <li>{@code documents.ingestion.max-attempts} – attempts before a document is marked failed
+ *     (default 3)</li>
+ *     <li>{@code documents.ingestion.recovery-interval-ms} – how often the staging table is swept
+ *     (default 5000)</li>
+ *     <li>{@code documents.ingestion.metrics-interval-ms} – how often the failed staged bytes are counted
+ *     (default 60000)</li>
+ * </ul>
+ *
+ * <p>Metrics:</p>
+ * <ul>
+ *     <li>{@code ams.documents.ingestion.queue} – ids waiting in the queue</li>
+ *     <li>{@code ams.documents.ingestion.active} – documents being ingested</li>
+ *     <li>{@code ams.documents.ingestion.stage}, tagged with the stage ({@code hash}, {@code store},
+ *     {@code metadata}) – time per stage</li>
+ *     <li>{@code ams.documents.ingestion.lag} – time from upload to ingested</li>
+ *     <li>{@code ams.documents.ingestion.rejected} and {@code ams.documents.ingestion.failed} – ids left to
+ *     the recovery sweep because the queue was full, and failed attempts</li>
+ *     <li>{@code ams.documents.ingestion.failed.staged} – staged bytes kept for {@link #FAILED} documents</li>
+ * </ul>
+ *
+ * @author Yosef Nago
+ */
+@Service
+public class DocumentIngestionService {
+
+    public static final String STAGED = "STAGED";
+    public static final String PROCESSING = "PROCESSING";
+    public static final String FAILED = "FAILED";
+
+    private static final Logger log = LoggerFactory.getLogger(DocumentIngestionService.class);
+
+    private final DocumentRepository documentRepository;
+    private final DocumentStagingRepository documentStagingRepository;
+    private final DocumentBlobRepository documentBlobRepository;
+    private final DocumentBlobService documentBlobService;
+    private final OutboxService outboxService;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Duration staleAfter;
+    private final int maxAttempts;
+    private final ThreadPoolExecutor executor;
+    // ids queued or running on this instance; keeps the recovery sweep from queueing them twice
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+    private final Counter rejected;
+    private final Counter failed;
+    private final Timer lag;
+    private final AtomicLong failedBytes = new AtomicLong();
+
+    public DocumentIngestionService(DocumentRepository documentRepository,
+                                    DocumentStagingRepository documentStagingRepository,
+                                    DocumentBlobRepository documentBlobRepository,
+                                    DocumentBlobService documentBlobService,
+                                    OutboxService outboxService,
+                                    TransactionTemplate transactionTemplate,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${documents.ingestion.workers:4}") int workers,
+                                    @Value("${documents.ingestion.queue-capacity:1000}") int queueCapacity,
+                                    @Value("${documents.ingestion.stale-after:5m}") Duration staleAfter,
+                                    @Value("${documents.ingestion.max-attempts:3}") int maxAttempts) {
+        this.documentRepository = documentRepository;
+        this.documentStagingRepository = documentStagingRepository;
+        this.documentBlobRepository = documentBlobRepository;
+        this.documentBlobService = documentBlobService;
+        this.outboxService = outboxService;
+        this.transactionTemplate = transactionTemplate;
+        this.meterRegistry = meterRegistry;
+        this.staleAfter = staleAfter;
+        this.maxAttempts = maxAttempts;
+
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "document-ingestion-" + threads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("ams.documents.ingestion.queue", executor, e -> e.getQueue().size())
+                .description("Staged documents waiting for an ingestion worker")
+                .register(meterRegistry);
+        Gauge.builder("ams.documents.ingestion.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Documents being ingested")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("ams.documents.ingestion.rejected")
+                .description("Staged documents left to the recovery sweep because the queue was full")
+                .register(meterRegistry);
+        this.failed = Counter.builder("ams.documents.ingestion.failed")
+                .description("Failed ingestion attempts")
+                .register(meterRegistry);
+        this.lag = Timer.builder("ams.documents.ingestion.lag")
+                .description("Time from upload to ingested")
+                .register(meterRegistry);
+        Gauge.builder("ams.documents.ingestion.failed.staged", failedBytes, AtomicLong::get)
+                .description("Staged bytes kept for documents whose ingestion failed for good")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues a staged document for ingestion. Call after the staging transaction committed.
+     *
+     * @param documentId the document id
+     * @return {@code false} if the queue is full; the recovery sweep ingests the document later
+     */
+    public boolean submit(long documentId) {
+        if (!inFlight.add(documentId)) {
+            return true;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    ingest(documentId);
+                } finally {
+                    inFlight.remove(documentId);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(documentId);
+            rejected.increment();
+            return false;
+        }
+    }
+
+    /**
+     * Queues staged documents nobody is working on: uploads that did not fit in the queue, uploads
+     * acknowledged just before a restart and claims whose worker died. Only as many as the queue has room
+     * for are read. Claims whose worker died on the last attempt are marked {@link #FAILED}.
+     */
+    @Scheduled(fixedDelayString = "${documents.ingestion.recovery-interval-ms:5000}")
+    public void recover() {
+        Instant staleBefore = Instant.now().minus(staleAfter);
+        try {
+            for (Long id : documentStagingRepository.findAbandoned(staleBefore, maxAttempts, PageRequest.of(0, 100))) {
+                if (!inFlight.contains(id)) {
+                    transactionTemplate.executeWithoutResult(status -> giveBack(id));
+                }
+            }
+
+            int room = executor.getQueue().remainingCapacity();
+            if (room == 0) {
+                return;
+            }
+            List<Long> ids = documentStagingRepository.findClaimable(staleBefore, maxAttempts,
+                    PageRequest.of(0, room + inFlight.size()));
+            for (Long id : ids) {
+                if (!inFlight.contains(id) && !submit(id)) {
+                    break;
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Document ingestion recovery failed, will be retried: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${documents.ingestion.metrics-interval-ms:60000}")
+    public void refreshFailedBytes() {
+        failedBytes.set(documentStagingRepository.failedBytes(maxAttempts));
+    }
+
+    /**
+     * Ingests one staged document, unless another worker holds it or it was deleted meanwhile.
+     */
+    void ingest(long documentId) {
+        try {
+            if (Boolean.TRUE.equals(transactionTemplate.execute(status -> claim(documentId)))) {
+                transactionTemplate.executeWithoutResult(status -> process(documentId));
+            }
+        } catch (RuntimeException e) {
+            failed.increment();
+            log.warn("Ingestion of document {} failed: {}", documentId, e.getMessage());
+            try {
+                transactionTemplate.executeWithoutResult(status -> giveBack(documentId));
+            } catch (RuntimeException giveBackFailure) {
+                // the claim goes stale and the recovery sweep retries
+                log.warn("Could not release claim on document {}: {}", documentId, giveBackFailure.getMessage());
+            }
+        }
+    }
+
+    private boolean claim(long documentId) {
+        // the document row is locked before the staged row, in the same order as uploads and deletes
+        Documents document = documentRepository.findForUpdate(documentId).orElse(null);
+        if (document == null) {
+            // deleted before it was ingested; nothing refers to the staged bytes any more
+            documentStagingRepository.deleteByDocumentIdIn(List.of(documentId));
+            return false;
+        }
+        Instant now = Instant.now();
+        if (documentStagingRepository.claim(documentId, now, now.minus(staleAfter), maxAttempts) == 0) {
+            return false;
+        }
+        document.setStatus(PROCESSING);
+        return true;
+    }
+
+    private void process(long documentId) {
+        Documents document = documentRepository.findForUpdate(documentId).orElse(null);
+        DocumentStaging staged = documentStagingRepository.findById(documentId).orElse(null);
+        if (document == null || staged == null) {
+            return;
+        }
+        byte[] content = staged.getData();
+
+        String sha256 = timed("hash", () -> DocumentBlobService.sha256(content));
+        long blobId = timed("store", () -> documentBlobService.acquire(sha256, document.getDocumentName(), content));
+        String contentType = timed("metadata", () -> contentType(document.getDocumentName(), content));
+
+        document.setBlob(documentBlobRepository.getReferenceById(blobId));
+        document.setContentType(contentType);
+        document.setSizeBytes((long) content.length);
+        document.setStatus(staged.getRequestedStatus());
+        documentStagingRepository.delete(staged);
+        outboxService.documentChanged(ChangeEvent.UPDATED, String.valueOf(documentId), document.getClientId());
+        lag.record(Duration.between(staged.getStagedAt(), Instant.now()));
+    }
+
+    private void giveBack(long documentId) {
+        Documents document = documentRepository.findForUpdate(documentId).orElse(null);
+        DocumentStaging staged = documentStagingRepository.findById(documentId).orElse(null);
+        if (document == null || staged == null) {
+            return;
+        }
+        if (staged.getAttempts() >= maxAttempts) {
+            document.setStatus(FAILED);
+            outboxService.documentChanged(ChangeEvent.UPDATED, String.valueOf(documentId), document.getClientId());
+            log.error("Giving up on document {} after {} attempts", documentId, staged.getAttempts());
+        } else {
+            document.setStatus(STAGED);
+        }
+        staged.setClaimedAt(null);
+    }
+
+    private <T> T timed(String stage, Supplier<T> work) {
+        return Timer.builder("ams.documents.ingestion.stage").tag("stage", stage).register(meterRegistry)
+                .record(work);
+    }
+
+    /**
+     * Recognises the common document formats by their leading bytes and falls back to the file name.
+     */
+    static String contentType(String fileName, byte[] content) {
+        if (startsWith(content, '%', 'P', 'D', 'F')) {
+            return MediaType.APPLICATION_PDF_VALUE;
+        }
+        if (startsWith(content, 0x89, 'P', 'N', 'G')) {
+            return MediaType.IMAGE_PNG_VALUE;
+        }
+        if (startsWith(content, 0xFF, 0xD8, 0xFF)) {
+            return MediaType.IMAGE_JPEG_VALUE;
+        }
+        return MediaTypeFactory.getMediaType(fileName == null ? "" : fileName)
+                .orElse(MediaType.APPLICATION_OCTET_STREAM)
+                .toString();
+    }
+
+    private static boolean startsWith(byte[] content, int... magic) {
+        if (content.length < magic.length) {
+            return false;
+        }
+        for (int i = 0; i < magic.length; i++) {
+            if ((content[i] & 0xFF) != magic[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        // unfinished documents stay staged and are recovered on the next start
+        executor.shutdownNow();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+}
@@ -2,22 +2,59 @@ package com.ams.service;
 
 import com.ams.dtos.documentDto.DocumentGrid;
 import com.ams.dtos.documentDto.DocumentUploadRequest;
+import com.ams.entity.DocumentStaging;
 import com.ams.entity.Documents;
+import com.ams.events.ChangeEvent;
+import com.ams.repository.DocumentCursor;
+import com.ams.repository.DocumentFilter;
 import com.ams.repository.DocumentRepository;
+import com.ams.repository.DocumentSort;
+import com.ams.repository.DocumentStagingRepository;
+import com.ams.storage.BlobCodec;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
 
 @Service
 public class DocumentService {
 
     private final DocumentRepository documentRepository;
+    private final OutboxService outboxService;
+    private final DocumentStagingRepository documentStagingRepository;
+    private final DocumentIngestionService documentIngestionService;
+    private final JdbcTemplate jdbcTemplate;
 
     @Autowired
-    public DocumentService(DocumentRepository documentRepository) {
+    public DocumentService(DocumentRepository documentRepository, OutboxService outboxService,
+                           DocumentStagingRepository documentStagingRepository,
+                           DocumentIngestionService documentIngestionService, JdbcTemplate jdbcTemplate) {
         this.documentRepository = documentRepository;
+        this.outboxService = outboxService;
+        this.documentStagingRepository = documentStagingRepository;
+        this.documentIngestionService = documentIngestionService;
+        this.jdbcTemplate = jdbcTemplate;
     }
 
     public List<DocumentGrid> getAllDocumentsByClientId(String clientId){
@@ -25,24 +62,231 @@ public class DocumentService {
         return documentRepository.findAllGridByClientId(clientId);
 
     }
-    public void saveDocument(DocumentUploadRequest request){
 
-        try {
-            Documents documents = new Documents();
+    /**
+     * Reads one page of a client's documents.
+     *
+     * @param filter       the documents to return
+     * @param sort         the order
+     * @param descending   whether the order is descending
+     * @param cursor       the {@code nextCursor} of the previous page, or {@code null} for the first page
+     * @param size         the page size
+     * @param includeTotal whether to also count all matching documents
+     * @return the page and the cursor of the next one
+     * @throws IllegalArgumentException if the cursor is malformed or was issued for a different order
+     */
+    @Transactional(readOnly = true)
+    public DocumentPage searchDocuments(DocumentFilter filter, DocumentSort sort, boolean descending,
+                                        String cursor, int size, boolean includeTotal) {
+        DocumentCursor after = cursor == null || cursor.isBlank() ? null : DocumentCursor.decode(cursor);
+        if (after != null && (after.sort() != sort || after.descending() != descending)) {
+            throw new IllegalArgumentException("Cursor was issued for a different order");
+        }
 
-            documents.setClientId(request.clientId());
-            documents.setDocumentName(request.documentName());
-            documents.setFileData(request.fileData());
-            documents.setStatus(request.status());
-            documents.setUploadedAt(request.uploadedAt());
+        List<DocumentGrid> rows = documentRepository.searchDocuments(filter, sort, descending, after, size + 1);
+        boolean hasMore = rows.size() > size;
+        List<DocumentGrid> page = hasMore ? rows.subList(0, size) : rows;
+        String nextCursor = hasMore ? DocumentCursor.after(page.get(size - 1), sort, descending).encode() : null;
+        Long total = includeTotal ? documentRepository.countDocuments(filter) : null;
+        return new DocumentPage(page, nextCursor, total);
+    }
 
-            documentRepository.save(documents);
+    /**
+     * Opens a client's document for download.
+     * <p>
+     * The stored bytes are read in this transaction; decompression happens lazily while the returned stream
+     * is read, so the original content is never held in memory as a whole. A document that has not been
+     * ingested yet is served from its staged bytes.
+     * </p>
+     *
+     * @param id       the document id
+     * @param clientId the owning client's tax ID
+     * @return the file name and a stream of the original content, or empty if the client has no such document
+     */
+    @Transactional(readOnly = true)
+    public Optional<DocumentContent> openDocument(long id, String clientId) {
+        return documentRepository.findStoredContent(id, clientId).map(stored -> {
+            InputStream content;
+            if (stored.getData() != null) {
+                content = stored.getCodec().decode(new ByteArrayInputStream(stored.getData()));
+            } else if (stored.getLegacyData() != null) {
+                content = BlobCodec.NONE.decode(new ByteArrayInputStream(stored.getLegacyData()));
+            } else {
+                byte[] staged = documentStagingRepository.findById(id).map(DocumentStaging::getData).orElse(new byte[0]);
+                content = BlobCodec.NONE.decode(new ByteArrayInputStream(staged));
+            }
+            return new DocumentContent(stored.getDocumentName(), content);
+        });
+    }
+
+    /**
+     * A document opened for download.
+     *
+     * @param fileName the document name
+     * @param content  the original content; the caller closes it
+     */
+    public record DocumentContent(String fileName, InputStream content) {
+    }
+
+    /**
+     * One page of documents.
+     *
+     * @param documents  the documents on the page
+     * @param nextCursor the cursor of the next page, or {@code null} on the last page
+     * @param total      the number of matching documents, or {@code null} if not requested
+     */
+    public record DocumentPage(List<DocumentGrid> documents, String nextCursor, Long total) {
+    }
+    /**
+     * An upload to stage.
+     *
+     * @param content the content, opened only while its staging row is written
+     * @param size    the content length in bytes
+     * @param status  the status the document gets once ingested
+     */
+    public record Upload(String documentName, InputStreamSource content, long size, String clientId,
+                         String status, LocalDate uploadedAt) {
+
+        static Upload of(DocumentUploadRequest request) {
+            return new Upload(request.documentName(), new ByteArrayResource(request.fileData()),
+                    request.fileData().length, request.clientId(), request.status(), request.uploadedAt());
+        }
+    }
+
+    /**
+     * Stages an upload; see {@link #saveDocuments}.
+     *
+     * @param request the upload
+     */
+    @Transactional
+    public void saveDocument(DocumentUploadRequest request){
+
+        try {
+            saveDocuments(List.of(Upload.of(request)));
         }catch (Exception e){
             throw new IllegalStateException("Connection is bad..");
         }
     }
+
+    /**
+     * Stages uploads: each document is stored with status {@link DocumentIngestionService#STAGED} and its
+     * bytes are written to the staging table, all in one transaction, and ingestion starts once that
+     * commits. The status given in an upload is applied when its ingestion finishes.
+     * <p>
+     * The document rows, the staged rows and the outbox events are each written as one JDBC batch
+     * (up to {@code hibernate.jdbc.batch_size} rows). The content of each upload is streamed into its
+     * staged row as the batch is sent, so a batch of large files is never held in memory.
+     * </p>
+     *
+     * @param uploads the uploads
+     * @return the new document ids, in upload order
+     */
+    @Transactional
+    public List<Long> saveDocuments(List<Upload> uploads) {
+        List<Documents> documents = new ArrayList<>(uploads.size());
+        for (Upload upload : uploads) {
+            Documents document = new Documents();
+            document.setClientId(upload.clientId());
+            document.setDocumentName(upload.documentName());
+            document.setStatus(DocumentIngestionService.STAGED);
+            document.setUploadedAt(upload.uploadedAt());
+            documents.add(document);
+        }
+        documentRepository.saveAll(documents);
+        stage(documents, uploads);
+
+        List<Long> ids = documents.stream().map(Documents::getId).toList();
+        Map<String, List<Documents>> byClient = documents.stream()
+                .collect(Collectors.groupingBy(Documents::getClientId, LinkedHashMap::new, Collectors.toList()));
+        byClient.forEach((clientId, owned) -> outboxService.documentsChanged(ChangeEvent.CREATED,
+                owned.stream().map(Documents::getId).toList(), clientId));
+        submitAfterCommit(ids);
+        return ids;
+    }
+
+    /**
+     * Inserts the staged rows with {@code setBinaryStream}, which the Postgres driver copies to the socket
+     * while the batch is sent. The streams stay open until then.
+     */
+    private void stage(List<Documents> documents, List<Upload> uploads) {
+        Timestamp now = Timestamp.from(Instant.now());
+        List<InputStream> opened = new ArrayList<>(uploads.size());
+        try {
+            jdbcTemplate.batchUpdate("INSERT INTO document_staging (document_id, data, requested_status, staged_at, " +
+                    "attempts) VALUES (?, ?, ?, ?, 0)", new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    Upload upload = uploads.get(i);
+                    InputStream content;
+                    try {
+                        content = upload.content().getInputStream();
+                    } catch (IOException e) {
+                        throw new SQLException("Cannot read upload " + upload.documentName(), e);
+                    }
+                    opened.add(content);
+                    ps.setLong(1, documents.get(i).getId());
+                    ps.setBinaryStream(2, content, upload.size());
+                    ps.setString(3, upload.status());
+                    ps.setTimestamp(4, now);
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return uploads.size();
+                }
+            });
+        } finally {
+            for (InputStream content : opened) {
+                try {
+                    content.close();
+                } catch (IOException ignored) {
+                    // a spooled part is deleted with the request anyway
+                }
+            }
+        }
+    }
+
+    private void submitAfterCommit(List<Long> documentIds) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                documentIds.forEach(documentIngestionService::submit);
+            }
+        });
+    }
+
+    /**
+     * Deletes documents of one client.
+     * <p>
+     * The documents, their staged content and the queueing of their blob references are a single statement;
+     * the blobs themselves are released later by {@link DocumentBlobSweeper}.
+     * </p>
+     *
+     * @param clientId    the owning client's tax ID; ids of other clients' documents are ignored
+     * @param documentIds the document ids
+     * @return the ids of the deleted documents
+     */
+    @Transactional
+    public List<Long> deleteDocuments(String clientId, Collection<Long> documentIds) {
+        if (documentIds.isEmpty()) {
+            return List.of();
+        }
+        List<Long> deleted = documentRepository.deleteByClientIdAndIdIn(clientId, documentIds);
+        outboxService.documentsChanged(ChangeEvent.DELETED, deleted, clientId);
+        return deleted;
+    }
+
+    /**
+     * Deletes every document with the given name, of any client.
+     *
+     * @deprecated a name is not unique across clients; use {@link #deleteDocuments}
+     */
+    @Deprecated
     @Transactional
     public void deleteDocumentByDocId(String fileName){
-        documentRepository.deleteByDocumentName(fileName);
+        Map<String, List<Long>> idsByClient = documentRepository.findKeysByDocumentName(fileName).stream()
+                .collect(Collectors.groupingBy(DocumentRepository.DocumentKey::getClientId,
+                        Collectors.mapping(DocumentRepository.DocumentKey::getId, Collectors.toList())));
+        idsByClient.forEach(this::deleteDocuments);
     }
 }
@@ -0,0 +1,130 @@
+package com.ams.service;
+
+import com.ams.entity.OutboxEvent;
+import com.ams.events.ChangeEvent;
+import com.ams.events.ChangeEventSink;
+import com.ams.repository.OutboxEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * {@code OutboxRelay} drains the transactional outbox and hands events to every registered {@link ChangeEventSink}.
+ * <p>
+ * Events are read in {@code (txId, id)} order and only once their transaction is older than every running
+ * one (see {@link OutboxEvent}), so sinks observe them in an order that a late commit can never break.
+ * A long-running transaction anywhere in the database therefore delays delivery until it ends.
+ * Each batch takes a Postgres advisory lock first: with several client-service instances only one relay
+ * publishes at a time, the others skip the batch, so events are neither published twice nor reordered.
+ * Rows are marked as published only after all sinks accepted the batch; a failure leaves the batch
+ * unpublished and it is retried on the next run (at-least-once delivery).
+ * </p>
+ *
+ * <p>
+ * Published rows are deleted once they are older than {@code outbox.retention.period}. They are kept that
+ * long because {@link ChangeSyncService} reads the outbox as its change log.
+ * </p>
+ *
+ * <p>Tuning properties:</p>
+ * <ul>
+ *     <li>{@code outbox.relay.batch-size} – maximum events per batch (default 200)</li>
+ *     <li>{@code outbox.relay.interval-ms} – delay between runs when the outbox is drained (default 500)</li>
+ *     <li>{@code outbox.retention.period} – how long published events are kept (default 7d)</li>
+ *     <li>{@code outbox.retention.cron} – when expired events are deleted (default hourly)</li>
+ * </ul>
+ *
+ * @author Yosef Nago
+ */
+@Service
+public class OutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final List<ChangeEventSink> sinks;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration retention;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       List<ChangeEventSink> sinks,
+                       TransactionTemplate transactionTemplate,
+                       @Value("${outbox.relay.batch-size:200}") int batchSize,
+                       @Value("${outbox.retention.period:7d}") Duration retention) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.sinks = sinks;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.retention = retention;
+    }
+
+    /**
+     * Publishes batches until the outbox is empty or a sink fails.
+     */
+    @Scheduled(fixedDelayString = "${outbox.relay.interval-ms:500}")
+    public void relay() {
+        try {
+            while (publishNextBatch() == batchSize) {
+                // keep draining while full batches are available
+            }
+        } catch (RuntimeException e) {
+            log.warn("Outbox relay failed, batch will be retried: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Publishes a single batch of unpublished events.
+     *
+     * @return the number of events published; {@code 0} if another relay holds the lock
+     */
+    public int publishNextBatch() {
+        Integer published = transactionTemplate.execute(status -> {
+            if (!outboxEventRepository.tryLockRelay()) {
+                return 0;
+            }
+            List<OutboxEvent> batch = outboxEventRepository.findPublishable(batchSize);
+            if (batch.isEmpty()) {
+                return 0;
+            }
+
+            List<ChangeEvent> events = batch.stream().map(OutboxRelay::toChangeEvent).toList();
+            for (ChangeEventSink sink : sinks) {
+                sink.publish(events);
+            }
+
+            outboxEventRepository.markPublished(batch.stream().map(OutboxEvent::getId).toList(), Instant.now());
+            return batch.size();
+        });
+        return published == null ? 0 : published;
+    }
+
+    /**
+     * Deletes published events older than the retention period.
+     */
+    @Scheduled(cron = "${outbox.retention.cron:0 30 * * * *}")
+    public void deleteExpired() {
+        Integer deleted = transactionTemplate.execute(status ->
+                outboxEventRepository.deleteExpired(Instant.now().minus(retention)));
+        if (deleted != null && deleted > 0) {
+            log.info("Deleted {} published outbox events older than {}", deleted, retention);
+        }
+    }
+
+    static ChangeEvent toChangeEvent(OutboxEvent event) {
+        return new ChangeEvent(
+                event.getId(),
+                event.getAggregateType(),
+                event.getAggregateId(),
+                event.getEventType(),
+                event.getClientId(),
+                event.getAccountantName(),
+                event.getCreatedAt());
+    }
+}
@@ -0,0 +1,90 @@
+package com.ams.service;
+
+import com.ams.entity.OutboxEvent;
+import com.ams.events.ChangeEvent;
+import com.ams.repository.OutboxEventRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * {@code OutboxService} records change events into the transactional outbox.
+ * <p>
+ * Every method requires an already-active transaction, so the event is committed or rolled back
+ * together with the business change that produced it.
+ * </p>
+ *
+ * @author Yosef Nago
+ */
+@Service
+public class OutboxService {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    public OutboxService(OutboxEventRepository outboxEventRepository, JdbcTemplate jdbcTemplate) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Records a change to a client.
+     *
+     * @param eventType      {@code CREATED}, {@code UPDATED} or {@code DELETED}
+     * @param clientId       the client's tax ID
+     * @param accountantName the accountant owning the client
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void clientChanged(String eventType, String clientId, String accountantName) {
+        record(ChangeEvent.CLIENT, clientId, eventType, clientId, accountantName);
+    }
+
+    /**
+     * Records a change to a document.
+     *
+     * @param eventType  {@code CREATED}, {@code UPDATED} or {@code DELETED}
+     * @param documentId the document identifier
+     * @param clientId   the owning client's tax ID
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void documentChanged(String eventType, String documentId, String clientId) {
+        record(ChangeEvent.DOCUMENT, documentId, eventType, clientId, null);
+    }
+
+    /**
+     * Records the same change to many documents of one client with a single JDBC batch.
+     *
+     * @param eventType   {@code CREATED}, {@code UPDATED} or {@code DELETED}
+     * @param documentIds the document identifiers
+     * @param clientId    the owning client's tax ID
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void documentsChanged(String eventType, Collection<Long> documentIds, String clientId) {
+        if (documentIds.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Object[]> rows = documentIds.stream()
+                .map(id -> new Object[]{ChangeEvent.DOCUMENT, String.valueOf(id), eventType, clientId, now})
+                .toList();
+        jdbcTemplate.batchUpdate("INSERT INTO outbox_events (aggregate_type, aggregate_id, event_type, client_id, " +
+                "created_at) VALUES (?, ?, ?, ?, ?)", rows);
+    }
+
+    private void record(String aggregateType, String aggregateId, String eventType, String clientId, String accountantName) {
+        OutboxEvent event = new OutboxEvent();
+        event.setAggregateType(aggregateType);
+        event.setAggregateId(aggregateId);
+        event.setEventType(eventType);
+        event.setClientId(clientId);
+        event.setAccountantName(accountantName);
+        event.setCreatedAt(Instant.now());
+        outboxEventRepository.save(event);
+    }
+}
@@ -0,0 +1,76 @@
+package com.ams.storage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * How the bytes of a {@link com.ams.entity.DocumentBlob} are stored. The codec is kept with the blob, so
+ * blobs written under different settings can always be read back.
+ *
+ * @author Yosef Nago
+ */
+public enum BlobCodec {
+
+    /** Stored as uploaded. */
+    NONE {
+        @Override
+        public byte[] encode(byte[] content, int level) {
+            return content;
+        }
+
+        @Override
+        public InputStream decode(InputStream stored) {
+            return stored;
+        }
+    },
+
+    /** zlib-wrapped deflate, see {@link Deflater}. */
+    DEFLATE {
+        @Override
+        public byte[] encode(byte[] content, int level) {
+            Deflater deflater = new Deflater(level);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, content.length / 2));
+            try (DeflaterOutputStream deflate = new DeflaterOutputStream(out, deflater, 8192)) {
+                deflate.write(content);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                deflater.end();
+            }
+            return out.toByteArray();
+        }
+
+        @Override
+        public InputStream decode(InputStream stored) {
+            Inflater inflater = new Inflater();
+            return new InflaterInputStream(stored, inflater, 8192) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        inflater.end();
+                    }
+                }
+            };
+        }
+    };
+
+    /**
+     * @param content the original bytes
+     * @param level   the compression level, 1 (fastest) to 9 (smallest); ignored by {@link #NONE}
+     * @return the bytes to store
+     */
+    public abstract byte[] encode(byte[] content, int level);
+
+    /**
+     * Wraps the stored bytes so that reading yields the original content, decoding as it is read.
+     */
+    public abstract InputStream decode(InputStream stored);
+}
@@ -0,0 +1,116 @@
+package com.ams.storage;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.zip.Deflater;
+
+/**
+ * {@code CompressionPolicy} decides per upload whether its content is stored compressed.
+ * <p>
+ * The content type is guessed from the file name. Text formats (CSV exports, XML invoices, JSON, plain
+ * text) are always compressed; formats that are compressed already (images, video, archives, Office
+ * Open XML) never are. For everything else, PDFs in particular, whose text-heavy pages compress well but
+ * whose scans do not, a few slices of the content are compressed at the fastest level and the content
+ * is compressed only if the sample shrank enough. Finally, compressed output that does not save at least
+ * {@code documents.compression.min-saving} is discarded and the content is stored as is.
+ * </p>
+ *
+ * <p>Tuning properties:</p>
+ * <ul>
+ *     <li>{@code documents.compression.enabled} – compress at all (default true); existing blobs are
+ *     read with their recorded codec either way</li>
+ *     <li>{@code documents.compression.level} – deflate level (default 6)</li>
+ *     <li>{@code documents.compression.min-size} – smaller content is stored as is (default 1024 bytes)</li>
+ *     <li>{@code documents.compression.min-saving} – required fraction saved (default 0.1)</li>
+ * </ul>
+ *
+ * @author Yosef Nago
+ */
+@Component
+public class CompressionPolicy {
+
+    private static final int SAMPLE_SLICE = 16 * 1024;
+    private static final int SAMPLE_SLICES = 3;
+
+    private static final Set<String> INCOMPRESSIBLE_TYPES = Set.of(
+            "application/zip", "application/gzip", "application/x-gzip", "application/x-7z-compressed",
+            "application/x-rar-compressed", "application/vnd.rar");
+
+    private final boolean enabled;
+    private final int level;
+    private final int minSize;
+    private final double minSaving;
+
+    public CompressionPolicy(@Value("${documents.compression.enabled:true}") boolean enabled,
+                             @Value("${documents.compression.level:6}") int level,
+                             @Value("${documents.compression.min-size:1024}") int minSize,
+                             @Value("${documents.compression.min-saving:0.1}") double minSaving) {
+        this.enabled = enabled;
+        this.level = level;
+        this.minSize = minSize;
+        this.minSaving = minSaving;
+    }
+
+    /**
+     * Encodes content for storage.
+     *
+     * @param fileName the uploaded file name, used to guess the content type
+     * @param content  the original bytes
+     * @return the chosen codec and the bytes to store
+     */
+    public Encoded encode(String fileName, byte[] content) {
+        if (!enabled || content.length < minSize || !worthCompressing(fileName, content)) {
+            return new Encoded(BlobCodec.NONE, content);
+        }
+        byte[] compressed = BlobCodec.DEFLATE.encode(content, level);
+        return saves(compressed.length, content.length)
+                ? new Encoded(BlobCodec.DEFLATE, compressed)
+                : new Encoded(BlobCodec.NONE, content);
+    }
+
+    private boolean worthCompressing(String fileName, byte[] content) {
+        MediaType type = MediaTypeFactory.getMediaType(fileName).orElse(MediaType.APPLICATION_OCTET_STREAM);
+        String subtype = type.getSubtype();
+        if ("text".equals(type.getType()) || subtype.equals("xml") || subtype.endsWith("+xml")
+                || subtype.equals("json") || subtype.endsWith("+json")) {
+            return true;
+        }
+        if ("image".equals(type.getType()) || "video".equals(type.getType()) || "audio".equals(type.getType())
+                || INCOMPRESSIBLE_TYPES.contains(type.getType() + "/" + subtype)
+                || subtype.startsWith("vnd.openxmlformats")) {
+            return false;
+        }
+        return sampleCompresses(content);
+    }
+
+    /**
+     * Compresses slices from the start, middle and end at the fastest level, so a text header in front
+     * of an already compressed body does not decide on its own.
+     */
+    private boolean sampleCompresses(byte[] content) {
+        if (content.length <= SAMPLE_SLICE * SAMPLE_SLICES) {
+            return saves(BlobCodec.DEFLATE.encode(content, Deflater.BEST_SPEED).length, content.length);
+        }
+        byte[] sample = new byte[SAMPLE_SLICE * SAMPLE_SLICES];
+        for (int i = 0; i < SAMPLE_SLICES; i++) {
+            int from = (int) ((long) (content.length - SAMPLE_SLICE) * i / (SAMPLE_SLICES - 1));
+            System.arraycopy(content, from, sample, i * SAMPLE_SLICE, SAMPLE_SLICE);
+        }
+        return saves(BlobCodec.DEFLATE.encode(sample, Deflater.BEST_SPEED).length, sample.length);
+    }
+
+    private boolean saves(int stored, int original) {
+        return stored <= original * (1 - minSaving);
+    }
+
+    /**
+     * @param codec the codec {@code data} is encoded with
+     * @param data  the bytes to store
+     */
+    public record Encoded(BlobCodec codec, byte[] data) {
+    }
+}
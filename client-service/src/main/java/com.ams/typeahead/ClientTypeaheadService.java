@@ -0,0 +1,195 @@
+package com.ams.typeahead;
+
+import com.ams.dtos.clientDto.ClientChangesResponse;
+import com.ams.dtos.clientDto.ClientGridDto;
+import com.ams.events.ChangeEvent;
+import com.ams.service.ChangeSyncService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * {@code ClientTypeaheadService} keeps a {@link TypeaheadIndex} per accountant so the client search box
+ * can be answered from memory on every keystroke.
+ * <p>
+ * An accountant's index is built from a {@link ChangeSyncService} snapshot on their first query and keeps
+ * the snapshot's sync token. Before answering, an index that is stale catches up from the outbox with
+ * {@link ChangeSyncService#changesSince}, which applies only the changed rows. An index is stale once
+ * {@code typeahead.sync-interval} has passed since its last catch-up, or as soon as this instance relays a
+ * {@link ChangeEvent} for one of the accountant's clients. Changes made through another instance are
+ * therefore visible here within the sync interval, and changes relayed here on the next query.
+ * </p>
+ *
+ * <p>Tuning properties:</p>
+ * <ul>
+ *     <li>{@code typeahead.max-accountants} – indexes kept in memory; the least recently queried is
+ *     evicted beyond it (default 200)</li>
+ *     <li>{@code typeahead.idle-timeout} – indexes not queried for this long are evicted (default 30m)</li>
+ *     <li>{@code typeahead.sync-interval} – how long an index answers without asking the outbox for changes
+ *     from other instances (default 2s)</li>
+ * </ul>
+ *
+ * @author Yosef Nago
+ */
+@Service
+public class ClientTypeaheadService {
+
+    private static final Logger log = LoggerFactory.getLogger(ClientTypeaheadService.class);
+
+    private final ChangeSyncService changeSyncService;
+    private final int maxAccountants;
+    private final Duration idleTimeout;
+    private final Duration syncInterval;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    public ClientTypeaheadService(ChangeSyncService changeSyncService,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${typeahead.max-accountants:200}") int maxAccountants,
+                                  @Value("${typeahead.idle-timeout:30m}") Duration idleTimeout,
+                                  @Value("${typeahead.sync-interval:2s}") Duration syncInterval) {
+        this.changeSyncService = changeSyncService;
+        this.maxAccountants = maxAccountants;
+        this.idleTimeout = idleTimeout;
+        this.syncInterval = syncInterval;
+        Gauge.builder("ams.typeahead.accountants", entries, Map::size)
+                .description("Accountants with a typeahead index in memory")
+                .register(meterRegistry);
+        Gauge.builder("ams.typeahead.clients", this, ClientTypeaheadService::indexedClients)
+                .description("Clients held by all typeahead indexes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the accountant's best matching clients, building or catching up their index first if needed.
+     *
+     * @param accountantName the username of the accountant
+     * @param text           the text typed so far
+     * @param limit          the maximum number of rows to return
+     * @return the matches, best first
+     */
+    public List<ClientGridDto> search(String accountantName, String text, int limit) {
+        Entry entry = entries.computeIfAbsent(accountantName, name -> new Entry());
+        entry.lastAccess = System.nanoTime();
+        if (isStale(entry)) {
+            boolean built = entry.index != null;
+            sync(accountantName, entry);
+            if (!built) {
+                evictLeastRecentlyUsed();
+            }
+        }
+        entry.lock.readLock().lock();
+        try {
+            return entry.index.search(text, limit);
+        } finally {
+            entry.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Marks the owning accountant's index stale, so their next query catches up first.
+     */
+    @EventListener
+    public void onChange(ChangeEvent event) {
+        if (!ChangeEvent.CLIENT.equals(event.aggregateType()) || event.accountantName() == null) {
+            return;
+        }
+        Entry entry = entries.get(event.accountantName());
+        if (entry != null) {
+            entry.stale = true;
+        }
+    }
+
+    /**
+     * Evicts the indexes of accountants that have not searched within {@code typeahead.idle-timeout}.
+     */
+    @Scheduled(fixedDelayString = "${typeahead.eviction-interval-ms:60000}")
+    public void evictIdle() {
+        long now = System.nanoTime();
+        entries.entrySet().removeIf(e -> e.getValue().index != null
+                && now - e.getValue().lastAccess > idleTimeout.toNanos());
+    }
+
+    private boolean isStale(Entry entry) {
+        return entry.index == null || entry.stale || System.nanoTime() - entry.lastSync > syncInterval.toNanos();
+    }
+
+    private void sync(String accountantName, Entry entry) {
+        synchronized (entry) {
+            // another query may have caught up while this one waited
+            if (!isStale(entry)) {
+                return;
+            }
+            // cleared before reading, so an event relayed meanwhile makes the next query catch up again
+            entry.stale = false;
+            entry.lastSync = System.nanoTime();
+            long start = System.nanoTime();
+            ClientChangesResponse changes;
+            do {
+                changes = changeSyncService.changesSince(accountantName, entry.token, false);
+                apply(entry, changes);
+                entry.token = changes.nextToken();
+            } while (changes.hasMore());
+            log.debug("Synced typeahead index for {} ({} clients) in {} ms",
+                    accountantName, entry.index.size(), (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    private static void apply(Entry entry, ClientChangesResponse changes) {
+        if (changes.fullResync()) {
+            TypeaheadIndex index = new TypeaheadIndex();
+            changes.clients().forEach(index::upsert);
+            entry.index = index;
+            return;
+        }
+        if (changes.clients().isEmpty() && changes.deletedClientIds().isEmpty()) {
+            return;
+        }
+        entry.lock.writeLock().lock();
+        try {
+            changes.deletedClientIds().forEach(entry.index::remove);
+            changes.clients().forEach(entry.index::upsert);
+        } finally {
+            entry.lock.writeLock().unlock();
+        }
+    }
+    private void evictLeastRecentlyUsed() {
+        while (entries.size() > maxAccountants) {
+            entries.entrySet().stream()
+                    .min(Comparator.comparingLong(e -> e.getValue().lastAccess))
+                    .ifPresent(e -> entries.remove(e.getKey(), e.getValue()));
+        }
+    }
+
+    private double indexedClients() {
+        int total = 0;
+        for (Entry entry : entries.values()) {
+            TypeaheadIndex index = entry.index;
+            total += index == null ? 0 : index.size();
+        }
+        return total;
+    }
+
+    /**
+     * One accountant's index and its sync token; {@code index} is {@code null} until the first build completes.
+     */
+    private static final class Entry {
+        final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        volatile TypeaheadIndex index;
+        volatile String token;
+        volatile boolean stale;
+        volatile long lastSync;
+        volatile long lastAccess;
+    }
+}
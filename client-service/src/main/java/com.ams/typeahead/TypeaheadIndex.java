@@ -0,0 +1,375 @@
+package com.ams.typeahead;
+
+import com.ams.dtos.clientDto.ClientGridDto;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * {@code TypeaheadIndex} is an in-memory n-gram index over one accountant's {@link ClientGridDto} rows.
+ * <p>
+ * Every word of the business name, tax ID, email (split at {@code @} and {@code .}) and the digits of the
+ * phone is indexed by its one- and two-character prefixes and by all of its trigrams. A gram is packed into
+ * a {@code long} and mapped to a sorted {@code int[]} posting list of row slots, so the index holds no boxed
+ * values per posting. A query word of one or two characters is looked up by prefix, a longer one by the
+ * intersection of its trigrams; candidates are then verified against the row's words, which removes the
+ * false positives a trigram intersection can produce.
+ * </p>
+ *
+ * <p>Results are ranked: an exact tax ID or phone match first, then rows where every query word is a word
+ * prefix, then substring matches; ties are ordered by business name.</p>
+ *
+ * <p>The index is not thread-safe; {@link ClientTypeaheadService} guards it with a read-write lock.</p>
+ *
+ * @author Yosef Nago
+ */
+final class TypeaheadIndex {
+
+    private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern PHONE_LIKE = Pattern.compile("[\\d\\s\\-()+]+");
+    private static final int TRIGRAM = 3;
+    private static final int PREFIX_TAG = 4;
+
+    private static final int EXACT = 0;
+    private static final int PREFIX = 1;
+    private static final int CONTAINS = 2;
+
+    private static final Comparator<ClientGridDto> BY_NAME = Comparator
+            .comparing(ClientGridDto::businessName, Comparator.nullsLast(Comparator.<String>naturalOrder()))
+            .thenComparing(ClientGridDto::clientId, Comparator.nullsLast(Comparator.<String>naturalOrder()));
+
+    private final Map<String, Integer> slotByClientId = new HashMap<>();
+    private ClientGridDto[] rows = new ClientGridDto[16];
+    private String[][] rowWords = new String[16][];
+    private int slotCount;
+    private int[] freeSlots = new int[16];
+    private int freeCount;
+
+    private final LongIntHashMap postingByGram = new LongIntHashMap(1024);
+    private int[][] postings = new int[256][];
+    private int[] postingSizes = new int[256];
+
+    /**
+     * Adds the row, or replaces the row with the same tax ID.
+     */
+    void upsert(ClientGridDto client) {
+        remove(client.clientId());
+        int slot = allocateSlot();
+        String[] words = words(client);
+        rows[slot] = client;
+        rowWords[slot] = words;
+        slotByClientId.put(client.clientId(), slot);
+        for (long gram : grams(words)) {
+            addPosting(gram, slot);
+        }
+    }
+
+    /**
+     * @return {@code true} if a row with the tax ID was indexed
+     */
+    boolean remove(String clientId) {
+        Integer slot = slotByClientId.remove(clientId);
+        if (slot == null) {
+            return false;
+        }
+        for (long gram : grams(rowWords[slot])) {
+            removePosting(postingByGram.get(gram), slot);
+        }
+        rows[slot] = null;
+        rowWords[slot] = null;
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        }
+        freeSlots[freeCount++] = slot;
+        return true;
+    }
+
+    int size() {
+        return slotByClientId.size();
+    }
+
+    /**
+     * Returns the best matches for the text typed so far.
+     *
+     * @param text  the raw search box text
+     * @param limit the maximum number of rows to return
+     * @return up to {@code limit} rows, best match first; empty if the text has no letters or digits
+     */
+    List<ClientGridDto> search(String text, int limit) {
+        String[] terms = queryTerms(text);
+        if (terms.length == 0 || limit <= 0) {
+            return List.of();
+        }
+
+        int[] postingIds = postingIdsFor(terms);
+        if (postingIds == null) {
+            return List.of();
+        }
+        int driver = 0;
+        for (int i = 1; i < postingIds.length; i++) {
+            if (postingSizes[postingIds[i]] < postingSizes[postingIds[driver]]) {
+                driver = i;
+            }
+        }
+
+        TopK top = new TopK(limit);
+        int[] candidates = postings[postingIds[driver]];
+        int candidateCount = postingSizes[postingIds[driver]];
+        candidates:
+        for (int c = 0; c < candidateCount; c++) {
+            int slot = candidates[c];
+            for (int i = 0; i < postingIds.length; i++) {
+                if (i != driver && Arrays.binarySearch(postings[postingIds[i]], 0, postingSizes[postingIds[i]], slot) < 0) {
+                    continue candidates;
+                }
+            }
+            int score = score(slot, terms);
+            if (score >= 0) {
+                top.offer(score, rows[slot]);
+            }
+        }
+        return top.toList();
+    }
+
+    // ---------------------------------------------------------------------------------------------
+
+    /**
+     * @return the posting list of every gram the terms require, or {@code null} if one has no rows
+     */
+    private int[] postingIdsFor(String[] terms) {
+        List<Long> grams = new ArrayList<>();
+        for (String term : terms) {
+            if (term.length() < TRIGRAM) {
+                grams.add(prefixGram(term, term.length()));
+            } else {
+                for (int i = 0; i + TRIGRAM <= term.length(); i++) {
+                    grams.add(trigram(term, i));
+                }
+            }
+        }
+        int[] ids = grams.stream().distinct().mapToInt(postingByGram::get).toArray();
+        for (int id : ids) {
+            if (id == LongIntHashMap.MISSING || postingSizes[id] == 0) {
+                return null;
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * @return the rank of the row for the terms, or {@code -1} if a term does not occur in it
+     */
+    private int score(int slot, String[] terms) {
+        if (terms.length == 1) {
+            ClientGridDto row = rows[slot];
+            if (terms[0].equals(row.clientId()) || digitsEqual(row.phone(), terms[0])) {
+                return EXACT;
+            }
+        }
+        int score = PREFIX;
+        for (String term : terms) {
+            boolean prefix = false;
+            boolean contains = false;
+            for (String word : rowWords[slot]) {
+                if (word.startsWith(term)) {
+                    prefix = true;
+                    break;
+                }
+                contains |= term.length() >= TRIGRAM && word.contains(term);
+            }
+            if (!prefix && !contains) {
+                return -1;
+            }
+            if (!prefix) {
+                score = CONTAINS;
+            }
+        }
+        return score;
+    }
+
+    private static boolean digitsEqual(String phone, String digits) {
+        if (phone == null) {
+            return false;
+        }
+        int matched = 0;
+        for (int i = 0; i < phone.length(); i++) {
+            char c = phone.charAt(i);
+            if (c >= '0' && c <= '9' && (matched == digits.length() || digits.charAt(matched++) != c)) {
+                return false;
+            }
+        }
+        return matched == digits.length();
+    }
+
+    static String[] queryTerms(String text) {
+        String trimmed = text == null ? "" : text.strip().toLowerCase(Locale.ROOT);
+        if (!trimmed.isEmpty() && PHONE_LIKE.matcher(trimmed).matches()) {
+            String digits = trimmed.replaceAll("\\D", "");
+            return digits.isEmpty() ? new String[0] : new String[]{digits};
+        }
+        return split(trimmed).toArray(String[]::new);
+    }
+
+    private static String[] words(ClientGridDto client) {
+        List<String> words = new ArrayList<>();
+        words.addAll(split(lower(client.businessName())));
+        words.addAll(split(lower(client.clientId())));
+        words.addAll(split(lower(client.email())));
+        String digits = client.phone() == null ? "" : client.phone().replaceAll("\\D", "");
+        if (!digits.isEmpty()) {
+            words.add(digits);
+        }
+        return words.stream().distinct().toArray(String[]::new);
+    }
+
+    private static List<String> split(String text) {
+        return Arrays.stream(WORD_SEPARATOR.split(text)).filter(word -> !word.isEmpty()).toList();
+    }
+
+    private static String lower(String value) {
+        return value == null ? "" : value.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * @return the distinct grams of the words, sorted
+     */
+    private static long[] grams(String[] words) {
+        int capacity = 0;
+        for (String word : words) {
+            capacity += 2 + Math.max(0, word.length() - TRIGRAM + 1);
+        }
+        long[] grams = new long[capacity];
+        int count = 0;
+        for (String word : words) {
+            for (int length = 1; length <= Math.min(2, word.length()); length++) {
+                grams[count++] = prefixGram(word, length);
+            }
+            for (int i = 0; i + TRIGRAM <= word.length(); i++) {
+                grams[count++] = trigram(word, i);
+            }
+        }
+        Arrays.sort(grams, 0, count);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || grams[distinct - 1] != grams[i]) {
+                grams[distinct++] = grams[i];
+            }
+        }
+        return Arrays.copyOf(grams, distinct);
+    }
+
+    // A gram is a 3-bit tag (its length, plus PREFIX_TAG for word prefixes) followed by up to three
+    // 16-bit chars; the tag keeps it non-zero and separates prefixes from trigrams.
+    private static long prefixGram(String word, int length) {
+        long gram = PREFIX_TAG | length;
+        for (int i = 0; i < length; i++) {
+            gram = gram << 16 | word.charAt(i);
+        }
+        return gram;
+    }
+
+    private static long trigram(String word, int from) {
+        long gram = TRIGRAM;
+        for (int i = from; i < from + TRIGRAM; i++) {
+            gram = gram << 16 | word.charAt(i);
+        }
+        return gram;
+    }
+
+    private int allocateSlot() {
+        if (freeCount > 0) {
+            return freeSlots[--freeCount];
+        }
+        if (slotCount == rows.length) {
+            rows = Arrays.copyOf(rows, slotCount * 2);
+            rowWords = Arrays.copyOf(rowWords, slotCount * 2);
+        }
+        return slotCount++;
+    }
+
+    private void addPosting(long gram, int slot) {
+        int next = postingByGram.size();
+        int id = postingByGram.putIfAbsent(gram, next);
+        if (id == LongIntHashMap.MISSING) {
+            id = next;
+            if (id == postings.length) {
+                postings = Arrays.copyOf(postings, id * 2);
+                postingSizes = Arrays.copyOf(postingSizes, id * 2);
+            }
+            postings[id] = new int[2];
+        }
+        int[] posting = postings[id];
+        int size = postingSizes[id];
+        int at = Arrays.binarySearch(posting, 0, size, slot);
+        if (at >= 0) {
+            return;
+        }
+        at = -at - 1;
+        if (size == posting.length) {
+            posting = postings[id] = Arrays.copyOf(posting, size + (size >> 1) + 2);
+        }
+        System.arraycopy(posting, at, posting, at + 1, size - at);
+        posting[at] = slot;
+        postingSizes[id] = size + 1;
+    }
+
+    private void removePosting(int id, int slot) {
+        if (id == LongIntHashMap.MISSING) {
+            return;
+        }
+        int[] posting = postings[id];
+        int size = postingSizes[id];
+        int at = Arrays.binarySearch(posting, 0, size, slot);
+        if (at < 0) {
+            return;
+        }
+        System.arraycopy(posting, at + 1, posting, at, size - at - 1);
+        postingSizes[id] = size - 1;
+        if (size - 1 < posting.length / 4 && posting.length > 8) {
+            postings[id] = Arrays.copyOf(posting, posting.length / 2);
+        }
+    }
+
+    /**
+     * Keeps the {@code limit} best rows seen so far, ordered by score and then by name.
+     */
+    private static final class TopK {
+
+        private final int[] scores;
+        private final ClientGridDto[] rows;
+        private int size;
+
+        TopK(int limit) {
+            scores = new int[limit];
+            rows = new ClientGridDto[limit];
+        }
+
+        void offer(int score, ClientGridDto row) {
+            if (size == rows.length && compare(score, row, scores[size - 1], rows[size - 1]) >= 0) {
+                return;
+            }
+            int at = size == rows.length ? size - 1 : size++;
+            while (at > 0 && compare(score, row, scores[at - 1], rows[at - 1]) < 0) {
+                scores[at] = scores[at - 1];
+                rows[at] = rows[at - 1];
+                at--;
+            }
+            scores[at] = score;
+            rows[at] = row;
+        }
+
+        List<ClientGridDto> toList() {
+            return List.of(Arrays.copyOf(rows, size));
+        }
+
+        private static int compare(int score, ClientGridDto row, int otherScore, ClientGridDto other) {
+            return score != otherScore ? Integer.compare(score, otherScore) : BY_NAME.compare(row, other);
+        }
+    }
+}
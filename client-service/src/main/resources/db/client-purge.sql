@@ -0,0 +1,7 @@
+-- Index for the purge of deleted clients (ClientPurgeService). Runs after Hibernate has added the
+-- deleted/deleted_at columns to client_details; every statement is idempotent.
+--
+-- Only tombstones are indexed, so the index stays small and costs nothing on writes of live clients.
+
+CREATE INDEX IF NOT EXISTS idx_client_details_tombstones
+    ON client_details (deleted_at) WHERE deleted;
@@ -0,0 +1,34 @@
+-- Search columns and indexes for /client/search (ClientRepositoryCustomImpl.searchClients).
+-- Runs after Hibernate has created/updated client_details (spring.jpa.defer-datasource-initialization);
+-- every statement is idempotent.
+--
+-- Postgres has no Hebrew dictionary, so both columns use the 'simple' configuration: words are only
+-- lower-cased, never stemmed. pg_trgm treats Hebrew letters as word characters only in a database whose
+-- LC_CTYPE is a UTF-8 locale (the default of the postgres image), not in the C locale.
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+-- lets the GIN indexes below lead with the accountant_name equality column
+CREATE EXTENSION IF NOT EXISTS btree_gin;
+
+-- Everything searchable in one lower-cased string, phone reduced to its digits; matched with LIKE and
+-- trigram word similarity.
+ALTER TABLE client_details ADD COLUMN IF NOT EXISTS search_text text
+    GENERATED ALWAYS AS (lower(
+        coalesce(business_name, '') || ' ' ||
+        coalesce(client_id, '') || ' ' ||
+        coalesce(email, '') || ' ' ||
+        regexp_replace(coalesce(phone, ''), '[^0-9]', '', 'g'))) STORED;
+
+-- Word prefix search; e-mail addresses are split at '@' and '.' so each part is its own word.
+ALTER TABLE client_details ADD COLUMN IF NOT EXISTS search_vector tsvector
+    GENERATED ALWAYS AS (
+        setweight(to_tsvector('simple'::regconfig, coalesce(business_name, '')), 'A') ||
+        setweight(to_tsvector('simple'::regconfig, coalesce(client_id, '')), 'A') ||
+        setweight(to_tsvector('simple'::regconfig, regexp_replace(coalesce(email, ''), '[@.]', ' ', 'g')), 'B') ||
+        setweight(to_tsvector('simple'::regconfig, regexp_replace(coalesce(phone, ''), '[^0-9]', '', 'g')), 'B')) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_client_search_trgm
+    ON client_details USING gin (accountant_name, search_text gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_client_search_fts
+    ON client_details USING gin (accountant_name, search_vector);
@@ -0,0 +1,24 @@
+-- Indexes for the filtered, keyset-paginated document listing (DocumentRepositoryCustomImpl.searchDocuments).
+-- Runs after Hibernate has created/updated documents and after client-search.sql, which creates the
+-- pg_trgm and btree_gin extensions; every statement is idempotent.
+--
+-- Each sort order has an index that ends in (<sort column>, id), so a page is an index range scan that
+-- starts right after the cursor; backward scans serve the descending orders.
+
+CREATE INDEX IF NOT EXISTS idx_documents_client_uploaded
+    ON documents (client_id, uploaded_at, id);
+
+CREATE INDEX IF NOT EXISTS idx_documents_client_name
+    ON documents (client_id, document_name, id);
+
+-- status filter combined with the default (upload date) order
+CREATE INDEX IF NOT EXISTS idx_documents_client_status_uploaded
+    ON documents (client_id, status, uploaded_at, id);
+
+-- name substring filter (lower(document_name) LIKE '%...%')
+CREATE INDEX IF NOT EXISTS idx_documents_name_trgm
+    ON documents USING gin (client_id, lower(document_name) gin_trgm_ops);
+
+-- the deprecated name-only delete (DELETE /client/delete-document/{fileName}) matches across clients
+CREATE INDEX IF NOT EXISTS idx_documents_name
+    ON documents (document_name);
@@ -0,0 +1,13 @@
+-- Indexes for the outbox relay and its retention (OutboxRelay). Runs after Hibernate has added the tx_id
+-- column to outbox_events; every statement is idempotent.
+--
+-- Events are read in (tx_id, id) order. Only unpublished events are indexed for the relay, so the index
+-- stays small however many published events are kept for /client/changes.
+
+DROP INDEX IF EXISTS idx_outbox_unpublished;
+
+CREATE INDEX IF NOT EXISTS idx_outbox_pending
+    ON outbox_events (tx_id, id) WHERE published_at IS NULL;
+
+CREATE INDEX IF NOT EXISTS idx_outbox_position
+    ON outbox_events (tx_id, id);
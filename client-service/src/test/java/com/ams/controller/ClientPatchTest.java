@@ -0,0 +1,92 @@
+package com.ams.controller;
+
+import com.ams.commonsecurity.utils.JwtUtil;
+import com.ams.dtos.clientDto.CreateClientRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Sends {@code PATCH /client/update/{clientId}} requests, including ones that set no field, and checks the
+ * version rules.
+ */
+@SpringBootTest(properties = {
+        "eureka.client.enabled=false",
+        "outbox.relay.interval-ms=3600000",
+        "outbox.retention.cron=-"
+})
+@AutoConfigureMockMvc
+@Testcontainers(disabledWithoutDocker = true)
+class ClientPatchTest {
+
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Test
+    void patchAtTheCurrentVersionBumpsIt() throws Exception {
+        create("patch-owner", "530000001");
+
+        send("530000001", "patch-owner", "0", "{\"phone\":\"050-1111111\"}")
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""));
+        send("530000001", "patch-owner", "0", "{\"phone\":\"050-2222222\"}")
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void emptyPatchIsCheckedLikeAnyOther() throws Exception {
+        create("patch-empty", "530000002");
+
+        send("530000002", "patch-empty", "0", "{}")
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0\""));
+        send("530000002", "patch-empty", "7", "{}")
+                .andExpect(status().isConflict());
+        send("530000002", "someone-else", "0", "{}")
+                .andExpect(status().isNotFound());
+        send("530999999", "patch-empty", "0", "{}")
+                .andExpect(status().isNotFound());
+    }
+
+    private ResultActions send(String clientId, String username, String version, String body) throws Exception {
+        return mockMvc.perform(patch("/client/update/" + clientId)
+                .header("X-User-Name", username)
+                .header(HttpHeaders.IF_MATCH, "\"" + version + "\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body));
+    }
+
+    private void create(String accountantName, String taxId) throws Exception {
+        CreateClientRequest request = new CreateClientRequest(taxId + "@patch.test", "050-0000000", "Herzl 1",
+                "1234567", "Patch " + taxId, "עוסק מורשה", taxId, "Owner", "Bank", "001", "acc-" + taxId,
+                jwtUtil.generateToken(accountantName, "ACCOUNTANT", null));
+
+        mockMvc.perform(post("/client/create")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated());
+    }
+}
@@ -0,0 +1,153 @@
+package com.ams.controller;
+
+import com.ams.commonsecurity.jdbc.QueryBudget;
+import com.ams.commonsecurity.jdbc.QueryBudgetExceededException;
+import com.ams.commonsecurity.utils.JwtUtil;
+import com.ams.dtos.clientDto.CreateClientRequest;
+import com.ams.dtos.clientDto.LoadClientResponse;
+import com.ams.dtos.documentDto.BatchUploadResponse;
+import com.ams.dtos.documentDto.DocumentUploadResult;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Calls budgeted endpoints with {@code ams.jdbc.query-budget.strict} on, so an endpoint that runs more
+ * statements than its {@link QueryBudget} fails instead of only being logged.
+ */
+@SpringBootTest(properties = {
+        "ams.jdbc.query-budget.strict=true",
+        "eureka.client.enabled=false",
+        "outbox.relay.interval-ms=3600000",
+        "outbox.retention.cron=-"
+})
+@AutoConfigureMockMvc
+@Testcontainers(disabledWithoutDocker = true)
+@Import(QueryBudgetTest.OverBudgetController.class)
+class QueryBudgetTest {
+
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Test
+    void strictModeFailsTheStatementThatGoesOverBudget() {
+        ServletException e = assertThrows(ServletException.class,
+                () -> mockMvc.perform(get("/test/over-budget")));
+
+        assertInstanceOf(QueryBudgetExceededException.class, NestedExceptionUtils.getRootCause(e));
+    }
+
+    @Test
+    void createClientStaysWithinItsBudget() throws Exception {
+        create("budget-create", "520000001");
+    }
+
+    @Test
+    void loadClientsUsesOneStatementForAnyNumberOfClients() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            create("budget-load", String.valueOf(520_000_100 + i));
+        }
+
+        String body = mockMvc.perform(get("/client/load-clients").header("X-User-Name", "budget-load"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        LoadClientResponse response = objectMapper.readValue(body, LoadClientResponse.class);
+        assertTrue(response.success());
+        assertEquals(5, response.clients().size());
+    }
+
+    @Test
+    void batchUploadStaysWithinItsBudget() throws Exception {
+        create("budget-upload", "520000201");
+
+        String body = mockMvc.perform(multipart("/client/upload-batch")
+                        .file(new MockMultipartFile("files", "a.pdf", "application/pdf", new byte[200_000]))
+                        .file(new MockMultipartFile("files", "b.csv", "text/csv", "date,amount\n".getBytes()))
+                        .file(new MockMultipartFile("files", "empty.txt", "text/plain", new byte[0]))
+                        .param("clientId", "520000201")
+                        .param("status", "PENDING")
+                        .param("uploadedAt", "2026-01-31"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        BatchUploadResponse response = objectMapper.readValue(body, BatchUploadResponse.class);
+        assertEquals(3, response.results().size());
+        assertEquals(2, response.results().stream().filter(DocumentUploadResult::success).count());
+    }
+
+    @Test
+    void batchUploadWithAMalformedDateIsABadRequest() throws Exception {
+        create("budget-upload-date", "520000202");
+
+        mockMvc.perform(multipart("/client/upload-batch")
+                        .file(new MockMultipartFile("files", "a.pdf", "application/pdf", new byte[10]))
+                        .param("clientId", "520000202")
+                        .param("status", "PENDING")
+                        .param("uploadedAt", "31/01/2026"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private void create(String accountantName, String taxId) throws Exception {
+        CreateClientRequest request = new CreateClientRequest(taxId + "@budget.test", "050-0000000", "Herzl 1",
+                "1234567", "Budget " + taxId, "עוסק מורשה", taxId, "Owner", "Bank", "001", "acc-" + taxId,
+                jwtUtil.generateToken(accountantName, "ACCOUNTANT", null));
+
+        mockMvc.perform(post("/client/create")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated());
+    }
+
+    /**
+     * Runs two statements under a budget of one.
+     */
+    @RestController
+    static class OverBudgetController {
+
+        private final JdbcTemplate jdbcTemplate;
+
+        OverBudgetController(JdbcTemplate jdbcTemplate) {
+            this.jdbcTemplate = jdbcTemplate;
+        }
+
+        @QueryBudget(1)
+        @GetMapping("/test/over-budget")
+        public Integer overBudget() {
+            jdbcTemplate.queryForObject("SELECT 1", Integer.class);
+            return jdbcTemplate.queryForObject("SELECT 2", Integer.class);
+        }
+    }
+}
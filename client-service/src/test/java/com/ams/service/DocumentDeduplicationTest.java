@@ -0,0 +1,203 @@
+package com.ams.service;
+
+import com.ams.dtos.documentDto.DocumentUploadRequest;
+import com.ams.entity.DocumentBlob;
+import com.ams.repository.DocumentBlobRepository;
+import com.ams.storage.CompressionPolicy;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Runs uploads and deletes of identical content concurrently against Postgres and checks that every
+ * blob's reference count matches the documents pointing at it once ingestion and the blob sweeper have
+ * finished.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+@Import({DocumentService.class, DocumentBlobService.class, DocumentIngestionService.class, DocumentBlobSweeper.class,
+        OutboxService.class, CompressionPolicy.class, DocumentDeduplicationTest.Metrics.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class DocumentDeduplicationTest {
+
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static final byte[] RECEIPT = "receipt 2024-03 total 118.00".getBytes(StandardCharsets.UTF_8);
+    private static final String CLIENT_ID = "514000001";
+    private static final int THREADS = 16;
+
+    @Autowired
+    private DocumentService documentService;
+    @Autowired
+    private DocumentBlobSweeper documentBlobSweeper;
+    @Autowired
+    private DocumentBlobRepository documentBlobRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void clean() {
+        jdbcTemplate.execute("TRUNCATE documents, document_blobs, document_staging, document_blob_releases, outbox_events");
+    }
+
+    @Test
+    void concurrentUploadsOfSameContentShareOneBlob() throws Exception {
+        runConcurrently(THREADS, i -> upload("copy-" + i));
+        awaitSettled();
+
+        List<DocumentBlob> blobs = documentBlobRepository.findAll();
+        assertEquals(1, blobs.size());
+        assertEquals(THREADS, blobs.get(0).getRefCount());
+        assertEquals(THREADS, count("SELECT count(*) FROM documents WHERE blob_id = " + blobs.get(0).getId()));
+    }
+
+    @Test
+    void deletingLastReferenceWhileUploadingSameContentKeepsTheContent() throws Exception {
+        for (int round = 0; round < 50; round++) {
+            upload("old-" + round);
+            awaitSettled();
+            String old = "old-" + round;
+            String replacement = "new-" + round;
+            runConcurrently(2, i -> {
+                if (i == 0) {
+                    delete(old);
+                } else {
+                    upload(replacement);
+                }
+            });
+            awaitSettled();
+
+            assertEquals(1, documentBlobRepository.count(), "round " + round);
+            assertEquals(1, documentBlobRepository.findAll().get(0).getRefCount(), "round " + round);
+            delete(replacement);
+            awaitSettled();
+            assertEquals(0, documentBlobRepository.count(), "round " + round);
+        }
+    }
+
+    @Test
+    void mixedConcurrentUploadsAndDeletesKeepReferenceCountsExact() throws Exception {
+        for (int i = 0; i < THREADS; i++) {
+            upload("seed-" + i);
+        }
+        awaitSettled();
+        runConcurrently(THREADS * 2, i -> {
+            if (i % 2 == 0) {
+                delete("seed-" + i / 2);
+            } else {
+                upload("more-" + i);
+            }
+        });
+        awaitSettled();
+
+        assertEquals(0, count("""
+                SELECT count(*) FROM document_blobs b
+                WHERE b.ref_count <> (SELECT count(*) FROM documents d WHERE d.blob_id = b.id)
+                """));
+        assertEquals(THREADS, count("SELECT coalesce(sum(ref_count), 0) FROM document_blobs"));
+
+        for (int i = 1; i < THREADS * 2; i += 2) {
+            delete("more-" + i);
+        }
+        awaitSettled();
+        assertEquals(0, documentBlobRepository.count());
+    }
+
+    private void upload(String name) {
+        documentService.saveDocument(new DocumentUploadRequest(name, RECEIPT, CLIENT_ID, "PENDING", LocalDate.now()));
+    }
+
+    private void delete(String name) {
+        List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM documents WHERE document_name = ?", Long.class, name);
+        documentService.deleteDocuments(CLIENT_ID, ids);
+    }
+
+    /**
+     * Waits until every staged upload has been ingested, then applies the queued blob releases.
+     */
+    private void awaitSettled() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (count("SELECT count(*) FROM document_staging") > 0) {
+            if (System.nanoTime() > deadline) {
+                fail("Uploads were not ingested within 30 seconds");
+            }
+            Thread.sleep(20);
+        }
+        while (documentBlobSweeper.sweepBatch() > 0) {
+            // drain the release queue
+        }
+    }
+
+    private long count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Long.class);
+    }
+
+    /**
+     * Starts all tasks at the same moment and waits for them, rethrowing the first failure.
+     */
+    private static void runConcurrently(int tasks, IndexedTask task) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(tasks);
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (int i = 0; i < tasks; i++) {
+                int index = i;
+                futures.add(executor.submit((Callable<Void>) () -> {
+                    start.await();
+                    task.run(index);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @FunctionalInterface
+    private interface IndexedTask {
+        void run(int index) throws Exception;
+    }
+
+    @TestConfiguration
+    static class Metrics {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
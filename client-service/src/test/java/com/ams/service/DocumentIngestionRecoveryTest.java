@@ -0,0 +1,127 @@
+package com.ams.service;
+
+import com.ams.storage.CompressionPolicy;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Leaves staged uploads behind as a crashed instance would, with a claim older than the stale timeout, and
+ * checks what the recovery sweep makes of them.
+ */
+@DataJpaTest(properties = {
+        "documents.ingestion.max-attempts=3",
+        "documents.ingestion.stale-after=5m"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+@Import({DocumentBlobService.class, DocumentIngestionService.class, OutboxService.class, CompressionPolicy.class,
+        DocumentIngestionRecoveryTest.Metrics.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class DocumentIngestionRecoveryTest {
+
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static final byte[] RECEIPT = "receipt 2024-03 total 118.00".getBytes(StandardCharsets.UTF_8);
+
+    @Autowired
+    private DocumentIngestionService documentIngestionService;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void clean() {
+        jdbcTemplate.execute("TRUNCATE documents, document_blobs, document_staging, document_blob_releases, outbox_events");
+    }
+
+    @Test
+    void aClaimAbandonedBeforeTheLastAttemptIsIngested() throws Exception {
+        leaveAbandoned(900_001L, 1);
+
+        documentIngestionService.recover();
+
+        awaitStatus(900_001L, "PENDING");
+        assertEquals(0L, count("SELECT count(*) FROM document_staging"));
+    }
+
+    @Test
+    void aClaimAbandonedOnTheLastAttemptIsMarkedFailed() {
+        leaveAbandoned(900_002L, 3);
+
+        documentIngestionService.recover();
+
+        assertEquals(DocumentIngestionService.FAILED, status(900_002L));
+        assertNull(jdbcTemplate.queryForObject(
+                "SELECT claimed_at FROM document_staging WHERE document_id = 900002", Object.class));
+        // the bytes are kept and counted
+        documentIngestionService.refreshFailedBytes();
+        assertEquals(RECEIPT.length, meterRegistry.get("ams.documents.ingestion.failed.staged").gauge().value());
+
+        // and the document is not picked up again
+        documentIngestionService.recover();
+        assertEquals(DocumentIngestionService.FAILED, status(900_002L));
+    }
+
+    /**
+     * Writes a document claimed ten minutes ago by a worker that never finished.
+     */
+    private void leaveAbandoned(long documentId, int attempts) {
+        jdbcTemplate.update("INSERT INTO documents (id, client_id, document_name, status) VALUES (?, ?, ?, ?)",
+                documentId, "514000001", "receipt-" + documentId + ".txt", DocumentIngestionService.PROCESSING);
+        jdbcTemplate.update("INSERT INTO document_staging (document_id, data, requested_status, staged_at, " +
+                        "claimed_at, attempts) VALUES (?, ?, 'PENDING', now() - interval '11 minutes', " +
+                        "now() - interval '10 minutes', ?)",
+                documentId, RECEIPT, attempts);
+    }
+
+    private void awaitStatus(long documentId, String expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (!expected.equals(status(documentId))) {
+            if (System.nanoTime() > deadline) {
+                fail("Document " + documentId + " is " + status(documentId) + ", expected " + expected);
+            }
+            Thread.sleep(20);
+        }
+    }
+
+    private String status(long documentId) {
+        return jdbcTemplate.queryForObject("SELECT status FROM documents WHERE id = ?", String.class, documentId);
+    }
+
+    private long count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Long.class);
+    }
+
+    @TestConfiguration
+    static class Metrics {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package com.ams.service;
+
+import com.ams.events.ChangeEvent;
+import com.ams.events.ChangeEventSink;
+import com.ams.events.EmbeddedBrokerSink;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the outbox relay against Postgres and checks delivery through the embedded broker: commit-safe order
+ * when a lower id commits late, redelivery after a failed sink, no duplicates with concurrent relays, and
+ * retention.
+ */
+@DataJpaTest(properties = {
+        "outbox.sinks.embedded-broker.enabled=true",
+        // the relay is driven by the tests, not by the scheduler
+        "outbox.relay.interval-ms=3600000",
+        "outbox.retention.cron=-"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+@Import({OutboxRelay.class, OutboxService.class, EmbeddedBrokerSink.class, OutboxRelayTest.Sinks.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OutboxRelayTest {
+
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static final Duration WAIT = Duration.ofSeconds(5);
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+    @Autowired
+    private OutboxService outboxService;
+    @Autowired
+    private EmbeddedBrokerSink broker;
+    @Autowired
+    private FailingSink failingSink;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private BlockingQueue<ChangeEvent> received;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("TRUNCATE outbox_events");
+        failingSink.failing.set(false);
+        received = broker.subscribe();
+    }
+
+    @AfterEach
+    void tearDown() {
+        broker.unsubscribe(received);
+    }
+
+    @Test
+    void lowerIdCommittedLateIsDeliveredBeforeLaterTransactions() throws Exception {
+        CountDownLatch recorded = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        CompletableFuture<Void> slow = CompletableFuture.runAsync(() ->
+                transactionTemplate.executeWithoutResult(status -> {
+                    outboxService.clientChanged(ChangeEvent.CREATED, "500000001", "relay-test");
+                    recorded.countDown();
+                    await(commit);
+                }));
+        assertTrue(recorded.await(WAIT.toSeconds(), TimeUnit.SECONDS));
+        record("500000002");
+
+        // the fast transaction is held back while the slow one, which holds the lower id, is running
+        assertEquals(0, outboxRelay.publishNextBatch());
+
+        commit.countDown();
+        slow.get(WAIT.toSeconds(), TimeUnit.SECONDS);
+        assertEquals(2, outboxRelay.publishNextBatch());
+
+        assertEquals("500000001", broker.poll(received, WAIT).aggregateId());
+        assertEquals("500000002", broker.poll(received, WAIT).aggregateId());
+        assertNull(broker.poll(received, Duration.ofMillis(100)));
+    }
+
+    @Test
+    void failedBatchIsRedelivered() throws Exception {
+        record("500000003");
+        failingSink.failing.set(true);
+
+        assertThrows(IllegalStateException.class, () -> outboxRelay.publishNextBatch());
+        assertEquals(1, count("SELECT count(*) FROM outbox_events WHERE published_at IS NULL"));
+
+        failingSink.failing.set(false);
+        assertEquals(1, outboxRelay.publishNextBatch());
+        assertEquals(0, count("SELECT count(*) FROM outbox_events WHERE published_at IS NULL"));
+
+        // the broker may have seen the failed attempt as well: at least once, never lost
+        List<ChangeEvent> events = new ArrayList<>();
+        received.drainTo(events);
+        assertFalse(events.isEmpty());
+        assertTrue(events.stream().allMatch(event -> event.aggregateId().equals("500000003")));
+    }
+
+    @Test
+    void concurrentRelaysPublishEveryEventOnceInOrder() throws Exception {
+        int transactions = 50;
+        for (int t = 0; t < transactions; t++) {
+            int first = t * 10;
+            transactionTemplate.executeWithoutResult(status -> {
+                for (int i = 0; i < 10; i++) {
+                    outboxService.clientChanged(ChangeEvent.UPDATED, String.valueOf(600_000_000 + first + i),
+                            "relay-test");
+                }
+            });
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> relays = new ArrayList<>();
+            for (int r = 0; r < 4; r++) {
+                relays.add(executor.submit(() -> {
+                    while (count("SELECT count(*) FROM outbox_events WHERE published_at IS NULL") > 0) {
+                        outboxRelay.publishNextBatch();
+                    }
+                }));
+            }
+            for (Future<?> relay : relays) {
+                relay.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        List<ChangeEvent> events = new ArrayList<>();
+        received.drainTo(events);
+        assertEquals(transactions * 10, events.size());
+        for (int i = 0; i < events.size(); i++) {
+            assertEquals(String.valueOf(600_000_000 + i), events.get(i).aggregateId());
+        }
+    }
+
+    @Test
+    void retentionDeletesExpiredPublishedEventsUpToTheFirstPendingOne() {
+        for (int i = 0; i < 5; i++) {
+            record(String.valueOf(700_000_000 + i));
+        }
+        outboxRelay.publishNextBatch();
+        record("700000005");
+        jdbcTemplate.update("UPDATE outbox_events SET created_at = now() - interval '30 days'");
+        // the fourth event was never delivered, e.g. because the relay was down
+        jdbcTemplate.update("UPDATE outbox_events SET published_at = NULL WHERE aggregate_id = '700000003'");
+
+        outboxRelay.deleteExpired();
+
+        // events before the newest deletable one go; that one stays as the marker, the pending one and
+        // everything after it stay untouched
+        assertEquals(List.of("700000002", "700000003", "700000004", "700000005"), jdbcTemplate.queryForList(
+                "SELECT aggregate_id FROM outbox_events ORDER BY tx_id, id", String.class));
+    }
+
+    private void record(String clientId) {
+        transactionTemplate.executeWithoutResult(status ->
+                outboxService.clientChanged(ChangeEvent.CREATED, clientId, "relay-test"));
+    }
+
+    private long count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Long.class);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    static class FailingSink implements ChangeEventSink {
+
+        final AtomicBoolean failing = new AtomicBoolean();
+
+        @Override
+        public void publish(List<ChangeEvent> events) {
+            if (failing.get()) {
+                throw new IllegalStateException("sink unavailable");
+            }
+        }
+    }
+
+    @TestConfiguration
+    static class Sinks {
+        @Bean
+        FailingSink failingSink() {
+            return new FailingSink();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.ams.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompressionPolicyTest {
+
+    private final CompressionPolicy policy = new CompressionPolicy(true, 6, 1024, 0.1);
+
+    @Test
+    void compressesTextFormatsAndRestoresThemExactly() throws IOException {
+        byte[] csv = "date,description,amount\n".repeat(2000).getBytes(StandardCharsets.UTF_8);
+
+        CompressionPolicy.Encoded encoded = policy.encode("bank-2024-03.csv", csv);
+
+        assertEquals(BlobCodec.DEFLATE, encoded.codec());
+        assertTrue(encoded.data().length < csv.length / 10);
+        assertArrayEquals(csv, decode(encoded));
+    }
+
+    @Test
+    void storesAlreadyCompressedFormatsAsIs() {
+        byte[] photo = "not really a jpeg but very repetitive ".repeat(500).getBytes(StandardCharsets.UTF_8);
+
+        assertEquals(BlobCodec.NONE, policy.encode("receipt.jpg", photo).codec());
+    }
+
+    @Test
+    void samplesUnknownContentAndSkipsIncompressibleBodies() {
+        byte[] scan = new byte[200_000];
+        new Random(7).nextBytes(scan);
+        byte[] header = "%PDF-1.7\n".repeat(100).getBytes(StandardCharsets.US_ASCII);
+        System.arraycopy(header, 0, scan, 0, header.length);
+
+        assertEquals(BlobCodec.NONE, policy.encode("scan.pdf", scan).codec());
+    }
+
+    @Test
+    void leavesSmallContentUncompressed() {
+        byte[] tiny = "a".repeat(100).getBytes(StandardCharsets.US_ASCII);
+
+        assertEquals(BlobCodec.NONE, policy.encode("note.txt", tiny).codec());
+    }
+
+    private static byte[] decode(CompressionPolicy.Encoded encoded) throws IOException {
+        try (InputStream in = encoded.codec().decode(new ByteArrayInputStream(encoded.data()))) {
+            return in.readAllBytes();
+        }
+    }
+}
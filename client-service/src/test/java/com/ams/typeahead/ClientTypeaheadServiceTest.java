@@ -0,0 +1,138 @@
+package com.ams.typeahead;
+
+import com.ams.dtos.clientDto.ClientChangesResponse;
+import com.ams.dtos.clientDto.ClientGridDto;
+import com.ams.events.ChangeEvent;
+import com.ams.service.ChangeSyncService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ClientTypeaheadServiceTest {
+
+    private static final ClientGridDto COHEN = new ClientGridDto("Cohen Bakery", "514000001", null, null);
+    private static final ClientGridDto LEVI = new ClientGridDto("Levi Plumbing", "514000002", null, null);
+    private static final ClientGridDto MIZRAHI = new ClientGridDto("Mizrahi Bakery", "514000003", null, null);
+
+    private final ScriptedChanges changes = new ScriptedChanges();
+
+    @Test
+    void buildsFromASnapshotAndCatchesUpFromItsToken() {
+        ClientTypeaheadService service = service(Duration.ZERO);
+        changes.then(snapshot("1.10", COHEN, LEVI));
+
+        assertEquals(List.of(COHEN), service.search("dana", "bak", 10));
+
+        changes.then(delta("1.12", false, List.of(MIZRAHI), LEVI.clientId()));
+
+        assertEquals(List.of(COHEN, MIZRAHI), service.search("dana", "bak", 10));
+        assertEquals(List.of(), service.search("dana", "levi", 10));
+        assertEquals(Arrays.asList(null, "1.10", "1.12"), changes.tokens.subList(0, 3));
+    }
+
+    @Test
+    void changesFromOtherInstancesWaitForTheSyncInterval() {
+        ClientTypeaheadService service = service(Duration.ofHours(1));
+        changes.then(snapshot("1.10", COHEN));
+        service.search("dana", "bak", 10);
+
+        changes.then(delta("1.11", false, List.of(MIZRAHI)));
+
+        assertEquals(List.of(COHEN), service.search("dana", "bak", 10));
+        assertEquals(1, changes.tokens.size());
+    }
+
+    @Test
+    void aRelayedEventMakesTheNextQueryCatchUp() {
+        ClientTypeaheadService service = service(Duration.ofHours(1));
+        changes.then(snapshot("1.10", COHEN));
+        service.search("dana", "bak", 10);
+
+        changes.then(delta("1.11", false, List.of(MIZRAHI)));
+        service.onChange(clientEvent("bob"));
+        assertEquals(List.of(COHEN), service.search("dana", "bak", 10));
+
+        service.onChange(clientEvent("dana"));
+        assertEquals(List.of(COHEN, MIZRAHI), service.search("dana", "bak", 10));
+    }
+
+    @Test
+    void readsEveryPageOfALongChangeLog() {
+        ClientTypeaheadService service = service(Duration.ZERO);
+        changes.then(snapshot("1.10", COHEN));
+        service.search("dana", "bak", 10);
+
+        changes.then(delta("1.11", true, List.of(LEVI)));
+        changes.then(delta("1.12", false, List.of(MIZRAHI)));
+
+        assertEquals(List.of(COHEN, MIZRAHI), service.search("dana", "bak", 10));
+        assertEquals(List.of(LEVI), service.search("dana", "levi", 10));
+    }
+
+    @Test
+    void aSnapshotDuringCatchUpReplacesTheIndex() {
+        ClientTypeaheadService service = service(Duration.ZERO);
+        changes.then(snapshot("1.10", COHEN, LEVI));
+        service.search("dana", "bak", 10);
+
+        // the token fell behind the outbox retention
+        changes.then(snapshot("9.90", MIZRAHI));
+
+        assertEquals(List.of(MIZRAHI), service.search("dana", "bak", 10));
+        assertEquals(List.of(), service.search("dana", "levi", 10));
+    }
+
+    private ClientTypeaheadService service(Duration syncInterval) {
+        return new ClientTypeaheadService(changes, new SimpleMeterRegistry(), 10, Duration.ofMinutes(30), syncInterval);
+    }
+
+    private static ClientChangesResponse snapshot(String token, ClientGridDto... clients) {
+        return new ClientChangesResponse(true, "snapshot", token, false, true,
+                List.of(clients), List.of(), List.of(), List.of());
+    }
+
+    private static ClientChangesResponse delta(String token, boolean hasMore, List<ClientGridDto> clients,
+                                               String... deletedClientIds) {
+        return new ClientChangesResponse(true, "changes", token, hasMore, false,
+                clients, List.of(deletedClientIds), List.of(), List.of());
+    }
+
+    private static ChangeEvent clientEvent(String accountantName) {
+        return new ChangeEvent(1, ChangeEvent.CLIENT, "514000003", ChangeEvent.CREATED, "514000003",
+                accountantName, Instant.now());
+    }
+
+    /**
+     * Answers with the queued responses in order, then with "no changes", and records the tokens asked for.
+     */
+    private static final class ScriptedChanges extends ChangeSyncService {
+
+        final Queue<ClientChangesResponse> responses = new ArrayDeque<>();
+        final List<String> tokens = new ArrayList<>();
+
+        ScriptedChanges() {
+            super(null, null, null, 100);
+        }
+
+        void then(ClientChangesResponse response) {
+            responses.add(response);
+        }
+
+        @Override
+        public ClientChangesResponse changesSince(String accountantName, String token, boolean includeDocuments) {
+            tokens.add(token);
+            ClientChangesResponse next = responses.poll();
+            return next != null ? next : new ClientChangesResponse(true, "none", token, false, false,
+                    List.of(), List.of(), List.of(), List.of());
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.ams.typeahead;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LongIntHashMapTest {
+
+    @Test
+    void storesOnlyTheFirstValueOfAKey() {
+        LongIntHashMap map = new LongIntHashMap(8);
+
+        assertEquals(LongIntHashMap.MISSING, map.putIfAbsent(42L, 1));
+        assertEquals(1, map.putIfAbsent(42L, 2));
+
+        assertEquals(1, map.get(42L));
+        assertEquals(LongIntHashMap.MISSING, map.get(43L));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    void keepsEveryEntryWhileGrowing() {
+        LongIntHashMap map = new LongIntHashMap(8);
+        int entries = 50_000;
+        for (int i = 1; i <= entries; i++) {
+            // keys that share their low bits collide in a small table
+            map.putIfAbsent(key(i), i);
+        }
+
+        assertEquals(entries, map.size());
+        for (int i = 1; i <= entries; i++) {
+            assertEquals(i, map.get(key(i)));
+        }
+        assertEquals(LongIntHashMap.MISSING, map.get(key(entries + 1)));
+    }
+
+    @Test
+    void rejectsTheReservedKey() {
+        LongIntHashMap map = new LongIntHashMap(8);
+
+        assertThrows(IllegalArgumentException.class, () -> map.putIfAbsent(0L, 1));
+    }
+
+    private static long key(int i) {
+        return (long) i << 32 | (i % 2 == 0 ? -1L >>> 32 : 0);
+    }
+}
@@ -0,0 +1,157 @@
+package com.ams.typeahead;
+
+import com.ams.dtos.clientDto.ClientGridDto;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TypeaheadIndexTest {
+
+    private static final ClientGridDto COHEN = client("Cohen Bakery", "514000001", "info@cohen-bakery.co.il", "050-123-4567");
+    private static final ClientGridDto LEVI = client("Levi Plumbing", "514000002", "levi@plumb.co.il", "052-987-6543");
+    private static final ClientGridDto BAKERS = client("The Bakers Guild", "514000003", "office@guild.org", "03-555-1234");
+
+    private final TypeaheadIndex index = new TypeaheadIndex();
+
+    @Test
+    void upsertReplacesTheRowWithTheSameTaxId() {
+        index.upsert(COHEN);
+        index.upsert(client("Cohen Catering", "514000001", "info@cohen-catering.co.il", "050-123-4567"));
+
+        assertEquals(1, index.size());
+        assertEquals(List.of(), index.search("bakery cohen", 10));
+        assertEquals(List.of("Cohen Catering"), names(index.search("cater", 10)));
+    }
+
+    @Test
+    void removedRowsAreNoLongerFound() {
+        index.upsert(COHEN);
+        index.upsert(LEVI);
+
+        assertTrue(index.remove(COHEN.clientId()));
+        assertFalse(index.remove(COHEN.clientId()));
+
+        assertEquals(1, index.size());
+        assertEquals(List.of(), index.search("cohen", 10));
+        assertEquals(List.of(LEVI), index.search("levi", 10));
+    }
+
+    @Test
+    void reusedSlotsOnlyAnswerForTheirNewRow() {
+        for (int i = 0; i < 100; i++) {
+            index.upsert(client("Old " + i, String.valueOf(600_000 + i), null, null));
+        }
+        for (int i = 0; i < 100; i++) {
+            index.remove(String.valueOf(600_000 + i));
+        }
+        for (int i = 0; i < 100; i++) {
+            index.upsert(client("New " + i, String.valueOf(700_000 + i), null, null));
+        }
+
+        assertEquals(100, index.size());
+        assertEquals(List.of(), index.search("old", 10));
+        assertEquals(List.of(), index.search("600007", 10));
+        assertEquals(List.of("New 77"), names(index.search("new 77", 10)));
+        assertEquals(100, index.search("new", 1000).size());
+    }
+
+    @Test
+    void shortTermsMatchWordPrefixesOnly() {
+        index.upsert(COHEN);
+        index.upsert(LEVI);
+
+        assertEquals(List.of(COHEN), index.search("ba", 10));
+        // "ak" occurs inside "bakery" but starts no word
+        assertEquals(List.of(), index.search("ak", 10));
+    }
+
+    @Test
+    void longerTermsAlsoMatchInsideWords() {
+        index.upsert(COHEN);
+        index.upsert(LEVI);
+
+        assertEquals(List.of(COHEN), index.search("ker", 10));
+        assertEquals(List.of(LEVI), index.search("umbin", 10));
+    }
+
+    @Test
+    void everyTermMustOccurInTheRow() {
+        index.upsert(COHEN);
+        index.upsert(BAKERS);
+
+        assertEquals(List.of(BAKERS), index.search("bak guild", 10));
+    }
+
+    @Test
+    void trigramMatchesAreVerifiedAgainstTheWords() {
+        index.upsert(client("Bake Kery", "514000004", null, null));
+
+        // every trigram of "bakery" occurs in the row, but not within one word
+        assertEquals(List.of(), index.search("bakery", 10));
+    }
+
+    @Test
+    void emailIsSplitIntoWords() {
+        index.upsert(LEVI);
+
+        assertEquals(List.of(LEVI), index.search("plumb", 10));
+        assertEquals(List.of(LEVI), index.search("levi@plumb", 10));
+    }
+
+    @Test
+    void phoneIsMatchedByItsDigitsInAnyFormat() {
+        index.upsert(COHEN);
+        index.upsert(LEVI);
+
+        assertEquals(List.of(COHEN), index.search("050-1234567", 10));
+        assertEquals(List.of(COHEN), index.search("(050) 123 4567", 10));
+        assertEquals(List.of(COHEN), index.search("0501", 10));
+        assertEquals(List.of(COHEN, LEVI), index.search("05", 10));
+        assertArrayEquals(new String[]{"0501234567"}, TypeaheadIndex.queryTerms(" 050-123-4567 "));
+    }
+
+    @Test
+    void ranksExactMatchesThenPrefixesThenSubstringsThenByName() {
+        ClientGridDto exact = client("Zed Holdings", "514000009", null, null);
+        ClientGridDto prefixB = client("Bakery Two", "514000010", null, null);
+        ClientGridDto prefixA = client("Bakery One", "514000011", null, null);
+        ClientGridDto contains = client("Abakery", "514000012", null, null);
+        ClientGridDto taxPrefix = client("Aleph", "5140000091", null, null);
+        List.of(exact, prefixB, prefixA, contains, taxPrefix).forEach(index::upsert);
+
+        assertEquals(List.of(exact, taxPrefix), index.search("514000009", 10));
+        assertEquals(List.of(prefixA, prefixB, contains), index.search("bakery", 10));
+        assertEquals(List.of(prefixA, prefixB), index.search("bakery", 2));
+    }
+
+    @Test
+    void findsHebrewNames() {
+        ClientGridDto hebrew = client("מאפיית כהן", "514000020", null, null);
+        index.upsert(hebrew);
+
+        assertEquals(List.of(hebrew), index.search("כה", 10));
+        assertEquals(List.of(hebrew), index.search("אפיי", 10));
+    }
+
+    @Test
+    void ignoresTextWithoutLettersOrDigits() {
+        index.upsert(COHEN);
+
+        assertEquals(List.of(), index.search("  -- ", 10));
+        assertEquals(List.of(), index.search(null, 10));
+        assertEquals(List.of(), index.search("cohen", 0));
+    }
+
+    private static ClientGridDto client(String name, String taxId, String email, String phone) {
+        return new ClientGridDto(name, taxId, email, phone);
+    }
+
+    private static List<String> names(List<ClientGridDto> rows) {
+        return rows.stream().map(ClientGridDto::businessName).toList();
+    }
+}
@@ -0,0 +1,69 @@
+package com.ams.commonsecurity.jdbc;
+
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * {@code JdbcDiagnosticsConfig} puts a datasource-proxy layer in front of every {@link DataSource} of
+ * services that have datasource-proxy on the classpath.
+ *
+ * <ul>
+ *     <li>{@code ams.jdbc.slow-query-threshold} (default {@code 200ms}): statements at least this slow are
+ *     logged by {@link SlowQueryListener}</li>
+ *     <li>{@code ams.jdbc.query-budget.strict} (default {@code false}): fail the statement that takes a
+ *     request over its {@link QueryBudget} instead of only logging it; meant to be switched on in tests</li>
+ * </ul>
+ *
+ * @author Yosef Nago
+ */
+@Configuration
+@ConditionalOnClass(name = "net.ttddyy.dsproxy.support.ProxyDataSourceBuilder")
+public class JdbcDiagnosticsConfig {
+
+    /**
+     * Static, so the post-processor is registered before the data source is created.
+     */
+    @Bean
+    public static BeanPostProcessor slowQueryDataSourcePostProcessor(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource)) {
+                    return bean;
+                }
+                Duration threshold = environment.getProperty("ams.jdbc.slow-query-threshold", Duration.class,
+                        Duration.ofMillis(200));
+                return ProxyDataSourceBuilder.create(dataSource)
+                        .name(beanName)
+                        .listener(new SlowQueryListener(threshold))
+                        .build();
+            }
+        };
+    }
+
+    @Configuration
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    static class QueryBudgetWebConfig implements WebMvcConfigurer {
+
+        private final boolean strict;
+
+        QueryBudgetWebConfig(Environment environment) {
+            this.strict = environment.getProperty("ams.jdbc.query-budget.strict", Boolean.class, false);
+        }
+
+        @Override
+        public void addInterceptors(InterceptorRegistry registry) {
+            registry.addInterceptor(new QueryBudgetInterceptor(strict));
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.ams.commonsecurity.jdbc;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares how many SQL statements one call of a controller endpoint may run.
+ *
+ * <p>
+ * Every JDBC round trip counts, batches included as one. An endpoint going over its budget is logged, and
+ * with {@code ams.jdbc.query-budget.strict=true} (meant for tests) the statement that crosses the budget
+ * fails with a {@link QueryBudgetExceededException}. This catches N+1 loads, where one request quietly
+ * turns into one query per row.
+ * </p>
+ *
+ * <pre>{@code
+ * @QueryBudget(2)
+ * @GetMapping("/load-clients")
+ * public ResponseEntity<LoadClientResponse> loadClients(...) { ... }
+ * }</pre>
+ *
+ * @author Yosef Nago
+ * @see QueryBudgetInterceptor
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface QueryBudget {
+
+    /**
+     * @return the maximum number of statements per request
+     */
+    int value();
+}
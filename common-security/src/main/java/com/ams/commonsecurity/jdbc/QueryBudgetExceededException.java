@@ -0,0 +1,14 @@
+package com.ams.commonsecurity.jdbc;
+
+/**
+ * Thrown in strict mode by the statement that takes a request over its {@link QueryBudget}. The stack
+ * trace therefore points at the code issuing the extra queries.
+ *
+ * @author Yosef Nago
+ */
+public class QueryBudgetExceededException extends RuntimeException {
+
+    public QueryBudgetExceededException(String endpoint, int statements, int budget) {
+        super(endpoint + " ran " + statements + " SQL statements, budget is " + budget);
+    }
+}
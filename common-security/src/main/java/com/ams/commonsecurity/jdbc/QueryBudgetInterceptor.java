@@ -0,0 +1,72 @@
+package com.ams.commonsecurity.jdbc;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+/**
+ * {@code QueryBudgetInterceptor} counts the SQL statements of each controller call and checks them
+ * against the endpoint's {@link QueryBudget}.
+ *
+ * <p>
+ * Going over budget is logged at {@code WARN} once the request completes. In strict mode the offending
+ * statement has already failed with a {@link QueryBudgetExceededException}.
+ * </p>
+ *
+ * <p>
+ * Only the request thread is counted. When a handler starts asynchronous work, such as a
+ * {@code StreamingResponseBody}, the scope is closed as the request thread is released, so it does not leak
+ * into the next request served by that pooled thread; statements run by the async work itself are not counted.
+ * </p>
+ *
+ * @author Yosef Nago
+ */
+public class QueryBudgetInterceptor implements AsyncHandlerInterceptor {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryBudgetInterceptor.class);
+
+    private final boolean strict;
+
+    public QueryBudgetInterceptor(boolean strict) {
+        this.strict = strict;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod method) {
+            QueryBudget budget = method.getMethodAnnotation(QueryBudget.class);
+            RequestQueryCounter.begin(method.getBeanType().getSimpleName() + "." + method.getMethod().getName(),
+                    budget == null ? RequestQueryCounter.UNLIMITED : budget.value(),
+                    strict);
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        close(request);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        close(request);
+    }
+
+    private static void close(HttpServletRequest request) {
+        RequestQueryCounter.Scope scope = RequestQueryCounter.end();
+        if (scope == null) {
+            return;
+        }
+        if (scope.overBudget()) {
+            log.warn("{} ran {} SQL statements, budget is {} ({} {})", scope.endpoint(), scope.statements(),
+                    scope.budget(), request.getMethod(), request.getRequestURI());
+        } else {
+            log.debug("{} ran {} SQL statements", scope.endpoint(), scope.statements());
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.ams.commonsecurity.jdbc;
+
+/**
+ * {@code RequestQueryCounter} counts the SQL statements run by the request being handled on the
+ * current thread.
+ *
+ * <p>
+ * {@link QueryBudgetInterceptor} opens a scope when a request reaches its controller and closes it once the
+ * request completes, or once it hands off to asynchronous work; {@link SlowQueryListener} counts into it.
+ * Statements outside the request thread, such as scheduled jobs or a streamed response body, are not counted.
+ * </p>
+ *
+ * @author Yosef Nago
+ */
+final class RequestQueryCounter {
+
+    /** Budget value of a request whose endpoint declares no {@link QueryBudget}. */
+    static final int UNLIMITED = -1;
+
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+
+    static final class Scope {
+
+        private final String endpoint;
+        private final int budget;
+        private final boolean strict;
+        private int statements;
+
+        private Scope(String endpoint, int budget, boolean strict) {
+            this.endpoint = endpoint;
+            this.budget = budget;
+            this.strict = strict;
+        }
+
+        String endpoint() {
+            return endpoint;
+        }
+
+        int budget() {
+            return budget;
+        }
+
+        int statements() {
+            return statements;
+        }
+
+        boolean overBudget() {
+            return budget != UNLIMITED && statements > budget;
+        }
+    }
+
+    private RequestQueryCounter() {
+    }
+
+    static void begin(String endpoint, int budget, boolean strict) {
+        CURRENT.set(new Scope(endpoint, budget, strict));
+    }
+
+    /**
+     * Counts one statement against the current request, if there is one.
+     *
+     * @throws QueryBudgetExceededException in strict mode, when this statement goes over the budget
+     */
+    static void increment() {
+        Scope scope = CURRENT.get();
+        if (scope == null) {
+            return;
+        }
+        scope.statements++;
+        if (scope.strict && scope.overBudget()) {
+            throw new QueryBudgetExceededException(scope.endpoint, scope.statements, scope.budget);
+        }
+    }
+
+    /**
+     * Closes the scope of the current request.
+     *
+     * @return the closed scope, or {@code null} if none was open
+     */
+    static Scope end() {
+        Scope scope = CURRENT.get();
+        CURRENT.remove();
+        return scope;
+    }
+}
@@ -0,0 +1,88 @@
+package com.ams.commonsecurity.jdbc;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.stream.Collectors;
+
+/**
+ * {@code SlowQueryListener} times every JDBC statement and logs those slower than a threshold.
+ *
+ * <p>
+ * A slow statement is logged at {@code WARN} with its SQL, its bind parameters and a short hint of the
+ * application frames that issued it, e.g.
+ * {@code ClientService.createNewClient:90 <- ClientController.createClient:157}. Faster statements are
+ * not logged at all, which replaces {@code spring.jpa.show-sql}. Every statement is also counted against
+ * the current request for {@link QueryBudget}.
+ * </p>
+ *
+ * @author Yosef Nago
+ */
+public class SlowQueryListener implements QueryExecutionListener {
+
+    private static final Logger log = LoggerFactory.getLogger(SlowQueryListener.class);
+    private static final String APPLICATION_PACKAGE = "com.ams.";
+    private static final int HINT_FRAMES = 3;
+
+    private final long thresholdMillis;
+
+    public SlowQueryListener(Duration threshold) {
+        this.thresholdMillis = threshold.toMillis();
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        long elapsed = execInfo.getElapsedTime();
+        if (elapsed >= thresholdMillis) {
+            log.warn("Slow SQL ({} ms{}): {} params {} at {}",
+                    elapsed,
+                    execInfo.isBatch() ? ", batch of " + execInfo.getBatchSize() : "",
+                    queryInfoList.stream().map(QueryInfo::getQuery).collect(Collectors.joining("; ")),
+                    parameters(queryInfoList),
+                    stackHint());
+        }
+        RequestQueryCounter.increment();
+    }
+
+    private static String parameters(List<QueryInfo> queryInfoList) {
+        StringJoiner all = new StringJoiner(", ", "[", "]");
+        for (QueryInfo query : queryInfoList) {
+            for (List<ParameterSetOperation> operations : query.getParametersList()) {
+                StringJoiner row = new StringJoiner(", ", "(", ")");
+                for (ParameterSetOperation operation : operations) {
+                    Object[] args = operation.getArgs();
+                    boolean isNull = "setNull".equals(operation.getMethod().getName()) || args.length < 2;
+                    row.add(isNull ? "null" : String.valueOf(args[1]));
+                }
+                all.add(row.toString());
+            }
+        }
+        return all.toString();
+    }
+
+    static String stackHint() {
+        String hint = StackWalker.getInstance().walk(frames -> frames
+                .filter(frame -> frame.getClassName().startsWith(APPLICATION_PACKAGE))
+                .filter(frame -> !frame.getClassName().startsWith(SlowQueryListener.class.getPackageName()))
+                .filter(frame -> !frame.getClassName().contains("$$"))
+                .limit(HINT_FRAMES)
+                .map(frame -> simpleName(frame.getClassName()) + "." + frame.getMethodName() + ":" + frame.getLineNumber())
+                .collect(Collectors.joining(" <- ")));
+        return hint.isEmpty() ? "<outside application code>" : hint;
+    }
+
+    private static String simpleName(String className) {
+        return className.substring(className.lastIndexOf('.') + 1);
+    }
+}
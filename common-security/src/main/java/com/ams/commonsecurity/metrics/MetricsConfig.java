@@ -0,0 +1,62 @@
+package com.ams.commonsecurity.metrics;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * {@code MetricsConfig} gives every AMS service the same metric conventions, so dashboards can compare
+ * the hops of one request across services.
+ *
+ * <ul>
+ *     <li>every meter is tagged {@code application=<spring.application.name>}</li>
+ *     <li>the latency timers along the request path publish Prometheus histogram buckets between
+ *     1 ms and 30 s, so percentiles can be aggregated across instances</li>
+ * </ul>
+ *
+ * <p>Spring Boot applies {@link MeterFilter} beans to every registry it creates.</p>
+ *
+ * @author Yosef Nago
+ */
+@Configuration
+public class MetricsConfig {
+
+    /** Timers that make up the hot path of a request, across all services. */
+    private static final List<String> HISTOGRAM_PREFIXES = List.of(
+            "ams.",
+            "http.server.requests",
+            "http.client.requests",
+            "spring.cloud.gateway.requests",
+            "spring.data.repository.invocations");
+
+    @Bean
+    public MeterFilter applicationTag(@Value("${spring.application.name:unknown}") String application) {
+        return MeterFilter.commonTags(List.of(Tag.of("application", application)));
+    }
+
+    @Bean
+    public MeterFilter latencyHistograms() {
+        return new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                if (id.getType() != Meter.Type.TIMER
+                        || HISTOGRAM_PREFIXES.stream().noneMatch(prefix -> id.getName().startsWith(prefix))) {
+                    return config;
+                }
+                return DistributionStatisticConfig.builder()
+                        .percentilesHistogram(true)
+                        .minimumExpectedValue((double) Duration.ofMillis(1).toNanos())
+                        .maximumExpectedValue((double) Duration.ofSeconds(30).toNanos())
+                        .build()
+                        .merge(config);
+            }
+        };
+    }
+}
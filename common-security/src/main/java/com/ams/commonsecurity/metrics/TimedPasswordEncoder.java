@@ -0,0 +1,59 @@
+package com.ams.commonsecurity.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code TimedPasswordEncoder} records how long password hashing takes.
+ *
+ * <p>
+ * BCrypt is deliberately slow (tens of milliseconds per call at the default strength) and usually the
+ * most CPU-expensive step of login and registration, so it gets its own timers:
+ * {@code ams.password.encode} and {@code ams.password.matches} (tagged {@code matched=true|false}).
+ * </p>
+ *
+ * @author Yosef Nago
+ */
+public class TimedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final Timer encode;
+    private final Timer matched;
+    private final Timer mismatched;
+
+    public TimedPasswordEncoder(PasswordEncoder delegate, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.encode = Timer.builder("ams.password.encode")
+                .description("Time spent hashing a password")
+                .register(meterRegistry);
+        this.matched = Timer.builder("ams.password.matches")
+                .description("Time spent verifying a password")
+                .tag("matched", "true")
+                .register(meterRegistry);
+        this.mismatched = Timer.builder("ams.password.matches")
+                .description("Time spent verifying a password")
+                .tag("matched", "false")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return encode.record(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        long start = System.nanoTime();
+        boolean result = delegate.matches(rawPassword, encodedPassword);
+        (result ? matched : mismatched).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return result;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+}
@@ -0,0 +1,113 @@
+package com.ams.commonsecurity.tracing;
+
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.StringJoiner;
+
+/**
+ * {@code FileSpanExporter} appends finished spans to a local file, one span per line, so traces can be
+ * inspected without an external collector.
+ *
+ * <p>
+ * Every service writes {@code <directory>/<service>.spans}. Pointing all services at the same directory
+ * (the default) lets {@link TraceWaterfall} stitch the spans of one request back together across
+ * ui-service, the gateway, client-service and the database.
+ * </p>
+ *
+ * <p>
+ * Lines are tab separated: trace id, span id, parent span id (empty for a root span), service, start and
+ * end in epoch nanoseconds, status, span name and the span attributes as {@code key=value} pairs
+ * separated by {@code ;}.
+ * </p>
+ *
+ * @author Yosef Nago
+ */
+public class FileSpanExporter implements SpanExporter {
+
+    private static final Logger log = LoggerFactory.getLogger(FileSpanExporter.class);
+
+    private final String service;
+    private final Path file;
+    private BufferedWriter writer;
+
+    public FileSpanExporter(Path directory, String service) throws IOException {
+        this.service = service;
+        this.file = directory.resolve(service + ".spans");
+        Files.createDirectories(directory);
+        this.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        log.info("Writing trace spans to {}", file);
+    }
+
+    @Override
+    public synchronized CompletableResultCode export(Collection<SpanData> spans) {
+        if (writer == null) {
+            return CompletableResultCode.ofFailure();
+        }
+        try {
+            for (SpanData span : spans) {
+                writer.write(format(span));
+                writer.newLine();
+            }
+            writer.flush();
+            return CompletableResultCode.ofSuccess();
+        } catch (IOException e) {
+            log.warn("Could not write {} spans to {}", spans.size(), file, e);
+            return CompletableResultCode.ofFailure();
+        }
+    }
+
+    String format(SpanData span) {
+        StringJoiner attributes = new StringJoiner(";");
+        span.getAttributes().forEach((key, value) ->
+                attributes.add(clean(key.getKey()) + "=" + clean(String.valueOf(value))));
+        String parent = span.getParentSpanContext().isValid() ? span.getParentSpanId() : "";
+        String status = span.getStatus().getStatusCode() == StatusCode.ERROR ? "ERROR" : "OK";
+        return String.join("\t",
+                span.getTraceId(),
+                span.getSpanId(),
+                parent,
+                service,
+                Long.toString(span.getStartEpochNanos()),
+                Long.toString(span.getEndEpochNanos()),
+                status,
+                clean(span.getName()),
+                attributes.toString());
+    }
+
+    private static String clean(String value) {
+        return value.replace('\t', ' ').replace('\n', ' ').replace('\r', ' ').replace(';', ',');
+    }
+
+    @Override
+    public CompletableResultCode flush() {
+        return CompletableResultCode.ofSuccess();
+    }
+
+    @Override
+    public synchronized CompletableResultCode shutdown() {
+        if (writer == null) {
+            return CompletableResultCode.ofSuccess();
+        }
+        try {
+            writer.close();
+            return CompletableResultCode.ofSuccess();
+        } catch (IOException e) {
+            return CompletableResultCode.ofFailure();
+        } finally {
+            writer = null;
+        }
+    }
+}
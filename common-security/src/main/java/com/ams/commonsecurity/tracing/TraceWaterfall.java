@@ -0,0 +1,129 @@
+package com.ams.commonsecurity.tracing;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * {@code TraceWaterfall} prints the spans of one trace, written by {@link FileSpanExporter}, as a
+ * waterfall.
+ *
+ * <p>
+ * Usage: {@code TraceWaterfall [directory] [traceId]}. Without a trace id the most recently started
+ * trace is shown. Each line shows the offset from the start of the trace, the duration, the service and
+ * the span name, indented under its parent, followed by a bar placing the span on the trace timeline.
+ * </p>
+ *
+ * @author Yosef Nago
+ */
+public final class TraceWaterfall {
+
+    private static final int BAR_WIDTH = 40;
+
+    record Span(String traceId, String spanId, String parentId, String service,
+                long start, long end, String status, String name) {
+
+        static Span parse(String line) {
+            String[] fields = line.split("\t", -1);
+            return new Span(fields[0], fields[1], fields[2], fields[3],
+                    Long.parseLong(fields[4]), Long.parseLong(fields[5]), fields[6], fields[7]);
+        }
+
+        long durationNanos() {
+            return end - start;
+        }
+    }
+
+    private TraceWaterfall() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path directory = Path.of(args.length > 0 ? args[0] : System.getProperty("java.io.tmpdir") + "/ams-traces");
+        List<Span> spans = read(directory);
+        if (spans.isEmpty()) {
+            System.out.println("No spans found in " + directory);
+            return;
+        }
+        String traceId = args.length > 1 ? args[1]
+                : spans.stream().max(Comparator.comparingLong(Span::start)).orElseThrow().traceId();
+        List<Span> trace = spans.stream().filter(span -> span.traceId().equals(traceId)).toList();
+        render(trace).forEach(System.out::println);
+    }
+
+    static List<Span> read(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".spans"))
+                    .flatMap(TraceWaterfall::lines)
+                    .filter(line -> !line.isBlank())
+                    .map(Span::parse)
+                    .toList();
+        }
+    }
+
+    private static Stream<String> lines(Path file) {
+        try {
+            return Files.readAllLines(file).stream();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static List<String> render(List<Span> trace) {
+        if (trace.isEmpty()) {
+            return List.of("Trace not found");
+        }
+        Map<String, List<Span>> children = new HashMap<>();
+        List<Span> roots = new ArrayList<>();
+        Map<String, Span> byId = new HashMap<>();
+        trace.forEach(span -> byId.put(span.spanId(), span));
+        for (Span span : trace) {
+            if (span.parentId().isEmpty() || !byId.containsKey(span.parentId())) {
+                roots.add(span);
+            } else {
+                children.computeIfAbsent(span.parentId(), id -> new ArrayList<>()).add(span);
+            }
+        }
+        long start = trace.stream().mapToLong(Span::start).min().orElseThrow();
+        long end = trace.stream().mapToLong(Span::end).max().orElseThrow();
+        long total = Math.max(1, end - start);
+
+        List<String> lines = new ArrayList<>();
+        lines.add(String.format(Locale.ROOT, "trace %s  %d spans  %.1f ms", trace.get(0).traceId(), trace.size(), total / 1e6));
+        roots.sort(Comparator.comparingLong(Span::start));
+        for (Span root : roots) {
+            append(lines, root, 0, start, total, children);
+        }
+        return lines;
+    }
+
+    private static void append(List<String> lines, Span span, int depth, long traceStart, long total,
+                               Map<String, List<Span>> children) {
+        int from = (int) ((span.start() - traceStart) * BAR_WIDTH / total);
+        int width = Math.max(1, (int) (span.durationNanos() * BAR_WIDTH / total));
+        String bar = " ".repeat(from) + "#".repeat(Math.min(width, BAR_WIDTH - from));
+        lines.add(String.format(Locale.ROOT, "%8.1f ms %8.1f ms  %-15s %s%s%s  |%-" + BAR_WIDTH + "s|",
+                (span.start() - traceStart) / 1e6,
+                span.durationNanos() / 1e6,
+                span.service(),
+                "  ".repeat(depth),
+                span.name(),
+                "ERROR".equals(span.status()) ? " !" : "",
+                bar));
+        List<Span> nested = children.getOrDefault(span.spanId(), new ArrayList<>());
+        nested.sort(Comparator.comparingLong(Span::start));
+        for (Span child : nested) {
+            append(lines, child, depth + 1, traceStart, total, children);
+        }
+    }
+}
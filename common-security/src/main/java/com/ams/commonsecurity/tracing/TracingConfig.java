@@ -0,0 +1,37 @@
+package com.ams.commonsecurity.tracing;
+
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * {@code TracingConfig} registers the {@link FileSpanExporter} for services that have the OpenTelemetry
+ * tracing bridge on the classpath.
+ *
+ * <p>
+ * Spring Boot hands every {@link SpanExporter} bean to its span processor, so no further wiring is
+ * needed. The exporter is switched on with {@code ams.tracing.file.enabled=true}, which each service's
+ * opt-in {@code tracing} profile sets together with full sampling; spans go to
+ * {@code ams.tracing.file.directory}, by default {@code ams-traces} in the system temp directory.
+ * </p>
+ *
+ * @author Yosef Nago
+ */
+@Configuration
+@ConditionalOnClass(SpanExporter.class)
+@ConditionalOnProperty(name = "ams.tracing.file.enabled", havingValue = "true")
+public class TracingConfig {
+
+    @Bean
+    public FileSpanExporter fileSpanExporter(
+            @Value("${ams.tracing.file.directory:${java.io.tmpdir}/ams-traces}") String directory,
+            @Value("${spring.application.name:unknown}") String service) throws IOException {
+        return new FileSpanExporter(Path.of(directory), service);
+    }
+}
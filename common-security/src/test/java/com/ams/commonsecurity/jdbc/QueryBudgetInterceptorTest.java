@@ -0,0 +1,53 @@
+package com.ams.commonsecurity.jdbc;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class QueryBudgetInterceptorTest {
+
+    private final QueryBudgetInterceptor interceptor = new QueryBudgetInterceptor(true);
+    private final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/test");
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    @AfterEach
+    void clear() {
+        RequestQueryCounter.end();
+    }
+
+    @Test
+    void countsTheStatementsOfABudgetedHandler() throws Exception {
+        interceptor.preHandle(request, response, handler("budgeted"));
+        RequestQueryCounter.increment();
+
+        assertThatThrownBy(RequestQueryCounter::increment).isInstanceOf(QueryBudgetExceededException.class);
+    }
+
+    @Test
+    void startingAsyncWorkClosesTheScopeOfTheRequestThread() throws Exception {
+        interceptor.preHandle(request, response, handler("budgeted"));
+        RequestQueryCounter.increment();
+
+        interceptor.afterConcurrentHandlingStarted(request, response, handler("budgeted"));
+
+        assertThat(RequestQueryCounter.end()).isNull();
+        RequestQueryCounter.increment();
+        RequestQueryCounter.increment();
+    }
+
+    private static HandlerMethod handler(String name) throws NoSuchMethodException {
+        return new HandlerMethod(new Handlers(), Handlers.class.getMethod(name));
+    }
+
+    static class Handlers {
+
+        @QueryBudget(1)
+        public void budgeted() {
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.ams.commonsecurity.tracing;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TraceWaterfallTest {
+
+    private static final long MS = 1_000_000;
+    private static final long T0 = 1_700_000_000_000L * MS;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void rendersTheSpansOfEveryServiceAsOneWaterfall() throws IOException {
+        String traceId = recordTrace();
+
+        List<TraceWaterfall.Span> spans = TraceWaterfall.read(directory);
+        List<String> lines = TraceWaterfall.render(spans.stream()
+                .filter(span -> span.traceId().equals(traceId))
+                .toList());
+
+        assertThat(lines).hasSize(4);
+        assertThat(lines.get(0)).isEqualTo("trace " + traceId + "  3 spans  30.0 ms");
+        assertThat(lines.get(1))
+                .startsWith("     0.0 ms     30.0 ms  gateway-service GET /client/load-clients  |")
+                .endsWith("|" + "#".repeat(40) + "|");
+        assertThat(lines.get(2))
+                .startsWith("     5.0 ms     20.0 ms  client-service    http get /client/load-clients  |");
+        assertThat(lines.get(3))
+                .startsWith("    10.0 ms     10.0 ms  client-service      SELECT client_details !  |")
+                .endsWith("|" + " ".repeat(13) + "#".repeat(13) + " ".repeat(14) + "|");
+    }
+
+    @Test
+    void writesOneCleanLinePerSpan() throws IOException {
+        String traceId = recordTrace();
+
+        List<String> lines = Files.readAllLines(directory.resolve("client-service.spans"));
+
+        assertThat(lines).hasSize(2);
+        String[] query = lines.get(0).split("\t", -1);
+        assertThat(query).hasSize(9);
+        assertThat(query[0]).isEqualTo(traceId);
+        assertThat(query[3]).isEqualTo("client-service");
+        assertThat(query[4]).isEqualTo(Long.toString(T0 + 10 * MS));
+        assertThat(query[6]).isEqualTo("ERROR");
+        assertThat(query[7]).isEqualTo("SELECT client_details");
+        assertThat(query[8]).isEqualTo("db.statement=select * from client_details where a = 1, b = 2");
+    }
+
+    @Test
+    void anEmptyOrMissingDirectoryHasNoSpans() throws IOException {
+        assertThat(TraceWaterfall.read(directory.resolve("missing"))).isEmpty();
+        assertThat(TraceWaterfall.render(List.of())).containsExactly("Trace not found");
+    }
+
+    /**
+     * Records a gateway request whose client-service call runs a failing query, each service exporting to
+     * its own file.
+     *
+     * @return the trace id
+     */
+    private String recordTrace() throws IOException {
+        SdkTracerProvider gateway = provider("gateway-service");
+        SdkTracerProvider clientService = provider("client-service");
+        try {
+            Span request = start(gateway.get("test"), "GET /client/load-clients", null, 0);
+            Span handler = start(clientService.get("test"), "http get /client/load-clients", request, 5);
+            Span query = start(clientService.get("test"), "SELECT\tclient_details", handler, 10);
+            query.setAttribute(AttributeKey.stringKey("db.statement"),
+                    "select * from client_details\nwhere a = 1; b = 2");
+            query.setStatus(StatusCode.ERROR);
+
+            query.end(T0 + 20 * MS, TimeUnit.NANOSECONDS);
+            handler.end(T0 + 25 * MS, TimeUnit.NANOSECONDS);
+            request.end(T0 + 30 * MS, TimeUnit.NANOSECONDS);
+            return request.getSpanContext().getTraceId();
+        } finally {
+            gateway.shutdown();
+            clientService.shutdown();
+        }
+    }
+
+    private SdkTracerProvider provider(String service) throws IOException {
+        return SdkTracerProvider.builder()
+                .addSpanProcessor(SimpleSpanProcessor.create(new FileSpanExporter(directory, service)))
+                .build();
+    }
+
+    private static Span start(Tracer tracer, String name, Span parent, long offsetMillis) {
+        return tracer.spanBuilder(name)
+                .setParent(parent == null ? Context.root() : Context.root().with(parent))
+                .setStartTimestamp(T0 + offsetMillis * MS, TimeUnit.NANOSECONDS)
+                .startSpan();
+    }
+}
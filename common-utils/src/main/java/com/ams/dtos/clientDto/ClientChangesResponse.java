@@ -0,0 +1,36 @@
+package com.ams.dtos.clientDto;
+
+import com.ams.dtos.documentDto.DocumentGrid;
+
+import java.util.List;
+
+/**
+ * {@code ClientChangesResponse} is the payload of the {@code /client/changes} delta-sync endpoint.
+ * <p>
+ * A caller keeps a local copy of its clients, sends the last {@code nextToken} it received, and applies the
+ * returned upserts and tombstones. When {@code fullResync} is {@code true} the client list is a complete
+ * snapshot and the local copy should be replaced rather than patched. Document changes are only listed when
+ * the caller asks for them, and never in a snapshot.
+ * </p>
+ *
+ * @param success            whether the changes were loaded
+ * @param message            a message describing the outcome
+ * @param nextToken          the token to send on the next call
+ * @param hasMore            {@code true} if more changes are available right away
+ * @param fullResync         {@code true} if the lists are a full snapshot
+ * @param clients            clients created or updated since the token
+ * @param deletedClientIds   tax IDs of clients deleted since the token
+ * @param documents          documents created or updated since the token
+ * @param deletedDocumentIds ids of documents deleted since the token
+ */
+public record ClientChangesResponse(
+        boolean success,
+        String message,
+        String nextToken,
+        boolean hasMore,
+        boolean fullResync,
+        List<ClientGridDto> clients,
+        List<String> deletedClientIds,
+        List<DocumentGrid> documents,
+        List<Long> deletedDocumentIds) {
+}
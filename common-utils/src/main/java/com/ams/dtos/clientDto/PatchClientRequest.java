@@ -0,0 +1,39 @@
+package com.ams.dtos.clientDto;
+
+/**
+ * {@code PatchClientRequest} carries a partial update of a client's editable details.
+ * <p>
+ * Only non-null fields are written; {@code null} means "leave unchanged". The expected row version is
+ * sent separately in the {@code If-Match} header, as returned in the {@code ETag} of
+ * {@code /client/load-client-case}.
+ * </p>
+ *
+ * @param businessName      the new business name, or {@code null}
+ * @param email             the new email address, or {@code null}
+ * @param phone             the new phone number, or {@code null}
+ * @param address           the new street address, or {@code null}
+ * @param zip               the new ZIP/postal code, or {@code null}
+ * @param businessType      the new business type, or {@code null}
+ * @param bankName          the new bank name, or {@code null}
+ * @param bankBranch        the new bank branch, or {@code null}
+ * @param bankAccountNumber the new bank account number, or {@code null}
+ */
+public record PatchClientRequest(
+        String businessName,
+        String email,
+        String phone,
+        String address,
+        String zip,
+        String businessType,
+        String bankName,
+        String bankBranch,
+        String bankAccountNumber) {
+
+    /**
+     * @return {@code true} if no field is set
+     */
+    public boolean isEmpty() {
+        return businessName == null && email == null && phone == null && address == null && zip == null
+                && businessType == null && bankName == null && bankBranch == null && bankAccountNumber == null;
+    }
+}
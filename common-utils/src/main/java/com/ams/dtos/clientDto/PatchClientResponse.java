@@ -0,0 +1,11 @@
+package com.ams.dtos.clientDto;
+
+/**
+ * {@code PatchClientResponse} is the outcome of a partial client update.
+ *
+ * @param success whether the update was applied (or was a no-op)
+ * @param message a descriptive message about the result
+ * @param version the client's row version after the call, or {@code null} if unknown
+ */
+public record PatchClientResponse(boolean success, String message, Long version) {
+}
@@ -0,0 +1,17 @@
+package com.ams.dtos.clientDto;
+
+import java.util.List;
+
+/**
+ * {@code SearchClientsResponse} is the payload of the {@code /client/search} endpoint: one page of an
+ * accountant's clients matching a search text, best matches first.
+ *
+ * @param success indicates if the search was carried out
+ * @param message a message describing the operation result
+ * @param clients the matching clients on the requested page
+ * @param page    the zero-based page number
+ * @param hasMore {@code true} if a further page exists
+ */
+public record SearchClientsResponse(boolean success, String message, List<ClientGridDto> clients,
+                                    int page, boolean hasMore) {
+}
@@ -0,0 +1,13 @@
+package com.ams.dtos.documentDto;
+
+import java.util.List;
+
+/**
+ * {@code BatchUploadResponse} is the payload of the {@code /client/upload-batch} endpoint.
+ *
+ * @param success indicates if every file was stored
+ * @param message a message summarizing the operation result
+ * @param results one result per uploaded file, in upload order
+ */
+public record BatchUploadResponse(boolean success, String message, List<DocumentUploadResult> results) {
+}
@@ -0,0 +1,11 @@
+package com.ams.dtos.documentDto;
+
+import java.util.List;
+
+/**
+ * {@code DeleteDocumentsRequest} is the body of the {@code /client/documents/delete} endpoint.
+ *
+ * @param ids the ids of the client's documents to delete
+ */
+public record DeleteDocumentsRequest(List<Long> ids) {
+}
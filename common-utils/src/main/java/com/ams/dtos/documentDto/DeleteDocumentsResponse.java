@@ -0,0 +1,13 @@
+package com.ams.dtos.documentDto;
+
+import java.util.List;
+
+/**
+ * {@code DeleteDocumentsResponse} is the payload of the {@code /client/documents/delete} endpoint.
+ *
+ * @param success    indicates if every requested document was deleted
+ * @param message    a message describing the operation result
+ * @param deletedIds the ids that were deleted; ids the client does not own are missing
+ */
+public record DeleteDocumentsResponse(boolean success, String message, List<Long> deletedIds) {
+}
@@ -2,5 +2,14 @@ package com.ams.dtos.documentDto;
 
 import java.time.LocalDate;
 
-public record DocumentGrid(String fileName, String clientId,LocalDate uploadedAt, String status) {
+/**
+ * {@code DocumentGrid} is the row shape used for document listings.
+ *
+ * @param id         the document's database identifier
+ * @param fileName   the uploaded file name
+ * @param clientId   the owning client's tax ID
+ * @param uploadedAt the upload date
+ * @param status     the document status
+ */
+public record DocumentGrid(Long id, String fileName, String clientId,LocalDate uploadedAt, String status) {
 }
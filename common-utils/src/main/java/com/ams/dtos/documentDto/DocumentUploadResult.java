@@ -0,0 +1,12 @@
+package com.ams.dtos.documentDto;
+
+/**
+ * {@code DocumentUploadResult} reports the outcome for one file of a batch upload.
+ *
+ * @param fileName   the uploaded file name
+ * @param success    whether the file was stored
+ * @param message    a message describing the outcome
+ * @param documentId the id of the new document, or {@code null} if the file was not stored
+ */
+public record DocumentUploadResult(String fileName, boolean success, String message, Long documentId) {
+}
@@ -0,0 +1,17 @@
+package com.ams.dtos.documentDto;
+
+import java.util.List;
+
+/**
+ * {@code SearchDocumentsResponse} is the payload of the {@code /client/documents} endpoint: one page of a
+ * client's documents matching the requested filters, in the requested order.
+ *
+ * @param success    indicates if the search was carried out
+ * @param message    a message describing the operation result
+ * @param documents  the documents on this page
+ * @param nextCursor the cursor to pass for the next page, or {@code null} on the last page
+ * @param total      the number of matching documents, or {@code null} if it was not requested
+ */
+public record SearchDocumentsResponse(boolean success, String message, List<DocumentGrid> documents,
+                                      String nextCursor, Long total) {
+}
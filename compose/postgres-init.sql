@@ -0,0 +1,3 @@
+-- Databases of the services, see spring.datasource.url in their application.yml
+CREATE DATABASE "user-service-db";
+CREATE DATABASE "client-service";
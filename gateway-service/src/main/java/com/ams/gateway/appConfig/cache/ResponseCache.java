@@ -0,0 +1,181 @@
+package com.ams.gateway.appConfig.cache;
+
+import com.ams.gateway.appConfig.response.CapturedResponse;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * {@code ResponseCache} is a size-bounded LRU store of upstream responses, partitioned by user.
+ *
+ * <p>
+ * The bound is on the approximate bytes held ({@link CapturedResponse#weight()}), not on the entry count,
+ * so a few large lists cannot crowd the heap. All operations are short and run under the cache's lock.
+ * </p>
+ *
+ * <p>
+ * Every user has a generation number that {@link #invalidateUser} increments. A response fetched while a
+ * write of the same user was in flight is stored only if the generation it started with is still current,
+ * so a slow read cannot put pre-write data back into the cache. Reads register with {@link #beginRead} and
+ * {@link #endRead}; a user's generation and key index are dropped once they have no entries and no reads in
+ * flight, since no response can then be fenced.
+ * </p>
+ *
+ * @author Yosef Nago
+ */
+public class ResponseCache {
+
+    /**
+     * A cached response with its freshness data.
+     *
+     * @param user          the user the response belongs to
+     * @param response      the response as received from the backend
+     * @param etag          the backend's {@code ETag}, or {@code null}
+     * @param expiresAt     {@link System#nanoTime()} after which the entry is stale
+     * @param ttlNanos      the freshness lifetime, reused when a revalidation confirms the entry
+     * @param upstreamNanos how long the backend took to produce the response
+     * @param weight        the response's {@link CapturedResponse#weight()}, computed once
+     */
+    public record Entry(String user, CapturedResponse response, String etag,
+                        long expiresAt, long ttlNanos, long upstreamNanos, int weight) {
+
+        public Entry(String user, CapturedResponse response, String etag,
+                     long expiresAt, long ttlNanos, long upstreamNanos) {
+            this(user, response, etag, expiresAt, ttlNanos, upstreamNanos, response.weight());
+        }
+
+        public boolean isFresh(long nowNanos) {
+            return expiresAt - nowNanos > 0;
+        }
+
+        public Entry refreshed(long nowNanos) {
+            return new Entry(user, response, etag, nowNanos + ttlNanos, ttlNanos, upstreamNanos, weight);
+        }
+    }
+
+    /**
+     * What the cache tracks per user: the keys of their entries and the fence for their reads in flight.
+     * Dropped once the user has neither, so the map does not grow with every user who ever wrote.
+     */
+    private static final class UserState {
+        final Set<String> keys = new HashSet<>();
+        long generation;
+        int reads;
+
+        boolean isIdle() {
+            return keys.isEmpty() && reads == 0;
+        }
+    }
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private final Map<String, UserState> users = new HashMap<>();
+    private final long maxBytes;
+    private long bytes;
+
+    public ResponseCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    public synchronized Entry get(String key) {
+        return entries.get(key);
+    }
+
+    /**
+     * Registers a read of the user that may end in {@link #put}; pair it with {@link #endRead}.
+     *
+     * @return the generation to pass to {@link #put}
+     */
+    public synchronized long beginRead(String user) {
+        UserState state = users.computeIfAbsent(user, u -> new UserState());
+        state.reads++;
+        return state.generation;
+    }
+
+    public synchronized void endRead(String user) {
+        UserState state = users.get(user);
+        if (state != null) {
+            state.reads--;
+            dropIfIdle(user, state);
+        }
+    }
+
+    /**
+     * Stores an entry unless the user's entries were invalidated since {@code generation} was read.
+     *
+     * @return {@code true} if the entry was stored
+     */
+    public synchronized boolean put(String key, Entry entry, long generation) {
+        UserState state = users.get(entry.user());
+        if (state == null || state.generation != generation) {
+            return false;
+        }
+        Entry previous = entries.put(key, entry);
+        if (previous != null) {
+            bytes -= previous.weight();
+        }
+        bytes += entry.weight();
+        state.keys.add(key);
+
+        Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+        while (bytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<String, Entry> evicted = eldest.next();
+            eldest.remove();
+            forget(evicted.getKey(), evicted.getValue());
+        }
+        return true;
+    }
+
+    /**
+     * Drops every entry of a user and fences off responses still in flight for them. Only the user's own
+     * entries are visited.
+     *
+     * @param user the username
+     */
+    public synchronized void invalidateUser(String user) {
+        UserState state = users.get(user);
+        if (state == null) {
+            // nothing cached and no read in flight to fence
+            return;
+        }
+        state.generation++;
+        for (String key : state.keys) {
+            bytes -= entries.remove(key).weight();
+        }
+        state.keys.clear();
+        dropIfIdle(user, state);
+    }
+
+    private void forget(String key, Entry entry) {
+        bytes -= entry.weight();
+        UserState state = users.get(entry.user());
+        if (state != null) {
+            state.keys.remove(key);
+            dropIfIdle(entry.user(), state);
+        }
+    }
+
+    private void dropIfIdle(String user, UserState state) {
+        if (state.isIdle()) {
+            users.remove(user);
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long bytes() {
+        return bytes;
+    }
+
+    /**
+     * @return the number of users with cached entries or reads in flight
+     */
+    public synchronized int users() {
+        return users.size();
+    }
+}
@@ -0,0 +1,232 @@
+package com.ams.gateway.appConfig.cache;
+
+import com.ams.gateway.appConfig.config.JwtGlobalFilter;
+import com.ams.gateway.appConfig.response.CapturedResponse;
+import com.ams.gateway.appConfig.response.RequestKey;
+import com.ams.gateway.appConfig.response.ResponseCapture;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code ResponseCacheGlobalFilter} serves repeated identical reads from memory.
+ *
+ * <p>
+ * Only authenticated {@code GET}s to the configured {@code gateway.cache.paths} are cached. The key is made of
+ * the route, the username, the path and query, and the configured vary headers, so users never see each
+ * other's data.
+ * </p>
+ *
+ * <p><b>Backend directives:</b></p>
+ * <ul>
+ *     <li>{@code Cache-Control: no-store} or a {@code Set-Cookie} header – not cached</li>
+ *     <li>{@code max-age} / {@code s-maxage} – freshness lifetime, capped by {@code max-ttl};
+ *     without it {@code default-ttl} applies. {@code private} is accepted, because entries are per user.</li>
+ *     <li>{@code ETag} – once an entry is stale it is revalidated with {@code If-None-Match}; a {@code 304}
+ *     from the backend refreshes it without transferring the body again. Clients sending the current
+ *     {@code ETag} in {@code If-None-Match} get a {@code 304} directly from the gateway.</li>
+ * </ul>
+ *
+ * <p><b>Invalidation:</b> any non-{@code GET} request of a user drops all of that user's entries, both when it
+ * starts and when it completes. A client can force a fresh read with {@code Cache-Control: no-cache}.</p>
+ *
+ * <p>
+ * Responses carry {@code X-Cache: HIT|MISS|REVALIDATED}. Metrics: {@code gateway.cache.requests} by result
+ * (hit ratio), {@code gateway.cache.saved} (backend time the hits did not spend), and the size gauges
+ * {@code gateway.cache.entries} and {@code gateway.cache.bytes}.
+ * </p>
+ *
+ * @author Yosef Nago
+ */
+@Component
+@EnableConfigurationProperties(ResponseCacheProperties.class)
+public class ResponseCacheGlobalFilter implements GlobalFilter, Ordered {
+
+    private static final String CACHE_STATUS_HEADER = "X-Cache";
+
+    private final ResponseCacheProperties properties;
+    private final ResponseCache cache;
+    private final List<PathPattern> paths;
+    private final MeterRegistry meterRegistry;
+    private final Timer saved;
+
+    public ResponseCacheGlobalFilter(ResponseCacheProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.cache = new ResponseCache(properties.getMaxSize().toBytes());
+        this.paths = properties.getPaths().stream().map(PathPatternParser.defaultInstance::parse).toList();
+        this.meterRegistry = meterRegistry;
+        this.saved = Timer.builder("gateway.cache.saved")
+                .description("Backend time avoided by cache hits")
+                .register(meterRegistry);
+        meterRegistry.gauge("gateway.cache.entries", cache, ResponseCache::size);
+        meterRegistry.gauge("gateway.cache.bytes", cache, ResponseCache::bytes);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        String user = exchange.getAttribute(JwtGlobalFilter.USERNAME_ATTRIBUTE);
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        if (!properties.isEnabled() || user == null || route == null) {
+            return chain.filter(exchange);
+        }
+
+        ServerHttpRequest request = exchange.getRequest();
+        if (request.getMethod() != HttpMethod.GET) {
+            cache.invalidateUser(user);
+            return chain.filter(exchange).doFinally(signal -> cache.invalidateUser(user));
+        }
+        if (paths.stream().noneMatch(pattern -> pattern.matches(request.getPath().pathWithinApplication()))) {
+            return chain.filter(exchange);
+        }
+
+        String key = RequestKey.of(route, user, request, properties.getVaryHeaders());
+        long now = System.nanoTime();
+        boolean forceRefresh = hasDirective(request.getHeaders().getCacheControl(), "no-cache");
+        ResponseCache.Entry entry = forceRefresh ? null : cache.get(key);
+
+        if (entry != null && entry.isFresh(now)) {
+            count("hit");
+            saved.record(entry.upstreamNanos(), TimeUnit.NANOSECONDS);
+            return serveHit(exchange, entry);
+        }
+
+        ServerHttpRequest upstreamRequest = request;
+        boolean revalidating = entry != null && entry.etag() != null && request.getHeaders().getIfNoneMatch().isEmpty();
+        if (revalidating) {
+            upstreamRequest = request.mutate().header(HttpHeaders.IF_NONE_MATCH, entry.etag()).build();
+        }
+
+        ResponseCache.Entry stale = entry;
+        long generation = cache.beginRead(user);
+        ResponseCapture capture = new ResponseCapture(exchange.getResponse(), captured -> {
+            long finished = System.nanoTime();
+            if (revalidating && captured.status().value() == HttpStatus.NOT_MODIFIED.value()) {
+                ResponseCache.Entry refreshed = stale.refreshed(finished);
+                cache.put(key, refreshed, generation);
+                count("revalidated");
+                CapturedResponse response = refreshed.response().copy();
+                response.headers().set(CACHE_STATUS_HEADER, "REVALIDATED");
+                return response;
+            }
+
+            store(key, user, captured, finished - now, generation);
+            count("miss");
+            CapturedResponse response = captured.copy();
+            response.headers().set(CACHE_STATUS_HEADER, "MISS");
+            return response;
+        });
+
+        return chain.filter(exchange.mutate().request(upstreamRequest).response(capture).build())
+                .doFinally(signal -> cache.endRead(user));
+    }
+
+    private void store(String key, String user, CapturedResponse captured, long upstreamNanos, long generation) {
+        HttpHeaders headers = captured.headers();
+        String cacheControl = headers.getCacheControl();
+        if (captured.status().value() != HttpStatus.OK.value()
+                || hasDirective(cacheControl, "no-store")
+                || headers.containsKey(HttpHeaders.SET_COOKIE)
+                || captured.body().length > properties.getMaxEntrySize().toBytes()) {
+            return;
+        }
+
+        Duration ttl = hasDirective(cacheControl, "no-cache") ? Duration.ZERO : maxAge(cacheControl);
+        if (ttl.compareTo(properties.getMaxTtl()) > 0) {
+            ttl = properties.getMaxTtl();
+        }
+        String etag = headers.getETag();
+        if (ttl.isZero() && etag == null) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        cache.put(key, new ResponseCache.Entry(user, captured.copy(), etag, now + ttl.toNanos(), ttl.toNanos(), upstreamNanos),
+                generation);
+    }
+
+    private Mono<Void> serveHit(ServerWebExchange exchange, ResponseCache.Entry entry) {
+        if (entry.etag() != null && exchange.getRequest().getHeaders().getIfNoneMatch().contains(entry.etag())) {
+            exchange.getResponse().setStatusCode(HttpStatus.NOT_MODIFIED);
+            exchange.getResponse().getHeaders().setETag(entry.etag());
+            exchange.getResponse().getHeaders().set(CACHE_STATUS_HEADER, "HIT");
+            return exchange.getResponse().setComplete();
+        }
+        CapturedResponse response = entry.response().copy();
+        response.headers().set(CACHE_STATUS_HEADER, "HIT");
+        return ResponseCapture.replay(exchange.getResponse(), response);
+    }
+
+    private Duration maxAge(String cacheControl) {
+        Duration maxAge = null;
+        if (cacheControl != null) {
+            for (String directive : cacheControl.split(",")) {
+                String d = directive.trim().toLowerCase(Locale.ROOT);
+                if (d.startsWith("s-maxage=")) {
+                    return seconds(d.substring("s-maxage=".length()));
+                }
+                if (d.startsWith("max-age=")) {
+                    maxAge = seconds(d.substring("max-age=".length()));
+                }
+            }
+        }
+        return maxAge != null ? maxAge : properties.getDefaultTtl();
+    }
+
+    private static Duration seconds(String value) {
+        try {
+            return Duration.ofSeconds(Math.max(0, Long.parseLong(value.trim())));
+        } catch (NumberFormatException e) {
+            return Duration.ZERO;
+        }
+    }
+
+    private static boolean hasDirective(String cacheControl, String directive) {
+        if (cacheControl == null) {
+            return false;
+        }
+        for (String d : cacheControl.split(",")) {
+            if (d.trim().equalsIgnoreCase(directive)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void count(String result) {
+        Counter.builder("gateway.cache.requests")
+                .tag("result", result)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * Runs after rate limiting and before {@code NettyWriteResponseFilter} ({@code -1}), which must write
+     * to the capturing response installed here.
+     *
+     * @return the order value
+     */
+    @Override
+    public int getOrder() {
+        return -3;
+    }
+}
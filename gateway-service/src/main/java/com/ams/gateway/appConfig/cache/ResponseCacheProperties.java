@@ -0,0 +1,94 @@
+package com.ams.gateway.appConfig.cache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@code ResponseCacheProperties} binds the {@code gateway.cache.*} settings.
+ *
+ * @author Yosef Nago
+ */
+@ConfigurationProperties(prefix = "gateway.cache")
+public class ResponseCacheProperties {
+
+    /** The cache is opt-in. */
+    private boolean enabled = false;
+
+    /** GET paths (Spring path patterns) whose responses may be cached. */
+    private List<String> paths = new ArrayList<>();
+
+    /** Request headers that select a different backend response, and so are part of the key. */
+    private List<String> varyHeaders = new ArrayList<>(List.of("clientId"));
+
+    /** Total size of cached responses before the least recently used are evicted. */
+    private DataSize maxSize = DataSize.ofMegabytes(16);
+
+    /** Larger responses are never cached. */
+    private DataSize maxEntrySize = DataSize.ofKilobytes(256);
+
+    /** Freshness of responses that carry no {@code Cache-Control: max-age}. */
+    private Duration defaultTtl = Duration.ofSeconds(5);
+
+    /** Upper bound on freshness, whatever the backend asks for. */
+    private Duration maxTtl = Duration.ofMinutes(1);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public List<String> getPaths() {
+        return paths;
+    }
+
+    public void setPaths(List<String> paths) {
+        this.paths = paths;
+    }
+
+    public List<String> getVaryHeaders() {
+        return varyHeaders;
+    }
+
+    public void setVaryHeaders(List<String> varyHeaders) {
+        this.varyHeaders = varyHeaders;
+    }
+
+    public DataSize getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(DataSize maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public DataSize getMaxEntrySize() {
+        return maxEntrySize;
+    }
+
+    public void setMaxEntrySize(DataSize maxEntrySize) {
+        this.maxEntrySize = maxEntrySize;
+    }
+
+    public Duration getDefaultTtl() {
+        return defaultTtl;
+    }
+
+    public void setDefaultTtl(Duration defaultTtl) {
+        this.defaultTtl = defaultTtl;
+    }
+
+    public Duration getMaxTtl() {
+        return maxTtl;
+    }
+
+    public void setMaxTtl(Duration maxTtl) {
+        this.maxTtl = maxTtl;
+    }
+}
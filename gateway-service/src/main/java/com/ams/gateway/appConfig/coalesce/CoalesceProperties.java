@@ -0,0 +1,47 @@
+package com.ams.gateway.appConfig.coalesce;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@code CoalesceProperties} binds the {@code gateway.coalesce.*} settings.
+ *
+ * @author Yosef Nago
+ */
+@ConfigurationProperties(prefix = "gateway.coalesce")
+public class CoalesceProperties {
+
+    private boolean enabled = false;
+
+    /** GET paths (Spring path patterns) whose concurrent identical requests share one upstream call. */
+    private List<String> paths = new ArrayList<>();
+
+    /** Request headers that select a different backend response, and so are part of the key. */
+    private List<String> varyHeaders = new ArrayList<>(List.of("clientId"));
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public List<String> getPaths() {
+        return paths;
+    }
+
+    public void setPaths(List<String> paths) {
+        this.paths = paths;
+    }
+
+    public List<String> getVaryHeaders() {
+        return varyHeaders;
+    }
+
+    public void setVaryHeaders(List<String> varyHeaders) {
+        this.varyHeaders = varyHeaders;
+    }
+}
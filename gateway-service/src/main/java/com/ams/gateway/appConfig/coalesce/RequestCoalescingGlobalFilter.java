@@ -0,0 +1,101 @@
+package com.ams.gateway.appConfig.coalesce;
+
+import com.ams.gateway.appConfig.config.JwtGlobalFilter;
+import com.ams.gateway.appConfig.response.BufferedResponse;
+import com.ams.gateway.appConfig.response.CapturedResponse;
+import com.ams.gateway.appConfig.response.RequestKey;
+import com.ams.gateway.appConfig.response.ResponseCapture;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * {@code RequestCoalescingGlobalFilter} lets concurrent identical reads share one upstream call.
+ *
+ * <p>
+ * When a layout and its view ask for the same case at the same moment, the first request goes to the
+ * backend and the others wait for its response, which is then written to every client. Only authenticated
+ * {@code GET}s to {@code gateway.coalesce.paths} take part, keyed like the response cache (route, user,
+ * path and query, vary headers), so requests of different users are never merged.
+ * </p>
+ *
+ * <p>
+ * Coalesced responses carry {@code X-Coalesced: true}. {@code gateway.coalesce.requests} counts requests by
+ * role: {@code leader} (went upstream) or {@code collapsed} (reused a leader's response).
+ * </p>
+ *
+ * @author Yosef Nago
+ */
+@Component
+@EnableConfigurationProperties(CoalesceProperties.class)
+public class RequestCoalescingGlobalFilter implements GlobalFilter, Ordered {
+
+    private final CoalesceProperties properties;
+    private final List<PathPattern> paths;
+    private final SingleFlight<String, CapturedResponse> flights = new SingleFlight<>();
+    private final Counter leaders;
+    private final Counter collapsed;
+
+    public RequestCoalescingGlobalFilter(CoalesceProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.paths = properties.getPaths().stream().map(PathPatternParser.defaultInstance::parse).toList();
+        this.leaders = Counter.builder("gateway.coalesce.requests").tag("role", "leader").register(meterRegistry);
+        this.collapsed = Counter.builder("gateway.coalesce.requests").tag("role", "collapsed").register(meterRegistry);
+        meterRegistry.gauge("gateway.coalesce.in-flight", flights, SingleFlight::size);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        String user = exchange.getAttribute(JwtGlobalFilter.USERNAME_ATTRIBUTE);
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        ServerHttpRequest request = exchange.getRequest();
+        if (!properties.isEnabled() || user == null || route == null || request.getMethod() != HttpMethod.GET
+                || paths.stream().noneMatch(pattern -> pattern.matches(request.getPath().pathWithinApplication()))) {
+            return chain.filter(exchange);
+        }
+
+        String key = RequestKey.of(route, user, request, properties.getVaryHeaders());
+        SingleFlight.Flight<CapturedResponse> flight = flights.execute(key, () -> {
+            BufferedResponse buffered = new BufferedResponse(exchange.getResponse());
+            return chain.filter(exchange.mutate().response(buffered).build())
+                    .then(Mono.fromSupplier(buffered::captured));
+        });
+
+        if (flight.leader()) {
+            leaders.increment();
+            return flight.result().flatMap(response -> ResponseCapture.replay(exchange.getResponse(), response));
+        }
+
+        collapsed.increment();
+        return flight.result().flatMap(response -> {
+            CapturedResponse copy = response.copy();
+            copy.headers().set("X-Coalesced", "true");
+            return ResponseCapture.replay(exchange.getResponse(), copy);
+        });
+    }
+
+    /**
+     * Runs after the response cache, so only cache misses are coalesced, and before
+     * {@code NettyWriteResponseFilter} ({@code -1}).
+     *
+     * @return the order value
+     */
+    @Override
+    public int getOrder() {
+        return -2;
+    }
+}
@@ -0,0 +1,76 @@
+package com.ams.gateway.appConfig.coalesce;
+
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * {@code SingleFlight} collapses concurrent calls with the same key into one.
+ *
+ * <p>
+ * The first caller for a key starts the call; callers arriving while it is in flight subscribe to the same
+ * result instead of starting their own. Once the call terminates the key is released, so later callers
+ * start a fresh call. Nothing is cached.
+ * </p>
+ *
+ * <p>
+ * The shared call is cancelled only when every subscriber has cancelled, so one client disconnecting does
+ * not fail the others; the key is released then as well. The result is replayed, so a caller that joins
+ * just as the call completes still receives it.
+ * </p>
+ *
+ * @param <K> the key type
+ * @param <V> the result type
+ * @author Yosef Nago
+ */
+public class SingleFlight<K, V> {
+
+    private final Map<K, Mono<V>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Result of {@link #execute}: the shared call and whether this caller started it.
+     *
+     * @param result the shared result
+     * @param leader {@code true} if this caller started the call
+     */
+    public record Flight<V>(Mono<V> result, boolean leader) {
+    }
+
+    /**
+     * Joins the call in flight for {@code key}, or starts one with {@code call}.
+     *
+     * @param key  identifies equivalent calls
+     * @param call produces the call; invoked only by the leader, on subscription
+     * @return the shared call
+     */
+    public Flight<V> execute(K key, Supplier<Mono<V>> call) {
+        Mono<V> existing = inFlight.get(key);
+        if (existing != null) {
+            return new Flight<>(existing, false);
+        }
+
+        @SuppressWarnings("unchecked")
+        Mono<V>[] self = new Mono[1];
+        self[0] = Mono.defer(call)
+                .doFinally(signal -> inFlight.remove(key, self[0]))
+                .flux()
+                .replay(1)
+                .refCount(1)
+                .singleOrEmpty();
+
+        existing = inFlight.putIfAbsent(key, self[0]);
+        if (existing != null) {
+            return new Flight<>(existing, false);
+        }
+        return new Flight<>(self[0], true);
+    }
+
+    /**
+     * @return the number of keys with a call in flight
+     */
+    public int size() {
+        return inFlight.size();
+    }
+}
@@ -0,0 +1,69 @@
+package com.ams.gateway.appConfig.loadbalancer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * {@code ConsistentHashRing} maps keys to nodes so that adding or removing a node only moves the keys
+ * of that node's share of the ring.
+ *
+ * <p>
+ * Each node is placed at {@code replicas} pseudo-random points to even out the shares. The ring is
+ * immutable; build a new one when the node set changes.
+ * </p>
+ *
+ * @param <T> the node type
+ * @author Yosef Nago
+ */
+public class ConsistentHashRing<T> {
+
+    private final NavigableMap<Long, T> ring = new TreeMap<>();
+
+    /**
+     * @param nodes    the nodes
+     * @param nodeId   a stable identity of a node, hashed to place it
+     * @param replicas points per node
+     */
+    public ConsistentHashRing(Collection<T> nodes, Function<T, String> nodeId, int replicas) {
+        for (T node : nodes) {
+            String id = nodeId.apply(node);
+            for (int i = 0; i < replicas; i++) {
+                ring.put(hash(id + '#' + i), node);
+            }
+        }
+    }
+
+    /**
+     * @param key the key to place
+     * @return the node owning the key, or {@code null} if the ring is empty
+     */
+    public T get(String key) {
+        if (ring.isEmpty()) {
+            return null;
+        }
+        Map.Entry<Long, T> owner = ring.ceilingEntry(hash(key));
+        return owner != null ? owner.getValue() : ring.firstEntry().getValue();
+    }
+
+    /**
+     * 64-bit FNV-1a followed by the MurmurHash3 finalizer, which spreads similar strings (such as
+     * {@code "ui-service:8082#1"} and {@code "#2"}) across the whole ring.
+     */
+    static long hash(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
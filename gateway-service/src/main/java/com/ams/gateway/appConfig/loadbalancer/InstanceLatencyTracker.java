@@ -0,0 +1,109 @@
+package com.ams.gateway.appConfig.loadbalancer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.TimedRequestContext;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * {@code InstanceLatencyTracker} records in-flight counts and response times of every load-balanced call,
+ * feeding {@link LatencyAwareLoadBalancer}.
+ *
+ * <p>
+ * As a {@link LoadBalancerLifecycle} bean it is invoked by the gateway's {@code ReactiveLoadBalancerClientFilter}
+ * when an instance has been chosen and when the call completes. Failed calls are recorded with at least
+ * {@code gateway.load-balancer.failure-penalty}, so an instance that refuses connections quickly does not
+ * look like the fastest one.
+ * </p>
+ *
+ * @author Yosef Nago
+ */
+@Component
+public class InstanceLatencyTracker implements LoadBalancerLifecycle<Object, Object, ServiceInstance> {
+
+    private final Map<String, InstanceStats> stats = new ConcurrentHashMap<>();
+    private final LongSupplier clock;
+    private final long decayNanos;
+    private final long initialRttNanos;
+    private final long failurePenaltyNanos;
+
+    @Autowired
+    public InstanceLatencyTracker(@Value("${gateway.load-balancer.decay:10s}") Duration decay,
+                                  @Value("${gateway.load-balancer.initial-latency:10ms}") Duration initialLatency,
+                                  @Value("${gateway.load-balancer.failure-penalty:1s}") Duration failurePenalty) {
+        this(System::nanoTime, decay, initialLatency, failurePenalty);
+    }
+
+    InstanceLatencyTracker(LongSupplier clock, Duration decay, Duration initialLatency, Duration failurePenalty) {
+        this.clock = clock;
+        this.decayNanos = decay.toNanos();
+        this.initialRttNanos = initialLatency.toNanos();
+        this.failurePenaltyNanos = failurePenalty.toNanos();
+    }
+
+    @Override
+    public boolean supports(Class requestContextClass, Class responseClass, Class serverTypeClass) {
+        return ServiceInstance.class.isAssignableFrom(serverTypeClass);
+    }
+
+    @Override
+    public void onStart(Request<Object> request) {
+    }
+
+    @Override
+    public void onStartRequest(Request<Object> request, Response<ServiceInstance> lbResponse) {
+        if (!lbResponse.hasServer()) {
+            return;
+        }
+        if (request.getContext() instanceof TimedRequestContext timed) {
+            timed.setRequestStartTime(clock.getAsLong());
+        }
+        started(lbResponse.getServer());
+    }
+
+    @Override
+    public void onComplete(CompletionContext<Object, ServiceInstance, Object> completionContext) {
+        Response<ServiceInstance> lbResponse = completionContext.getLoadBalancerResponse();
+        if (lbResponse == null || !lbResponse.hasServer()
+                || !(completionContext.getLoadBalancerRequest().getContext() instanceof TimedRequestContext timed)
+                || timed.getRequestStartTime() == 0) {
+            return;
+        }
+        long rtt = clock.getAsLong() - timed.getRequestStartTime();
+        completed(lbResponse.getServer(), rtt, completionContext.status() == CompletionContext.Status.FAILED);
+    }
+
+    void started(ServiceInstance instance) {
+        stats(instance).requestStarted();
+    }
+
+    void completed(ServiceInstance instance, long rttNanos, boolean failed) {
+        stats(instance).requestCompleted(failed ? Math.max(rttNanos, failurePenaltyNanos) : rttNanos, clock.getAsLong());
+    }
+
+    /**
+     * @param instance a service instance
+     * @return the expected cost of sending it one more request; lower is better
+     */
+    double cost(ServiceInstance instance) {
+        return stats(instance).cost(clock.getAsLong(), initialRttNanos);
+    }
+
+    private InstanceStats stats(ServiceInstance instance) {
+        return stats.computeIfAbsent(key(instance), k -> new InstanceStats(decayNanos, clock.getAsLong()));
+    }
+
+    private static String key(ServiceInstance instance) {
+        return instance.getServiceId() + '@' + instance.getHost() + ':' + instance.getPort();
+    }
+}
@@ -0,0 +1,67 @@
+package com.ams.gateway.appConfig.loadbalancer;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@code InstanceStats} holds the load signal of one service instance: requests in flight and a
+ * peak-sensitive moving average of its response time ("peak EWMA").
+ *
+ * <p>
+ * A response slower than the average replaces it at once, so a pausing instance is penalised immediately;
+ * faster responses pull the average down exponentially, weighted by the time since the last update.
+ * While an instance receives no traffic its average decays towards zero, so an instance that was slow
+ * once is eventually probed again instead of being starved forever.
+ * </p>
+ *
+ * @author Yosef Nago
+ */
+class InstanceStats {
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final long decayNanos;
+    private double ewmaNanos;
+    private long stampNanos;
+    private boolean observed;
+
+    InstanceStats(long decayNanos, long nowNanos) {
+        this.decayNanos = decayNanos;
+        this.stampNanos = nowNanos;
+    }
+
+    void requestStarted() {
+        inFlight.incrementAndGet();
+    }
+
+    synchronized void requestCompleted(long rttNanos, long nowNanos) {
+        inFlight.decrementAndGet();
+        if (!observed || rttNanos > ewmaNanos) {
+            ewmaNanos = rttNanos;
+            observed = true;
+        } else {
+            double w = weight(nowNanos);
+            ewmaNanos = ewmaNanos * w + rttNanos * (1 - w);
+        }
+        stampNanos = Math.max(stampNanos, nowNanos);
+    }
+
+    /**
+     * Estimates how long a new request would wait on this instance.
+     *
+     * @param nowNanos        the current time
+     * @param initialRttNanos the latency assumed for an instance that has not answered yet
+     * @return the decayed average latency times the requests that would be in flight
+     */
+    synchronized double cost(long nowNanos, long initialRttNanos) {
+        double latency = observed ? ewmaNanos * weight(nowNanos) : initialRttNanos;
+        return Math.max(latency, 1) * (inFlight.get() + 1);
+    }
+
+    int inFlight() {
+        return inFlight.get();
+    }
+
+    private double weight(long nowNanos) {
+        long elapsed = Math.max(0, nowNanos - stampNanos);
+        return Math.exp(-(double) elapsed / decayNanos);
+    }
+}
@@ -0,0 +1,84 @@
+package com.ams.gateway.appConfig.loadbalancer;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
+import java.util.function.Supplier;
+
+/**
+ * {@code LatencyAwareLoadBalancer} picks instances by "power of two choices" over peak-EWMA latency.
+ *
+ * <p>
+ * For each request two distinct instances are drawn at random and the one with the lower expected cost
+ * (latency average times requests in flight, see {@link InstanceLatencyTracker}) wins. Unlike round robin,
+ * an instance stuck in a GC pause or a long BCrypt queue quickly stops receiving its share of traffic;
+ * unlike always taking the global minimum, two random candidates keep the instances from being stampeded
+ * in lock step.
+ * </p>
+ *
+ * @author Yosef Nago
+ */
+public class LatencyAwareLoadBalancer implements ReactorServiceInstanceLoadBalancer {
+
+    private final ObjectProvider<ServiceInstanceListSupplier> supplierProvider;
+    private final String serviceId;
+    private final InstanceLatencyTracker tracker;
+    private final Supplier<RandomGenerator> random;
+
+    public LatencyAwareLoadBalancer(ObjectProvider<ServiceInstanceListSupplier> supplierProvider,
+                                    String serviceId, InstanceLatencyTracker tracker) {
+        this(supplierProvider, serviceId, tracker, ThreadLocalRandom::current);
+    }
+
+    LatencyAwareLoadBalancer(ObjectProvider<ServiceInstanceListSupplier> supplierProvider, String serviceId,
+                             InstanceLatencyTracker tracker, Supplier<RandomGenerator> random) {
+        this.supplierProvider = supplierProvider;
+        this.serviceId = serviceId;
+        this.tracker = tracker;
+        this.random = random;
+    }
+
+    @Override
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceInstanceListSupplier supplier = supplierProvider.getIfAvailable(NoopServiceInstanceListSupplier::new);
+        return supplier.get(request).next().map(this::pick);
+    }
+
+    Response<ServiceInstance> pick(List<ServiceInstance> instances) {
+        if (instances.isEmpty()) {
+            return new EmptyResponse();
+        }
+        if (instances.size() == 1) {
+            return new DefaultResponse(instances.get(0));
+        }
+
+        RandomGenerator rnd = random.get();
+        int first = rnd.nextInt(instances.size());
+        int second = rnd.nextInt(instances.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+
+        ServiceInstance a = instances.get(first);
+        ServiceInstance b = instances.get(second);
+        return new DefaultResponse(tracker.cost(a) <= tracker.cost(b) ? a : b);
+    }
+
+    /**
+     * @return the service this load balancer serves
+     */
+    public String getServiceId() {
+        return serviceId;
+    }
+}
@@ -0,0 +1,34 @@
+package com.ams.gateway.appConfig.loadbalancer;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.core.ReactorLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+/**
+ * {@code LatencyAwareLoadBalancerConfig} is the default per-service load balancer configuration
+ * (see {@link LoadBalancerConfig}).
+ *
+ * <p>
+ * It is deliberately not annotated with {@code @Configuration}: it is loaded into each service's child
+ * context by Spring Cloud LoadBalancer and must not be picked up by component scanning. A service with its
+ * own {@code @LoadBalancerClient} configuration that defines a load balancer keeps that one.
+ * </p>
+ *
+ * @author Yosef Nago
+ */
+public class LatencyAwareLoadBalancerConfig {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public ReactorLoadBalancer<ServiceInstance> latencyAwareLoadBalancer(Environment environment,
+                                                                         LoadBalancerClientFactory clientFactory,
+                                                                         InstanceLatencyTracker tracker) {
+        String serviceId = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+        return new LatencyAwareLoadBalancer(
+                clientFactory.getLazyProvider(serviceId, ServiceInstanceListSupplier.class), serviceId, tracker);
+    }
+}
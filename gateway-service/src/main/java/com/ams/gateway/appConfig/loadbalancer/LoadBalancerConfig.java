@@ -0,0 +1,19 @@
+package com.ams.gateway.appConfig.loadbalancer;
+
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClient;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * {@code LoadBalancerConfig} replaces Spring Cloud LoadBalancer's round robin for every {@code lb://} route
+ * with {@link LatencyAwareLoadBalancer}, except ui-service: Vaadin keeps UI state in the server-side session,
+ * so its requests are routed by {@link StickySessionLoadBalancer}.
+ *
+ * @author Yosef Nago
+ */
+@Configuration
+@LoadBalancerClients(
+        value = @LoadBalancerClient(name = "ui-service", configuration = StickySessionLoadBalancerConfig.class),
+        defaultConfiguration = LatencyAwareLoadBalancerConfig.class)
+public class LoadBalancerConfig {
+}
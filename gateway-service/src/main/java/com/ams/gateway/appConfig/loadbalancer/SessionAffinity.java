@@ -0,0 +1,38 @@
+package com.ams.gateway.appConfig.loadbalancer;
+
+/**
+ * {@code SessionAffinity} is the content of the affinity cookie: a random session key and the
+ * instance the session is pinned to, written as {@code <key>.<instanceId>}.
+ *
+ * @param key        the session key, hashed onto the ring when no pinned instance is available
+ * @param instanceId the pinned instance, or {@code null} before the first response
+ * @author Yosef Nago
+ */
+public record SessionAffinity(String key, String instanceId) {
+
+    /** Cookie carrying the affinity between requests. */
+    public static final String COOKIE = "AMS_AFFINITY";
+
+    /** Exchange attribute holding the affinity of the current request. */
+    public static final String ATTRIBUTE = SessionAffinity.class.getName();
+
+    /**
+     * @param value the cookie value, may be {@code null}
+     * @return the affinity, or {@code null} if absent or malformed
+     */
+    public static SessionAffinity parse(String value) {
+        if (value == null) {
+            return null;
+        }
+        int dot = value.indexOf('.');
+        if (dot <= 0) {
+            return null;
+        }
+        String instanceId = value.substring(dot + 1);
+        return new SessionAffinity(value.substring(0, dot), instanceId.isEmpty() ? null : instanceId);
+    }
+
+    public String cookieValue() {
+        return key + '.' + (instanceId != null ? instanceId : "");
+    }
+}
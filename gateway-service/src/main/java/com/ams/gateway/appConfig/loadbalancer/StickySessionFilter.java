@@ -0,0 +1,75 @@
+package com.ams.gateway.appConfig.loadbalancer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpCookie;
+import org.springframework.http.ResponseCookie;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * {@code StickySessionFilter} maintains the {@value SessionAffinity#COOKIE} cookie on the sticky routes
+ * ({@code gateway.sticky-session.routes}, by default {@code ui-service}).
+ *
+ * <p>
+ * A request without the cookie gets a new random session key, which {@link StickySessionLoadBalancer}
+ * places on its hash ring. Whenever the instance that actually served the request differs from the one in
+ * the cookie (first request, or the pinned instance left), the cookie is rewritten to pin the new one.
+ * </p>
+ *
+ * @author Yosef Nago
+ */
+@Component
+public class StickySessionFilter implements GlobalFilter, Ordered {
+
+    private final List<String> routes;
+
+    public StickySessionFilter(@Value("${gateway.sticky-session.routes:ui-service}") List<String> routes) {
+        this.routes = routes;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        if (route == null || !routes.contains(route.getId())) {
+            return chain.filter(exchange);
+        }
+
+        HttpCookie cookie = exchange.getRequest().getCookies().getFirst(SessionAffinity.COOKIE);
+        SessionAffinity parsed = SessionAffinity.parse(cookie != null ? cookie.getValue() : null);
+        SessionAffinity requested = parsed != null
+                ? parsed
+                : new SessionAffinity(UUID.randomUUID().toString().replace("-", ""), null);
+        exchange.getAttributes().put(SessionAffinity.ATTRIBUTE, requested);
+
+        exchange.getResponse().beforeCommit(() -> {
+            Response<ServiceInstance> chosen = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_LOADBALANCER_RESPONSE_ATTR);
+            if (chosen != null && chosen.hasServer()
+                    && !chosen.getServer().getInstanceId().equals(requested.instanceId())) {
+                exchange.getResponse().addCookie(ResponseCookie
+                        .from(SessionAffinity.COOKIE, new SessionAffinity(requested.key(), chosen.getServer().getInstanceId()).cookieValue())
+                        .path("/")
+                        .httpOnly(true)
+                        .sameSite("Lax")
+                        .build());
+            }
+            return Mono.empty();
+        });
+        return chain.filter(exchange);
+    }
+
+    @Override
+    public int getOrder() {
+        return 0;
+    }
+}
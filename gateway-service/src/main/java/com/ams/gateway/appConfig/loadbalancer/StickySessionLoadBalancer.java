@@ -0,0 +1,102 @@
+package com.ams.gateway.appConfig.loadbalancer;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * {@code StickySessionLoadBalancer} keeps every Vaadin session on the ui-service instance holding its
+ * {@code VaadinSession}, without shared session storage.
+ *
+ * <p>The instance is chosen in this order:</p>
+ * <ol>
+ *     <li>the instance named in the affinity cookie, as long as it is still registered;</li>
+ *     <li>otherwise the owner of the session key on a consistent-hash ring of the current instances.</li>
+ * </ol>
+ *
+ * <p>
+ * Preferring the pinned instance makes rebalancing graceful: an instance joining takes only new sessions
+ * (and none are moved away from healthy instances), and an instance leaving only re-homes its own sessions,
+ * spread evenly over the rest by the ring. {@link StickySessionFilter} issues the session key and records the
+ * chosen instance in the cookie.
+ * </p>
+ *
+ * @author Yosef Nago
+ */
+public class StickySessionLoadBalancer implements ReactorServiceInstanceLoadBalancer {
+
+    private static final int REPLICAS = 128;
+
+    private final ObjectProvider<ServiceInstanceListSupplier> supplierProvider;
+    private final String serviceId;
+    private volatile Snapshot snapshot = new Snapshot(List.of(), new ConsistentHashRing<>(List.of(), ServiceInstance::getInstanceId, REPLICAS));
+
+    /** The ring of the last seen instance set, rebuilt only when that set changes. */
+    private record Snapshot(List<String> instanceIds, ConsistentHashRing<ServiceInstance> ring) {
+    }
+
+    public StickySessionLoadBalancer(ObjectProvider<ServiceInstanceListSupplier> supplierProvider, String serviceId) {
+        this.supplierProvider = supplierProvider;
+        this.serviceId = serviceId;
+    }
+
+    @Override
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceInstanceListSupplier supplier = supplierProvider.getIfAvailable(NoopServiceInstanceListSupplier::new);
+        return supplier.get(request).next().map(instances -> pick(instances, affinity(request)));
+    }
+
+    Response<ServiceInstance> pick(List<ServiceInstance> instances, SessionAffinity affinity) {
+        if (instances.isEmpty()) {
+            return new EmptyResponse();
+        }
+        if (affinity != null && affinity.instanceId() != null) {
+            for (ServiceInstance instance : instances) {
+                if (affinity.instanceId().equals(instance.getInstanceId())) {
+                    return new DefaultResponse(instance);
+                }
+            }
+        }
+        String key = affinity != null ? affinity.key() : UUID.randomUUID().toString();
+        return new DefaultResponse(ring(instances).get(key));
+    }
+
+    private ConsistentHashRing<ServiceInstance> ring(List<ServiceInstance> instances) {
+        List<String> instanceIds = instances.stream().map(ServiceInstance::getInstanceId).sorted().toList();
+        Snapshot current = snapshot;
+        if (!current.instanceIds().equals(instanceIds)) {
+            current = new Snapshot(instanceIds, new ConsistentHashRing<>(instances, ServiceInstance::getInstanceId, REPLICAS));
+            snapshot = current;
+        }
+        return current.ring();
+    }
+
+    private static SessionAffinity affinity(Request request) {
+        if (request.getContext() instanceof RequestDataContext context) {
+            Object attribute = context.getClientRequest().getAttributes().get(SessionAffinity.ATTRIBUTE);
+            if (attribute instanceof SessionAffinity affinity) {
+                return affinity;
+            }
+            return SessionAffinity.parse(context.getClientRequest().getCookies().getFirst(SessionAffinity.COOKIE));
+        }
+        return null;
+    }
+
+    /**
+     * @return the service this load balancer serves
+     */
+    public String getServiceId() {
+        return serviceId;
+    }
+}
@@ -0,0 +1,26 @@
+package com.ams.gateway.appConfig.loadbalancer;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.core.ReactorLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+/**
+ * {@code StickySessionLoadBalancerConfig} is the load balancer configuration of ui-service
+ * (see {@link LoadBalancerConfig}). Like {@link LatencyAwareLoadBalancerConfig} it must stay out of
+ * component scanning, so it carries no {@code @Configuration}.
+ *
+ * @author Yosef Nago
+ */
+public class StickySessionLoadBalancerConfig {
+
+    @Bean
+    public ReactorLoadBalancer<ServiceInstance> stickySessionLoadBalancer(Environment environment,
+                                                                         LoadBalancerClientFactory clientFactory) {
+        String serviceId = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+        return new StickySessionLoadBalancer(
+                clientFactory.getLazyProvider(serviceId, ServiceInstanceListSupplier.class), serviceId);
+    }
+}
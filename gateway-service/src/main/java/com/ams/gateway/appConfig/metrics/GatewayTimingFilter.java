@@ -0,0 +1,67 @@
+package com.ams.gateway.appConfig.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code GatewayTimingFilter} splits the time a request spends in the gateway from the time spent waiting
+ * for the backend.
+ *
+ * <p>
+ * It runs first in the global chain and, once the exchange completes, records
+ * {@code ams.gateway.filter.time}: the total time minus the upstream time measured by
+ * {@link UpstreamTimingFilter}. Requests served by the gateway itself (cache hits, coalesced followers,
+ * rejections) never reach the backend, so their whole duration counts as filter time.
+ * </p>
+ *
+ * <p>Both timers are tagged with the route id; the end-to-end time is {@code spring.cloud.gateway.requests}.</p>
+ *
+ * @author Yosef Nago
+ */
+@Component
+public class GatewayTimingFilter implements GlobalFilter, Ordered {
+
+    /** Nanoseconds the request spent upstream, set by {@link UpstreamTimingFilter}. */
+    static final String UPSTREAM_NANOS_ATTRIBUTE = GatewayTimingFilter.class.getName() + ".upstreamNanos";
+
+    private final MeterRegistry meterRegistry;
+
+    public GatewayTimingFilter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        long start = System.nanoTime();
+        return chain.filter(exchange).doFinally(signal -> {
+            long total = System.nanoTime() - start;
+            Long upstream = exchange.getAttribute(UPSTREAM_NANOS_ATTRIBUTE);
+            long own = upstream == null ? total : Math.max(0, total - upstream);
+            timer("ams.gateway.filter.time", "Time spent in gateway filters, excluding the upstream call", exchange)
+                    .record(own, TimeUnit.NANOSECONDS);
+        });
+    }
+
+    private Timer timer(String name, String description, ServerWebExchange exchange) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        return Timer.builder(name)
+                .description(description)
+                .tag("route", route == null ? "none" : route.getId())
+                .register(meterRegistry);
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
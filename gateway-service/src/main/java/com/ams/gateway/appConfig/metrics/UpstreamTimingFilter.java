@@ -0,0 +1,62 @@
+package com.ams.gateway.appConfig.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyRoutingFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code UpstreamTimingFilter} times the backend call of a routed request as {@code ams.gateway.upstream.time}.
+ *
+ * <p>
+ * It sits directly in front of the {@link NettyRoutingFilter}, so the measured span is connection
+ * acquisition, sending the request and waiting for the response headers. Streaming the body back to the
+ * client is not included. With retries enabled every attempt is recorded on its own, and the sum is left
+ * on the exchange for {@link GatewayTimingFilter}.
+ * </p>
+ *
+ * @author Yosef Nago
+ */
+@Component
+public class UpstreamTimingFilter implements GlobalFilter, Ordered {
+
+    private final MeterRegistry meterRegistry;
+
+    public UpstreamTimingFilter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return chain.filter(exchange).doFinally(signal -> {
+                long elapsed = System.nanoTime() - start;
+                Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+                Timer.builder("ams.gateway.upstream.time")
+                        .description("Time from sending a request upstream until its response headers arrive")
+                        .tag("route", route == null ? "none" : route.getId())
+                        .tag("outcome", signal == SignalType.ON_COMPLETE ? "completed" : "failed")
+                        .register(meterRegistry)
+                        .record(elapsed, TimeUnit.NANOSECONDS);
+                exchange.getAttributes().merge(GatewayTimingFilter.UPSTREAM_NANOS_ATTRIBUTE, elapsed,
+                        (previous, current) -> (Long) previous + (Long) current);
+            });
+        });
+    }
+
+    @Override
+    public int getOrder() {
+        return NettyRoutingFilter.ORDER - 1;
+    }
+}
@@ -0,0 +1,58 @@
+package com.ams.gateway.appConfig.ratelimit;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@code ConcurrencyLimiter} caps the requests in flight per route.
+ *
+ * <p>
+ * Unlike a queueing semaphore it never waits: once a route is at its limit, further requests are
+ * rejected right away so the gateway sheds load instead of piling up connections to a slow backend.
+ * Every successful {@link #tryAcquire} must be paired with exactly one {@link #release}.
+ * </p>
+ *
+ * @author Yosef Nago
+ */
+public class ConcurrencyLimiter {
+
+    private final Map<String, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * @param routeId the route id
+     * @param limit   the maximum number of requests in flight
+     * @return {@code true} if a slot was taken
+     */
+    public boolean tryAcquire(String routeId, int limit) {
+        AtomicInteger counter = counter(routeId);
+        while (true) {
+            int current = counter.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (counter.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @param routeId the route id whose slot is returned
+     */
+    public void release(String routeId) {
+        counter(routeId).decrementAndGet();
+    }
+
+    /**
+     * @param routeId the route id
+     * @return the requests currently in flight to the route
+     */
+    public int inFlight(String routeId) {
+        return counter(routeId).get();
+    }
+
+    private AtomicInteger counter(String routeId) {
+        return inFlight.computeIfAbsent(routeId, id -> new AtomicInteger());
+    }
+}
@@ -0,0 +1,18 @@
+package com.ams.gateway.appConfig.ratelimit;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * {@code RateLimitConfig} exposes the shared per-route {@link ConcurrencyLimiter}.
+ *
+ * @author Yosef Nago
+ */
+@Configuration
+public class RateLimitConfig {
+
+    @Bean
+    public ConcurrencyLimiter concurrencyLimiter() {
+        return new ConcurrencyLimiter();
+    }
+}
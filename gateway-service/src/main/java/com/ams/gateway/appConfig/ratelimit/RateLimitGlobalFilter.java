@@ -0,0 +1,127 @@
+package com.ams.gateway.appConfig.ratelimit;
+
+import com.ams.gateway.appConfig.config.JwtGlobalFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code RateLimitGlobalFilter} protects the backends from a single runaway caller and from overload.
+ *
+ * <p>Two checks run for every routed request, in this order:</p>
+ * <ul>
+ *     <li><b>Rate limit</b> – a token bucket per route and caller. The caller is the authenticated
+ *     username set by {@link JwtGlobalFilter}, or the remote IP for public paths such as login.
+ *     Exceeding it answers {@code 429 Too Many Requests} with {@code Retry-After}.</li>
+ *     <li><b>Concurrency limit</b> – a cap on requests in flight per route across all callers.
+ *     Exceeding it answers {@code 503 Service Unavailable} immediately, without queueing.</li>
+ * </ul>
+ *
+ * <p>
+ * Rejections are counted in {@code gateway.requests.throttled}, tagged by route and reason.
+ * Limits are configured under {@code gateway.rate-limit} (see {@link RateLimitProperties}).
+ * </p>
+ *
+ * @author Yosef Nago
+ */
+@Component
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class RateLimitGlobalFilter implements GlobalFilter, Ordered {
+
+    private final RateLimitProperties properties;
+    private final TokenBucketRegistry buckets;
+    private final ConcurrencyLimiter concurrencyLimiter;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, RateLimitProperties.Limit> limitsByRoute = new ConcurrentHashMap<>();
+
+    public RateLimitGlobalFilter(RateLimitProperties properties, ConcurrencyLimiter concurrencyLimiter,
+                                 MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.buckets = new TokenBucketRegistry(properties.getMaxKeys());
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.meterRegistry = meterRegistry;
+        meterRegistry.gauge("gateway.rate-limit.keys", buckets, TokenBucketRegistry::size);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        if (!properties.isEnabled() || route == null) {
+            return chain.filter(exchange);
+        }
+
+        String routeId = route.getId();
+        RateLimitProperties.Limit limit = limitsByRoute.computeIfAbsent(routeId, properties::forRoute);
+
+        if (limit.getReplenishRate() > 0) {
+            long waitNanos = buckets.tryAcquire(routeId + '|' + caller(exchange),
+                    limit.getReplenishRate(), limit.getBurstCapacity(), System.nanoTime());
+            if (waitNanos > 0) {
+                return reject(exchange, routeId, "rate", HttpStatus.TOO_MANY_REQUESTS, waitNanos);
+            }
+        }
+
+        if (limit.getMaxConcurrent() <= 0) {
+            return chain.filter(exchange);
+        }
+        if (!concurrencyLimiter.tryAcquire(routeId, limit.getMaxConcurrent())) {
+            return reject(exchange, routeId, "concurrency", HttpStatus.SERVICE_UNAVAILABLE, TimeUnit.SECONDS.toNanos(1));
+        }
+        return chain.filter(exchange)
+                .doFinally(signal -> concurrencyLimiter.release(routeId));
+    }
+
+    /**
+     * Identifies the caller for rate limiting. The {@code X-User-Name} request header is not used, since
+     * on public paths it comes straight from the client.
+     */
+    private String caller(ServerWebExchange exchange) {
+        String username = exchange.getAttribute(JwtGlobalFilter.USERNAME_ATTRIBUTE);
+        if (username != null) {
+            return "user:" + username;
+        }
+        InetSocketAddress remote = exchange.getRequest().getRemoteAddress();
+        return "ip:" + (remote != null && remote.getAddress() != null ? remote.getAddress().getHostAddress() : "unknown");
+    }
+
+    private Mono<Void> reject(ServerWebExchange exchange, String routeId, String reason,
+                              HttpStatus status, long retryAfterNanos) {
+        Counter.builder("gateway.requests.throttled")
+                .tag("route", routeId)
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(status);
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(retryAfterNanos + 999_999_999L));
+        response.getHeaders().set("Retry-After", Long.toString(retryAfterSeconds));
+        return response.setComplete();
+    }
+
+    /**
+     * Runs after {@link JwtGlobalFilter}, so the authenticated username is known, and before the response
+     * cache, so cached reads still count against the caller's rate.
+     *
+     * @return the order value
+     */
+    @Override
+    public int getOrder() {
+        return -5;
+    }
+}
@@ -0,0 +1,126 @@
+package com.ams.gateway.appConfig.ratelimit;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * {@code RateLimitProperties} binds the {@code gateway.rate-limit.*} settings.
+ *
+ * <p>
+ * {@link #getDefaults()} applies to every route; entries under {@link #getRoutes()} (keyed by route id,
+ * e.g. {@code client-service}) override it field by field. A value of {@code 0} disables that limit.
+ * </p>
+ *
+ * @author Yosef Nago
+ */
+@ConfigurationProperties(prefix = "gateway.rate-limit")
+public class RateLimitProperties {
+
+    /** Master switch for both the rate and the concurrency limits. */
+    private boolean enabled = true;
+
+    /** Upper bound on tracked rate-limit keys before idle buckets are evicted. */
+    private int maxKeys = 100_000;
+
+    private Limit defaults = Limit.of(20, 40, 200);
+
+    private Map<String, Limit> routes = new HashMap<>();
+
+    /**
+     * Resolves the effective limit of a route.
+     *
+     * @param routeId the gateway route id
+     * @return the route's limit with unset fields taken from the defaults
+     */
+    public Limit forRoute(String routeId) {
+        Limit override = routes.get(routeId);
+        if (override == null) {
+            return defaults;
+        }
+        return Limit.of(
+                override.getReplenishRate() != null ? override.getReplenishRate() : defaults.getReplenishRate(),
+                override.getBurstCapacity() != null ? override.getBurstCapacity() : defaults.getBurstCapacity(),
+                override.getMaxConcurrent() != null ? override.getMaxConcurrent() : defaults.getMaxConcurrent());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMaxKeys() {
+        return maxKeys;
+    }
+
+    public void setMaxKeys(int maxKeys) {
+        this.maxKeys = maxKeys;
+    }
+
+    public Limit getDefaults() {
+        return defaults;
+    }
+
+    public void setDefaults(Limit defaults) {
+        this.defaults = defaults;
+    }
+
+    public Map<String, Limit> getRoutes() {
+        return routes;
+    }
+
+    public void setRoutes(Map<String, Limit> routes) {
+        this.routes = routes;
+    }
+
+    /**
+     * Limits of a single route.
+     */
+    public static class Limit {
+
+        /** Sustained requests per second allowed per caller. */
+        private Integer replenishRate;
+
+        /** Requests a caller may send back to back before the sustained rate applies. */
+        private Integer burstCapacity;
+
+        /** Requests in flight to the route at once, across all callers. */
+        private Integer maxConcurrent;
+
+        static Limit of(int replenishRate, int burstCapacity, int maxConcurrent) {
+            Limit limit = new Limit();
+            limit.setReplenishRate(replenishRate);
+            limit.setBurstCapacity(burstCapacity);
+            limit.setMaxConcurrent(maxConcurrent);
+            return limit;
+        }
+
+        public Integer getReplenishRate() {
+            return replenishRate;
+        }
+
+        public void setReplenishRate(Integer replenishRate) {
+            this.replenishRate = replenishRate;
+        }
+
+        public Integer getBurstCapacity() {
+            return burstCapacity;
+        }
+
+        public void setBurstCapacity(Integer burstCapacity) {
+            this.burstCapacity = burstCapacity;
+        }
+
+        public Integer getMaxConcurrent() {
+            return maxConcurrent;
+        }
+
+        public void setMaxConcurrent(Integer maxConcurrent) {
+            this.maxConcurrent = maxConcurrent;
+        }
+    }
+}
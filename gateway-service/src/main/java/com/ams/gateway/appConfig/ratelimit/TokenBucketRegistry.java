@@ -0,0 +1,104 @@
+package com.ams.gateway.appConfig.ratelimit;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@code TokenBucketRegistry} holds one token bucket per caller key, memory-bounded.
+ *
+ * <p>
+ * Each bucket is a single {@link AtomicLong} using the generic cell rate algorithm (GCRA): it stores the
+ * "theoretical arrival time" of the next request, and a request is admitted when that time is no more
+ * than {@code burstCapacity} emission intervals ahead of now. Admission is one CAS, with no locks and no
+ * refill timer.
+ * </p>
+ *
+ * <p>
+ * A bucket whose theoretical arrival time lies in the past is full again and holds no information, so
+ * dropping it is lossless. When the map grows past {@code maxKeys}, a single thread sweeps those idle
+ * buckets out; if every bucket is still active, arbitrary ones are dropped until the map is back under
+ * the bound, which at worst grants those callers a fresh burst.
+ * </p>
+ *
+ * @author Yosef Nago
+ */
+public class TokenBucketRegistry {
+
+    private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+    private final int maxKeys;
+
+    public TokenBucketRegistry(int maxKeys) {
+        this.maxKeys = maxKeys;
+    }
+
+    /**
+     * Tries to take one token from the key's bucket.
+     *
+     * @param key           the caller key
+     * @param replenishRate tokens added per second
+     * @param burstCapacity bucket size
+     * @param nowNanos      the current {@link System#nanoTime()}
+     * @return {@code 0} if the request is admitted, otherwise the nanoseconds until a token is available
+     */
+    public long tryAcquire(String key, int replenishRate, int burstCapacity, long nowNanos) {
+        long interval = 1_000_000_000L / replenishRate;
+        long tolerance = interval * burstCapacity;
+
+        AtomicLong bucket = buckets.get(key);
+        boolean added = false;
+        if (bucket == null) {
+            bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(nowNanos));
+            added = true;
+        }
+
+        long waitNanos = acquire(bucket, interval, tolerance, nowNanos);
+        // only after the new bucket holds this request: while it is still full, the sweep would drop it
+        if (added && buckets.size() > maxKeys) {
+            evict(nowNanos);
+        }
+        return waitNanos;
+    }
+
+    private static long acquire(AtomicLong bucket, long interval, long tolerance, long nowNanos) {
+        while (true) {
+            long tat = bucket.get();
+            long next = Math.max(tat, nowNanos) + interval;
+            long allowAt = next - tolerance;
+            if (allowAt > nowNanos) {
+                return allowAt - nowNanos;
+            }
+            if (bucket.compareAndSet(tat, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * @return the number of tracked keys
+     */
+    public int size() {
+        return buckets.size();
+    }
+
+    private void evict(long nowNanos) {
+        if (!sweeping.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            buckets.values().removeIf(bucket -> bucket.get() - nowNanos <= 0);
+
+            int target = maxKeys - maxKeys / 10;
+            Iterator<AtomicLong> it = buckets.values().iterator();
+            while (buckets.size() > target && it.hasNext()) {
+                it.next();
+                it.remove();
+            }
+        } finally {
+            sweeping.set(false);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.ams.gateway.appConfig.resilience;
+
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeoutException;
+
+/**
+ * {@code FallbackController} answers requests whose route circuit breaker failed, instead of letting the
+ * exception surface as a generic 500.
+ *
+ * <ul>
+ *     <li>{@code 503} – the circuit is open, the backend is not called at all</li>
+ *     <li>{@code 504} – the backend did not answer within the circuit's time limit, or within the HTTP client's
+ *     response timeout</li>
+ *     <li>{@code 502} – the backend failed or answered with a server error</li>
+ * </ul>
+ *
+ * @author Yosef Nago
+ */
+@RestController
+public class FallbackController {
+
+    @RequestMapping("/fallback/{service}")
+    public Mono<ResponseEntity<String>> fallback(@PathVariable String service, ServerWebExchange exchange) {
+        Throwable cause = exchange.getAttribute(ServerWebExchangeUtils.CIRCUITBREAKER_EXECUTION_EXCEPTION_ATTR);
+
+        HttpStatus status;
+        String message;
+        if (cause instanceof CallNotPermittedException) {
+            status = HttpStatus.SERVICE_UNAVAILABLE;
+            message = service + " is temporarily unavailable";
+        } else if (cause instanceof TimeoutException
+                || cause instanceof ResponseStatusException e && e.getStatusCode().value() == HttpStatus.GATEWAY_TIMEOUT.value()) {
+            status = HttpStatus.GATEWAY_TIMEOUT;
+            message = service + " did not respond in time";
+        } else {
+            status = HttpStatus.BAD_GATEWAY;
+            message = service + " failed to handle the request";
+        }
+
+        return Mono.just(ResponseEntity.status(status)
+                .contentType(MediaType.TEXT_PLAIN)
+                .body(message));
+    }
+}
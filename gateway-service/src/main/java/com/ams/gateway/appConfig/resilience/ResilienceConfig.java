@@ -0,0 +1,84 @@
+package com.ams.gateway.appConfig.resilience;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.timelimiter.TimeLimiterConfig;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.circuitbreaker.resilience4j.ReactiveResilience4JCircuitBreakerFactory;
+import org.springframework.cloud.circuitbreaker.resilience4j.Resilience4JConfigBuilder;
+import org.springframework.cloud.client.circuitbreaker.Customizer;
+import org.springframework.cloud.gateway.config.GatewayProperties;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.filter.FilterDefinition;
+import org.springframework.cloud.gateway.route.RouteDefinition;
+import org.springframework.cloud.gateway.support.RouteMetadataUtils;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * {@code ResilienceConfig} configures the Resilience4j circuit breakers used by the gateway routes.
+ *
+ * <p>
+ * Every route declares a {@code CircuitBreaker} filter named after its route id (see {@code application.yml}).
+ * All circuits share the thresholds from {@link ResilienceProperties}; only the time limit and the slow-call
+ * threshold may differ per circuit, since client-service legitimately needs longer for document uploads.
+ * </p>
+ *
+ * <p>
+ * The circuit's time limit is the only timeout that should ever fire. A route's {@code response-timeout}
+ * (the global {@code spring.cloud.gateway.httpclient.response-timeout} or the route metadata) must be longer,
+ * otherwise the HTTP client would cut the call first and the breaker would record a generic failure instead of
+ * a timeout. Startup fails when a route is configured that way.
+ * </p>
+ *
+ * @author Yosef Nago
+ */
+@Configuration
+@EnableConfigurationProperties(ResilienceProperties.class)
+public class ResilienceConfig {
+
+    @Bean
+    public Customizer<ReactiveResilience4JCircuitBreakerFactory> routeCircuitBreakers(ResilienceProperties properties,
+                                                                                      GatewayProperties gatewayProperties,
+                                                                                      HttpClientProperties httpClientProperties) {
+        for (RouteDefinition route : gatewayProperties.getRoutes()) {
+            checkResponseTimeout(route, properties, httpClientProperties.getResponseTimeout());
+        }
+        return factory -> factory.configureDefault(circuitName -> new Resilience4JConfigBuilder(circuitName)
+                .circuitBreakerConfig(CircuitBreakerConfig.custom()
+                        .slidingWindowType(CircuitBreakerConfig.SlidingWindowType.COUNT_BASED)
+                        .slidingWindowSize(properties.getSlidingWindowSize())
+                        .minimumNumberOfCalls(properties.getMinimumNumberOfCalls())
+                        .failureRateThreshold(properties.getFailureRateThreshold())
+                        .slowCallDurationThreshold(properties.slowCallDurationFor(circuitName))
+                        .slowCallRateThreshold(properties.getSlowCallRateThreshold())
+                        .waitDurationInOpenState(properties.getWaitDurationInOpenState())
+                        .permittedNumberOfCallsInHalfOpenState(properties.getPermittedCallsInHalfOpenState())
+                        .build())
+                .timeLimiterConfig(TimeLimiterConfig.custom()
+                        .timeoutDuration(properties.timeoutFor(circuitName))
+                        .build())
+                .build());
+    }
+
+    private static void checkResponseTimeout(RouteDefinition route, ResilienceProperties properties,
+                                             Duration globalResponseTimeout) {
+        for (FilterDefinition filter : route.getFilters()) {
+            if (!"CircuitBreaker".equals(filter.getName())) {
+                continue;
+            }
+            String circuitName = filter.getArgs().getOrDefault("name", route.getId());
+            Object routeTimeout = route.getMetadata().get(RouteMetadataUtils.RESPONSE_TIMEOUT_ATTR);
+            Duration responseTimeout = routeTimeout != null
+                    ? Duration.ofMillis(Long.parseLong(routeTimeout.toString()))
+                    : globalResponseTimeout;
+            Duration timeLimit = properties.timeoutFor(circuitName);
+            if (responseTimeout != null && responseTimeout.compareTo(timeLimit) <= 0) {
+                throw new IllegalStateException("Route " + route.getId() + " has a response timeout of "
+                        + responseTimeout + ", which is not longer than the " + timeLimit
+                        + " time limit of circuit " + circuitName);
+            }
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.ams.gateway.appConfig.resilience;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * {@code ResilienceProperties} binds the {@code gateway.resilience.*} settings shared by the route circuit breakers.
+ *
+ * <p>Circuit breakers are named after the route they protect, which is also the key of {@link #getTimeouts()} and {@link #getSlowCallDurations()}.</p>
+ *
+ * @author Yosef Nago
+ */
+@ConfigurationProperties(prefix = "gateway.resilience")
+public class ResilienceProperties {
+
+    /** Time limit of a single call through a circuit breaker. */
+    private Duration timeout = Duration.ofSeconds(5);
+
+    /** Per-circuit overrides of {@link #timeout}. */
+    private Map<String, Duration> timeouts = new HashMap<>();
+
+    /** Percentage of failed calls in the window that opens the circuit. */
+    private float failureRateThreshold = 50;
+
+    /** Calls slower than this count as slow. */
+    private Duration slowCallDuration = Duration.ofSeconds(3);
+
+    /** Per-circuit overrides of {@link #slowCallDuration}. */
+    private Map<String, Duration> slowCallDurations = new HashMap<>();
+
+    /** Percentage of slow calls in the window that opens the circuit. */
+    private float slowCallRateThreshold = 80;
+
+    /** Number of most recent calls evaluated. */
+    private int slidingWindowSize = 20;
+
+    /** Calls needed in the window before the rates are evaluated. */
+    private int minimumNumberOfCalls = 10;
+
+    /** How long an open circuit rejects calls before probing the backend again. */
+    private Duration waitDurationInOpenState = Duration.ofSeconds(10);
+
+    /** Probe calls allowed while half-open. */
+    private int permittedCallsInHalfOpenState = 3;
+
+    public Duration timeoutFor(String circuitName) {
+        return timeouts.getOrDefault(circuitName, timeout);
+    }
+
+    public Duration slowCallDurationFor(String circuitName) {
+        return slowCallDurations.getOrDefault(circuitName, slowCallDuration);
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public void setTimeout(Duration timeout) {
+        this.timeout = timeout;
+    }
+
+    public Map<String, Duration> getTimeouts() {
+        return timeouts;
+    }
+
+    public void setTimeouts(Map<String, Duration> timeouts) {
+        this.timeouts = timeouts;
+    }
+
+    public float getFailureRateThreshold() {
+        return failureRateThreshold;
+    }
+
+    public void setFailureRateThreshold(float failureRateThreshold) {
+        this.failureRateThreshold = failureRateThreshold;
+    }
+
+    public Duration getSlowCallDuration() {
+        return slowCallDuration;
+    }
+
+    public void setSlowCallDuration(Duration slowCallDuration) {
+        this.slowCallDuration = slowCallDuration;
+    }
+
+    public Map<String, Duration> getSlowCallDurations() {
+        return slowCallDurations;
+    }
+
+    public void setSlowCallDurations(Map<String, Duration> slowCallDurations) {
+        this.slowCallDurations = slowCallDurations;
+    }
+
+    public float getSlowCallRateThreshold() {
+        return slowCallRateThreshold;
+    }
+
+    public void setSlowCallRateThreshold(float slowCallRateThreshold) {
+        this.slowCallRateThreshold = slowCallRateThreshold;
+    }
+
+    public int getSlidingWindowSize() {
+        return slidingWindowSize;
+    }
+
+    public void setSlidingWindowSize(int slidingWindowSize) {
+        this.slidingWindowSize = slidingWindowSize;
+    }
+
+    public int getMinimumNumberOfCalls() {
+        return minimumNumberOfCalls;
+    }
+
+    public void setMinimumNumberOfCalls(int minimumNumberOfCalls) {
+        this.minimumNumberOfCalls = minimumNumberOfCalls;
+    }
+
+    public Duration getWaitDurationInOpenState() {
+        return waitDurationInOpenState;
+    }
+
+    public void setWaitDurationInOpenState(Duration waitDurationInOpenState) {
+        this.waitDurationInOpenState = waitDurationInOpenState;
+    }
+
+    public int getPermittedCallsInHalfOpenState() {
+        return permittedCallsInHalfOpenState;
+    }
+
+    public void setPermittedCallsInHalfOpenState(int permittedCallsInHalfOpenState) {
+        this.permittedCallsInHalfOpenState = permittedCallsInHalfOpenState;
+    }
+}
@@ -0,0 +1,56 @@
+package com.ams.gateway.appConfig.response;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * {@code BufferedResponse} collects the upstream response instead of writing it, so that it can be sent
+ * to several clients afterwards with {@link ResponseCapture#replay}.
+ *
+ * <p>
+ * Status and headers still land on the delegate, which is left uncommitted. Like {@link ResponseCapture},
+ * it must be installed by a filter ordered before {@code NettyWriteResponseFilter}.
+ * </p>
+ *
+ * @author Yosef Nago
+ */
+public class BufferedResponse extends ServerHttpResponseDecorator {
+
+    private volatile CapturedResponse captured;
+
+    public BufferedResponse(ServerHttpResponse delegate) {
+        super(delegate);
+    }
+
+    @Override
+    public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+        return ResponseCapture.join(body)
+                .doOnNext(bytes -> captured = ResponseCapture.capture(getDelegate(), bytes))
+                .then();
+    }
+
+    @Override
+    public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+        return writeWith(Flux.from(body).concatMap(Flux::from));
+    }
+
+    @Override
+    public Mono<Void> setComplete() {
+        if (captured == null) {
+            captured = ResponseCapture.capture(getDelegate(), new byte[0]);
+        }
+        return Mono.empty();
+    }
+
+    /**
+     * @return the buffered response; an empty body with the current status if nothing was written
+     */
+    public CapturedResponse captured() {
+        CapturedResponse response = captured;
+        return response != null ? response : ResponseCapture.capture(getDelegate(), new byte[0]);
+    }
+}
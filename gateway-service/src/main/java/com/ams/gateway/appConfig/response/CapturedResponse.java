@@ -0,0 +1,44 @@
+package com.ams.gateway.appConfig.response;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+
+/**
+ * {@code CapturedResponse} is a fully buffered upstream response: status, headers and body bytes.
+ *
+ * <p>The headers are a private copy, so a captured response can be stored and replayed to other exchanges.</p>
+ *
+ * @param status  the response status
+ * @param headers the response headers
+ * @param body    the response body, empty if there was none
+ * @author Yosef Nago
+ */
+public record CapturedResponse(HttpStatusCode status, HttpHeaders headers, byte[] body) {
+
+    /**
+     * Returns a copy whose headers can be changed without affecting this response.
+     *
+     * @return the copy, sharing the (never modified) body array
+     */
+    public CapturedResponse copy() {
+        HttpHeaders headersCopy = new HttpHeaders();
+        headersCopy.putAll(headers);
+        return new CapturedResponse(status, headersCopy, body);
+    }
+
+    /**
+     * Approximates the heap held by this response, for size-bounded stores.
+     *
+     * @return the body length plus the characters of all header names and values
+     */
+    public int weight() {
+        int weight = body.length;
+        for (var header : headers.entrySet()) {
+            weight += header.getKey().length();
+            for (String value : header.getValue()) {
+                weight += value.length();
+            }
+        }
+        return weight;
+    }
+}
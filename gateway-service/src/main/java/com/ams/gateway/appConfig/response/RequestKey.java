@@ -0,0 +1,36 @@
+package com.ams.gateway.appConfig.response;
+
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+
+import java.util.List;
+
+/**
+ * {@code RequestKey} builds the identity of a per-user read, shared by the response cache and request coalescing.
+ *
+ * @author Yosef Nago
+ */
+public final class RequestKey {
+
+    private RequestKey() {
+    }
+
+    /**
+     * @param route       the matched route
+     * @param user        the authenticated username
+     * @param request     the request
+     * @param varyHeaders request headers that select a different backend response
+     * @return {@code route|user|path?query|header=value...}
+     */
+    public static String of(Route route, String user, ServerHttpRequest request, List<String> varyHeaders) {
+        StringBuilder key = new StringBuilder(route.getId()).append('|').append(user).append('|')
+                .append(request.getURI().getRawPath());
+        if (request.getURI().getRawQuery() != null) {
+            key.append('?').append(request.getURI().getRawQuery());
+        }
+        for (String header : varyHeaders) {
+            key.append('|').append(header).append('=').append(request.getHeaders().getFirst(header));
+        }
+        return key.toString();
+    }
+}
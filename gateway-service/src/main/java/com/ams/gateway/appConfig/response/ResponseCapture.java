@@ -0,0 +1,90 @@
+package com.ams.gateway.appConfig.response;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.function.Function;
+
+/**
+ * {@code ResponseCapture} buffers the upstream response body before it is written to the client,
+ * hands it to a callback as a {@link CapturedResponse}, and writes whatever the callback returns.
+ *
+ * <p>
+ * The decorator must be installed by a filter that runs before {@code NettyWriteResponseFilter}
+ * (order {@code -1}), since that filter writes to the response of the exchange it was given.
+ * Streaming responses ({@link #writeAndFlushWith}) are passed through untouched and never captured.
+ * </p>
+ *
+ * @author Yosef Nago
+ */
+public class ResponseCapture extends ServerHttpResponseDecorator {
+
+    private final Function<CapturedResponse, CapturedResponse> callback;
+
+    /**
+     * @param delegate the response to write to
+     * @param callback receives the captured upstream response and returns the response to send
+     */
+    public ResponseCapture(ServerHttpResponse delegate, Function<CapturedResponse, CapturedResponse> callback) {
+        super(delegate);
+        this.callback = callback;
+    }
+
+    @Override
+    public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+        return join(body).flatMap(bytes -> replay(getDelegate(), callback.apply(capture(getDelegate(), bytes))));
+    }
+
+    /**
+     * Reads a response body into a byte array, releasing the buffers.
+     *
+     * @param body the body publisher
+     * @return the bytes, empty if there was no body
+     */
+    public static Mono<byte[]> join(Publisher<? extends DataBuffer> body) {
+        return DataBufferUtils.join(Flux.from(body))
+                .map(buffer -> {
+                    byte[] bytes = new byte[buffer.readableByteCount()];
+                    buffer.read(bytes);
+                    DataBufferUtils.release(buffer);
+                    return bytes;
+                })
+                .defaultIfEmpty(new byte[0]);
+    }
+
+    /**
+     * Snapshots the status and headers of a response together with its body.
+     *
+     * @param response the response
+     * @param body     its body bytes
+     * @return the captured response, with its own copy of the headers
+     */
+    public static CapturedResponse capture(ServerHttpResponse response, byte[] body) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.putAll(response.getHeaders());
+        return new CapturedResponse(response.getStatusCode(), headers, body);
+    }
+
+    /**
+     * Writes a captured (possibly replayed) response to a response that has not been committed yet.
+     *
+     * @param response the uncommitted response
+     * @param captured the response to send
+     * @return completion of the write
+     */
+    public static Mono<Void> replay(ServerHttpResponse response, CapturedResponse captured) {
+        response.setStatusCode(captured.status());
+        HttpHeaders headers = response.getHeaders();
+        headers.clear();
+        headers.putAll(captured.headers());
+        headers.remove(HttpHeaders.TRANSFER_ENCODING);
+        headers.setContentLength(captured.body().length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(captured.body())));
+    }
+}
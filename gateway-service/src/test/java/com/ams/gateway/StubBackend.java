@@ -0,0 +1,88 @@
+package com.ams.gateway;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Local HTTP backend for gateway tests. Each path answers with a status chosen from its hit count, optionally
+ * after a delay, and counts how often the gateway called it.
+ */
+public final class StubBackend {
+
+    private final HttpServer server;
+    private final Map<String, AtomicInteger> hits = new ConcurrentHashMap<>();
+
+    private StubBackend(HttpServer server) {
+        this.server = server;
+    }
+
+    public static StubBackend start() {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.setExecutor(Executors.newCachedThreadPool());
+            server.start();
+            return new StubBackend(server);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Answers {@code path} with the status returned for the 1-based hit number. */
+    public StubBackend respond(String path, IntUnaryOperator statusForHit) {
+        return respond(path, Duration.ZERO, statusForHit);
+    }
+
+    public StubBackend respond(String path, Duration delay, IntUnaryOperator statusForHit) {
+        server.createContext(path, exchange -> {
+            int hit = hits.computeIfAbsent(exchange.getRequestURI().getPath(), p -> new AtomicInteger())
+                    .incrementAndGet();
+            sleep(delay);
+            send(exchange, statusForHit.applyAsInt(hit));
+        });
+        return this;
+    }
+
+    public String uri() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    public int hits(String path) {
+        return hits.getOrDefault(path, new AtomicInteger()).get();
+    }
+
+    public void reset() {
+        hits.clear();
+    }
+
+    public void stop() {
+        server.stop(0);
+    }
+
+    private static void sleep(Duration delay) {
+        if (delay.isZero()) {
+            return;
+        }
+        try {
+            Thread.sleep(delay.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void send(HttpExchange exchange, int status) throws IOException {
+        byte[] body = ("stub " + status).getBytes();
+        exchange.sendResponseHeaders(status, body.length);
+        exchange.getResponseBody().write(body);
+        exchange.close();
+    }
+}
@@ -0,0 +1,115 @@
+package com.ams.gateway.appConfig.cache;
+
+import com.ams.commonsecurity.utils.JwtUtil;
+import com.ams.gateway.StubBackend;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Reads {@code /client/load-client-case}, a cached path, through the configured client-service route with a
+ * stub backend behind it.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "eureka.client.enabled=false",
+        "gateway.rate-limit.enabled=false"
+})
+class ResponseCacheFilterTest {
+
+    private static final String CASE = "/client/load-client-case";
+    private static final String UPDATE = "/client/update-client";
+
+    private static final StubBackend STUB = StubBackend.start()
+            .respond(CASE, hit -> 200)
+            .respond(UPDATE, hit -> 200);
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @DynamicPropertySource
+    static void clientService(DynamicPropertyRegistry registry) {
+        registry.add("spring.cloud.discovery.client.simple.instances.client-service[0].uri", STUB::uri);
+    }
+
+    @BeforeEach
+    void setUp() {
+        STUB.reset();
+    }
+
+    @AfterAll
+    static void stopStub() {
+        STUB.stop();
+    }
+
+    @Test
+    void repeatedReadIsServedFromTheCache() {
+        String alice = token("cache-test-repeat");
+
+        readCase(alice, "514000001").expectHeader().valueEquals("X-Cache", "MISS");
+        readCase(alice, "514000001").expectHeader().valueEquals("X-Cache", "HIT")
+                .expectBody(String.class).isEqualTo("stub 200");
+        // another client of the same user is a different entry
+        readCase(alice, "514000002").expectHeader().valueEquals("X-Cache", "MISS");
+
+        assertThat(STUB.hits(CASE)).isEqualTo(2);
+    }
+
+    @Test
+    void noCacheRequestBypassesTheCachedEntry() {
+        String alice = token("cache-test-no-cache");
+        readCase(alice, "514000001").expectHeader().valueEquals("X-Cache", "MISS");
+
+        webTestClient.get().uri(CASE)
+                .header("Authorization", "Bearer " + alice)
+                .header("clientId", "514000001")
+                .header(HttpHeaders.CACHE_CONTROL, "no-cache")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("X-Cache", "MISS");
+
+        assertThat(STUB.hits(CASE)).isEqualTo(2);
+        // the forced read refreshed the entry for the next plain read
+        readCase(alice, "514000001").expectHeader().valueEquals("X-Cache", "HIT");
+        assertThat(STUB.hits(CASE)).isEqualTo(2);
+    }
+
+    @Test
+    void writeOfAUserInvalidatesOnlyTheirEntries() {
+        String alice = token("cache-test-writer");
+        String bob = token("cache-test-reader");
+        readCase(alice, "514000001");
+        readCase(bob, "514000001");
+
+        webTestClient.put().uri(UPDATE)
+                .header("Authorization", "Bearer " + alice)
+                .exchange()
+                .expectStatus().isOk();
+
+        readCase(alice, "514000001").expectHeader().valueEquals("X-Cache", "MISS");
+        readCase(bob, "514000001").expectHeader().valueEquals("X-Cache", "HIT");
+        assertThat(STUB.hits(CASE)).isEqualTo(3);
+    }
+
+    private String token(String username) {
+        return jwtUtil.generateToken(username, "ACCOUNTANT", null);
+    }
+
+    private WebTestClient.ResponseSpec readCase(String token, String clientId) {
+        return webTestClient.get().uri(CASE)
+                .header("Authorization", "Bearer " + token)
+                .header("clientId", clientId)
+                .exchange()
+                .expectStatus().isOk();
+    }
+}
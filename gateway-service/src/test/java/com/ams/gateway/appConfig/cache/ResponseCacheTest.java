@@ -0,0 +1,118 @@
+package com.ams.gateway.appConfig.cache;
+
+import com.ams.gateway.appConfig.response.CapturedResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResponseCacheTest {
+
+    @Test
+    void evictsLeastRecentlyUsedEntriesOnceOverTheByteLimit() {
+        ResponseCache cache = new ResponseCache(300);
+        store(cache, "a", entry("alice", 100));
+        store(cache, "b", entry("alice", 100));
+        store(cache, "c", entry("alice", 100));
+        cache.get("a");
+
+        store(cache, "d", entry("alice", 100));
+
+        assertThat(cache.get("b")).isNull();
+        assertThat(cache.get("a")).isNotNull();
+        assertThat(cache.get("c")).isNotNull();
+        assertThat(cache.get("d")).isNotNull();
+        assertThat(cache.bytes()).isEqualTo(300);
+    }
+
+    @Test
+    void anEntryLargerThanTheLimitIsNotKept() {
+        ResponseCache cache = new ResponseCache(300);
+        store(cache, "a", entry("alice", 100));
+
+        store(cache, "huge", entry("alice", 301));
+
+        assertThat(cache.size()).isZero();
+        assertThat(cache.bytes()).isZero();
+    }
+
+    @Test
+    void replacingAnEntryCountsOnlyTheNewBytes() {
+        ResponseCache cache = new ResponseCache(1000);
+        store(cache, "a", entry("alice", 400));
+
+        store(cache, "a", entry("alice", 100));
+
+        assertThat(cache.size()).isEqualTo(1);
+        assertThat(cache.bytes()).isEqualTo(100);
+    }
+
+    @Test
+    void invalidatingAUserDropsOnlyTheirEntries() {
+        ResponseCache cache = new ResponseCache(1000);
+        store(cache, "alice-1", entry("alice", 100));
+        store(cache, "alice-2", entry("alice", 100));
+        store(cache, "bob-1", entry("bob", 50));
+
+        cache.invalidateUser("alice");
+
+        assertThat(cache.get("alice-1")).isNull();
+        assertThat(cache.get("alice-2")).isNull();
+        assertThat(cache.get("bob-1")).isNotNull();
+        assertThat(cache.bytes()).isEqualTo(50);
+    }
+
+    @Test
+    void aResponseReadBeforeAnInvalidationIsNotStored() {
+        ResponseCache cache = new ResponseCache(1000);
+        long generation = cache.beginRead("alice");
+
+        cache.invalidateUser("alice");
+
+        assertThat(cache.put("alice-1", entry("alice", 100), generation)).isFalse();
+        assertThat(cache.put("alice-1", entry("alice", 100), cache.beginRead("alice"))).isTrue();
+        assertThat(cache.put("bob-1", entry("bob", 100), cache.beginRead("bob"))).isTrue();
+    }
+
+    @Test
+    void usersWithoutEntriesOrReadsAreNotTracked() {
+        ResponseCache cache = new ResponseCache(1000);
+        for (int i = 0; i < 100; i++) {
+            cache.invalidateUser("writer-" + i);
+        }
+        store(cache, "alice-1", entry("alice", 100));
+        long generation = cache.beginRead("bob");
+
+        assertThat(cache.users()).isEqualTo(2);
+
+        cache.invalidateUser("alice");
+        cache.endRead("bob");
+        assertThat(cache.users()).isZero();
+        assertThat(cache.put("bob-1", entry("bob", 100), generation)).isFalse();
+    }
+
+    @Test
+    void evictingTheLastEntryOfAUserStopsTrackingThem() {
+        ResponseCache cache = new ResponseCache(100);
+        store(cache, "alice-1", entry("alice", 100));
+
+        store(cache, "bob-1", entry("bob", 100));
+
+        assertThat(cache.users()).isEqualTo(1);
+        cache.invalidateUser("bob");
+        assertThat(cache.size()).isZero();
+        assertThat(cache.bytes()).isZero();
+    }
+
+    private static void store(ResponseCache cache, String key, ResponseCache.Entry entry) {
+        cache.put(key, entry, cache.beginRead(entry.user()));
+        cache.endRead(entry.user());
+    }
+
+    private static ResponseCache.Entry entry(String user, int bodyBytes) {
+        CapturedResponse response = new CapturedResponse(HttpStatus.OK, new HttpHeaders(), new byte[bodyBytes]);
+        long now = System.nanoTime();
+        return new ResponseCache.Entry(user, response, null, now + 5_000_000_000L, 5_000_000_000L, 1_000_000L);
+    }
+}
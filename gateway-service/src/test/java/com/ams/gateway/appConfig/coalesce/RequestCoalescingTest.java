@@ -0,0 +1,100 @@
+package com.ams.gateway.appConfig.coalesce;
+
+import com.ams.commonsecurity.utils.JwtUtil;
+import com.ams.gateway.StubBackend;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Sends concurrent identical reads through the configured client-service route and counts the calls that
+ * reach the stub backend behind it.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "eureka.client.enabled=false",
+        "gateway.rate-limit.enabled=false"
+})
+class RequestCoalescingTest {
+
+    private static final int CALLERS = 20;
+
+    // coalesced but not cached, and slow enough for all callers to arrive while the first is in flight
+    private static final StubBackend STUB = StubBackend.start()
+            .respond("/client/load-documents", Duration.ofMillis(500), hit -> 200);
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @DynamicPropertySource
+    static void clientService(DynamicPropertyRegistry registry) {
+        registry.add("spring.cloud.discovery.client.simple.instances.client-service[0].uri", STUB::uri);
+    }
+
+    @BeforeEach
+    void setUp() {
+        STUB.reset();
+    }
+
+    @AfterAll
+    static void stopStub() {
+        STUB.stop();
+    }
+
+    @Test
+    void concurrentIdenticalReadsReachTheBackendOnce() {
+        String token = jwtUtil.generateToken("coalescing-test", "ACCOUNTANT", null);
+
+        List<ResponseEntity<String>> responses = Flux.range(0, CALLERS)
+                .flatMap(i -> loadDocuments(token, "514000001"), CALLERS)
+                .collectList()
+                .block(Duration.ofSeconds(10));
+
+        assertThat(STUB.hits("/client/load-documents")).isEqualTo(1);
+        assertThat(responses).hasSize(CALLERS)
+                .allSatisfy(response -> {
+                    assertThat(response.getStatusCode().value()).isEqualTo(200);
+                    assertThat(response.getBody()).isEqualTo("stub 200");
+                });
+        assertThat(responses).filteredOn(response -> response.getHeaders().containsKey("X-Coalesced"))
+                .hasSize(CALLERS - 1);
+    }
+
+    @Test
+    void readsOfDifferentUsersOrClientsAreNotMerged() {
+        String first = jwtUtil.generateToken("coalescing-test-a", "ACCOUNTANT", null);
+        String second = jwtUtil.generateToken("coalescing-test-b", "ACCOUNTANT", null);
+
+        Flux.merge(loadDocuments(first, "514000001"), loadDocuments(second, "514000001"),
+                        loadDocuments(first, "514000002"))
+                .collectList()
+                .block(Duration.ofSeconds(10));
+
+        assertThat(STUB.hits("/client/load-documents")).isEqualTo(3);
+    }
+
+    private Mono<ResponseEntity<String>> loadDocuments(String token, String clientId) {
+        return WebClient.create("http://localhost:" + port).get()
+                .uri("/client/load-documents")
+                .header("Authorization", "Bearer " + token)
+                .header("clientId", clientId)
+                .retrieve()
+                .toEntity(String.class);
+    }
+}
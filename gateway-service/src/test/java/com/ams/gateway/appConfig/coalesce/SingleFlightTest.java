@@ -0,0 +1,120 @@
+package com.ams.gateway.appConfig.coalesce;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SingleFlightTest {
+
+    private static final int CALLERS = 64;
+
+    @Test
+    void concurrentIdenticalCallsHitTheBackendOnce() throws Exception {
+        SingleFlight<String, String> flights = new SingleFlight<>();
+        AtomicInteger backendHits = new AtomicInteger();
+        Sinks.One<String> backend = Sinks.one();
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        List<Future<Mono<String>>> joined = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            joined.add(pool.submit(() -> {
+                start.await();
+                return flights.execute("/client/load-client-case?clientId=1", () -> {
+                    backendHits.incrementAndGet();
+                    return backend.asMono();
+                }).result();
+            }));
+        }
+        start.countDown();
+
+        Queue<String> responses = new ConcurrentLinkedQueue<>();
+        for (Future<Mono<String>> future : joined) {
+            future.get(5, TimeUnit.SECONDS).subscribe(responses::add);
+        }
+
+        backend.tryEmitValue("case");
+
+        assertThat(responses).hasSize(CALLERS).containsOnly("case");
+        assertThat(backendHits).hasValue(1);
+        assertThat(flights.size()).isZero();
+        pool.shutdown();
+    }
+
+    @Test
+    void callAfterCompletionStartsAFreshFlight() {
+        SingleFlight<String, Integer> flights = new SingleFlight<>();
+        AtomicInteger backendHits = new AtomicInteger();
+
+        for (int i = 1; i <= 3; i++) {
+            SingleFlight.Flight<Integer> flight = flights.execute("key", () -> Mono.fromSupplier(backendHits::incrementAndGet));
+            assertThat(flight.leader()).isTrue();
+            assertThat(flight.result().block()).isEqualTo(i);
+        }
+    }
+
+    @Test
+    void differentKeysAreNotCollapsed() {
+        SingleFlight<String, String> flights = new SingleFlight<>();
+        Sinks.One<String> slow = Sinks.one();
+
+        SingleFlight.Flight<String> first = flights.execute("user-a", slow::asMono);
+        SingleFlight.Flight<String> second = flights.execute("user-b", () -> Mono.just("b"));
+
+        assertThat(first.leader()).isTrue();
+        assertThat(second.leader()).isTrue();
+        assertThat(second.result().block()).isEqualTo("b");
+        assertThat(flights.size()).isEqualTo(1);
+        slow.tryEmitValue("a");
+    }
+
+    @Test
+    void oneCallerCancellingDoesNotCancelTheOthers() {
+        SingleFlight<String, String> flights = new SingleFlight<>();
+        AtomicBoolean cancelled = new AtomicBoolean();
+        Sinks.One<String> backend = Sinks.one();
+        Supplier<Mono<String>> call = () -> backend.asMono().doOnCancel(() -> cancelled.set(true));
+        Queue<String> responses = new ConcurrentLinkedQueue<>();
+
+        Disposable leaving = flights.execute("key", call).result().subscribe();
+        flights.execute("key", call).result().subscribe(responses::add);
+        leaving.dispose();
+        backend.tryEmitValue("case");
+
+        assertThat(cancelled).isFalse();
+        assertThat(responses).containsExactly("case");
+    }
+
+    @Test
+    void callIsCancelledAndReleasedOnceEveryCallerHasCancelled() {
+        SingleFlight<String, String> flights = new SingleFlight<>();
+        AtomicBoolean cancelled = new AtomicBoolean();
+        Sinks.One<String> backend = Sinks.one();
+        Supplier<Mono<String>> call = () -> backend.asMono().doOnCancel(() -> cancelled.set(true));
+
+        Disposable first = flights.execute("key", call).result().subscribe();
+        Disposable second = flights.execute("key", call).result().subscribe();
+        first.dispose();
+        second.dispose();
+
+        assertThat(cancelled).isTrue();
+        assertThat(flights.size()).isZero();
+        assertThat(flights.execute("key", () -> Mono.just("fresh")).leader()).isTrue();
+    }
+}
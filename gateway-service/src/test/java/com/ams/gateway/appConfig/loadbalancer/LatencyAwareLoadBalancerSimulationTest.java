@@ -0,0 +1,97 @@
+package com.ams.gateway.appConfig.loadbalancer;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Simulates client-service behind the gateway with two healthy instances and one that answers slowly
+ * (e.g. stuck in a long BCrypt queue), in virtual time, and compares tail latency of round robin with
+ * {@link LatencyAwareLoadBalancer}.
+ */
+class LatencyAwareLoadBalancerSimulationTest {
+
+    private static final ServiceInstance FAST_1 = instance("fast-1", 8081);
+    private static final ServiceInstance FAST_2 = instance("fast-2", 8082);
+    private static final ServiceInstance SLOW = instance("slow", 8083);
+    private static final List<ServiceInstance> INSTANCES = List.of(FAST_1, FAST_2, SLOW);
+    private static final Map<ServiceInstance, Long> SERVICE_TIME = Map.of(
+            FAST_1, TimeUnit.MILLISECONDS.toNanos(10),
+            FAST_2, TimeUnit.MILLISECONDS.toNanos(10),
+            SLOW, TimeUnit.MILLISECONDS.toNanos(150));
+
+    private static final int REQUESTS = 20_000;
+    private static final long INTER_ARRIVAL = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private record Completion(long at, long start, ServiceInstance instance) {
+    }
+
+    @Test
+    void latencyAwareChoiceCutsTheTailLatency() {
+        long[] roundRobin = simulate(tracker -> {
+            AtomicLong next = new AtomicLong();
+            return instances -> instances.get((int) (next.getAndIncrement() % instances.size()));
+        });
+        long[] latencyAware = simulate(tracker -> {
+            Random random = new Random(42);
+            LatencyAwareLoadBalancer balancer = new LatencyAwareLoadBalancer(null, "client-service", tracker, () -> random);
+            return instances -> balancer.pick(instances).getServer();
+        });
+
+        long roundRobinP99 = percentile(roundRobin, 0.99);
+        long latencyAwareP99 = percentile(latencyAware, 0.99);
+
+        assertThat(roundRobinP99).isEqualTo(SERVICE_TIME.get(SLOW));
+        assertThat(latencyAwareP99).isEqualTo(SERVICE_TIME.get(FAST_1));
+        long sentToSlow = Arrays.stream(latencyAware).filter(latency -> latency == SERVICE_TIME.get(SLOW)).count();
+        assertThat(sentToSlow).isLessThan(REQUESTS / 100);
+    }
+
+    private long[] simulate(Function<InstanceLatencyTracker, Function<List<ServiceInstance>, ServiceInstance>> strategy) {
+        AtomicLong clock = new AtomicLong();
+        InstanceLatencyTracker tracker = new InstanceLatencyTracker(clock::get,
+                Duration.ofSeconds(10), Duration.ofMillis(10), Duration.ofSeconds(1));
+        Function<List<ServiceInstance>, ServiceInstance> chooser = strategy.apply(tracker);
+
+        PriorityQueue<Completion> inFlight = new PriorityQueue<>((x, y) -> Long.compare(x.at(), y.at()));
+        long[] latencies = new long[REQUESTS];
+        for (int i = 0; i < REQUESTS; i++) {
+            long now = i * INTER_ARRIVAL;
+            while (!inFlight.isEmpty() && inFlight.peek().at() <= now) {
+                Completion done = inFlight.poll();
+                clock.set(done.at());
+                tracker.completed(done.instance(), done.at() - done.start(), false);
+            }
+            clock.set(now);
+
+            ServiceInstance chosen = chooser.apply(INSTANCES);
+            tracker.started(chosen);
+            long serviceTime = SERVICE_TIME.get(chosen);
+            inFlight.add(new Completion(now + serviceTime, now, chosen));
+            latencies[i] = serviceTime;
+        }
+        return latencies;
+    }
+
+    private static long percentile(long[] values, double p) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[(int) Math.ceil(p * sorted.length) - 1];
+    }
+
+    private static ServiceInstance instance(String id, int port) {
+        return new DefaultServiceInstance(id, "client-service", "localhost", port, false);
+    }
+}
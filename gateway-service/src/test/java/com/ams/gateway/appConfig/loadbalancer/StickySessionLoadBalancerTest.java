@@ -0,0 +1,101 @@
+package com.ams.gateway.appConfig.loadbalancer;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StickySessionLoadBalancerTest {
+
+    private static final int SESSIONS = 10_000;
+
+    private final StickySessionLoadBalancer balancer = new StickySessionLoadBalancer(null, "ui-service");
+
+    @Test
+    void newSessionsAreSpreadEvenly() {
+        List<ServiceInstance> instances = instances(4);
+        Map<String, Integer> perInstance = new HashMap<>();
+
+        for (int i = 0; i < SESSIONS; i++) {
+            ServiceInstance chosen = balancer.pick(instances, newSession()).getServer();
+            perInstance.merge(chosen.getInstanceId(), 1, Integer::sum);
+        }
+
+        assertThat(perInstance).hasSize(4);
+        assertThat(perInstance.values()).allSatisfy(count ->
+                assertThat(count).isBetween(SESSIONS / 4 * 80 / 100, SESSIONS / 4 * 120 / 100));
+    }
+
+    @Test
+    void joiningInstanceDoesNotMovePinnedSessions() {
+        List<ServiceInstance> before = instances(3);
+        List<SessionAffinity> sessions = pinAll(before);
+
+        List<ServiceInstance> after = instances(4);
+        for (SessionAffinity session : sessions) {
+            assertThat(balancer.pick(after, session).getServer().getInstanceId()).isEqualTo(session.instanceId());
+        }
+    }
+
+    @Test
+    void leavingInstanceOnlyRehomesItsOwnSessions() {
+        List<ServiceInstance> before = instances(4);
+        List<SessionAffinity> sessions = pinAll(before);
+        ServiceInstance leaving = before.get(2);
+
+        List<ServiceInstance> after = new ArrayList<>(before);
+        after.remove(leaving);
+        Map<String, Integer> rehomed = new HashMap<>();
+        for (SessionAffinity session : sessions) {
+            String now = balancer.pick(after, session).getServer().getInstanceId();
+            if (session.instanceId().equals(leaving.getInstanceId())) {
+                rehomed.merge(now, 1, Integer::sum);
+            } else {
+                assertThat(now).isEqualTo(session.instanceId());
+            }
+        }
+
+        assertThat(rehomed).hasSize(3).doesNotContainKey(leaving.getInstanceId());
+    }
+
+    @Test
+    void sameKeyMapsToTheSameInstanceWithoutPin() {
+        List<ServiceInstance> instances = instances(5);
+        SessionAffinity session = newSession();
+
+        String first = balancer.pick(instances, session).getServer().getInstanceId();
+        for (int i = 0; i < 10; i++) {
+            assertThat(balancer.pick(instances, session).getServer().getInstanceId()).isEqualTo(first);
+        }
+    }
+
+    private List<SessionAffinity> pinAll(List<ServiceInstance> instances) {
+        List<SessionAffinity> sessions = new ArrayList<>();
+        for (int i = 0; i < SESSIONS; i++) {
+            SessionAffinity session = newSession();
+            String pinned = balancer.pick(instances, session).getServer().getInstanceId();
+            sessions.add(new SessionAffinity(session.key(), pinned));
+        }
+        return sessions;
+    }
+
+    private static SessionAffinity newSession() {
+        return new SessionAffinity(UUID.randomUUID().toString().replace("-", ""), null);
+    }
+
+    private static List<ServiceInstance> instances(int count) {
+        List<ServiceInstance> instances = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            int port = 8082 + i;
+            instances.add(new DefaultServiceInstance("ui-service:" + port, "ui-service", "localhost", port, false));
+        }
+        return instances;
+    }
+}
@@ -0,0 +1,128 @@
+package com.ams.gateway.appConfig.ratelimit;
+
+import com.ams.commonsecurity.utils.JwtUtil;
+import com.ams.gateway.StubBackend;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.IntSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Sends requests through the configured client-service route, limited here to 1 per second with a burst of 2
+ * and 2 in flight, with a stub backend behind it.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "eureka.client.enabled=false",
+        "gateway.rate-limit.enabled=true",
+        "gateway.rate-limit.routes.client-service.replenish-rate=1",
+        "gateway.rate-limit.routes.client-service.burst-capacity=2",
+        "gateway.rate-limit.routes.client-service.max-concurrent=2"
+})
+class RateLimitFilterTest {
+
+    private static final String FAST = "/client/load-clients";
+    private static final String SLOW = "/client/load-documents";
+
+    private static final StubBackend STUB = StubBackend.start()
+            .respond(FAST, hit -> 200)
+            .respond(SLOW, Duration.ofSeconds(1), hit -> 200);
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private ConcurrencyLimiter concurrencyLimiter;
+
+    @DynamicPropertySource
+    static void clientService(DynamicPropertyRegistry registry) {
+        registry.add("spring.cloud.discovery.client.simple.instances.client-service[0].uri", STUB::uri);
+    }
+
+    @BeforeEach
+    void setUp() {
+        STUB.reset();
+    }
+
+    @AfterAll
+    static void stopStub() {
+        STUB.stop();
+    }
+
+    @Test
+    void callerOverTheBurstIsToldWhenToRetry() {
+        String alice = token("rate-limit-test-burst-a");
+        String bob = token("rate-limit-test-burst-b");
+
+        get(alice, FAST).expectStatus().isOk();
+        get(alice, FAST).expectStatus().isOk();
+        get(alice, FAST).expectStatus().isEqualTo(429)
+                .expectHeader().valueEquals("Retry-After", "1");
+
+        // the limit is per caller
+        get(bob, FAST).expectStatus().isOk();
+        assertThat(STUB.hits(FAST)).isEqualTo(3);
+    }
+
+    @Test
+    void requestsOverTheConcurrencyLimitAreShed() throws Exception {
+        CompletableFuture<ResponseEntity<String>> first = slow(token("rate-limit-test-slow-a")).toFuture();
+        CompletableFuture<ResponseEntity<String>> second = slow(token("rate-limit-test-slow-b")).toFuture();
+        await(() -> STUB.hits(SLOW), 2);
+
+        get(token("rate-limit-test-slow-c"), FAST).expectStatus().isEqualTo(503)
+                .expectHeader().valueEquals("Retry-After", "1");
+
+        assertThat(first.get().getStatusCode().value()).isEqualTo(200);
+        assertThat(second.get().getStatusCode().value()).isEqualTo(200);
+        assertThat(STUB.hits(FAST)).isZero();
+        // released when the exchange completes, which may be just after the caller has its response
+        await(() -> concurrencyLimiter.inFlight("client-service"), 0);
+    }
+
+    private String token(String username) {
+        return jwtUtil.generateToken(username, "ACCOUNTANT", null);
+    }
+
+    private WebTestClient.ResponseSpec get(String token, String path) {
+        return webTestClient.get().uri(path)
+                .header("Authorization", "Bearer " + token)
+                .exchange();
+    }
+
+    private Mono<ResponseEntity<String>> slow(String token) {
+        return WebClient.create("http://localhost:" + port).get()
+                .uri(SLOW)
+                .header("Authorization", "Bearer " + token)
+                .header("clientId", "514000001")
+                .retrieve()
+                .toEntity(String.class);
+    }
+
+    private static void await(IntSupplier actual, int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (actual.getAsInt() != expected && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(actual.getAsInt()).isEqualTo(expected);
+    }
+}
@@ -0,0 +1,83 @@
+package com.ams.gateway.appConfig.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketRegistryTest {
+
+    private static final long MS = 1_000_000L;
+    private static final long T0 = 1_000_000 * MS;
+
+    private final TokenBucketRegistry buckets = new TokenBucketRegistry(1000);
+
+    @Test
+    void admitsABurstThenTheSustainedRate() {
+        // 10 per second: one token every 100 ms, up to 5 at once
+        for (int i = 0; i < 5; i++) {
+            assertThat(buckets.tryAcquire("alice", 10, 5, T0)).isZero();
+        }
+        assertThat(buckets.tryAcquire("alice", 10, 5, T0)).isEqualTo(100 * MS);
+
+        assertThat(buckets.tryAcquire("alice", 10, 5, T0 + 100 * MS)).isZero();
+        assertThat(buckets.tryAcquire("alice", 10, 5, T0 + 100 * MS)).isEqualTo(100 * MS);
+        assertThat(buckets.tryAcquire("alice", 10, 5, T0 + 150 * MS)).isEqualTo(50 * MS);
+    }
+
+    @Test
+    void refillsToTheBurstCapacityAndNoFurther() {
+        for (int i = 0; i < 5; i++) {
+            buckets.tryAcquire("alice", 10, 5, T0);
+        }
+
+        long later = T0 + 10_000 * MS;
+        for (int i = 0; i < 5; i++) {
+            assertThat(buckets.tryAcquire("alice", 10, 5, later)).isZero();
+        }
+        assertThat(buckets.tryAcquire("alice", 10, 5, later)).isPositive();
+    }
+
+    @Test
+    void rejectionsDoNotConsumeTokens() {
+        buckets.tryAcquire("alice", 1, 1, T0);
+        for (int i = 0; i < 10; i++) {
+            assertThat(buckets.tryAcquire("alice", 1, 1, T0 + 400 * MS)).isEqualTo(600 * MS);
+        }
+
+        assertThat(buckets.tryAcquire("alice", 1, 1, T0 + 1000 * MS)).isZero();
+    }
+
+    @Test
+    void callersHaveSeparateBuckets() {
+        buckets.tryAcquire("alice", 1, 1, T0);
+
+        assertThat(buckets.tryAcquire("alice", 1, 1, T0)).isPositive();
+        assertThat(buckets.tryAcquire("bob", 1, 1, T0)).isZero();
+    }
+
+    @Test
+    void idleBucketsAreEvictedFirstWhenOverTheKeyBound() {
+        TokenBucketRegistry bounded = new TokenBucketRegistry(10);
+        for (int i = 0; i < 10; i++) {
+            bounded.tryAcquire("idle-" + i, 10, 5, T0);
+        }
+        long later = T0 + 1000 * MS;
+
+        // the eleventh key sweeps out the buckets that have refilled, but keeps its own first request
+        assertThat(bounded.tryAcquire("new", 10, 2, later)).isZero();
+
+        assertThat(bounded.size()).isEqualTo(1);
+        assertThat(bounded.tryAcquire("new", 10, 2, later)).isZero();
+        assertThat(bounded.tryAcquire("new", 10, 2, later)).isPositive();
+    }
+
+    @Test
+    void activeBucketsAreDroppedWhenEveryBucketIsActive() {
+        TokenBucketRegistry bounded = new TokenBucketRegistry(10);
+        for (int i = 0; i < 50; i++) {
+            bounded.tryAcquire("caller-" + i, 1, 5, T0);
+        }
+
+        assertThat(bounded.size()).isLessThanOrEqualTo(10);
+    }
+}
@@ -0,0 +1,100 @@
+package com.ams.gateway.appConfig.resilience;
+
+import com.ams.commonsecurity.utils.JwtUtil;
+import com.ams.gateway.StubBackend;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the client-service route exactly as {@code application.yml} declares it, filters and timeouts included,
+ * with client-service resolved to a local stub backend. Only the circuit's time limit is shortened.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "eureka.client.enabled=false",
+        "gateway.rate-limit.enabled=false",
+        "gateway.resilience.timeouts.client-service=500ms"
+})
+class ConfiguredRoutesTest {
+
+    private static final StubBackend STUB = StubBackend.start()
+            .respond("/client/flaky", hit -> hit <= 2 ? 502 : 200)
+            .respond("/client/server-error", hit -> 500)
+            .respond("/client/slow", Duration.ofSeconds(2), hit -> 200);
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private String token;
+
+    @DynamicPropertySource
+    static void clientService(DynamicPropertyRegistry registry) {
+        registry.add("spring.cloud.discovery.client.simple.instances.client-service[0].uri", STUB::uri);
+    }
+
+    @BeforeEach
+    void setUp() {
+        token = jwtUtil.generateToken("configured-routes-test", "ACCOUNTANT", null);
+        STUB.reset();
+    }
+
+    @AfterAll
+    static void stopStub() {
+        STUB.stop();
+    }
+
+    @Test
+    void badGatewayIsRetriedInsideTheCircuitBreaker() {
+        get("/client/flaky").expectStatus().isOk();
+
+        assertThat(STUB.hits("/client/flaky")).isEqualTo(3);
+    }
+
+    @Test
+    void otherServerErrorsAreNotRetried() {
+        get("/client/server-error").expectStatus().isEqualTo(HttpStatus.BAD_GATEWAY);
+
+        assertThat(STUB.hits("/client/server-error")).isEqualTo(1);
+    }
+
+    @Test
+    void timeLimitAnswersGatewayTimeoutWithoutRetrying() {
+        long start = System.nanoTime();
+
+        get("/client/slow").expectStatus().isEqualTo(HttpStatus.GATEWAY_TIMEOUT);
+
+        assertThat((System.nanoTime() - start) / 1_000_000).isLessThan(1500);
+        assertThat(STUB.hits("/client/slow")).isEqualTo(1);
+    }
+
+    @Test
+    void routedRequestsAreTimedPerRoute() {
+        get("/client/flaky").expectStatus().isOk();
+
+        assertThat(meterRegistry.find("spring.cloud.gateway.requests").tag("routeId", "client-service").timers())
+                .isNotEmpty();
+    }
+
+    private WebTestClient.ResponseSpec get(String path) {
+        return webTestClient.get().uri(path)
+                .header("Authorization", "Bearer " + token)
+                .exchange();
+    }
+}
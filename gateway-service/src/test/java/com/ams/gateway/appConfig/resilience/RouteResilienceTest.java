@@ -0,0 +1,132 @@
+package com.ams.gateway.appConfig.resilience;
+
+import com.ams.commonsecurity.utils.JwtUtil;
+import com.ams.gateway.StubBackend;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Drives the gateway's circuit breakers, timeouts and retries against a local stub backend that
+ * injects latency and failures per path. Each scenario has its own route, so circuits do not interfere;
+ * the routes declare the same CircuitBreaker and Retry filters as {@code application.yml}.
+ * {@link ConfiguredRoutesTest} runs the configured routes themselves.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "eureka.client.enabled=false",
+        "gateway.rate-limit.enabled=false",
+        "gateway.resilience.timeout=300ms",
+        "gateway.resilience.sliding-window-size=4",
+        "gateway.resilience.minimum-number-of-calls=4",
+        "gateway.resilience.wait-duration-in-open-state=60s"
+})
+class RouteResilienceTest {
+
+    private static final StubBackend STUB = StubBackend.start()
+            .respond("/client/flaky", hit -> hit <= 2 ? 502 : 200)
+            .respond("/client/failing-post", hit -> 502)
+            .respond("/client/failing", hit -> 500)
+            .respond("/client/slow", Duration.ofSeconds(2), hit -> 200);
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    private String token;
+
+    @DynamicPropertySource
+    static void routes(DynamicPropertyRegistry registry) {
+        String[] scenarios = {"flaky", "failing-post", "slow", "failing"};
+        for (int i = 0; i < scenarios.length; i++) {
+            String route = "spring.cloud.gateway.routes[" + i + "]";
+            String name = "stub-" + scenarios[i];
+            String path = "/client/" + scenarios[i];
+            registry.add(route + ".id", () -> name);
+            registry.add(route + ".uri", STUB::uri);
+            registry.add(route + ".predicates[0]", () -> "Path=" + path);
+            registry.add(route + ".filters[0].name", () -> "CircuitBreaker");
+            registry.add(route + ".filters[0].args.name", () -> name);
+            registry.add(route + ".filters[0].args.fallbackUri", () -> "forward:/fallback/" + name);
+            registry.add(route + ".filters[0].args.statusCodes", () -> "500, 502, 503, 504");
+            registry.add(route + ".filters[1].name", () -> "Retry");
+            registry.add(route + ".filters[1].args.retries", () -> "2");
+            registry.add(route + ".filters[1].args.methods", () -> "GET");
+            registry.add(route + ".filters[1].args.statuses", () -> "BAD_GATEWAY");
+            registry.add(route + ".filters[1].args.series", () -> "");
+            registry.add(route + ".filters[1].args.exceptions", () -> "java.io.IOException");
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        token = jwtUtil.generateToken("resilience-test", "ACCOUNTANT", null);
+        STUB.reset();
+    }
+
+    @AfterAll
+    static void stopStub() {
+        STUB.stop();
+    }
+
+    @Test
+    void getIsRetriedUntilTheBackendRecovers() {
+        get("/client/flaky").expectStatus().isOk();
+
+        assertThat(hits("/client/flaky")).isEqualTo(3);
+    }
+
+    @Test
+    void postIsNeverRetried() {
+        webTestClient.post().uri("/client/failing-post")
+                .header("Authorization", "Bearer " + token)
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.BAD_GATEWAY);
+
+        assertThat(hits("/client/failing-post")).isEqualTo(1);
+    }
+
+    @Test
+    void slowBackendIsCutOffByTheTimeLimiter() {
+        long start = System.nanoTime();
+
+        get("/client/slow").expectStatus().isEqualTo(HttpStatus.GATEWAY_TIMEOUT);
+
+        assertThat((System.nanoTime() - start) / 1_000_000).isLessThan(1500);
+        assertThat(hits("/client/slow")).isEqualTo(1);
+    }
+
+    @Test
+    void openCircuitStopsCallingTheBackend() {
+        HttpStatus status = HttpStatus.OK;
+        for (int i = 0; i < 5 && status != HttpStatus.SERVICE_UNAVAILABLE; i++) {
+            status = HttpStatus.valueOf(get("/client/failing").returnResult(String.class).getStatus().value());
+        }
+        assertThat(status).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+
+        int hitsWhenOpen = hits("/client/failing");
+        get("/client/failing").expectStatus().isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(hits("/client/failing")).isEqualTo(hitsWhenOpen);
+    }
+
+    private WebTestClient.ResponseSpec get(String path) {
+        return webTestClient.get().uri(path)
+                .header("Authorization", "Bearer " + token)
+                .exchange();
+    }
+
+    private static int hits(String path) {
+        return STUB.hits(path);
+    }
+}
@@ -0,0 +1,118 @@
+package com.ams.loadtest;
+
+import com.ams.dtos.clientDto.ClientGridDto;
+import com.ams.dtos.clientDto.CreateClientRequest;
+import com.ams.dtos.registerDto.RegisterRequest;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * {@code AccountantSession} plays one accountant working through the system.
+ *
+ * <p>
+ * {@link #setUp()} registers a fresh accountant and creates its clients. Each {@link #iterate()} then runs
+ * one pass of the daily workflow:
+ * </p>
+ * <ol>
+ *     <li>log in via {@code /auth/login}</li>
+ *     <li>list the clients</li>
+ *     <li>open the case of a random client</li>
+ *     <li>upload a document to it and list its documents</li>
+ *     <li>grant the client login access</li>
+ * </ol>
+ *
+ * <p>A failed step ends the iteration; the next one starts over with the login.</p>
+ *
+ * @author Yosef Nago
+ */
+public class AccountantSession {
+
+    private static final String PASSWORD = "LoadTest-1234";
+
+    private final AmsClient client;
+    private final LoadTestOptions options;
+    private final String username;
+    private final byte[] document;
+    private int iteration;
+
+    public AccountantSession(AmsClient client, LoadTestOptions options, String runId, int index) {
+        this.client = client;
+        this.options = options;
+        this.username = "lt-" + runId + "-" + index;
+        this.document = new byte[options.documentSize()];
+        ThreadLocalRandom.current().nextBytes(document);
+    }
+
+    public void setUp() {
+        client.register(new RegisterRequest("Load", "Test", username, username + "@load.test", PASSWORD, "0500000000"));
+        String token = client.login(username, PASSWORD);
+        for (int i = 0; i < options.clientsPerUser(); i++) {
+            client.createClient(token, new CreateClientRequest(
+                    username + "-" + i + "@client.test",
+                    "050" + String.format("%07d", i),
+                    "Herzl 1",
+                    "6100000",
+                    "Load test client " + i,
+                    "עוסק מורשה",
+                    taxId(i),
+                    "Load Test",
+                    "Leumi",
+                    "800",
+                    taxId(i),
+                    token));
+        }
+    }
+
+    public void iterate() {
+        iteration++;
+        String token = client.login(username, PASSWORD);
+        List<ClientGridDto> clients = client.loadClients(token).clients();
+        if (clients == null || clients.isEmpty()) {
+            throw new AmsClient.StepFailedException("load-clients", "no clients");
+        }
+        pause();
+        String clientId = clients.get(ThreadLocalRandom.current().nextInt(clients.size())).clientId();
+        client.openCase(token, clientId);
+        pause();
+        client.uploadDocument(token, clientId, username + "-" + iteration + ".pdf", document);
+        client.loadDocuments(token, clientId);
+        pause();
+        client.grantAccess(token, clientId, clientId + "-portal", PASSWORD);
+        pause();
+    }
+
+    /**
+     * Runs iterations until the deadline; failures are already recorded and only end the current pass.
+     */
+    public void runUntil(Instant deadline) {
+        while (Instant.now().isBefore(deadline) && !Thread.currentThread().isInterrupted()) {
+            try {
+                iterate();
+            } catch (AmsClient.StepFailedException e) {
+                pause();
+            }
+        }
+    }
+
+    /**
+     * Nine-digit id unique to this accountant and client, used as tax id and bank account number.
+     */
+    private String taxId(int client) {
+        return String.format("%09d", Math.floorMod((username + "#" + client).hashCode(), 1_000_000_000));
+    }
+
+    private void pause() {
+        Duration thinkTime = options.thinkTime();
+        if (thinkTime.isZero()) {
+            return;
+        }
+        try {
+            Thread.sleep(thinkTime);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
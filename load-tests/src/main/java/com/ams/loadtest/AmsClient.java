@@ -0,0 +1,217 @@
+package com.ams.loadtest;
+
+import com.ams.dtos.clientDto.CreateClientRequest;
+import com.ams.dtos.clientDto.CreateClientResponse;
+import com.ams.dtos.clientDto.LoadClientResponse;
+import com.ams.dtos.documentDto.LoadDocumentsResponse;
+import com.ams.dtos.loginDto.LoginRequest;
+import com.ams.dtos.loginDto.LoginResponse;
+import com.ams.dtos.registerDto.RegisterRequest;
+import com.ams.dtos.registerDto.RegisterResponse;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+/**
+ * {@code AmsClient} issues the gateway calls the UI makes, and records the latency of each one in a
+ * {@link LatencyRecorder} under the name of its workflow step.
+ *
+ * <p>
+ * A step fails on a transport error, a non-2xx status, or a response whose {@code success} flag is
+ * {@code false}. A failed step is recorded as an error and then thrown as a {@link StepFailedException},
+ * so the calling session can abandon the rest of its iteration.
+ * </p>
+ *
+ * @author Yosef Nago
+ */
+public class AmsClient {
+
+    /**
+     * Thrown when a step did not succeed; the failure has already been recorded.
+     */
+    public static class StepFailedException extends RuntimeException {
+        public StepFailedException(String step, String reason) {
+            super(step + ": " + reason);
+        }
+    }
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final URI baseUrl;
+    private final HttpClient http;
+    private final LatencyRecorder recorder;
+    private final ObjectMapper json = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    public AmsClient(URI baseUrl, HttpClient http, LatencyRecorder recorder) {
+        this.baseUrl = baseUrl;
+        this.http = http;
+        this.recorder = recorder;
+    }
+
+    public void register(RegisterRequest request) {
+        send("register", post("/auth/register", null, request), RegisterResponse.class, RegisterResponse::success);
+    }
+
+    /**
+     * @return the JWT of the accountant
+     */
+    public String login(String username, String password) {
+        return send("login", post("/auth/login", null, new LoginRequest(username, password)),
+                LoginResponse.class, LoginResponse::success).token();
+    }
+
+    public void createClient(String token, CreateClientRequest request) {
+        send("create-client", post("/client/create", token, request),
+                CreateClientResponse.class, CreateClientResponse::success);
+    }
+
+    public LoadClientResponse loadClients(String token) {
+        return send("load-clients", get("/client/load-clients", token).build(),
+                LoadClientResponse.class, LoadClientResponse::success);
+    }
+
+    /**
+     * Opening a case loads the header details and the full case form, as {@code ClientCaseLayout} does.
+     */
+    public void openCase(String token, String clientId) {
+        send("open-case/details", get("/client/load-case-details?clientId=" + encode(clientId), token).build(),
+                byte[].class, r -> true);
+        send("open-case/form", get("/client/load-client-case?clientId=" + encode(clientId), token).build(),
+                byte[].class, r -> true);
+    }
+
+    public void uploadDocument(String token, String clientId, String fileName, byte[] content) {
+        String boundary = "ams-load-test-" + UUID.randomUUID();
+        Multipart body = new Multipart(boundary)
+                .file("file", fileName, "application/pdf", content)
+                .field("clientId", clientId)
+                .field("status", "NEW")
+                .field("uploadedAt", LocalDate.now().toString());
+        HttpRequest request = builder("/client/upload", token)
+                .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body.bytes()))
+                .build();
+        send("upload-document", request, byte[].class, r -> true);
+    }
+
+    public LoadDocumentsResponse loadDocuments(String token, String clientId) {
+        return send("load-documents", get("/client/load-documents", token).header("clientId", clientId).build(),
+                LoadDocumentsResponse.class, LoadDocumentsResponse::success);
+    }
+
+    public void grantAccess(String token, String clientId, String clientUsername, String clientPassword) {
+        String query = "?clientId=" + encode(clientId)
+                + "&clientUsername=" + encode(clientUsername)
+                + "&clientPassword=" + encode(clientPassword);
+        HttpRequest request = builder("/client/grant-access" + query, token)
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build();
+        send("grant-access", request, byte[].class, r -> true);
+    }
+
+    private <T> T send(String step, HttpRequest request, Class<T> type, Predicate<T> success) {
+        long start = System.nanoTime();
+        HttpResponse<byte[]> response;
+        try {
+            response = http.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        } catch (IOException e) {
+            recorder.record(step, System.nanoTime() - start, 0, false);
+            throw new StepFailedException(step, e.toString());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new StepFailedException(step, "interrupted");
+        }
+        long elapsed = System.nanoTime() - start;
+        int status = response.statusCode();
+        T body;
+        try {
+            body = type == byte[].class ? type.cast(response.body()) : json.readValue(response.body(), type);
+        } catch (IOException e) {
+            body = null;
+        }
+        boolean ok = status / 100 == 2 && body != null && success.test(body);
+        recorder.record(step, elapsed, status, ok);
+        if (!ok) {
+            throw new StepFailedException(step, "HTTP " + status + (body == null ? ", unreadable body" : ""));
+        }
+        return body;
+    }
+
+    private HttpRequest post(String path, String token, Object body) {
+        try {
+            return builder(path, token)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(json.writeValueAsBytes(body)))
+                    .build();
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Cannot serialize " + body, e);
+        }
+    }
+
+    private HttpRequest.Builder get(String path, String token) {
+        return builder(path, token).GET();
+    }
+
+    private HttpRequest.Builder builder(String path, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(baseUrl.resolve(path)).timeout(REQUEST_TIMEOUT);
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder;
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Minimal {@code multipart/form-data} body writer.
+     */
+    static final class Multipart {
+
+        private final String boundary;
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        Multipart(String boundary) {
+            this.boundary = boundary;
+        }
+
+        Multipart field(String name, String value) {
+            write("--" + boundary + "\r\nContent-Disposition: form-data; name=\"" + name + "\"\r\n\r\n"
+                    + value + "\r\n");
+            return this;
+        }
+
+        Multipart file(String name, String fileName, String contentType, byte[] content) {
+            write("--" + boundary + "\r\nContent-Disposition: form-data; name=\"" + name + "\"; filename=\""
+                    + fileName + "\"\r\nContent-Type: " + contentType + "\r\n\r\n");
+            out.writeBytes(content);
+            write("\r\n");
+            return this;
+        }
+
+        byte[] bytes() {
+            write("--" + boundary + "--\r\n");
+            return out.toByteArray();
+        }
+
+        private void write(String text) {
+            out.writeBytes(text.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
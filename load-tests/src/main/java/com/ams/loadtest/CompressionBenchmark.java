@@ -0,0 +1,384 @@
+package com.ams.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * {@code CompressionBenchmark} measures what document compression saves in storage and costs in upload and
+ * download latency.
+ *
+ * <p>
+ * It uploads a corpus to client-service, downloads every document again through
+ * {@code /client/documents/{id}/content} once they have been ingested and checks the bytes, then reads from
+ * Postgres how the blobs of this run were stored. Requests go straight to client-service, bypassing the gateway and its rate limit.
+ * Without {@code --corpus} a reproducible synthetic corpus of {@code --documents} files is generated,
+ * mixing what clients send in: bank CSV exports, XML invoices, text PDFs, scanned PDFs and photos.
+ * Every file is unique per run, so deduplication does not flatter the numbers.
+ * </p>
+ *
+ * <p>
+ * To measure the throughput impact, run it once against client-service started with
+ * {@code documents.compression.enabled=false} and once with the default, and compare the two CSVs
+ * (e.g. with {@code --baseline} of {@link LoadTest}).
+ * </p>
+ *
+ * <pre>{@code
+ * mvn -pl load-tests exec:java -Dexec.mainClass=com.ams.loadtest.CompressionBenchmark -Dexec.args="--documents=500"
+ * }</pre>
+ *
+ * <p>
+ * Options: {@code --base-url} (default {@code http://localhost:8083}), {@code --jdbc-url},
+ * {@code --jdbc-user}, {@code --jdbc-password}, {@code --corpus} (a directory of real files),
+ * {@code --documents} (default 300), {@code --concurrency} (default 4) and {@code --out}.
+ * </p>
+ *
+ * @author Yosef Nago
+ */
+public final class CompressionBenchmark {
+
+    private static final String ACCOUNTANT = "compression-bench";
+    private static final String CLIENT_ID = "399999999";
+
+    private static final String[] DESCRIPTIONS = {
+            "העברה בנקאית", "משיכת מזומן", "הוראת קבע - חשמל", "כרטיס אשראי ויזה", "עמלת ניהול חשבון",
+            "Salary deposit", "POS purchase", "Standing order - insurance"};
+
+    private CompressionBenchmark() {
+    }
+
+    record CorpusFile(String kind, String fileName, byte[] content) {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int split = arg.indexOf('=');
+            if (!arg.startsWith("--") || split < 0) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            options.put(arg.substring(2, split), arg.substring(split + 1));
+        }
+        URI baseUrl = URI.create(options.getOrDefault("base-url", "http://localhost:8083"));
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "4"));
+        Path out = Path.of(options.getOrDefault("out", "target/compression-benchmark-results.csv"));
+        String run = "bench-" + UUID.randomUUID().toString().substring(0, 8);
+
+        List<CorpusFile> corpus = options.containsKey("corpus")
+                ? readCorpus(Path.of(options.get("corpus")), run)
+                : generateCorpus(Integer.parseInt(options.getOrDefault("documents", "300")), run, new Random(42));
+        long corpusBytes = corpus.stream().mapToLong(file -> file.content().length).sum();
+        System.out.printf("Corpus: %d files, %.1f MB (run %s)%n", corpus.size(), corpusBytes / 1e6, run);
+
+        try (Connection connection = DriverManager.getConnection(
+                options.getOrDefault("jdbc-url", "jdbc:postgresql://localhost:5432/client-service"),
+                options.getOrDefault("jdbc-user", "postgres"),
+                options.getOrDefault("jdbc-password", "1234"))) {
+            ensureClient(connection);
+
+            HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            LatencyRecorder uploads = new LatencyRecorder();
+            Duration uploadTime = runAll(corpus.size(), concurrency,
+                    n -> upload(http, baseUrl, corpus.get(n), uploads));
+
+            // uploads return once staged; download only after the blobs were written, so decoding is measured
+            Duration ingestTime = awaitIngested(connection, run);
+            System.out.printf(Locale.ROOT, "Ingestion finished %.1f s after the last upload%n", seconds(ingestTime));
+
+            Map<String, Long> ids = documentIds(connection, run);
+            LatencyRecorder downloads = new LatencyRecorder();
+            Duration downloadTime = runAll(corpus.size(), concurrency,
+                    n -> download(http, baseUrl, corpus.get(n), ids.get(corpus.get(n).fileName()), downloads));
+
+            List<LatencyRecorder.StepResult> results = new ArrayList<>(uploads.results(uploadTime));
+            results.addAll(downloads.results(downloadTime));
+            Map<Integer, Integer> failed = new HashMap<>(uploads.failedStatuses());
+            downloads.failedStatuses().forEach((status, count) -> failed.merge(status, count, Integer::sum));
+            Report report = new Report(results, failed);
+            report.print(System.out);
+            System.out.printf(Locale.ROOT, "%nUpload %.1f MB/s, download %.1f MB/s%n",
+                    corpusBytes / 1e6 / seconds(uploadTime), corpusBytes / 1e6 / seconds(downloadTime));
+            printStorage(connection, run);
+            report.writeCsv(out);
+            System.out.println("Results written to " + out.toAbsolutePath());
+        }
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // corpus
+
+    static List<CorpusFile> generateCorpus(int documents, String run, Random random) {
+        List<CorpusFile> corpus = new ArrayList<>(documents);
+        for (int n = 0; n < documents; n++) {
+            String prefix = run + "-" + n;
+            corpus.add(switch (n % 20) {
+                case 0, 1, 2, 3, 4 -> new CorpusFile("csv", prefix + ".csv", bankExport(prefix, random));
+                case 5, 6, 7, 8 -> new CorpusFile("xml", prefix + ".xml", invoice(prefix, random));
+                case 9, 10, 11, 12, 13 -> new CorpusFile("pdf-text", prefix + ".pdf", textPdf(prefix, random));
+                case 14, 15, 16 -> new CorpusFile("pdf-scan", prefix + ".pdf", scannedPdf(prefix, random));
+                default -> new CorpusFile("jpg", prefix + ".jpg", photo(random));
+            });
+        }
+        return corpus;
+    }
+
+    private static List<CorpusFile> readCorpus(Path directory, String run) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(Files::isRegularFile).sorted().map(file -> {
+                String name = file.getFileName().toString();
+                int dot = name.lastIndexOf('.');
+                try {
+                    return new CorpusFile(dot < 0 ? "other" : name.substring(dot + 1).toLowerCase(Locale.ROOT),
+                            run + "-" + name, Files.readAllBytes(file));
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            }).toList();
+        }
+    }
+
+    private static byte[] bankExport(String id, Random random) {
+        StringBuilder csv = new StringBuilder("# ").append(id).append('\n')
+                .append("תאריך,תיאור,אסמכתא,חובה,זכות,יתרה\n");
+        LocalDate date = LocalDate.of(2024, 1, 1);
+        double balance = 10_000;
+        for (int row = 0, rows = 500 + random.nextInt(5_000); row < rows; row++) {
+            double amount = Math.round(random.nextGaussian() * 150_000) / 100.0;
+            balance += amount;
+            csv.append(date.plusDays(row / 20)).append(',')
+                    .append(DESCRIPTIONS[random.nextInt(DESCRIPTIONS.length)]).append(',')
+                    .append(100_000 + random.nextInt(900_000)).append(',')
+                    .append(amount < 0 ? String.format(Locale.ROOT, "%.2f", -amount) : "").append(',')
+                    .append(amount >= 0 ? String.format(Locale.ROOT, "%.2f", amount) : "").append(',')
+                    .append(String.format(Locale.ROOT, "%.2f", balance)).append('\n');
+        }
+        return csv.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] invoice(String id, Random random) {
+        StringBuilder xml = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<Invoice id=\"")
+                .append(id).append("\">\n  <Seller><Name>ספק בע\"מ</Name><VatId>514000001</VatId></Seller>\n  <Lines>\n");
+        for (int line = 0, lines = 20 + random.nextInt(400); line < lines; line++) {
+            xml.append("    <Line><Number>").append(line + 1).append("</Number><Description>")
+                    .append(DESCRIPTIONS[random.nextInt(DESCRIPTIONS.length)])
+                    .append("</Description><Quantity>").append(1 + random.nextInt(20))
+                    .append("</Quantity><UnitPrice>").append(String.format(Locale.ROOT, "%.2f", random.nextDouble() * 500))
+                    .append("</UnitPrice><Vat>17</Vat></Line>\n");
+        }
+        return xml.append("  </Lines>\n</Invoice>\n").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /** A PDF whose page content streams are stored uncompressed, as many invoicing tools emit them. */
+    private static byte[] textPdf(String id, Random random) {
+        StringBuilder pdf = new StringBuilder("%PDF-1.4\n% ").append(id).append('\n');
+        for (int page = 0, pages = 1 + random.nextInt(8); page < pages; page++) {
+            pdf.append(page + 3).append(" 0 obj\n<< /Length 0 >>\nstream\nBT /F1 10 Tf 50 780 Td\n");
+            for (int line = 0; line < 60; line++) {
+                pdf.append("(").append(DESCRIPTIONS[random.nextInt(DESCRIPTIONS.length)]).append(" ")
+                        .append(random.nextInt(100_000)).append(") Tj 0 -12 Td\n");
+            }
+            pdf.append("ET\nendstream\nendobj\n");
+        }
+        return pdf.append("%%EOF\n").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /** A PDF wrapping an image: a text header in front of an incompressible body. */
+    private static byte[] scannedPdf(String id, Random random) {
+        byte[] header = ("%PDF-1.4\n% " + id + "\n3 0 obj\n<< /Filter /DCTDecode >>\nstream\n")
+                .getBytes(StandardCharsets.US_ASCII);
+        byte[] pdf = Arrays.copyOf(header, header.length + 100_000 + random.nextInt(900_000));
+        byte[] image = new byte[pdf.length - header.length];
+        random.nextBytes(image);
+        System.arraycopy(image, 0, pdf, header.length, image.length);
+        return pdf;
+    }
+
+    private static byte[] photo(Random random) {
+        byte[] jpeg = new byte[200_000 + random.nextInt(2_000_000)];
+        random.nextBytes(jpeg);
+        jpeg[0] = (byte) 0xFF;
+        jpeg[1] = (byte) 0xD8;
+        return jpeg;
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // requests
+
+    private static void upload(HttpClient http, URI baseUrl, CorpusFile file, LatencyRecorder recorder)
+            throws InterruptedException {
+        String boundary = "ams-compression-bench-" + UUID.randomUUID();
+        byte[] body = new AmsClient.Multipart(boundary)
+                .file("file", file.fileName(), "application/octet-stream", file.content())
+                .field("clientId", CLIENT_ID)
+                .field("status", "PENDING")
+                .field("uploadedAt", LocalDate.now().toString())
+                .bytes();
+        HttpRequest request = HttpRequest.newBuilder(baseUrl.resolve("/client/upload"))
+                .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                .timeout(Duration.ofSeconds(60))
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+        long start = System.nanoTime();
+        try {
+            HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+            recorder.record("upload/" + file.kind(), System.nanoTime() - start, response.statusCode(),
+                    response.statusCode() == 200 && response.body().contains("\"success\":true"));
+        } catch (IOException e) {
+            recorder.record("upload/" + file.kind(), System.nanoTime() - start, 0, false);
+        }
+    }
+
+    private static void download(HttpClient http, URI baseUrl, CorpusFile file, Long id, LatencyRecorder recorder)
+            throws InterruptedException {
+        if (id == null) {
+            recorder.record("download/" + file.kind(), 0, 404, false);
+            return;
+        }
+        HttpRequest request = HttpRequest.newBuilder(baseUrl.resolve("/client/documents/" + id + "/content"))
+                .header("clientId", CLIENT_ID)
+                .timeout(Duration.ofSeconds(60))
+                .GET()
+                .build();
+        long start = System.nanoTime();
+        try {
+            HttpResponse<byte[]> response = http.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            recorder.record("download/" + file.kind(), System.nanoTime() - start, response.statusCode(),
+                    response.statusCode() == 200 && Arrays.equals(response.body(), file.content()));
+        } catch (IOException e) {
+            recorder.record("download/" + file.kind(), System.nanoTime() - start, 0, false);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Task {
+        void run(int n) throws Exception;
+    }
+
+    private static Duration runAll(int count, int concurrency, Task task) throws Exception {
+        AtomicInteger next = new AtomicInteger();
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int w = 0; w < concurrency; w++) {
+                workers.add(executor.submit(() -> {
+                    for (int n = next.getAndIncrement(); n < count; n = next.getAndIncrement()) {
+                        task.run(n);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        }
+        return Duration.ofNanos(System.nanoTime() - start);
+    }
+
+    private static double seconds(Duration duration) {
+        return Math.max(duration.toNanos(), 1) / 1e9;
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // database
+
+    private static void ensureClient(Connection connection) throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement("""
+                INSERT INTO client_details (business_name, accountant_name, client_id, email, phone, version)
+                SELECT 'Compression Bench', ?, ?, 'compression@bench.co.il', '050-0000000', 0
+                WHERE NOT EXISTS (SELECT 1 FROM client_details WHERE client_id = ?)
+                """)) {
+            insert.setString(1, ACCOUNTANT);
+            insert.setString(2, CLIENT_ID);
+            insert.setString(3, CLIENT_ID);
+            insert.executeUpdate();
+        }
+    }
+
+    /**
+     * Waits until no document of the run is staged any more.
+     */
+    private static Duration awaitIngested(Connection connection, String run) throws SQLException, InterruptedException {
+        long start = System.nanoTime();
+        try (PreparedStatement select = connection.prepareStatement("""
+                SELECT count(*) FROM document_staging s JOIN documents d ON d.id = s.document_id
+                WHERE d.client_id = ? AND d.document_name LIKE ?
+                """)) {
+            select.setString(1, CLIENT_ID);
+            select.setString(2, run + "-%");
+            while (true) {
+                try (ResultSet rs = select.executeQuery()) {
+                    rs.next();
+                    if (rs.getLong(1) == 0) {
+                        return Duration.ofNanos(System.nanoTime() - start);
+                    }
+                }
+                Thread.sleep(100);
+            }
+        }
+    }
+
+    private static Map<String, Long> documentIds(Connection connection, String run) throws SQLException {
+        Map<String, Long> ids = new HashMap<>();
+        try (PreparedStatement select = connection.prepareStatement(
+                "SELECT id, document_name FROM documents WHERE client_id = ? AND document_name LIKE ?")) {
+            select.setString(1, CLIENT_ID);
+            select.setString(2, run + "-%");
+            try (ResultSet rs = select.executeQuery()) {
+                while (rs.next()) {
+                    ids.put(rs.getString(2), rs.getLong(1));
+                }
+            }
+        }
+        return ids;
+    }
+
+    private static void printStorage(Connection connection, String run) throws SQLException {
+        System.out.printf("%n%-10s %8s %14s %14s %8s%n", "codec", "blobs", "original MB", "stored MB", "ratio");
+        long original = 0;
+        long stored = 0;
+        try (PreparedStatement select = connection.prepareStatement("""
+                SELECT b.codec, count(*), sum(b.size), sum(octet_length(b.data))
+                FROM document_blobs b
+                WHERE b.id IN (SELECT d.blob_id FROM documents d WHERE d.client_id = ? AND d.document_name LIKE ?)
+                GROUP BY b.codec ORDER BY b.codec
+                """)) {
+            select.setString(1, CLIENT_ID);
+            select.setString(2, run + "-%");
+            try (ResultSet rs = select.executeQuery()) {
+                while (rs.next()) {
+                    original += rs.getLong(3);
+                    stored += rs.getLong(4);
+                    System.out.printf(Locale.ROOT, "%-10s %8d %14.1f %14.1f %8.2f%n", rs.getString(1), rs.getLong(2),
+                            rs.getLong(3) / 1e6, rs.getLong(4) / 1e6, rs.getLong(4) / (double) Math.max(rs.getLong(3), 1));
+                }
+            }
+        }
+        System.out.printf(Locale.ROOT, "%-10s %8s %14.1f %14.1f %8.2f%n", "total", "", original / 1e6, stored / 1e6,
+                stored / (double) Math.max(original, 1));
+    }
+}
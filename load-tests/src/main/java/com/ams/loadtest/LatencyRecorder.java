@@ -0,0 +1,130 @@
+package com.ams.loadtest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@code LatencyRecorder} collects the latency and outcome of every request, grouped by workflow step.
+ *
+ * <p>
+ * All samples are kept, so percentiles are exact (nearest rank) rather than estimated from buckets. A run of
+ * a few minutes produces at most a few million samples, which fits comfortably in memory.
+ * </p>
+ *
+ * @author Yosef Nago
+ */
+public class LatencyRecorder {
+
+    /**
+     * Aggregated numbers of one step; latencies are in milliseconds.
+     */
+    public record StepResult(String step, int count, int errors, double throughput,
+                             double p50, double p90, double p95, double p99, double max) {
+    }
+
+    private static final class Samples {
+
+        private long[] latencies = new long[1024];
+        private int count;
+        private int errors;
+        private final Map<Integer, Integer> failedStatuses = new TreeMap<>();
+
+        synchronized void add(long nanos, int status, boolean ok) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+            if (!ok) {
+                errors++;
+                failedStatuses.merge(status, 1, Integer::sum);
+            }
+        }
+
+        synchronized long[] sorted() {
+            long[] copy = Arrays.copyOf(latencies, count);
+            Arrays.sort(copy);
+            return copy;
+        }
+    }
+
+    private final Map<String, Samples> steps = new ConcurrentHashMap<>();
+    private volatile boolean recording = true;
+
+    /**
+     * Turns recording on or off, e.g. to leave out the warm-up phase.
+     */
+    public void setRecording(boolean recording) {
+        this.recording = recording;
+    }
+
+    /**
+     * Records one request.
+     *
+     * @param step   the workflow step, e.g. {@code login}
+     * @param nanos  time from sending the request until the whole response was read
+     * @param status the HTTP status, or {@code 0} if no response arrived
+     * @param ok     whether the step succeeded
+     */
+    public void record(String step, long nanos, int status, boolean ok) {
+        if (recording) {
+            steps.computeIfAbsent(step, name -> new Samples()).add(nanos, status, ok);
+        }
+    }
+
+    /**
+     * @param elapsed the measured time span, used for throughput
+     * @return one result per step, sorted by step name
+     */
+    public List<StepResult> results(Duration elapsed) {
+        double seconds = Math.max(elapsed.toMillis(), 1) / 1000.0;
+        List<StepResult> results = new ArrayList<>();
+        steps.forEach((step, samples) -> {
+            long[] sorted = samples.sorted();
+            int errors;
+            synchronized (samples) {
+                errors = samples.errors;
+            }
+            results.add(new StepResult(step, sorted.length, errors, sorted.length / seconds,
+                    percentile(sorted, 0.50), percentile(sorted, 0.90), percentile(sorted, 0.95),
+                    percentile(sorted, 0.99), sorted.length == 0 ? 0 : millis(sorted[sorted.length - 1])));
+        });
+        results.sort(Comparator.comparing(StepResult::step));
+        return results;
+    }
+
+    /**
+     * @return the HTTP status of failed requests with their counts, over all steps
+     */
+    public Map<Integer, Integer> failedStatuses() {
+        Map<Integer, Integer> all = new TreeMap<>();
+        steps.values().forEach(samples -> {
+            synchronized (samples) {
+                samples.failedStatuses.forEach((status, count) -> all.merge(status, count, Integer::sum));
+            }
+        });
+        return all;
+    }
+
+    /**
+     * Nearest-rank percentile of sorted nanosecond samples.
+     *
+     * @return the percentile in milliseconds, {@code 0} without samples
+     */
+    static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(quantile * sorted.length);
+        return millis(sorted[Math.max(rank, 1) - 1]);
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -0,0 +1,108 @@
+package com.ams.loadtest;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code LoadTest} drives concurrent {@link AccountantSession}s against a locally running AMS and reports
+ * throughput and latency percentiles per workflow step.
+ *
+ * <p>
+ * Each accountant runs on its own virtual thread and issues its next request only after the previous one
+ * completed (a closed workload). Latencies therefore show what a user waits for, but a stalled server also
+ * slows the offered load; compare throughput between runs, not only percentiles.
+ * </p>
+ *
+ * <pre>{@code
+ * mvn -pl load-tests exec:java -Dexec.args="--users=50 --duration=2m --baseline=results/1.0.0.csv"
+ * }</pre>
+ *
+ * <p>The process exits with status 1 if any step regressed against the baseline, see {@link Report}.</p>
+ *
+ * @author Yosef Nago
+ */
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        LatencyRecorder recorder = new LatencyRecorder();
+        String runId = Long.toString(System.currentTimeMillis(), 36);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            HttpClient http = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .executor(executor)
+                    .build();
+            AmsClient client = new AmsClient(options.baseUrl(), http, recorder);
+
+            System.out.printf("Setting up %d accountants with %d clients each against %s%n",
+                    options.users(), options.clientsPerUser(), options.baseUrl());
+            List<AccountantSession> sessions = setUp(client, options, runId, executor);
+
+            Instant start = Instant.now();
+            Instant measureFrom = start.plus(options.warmUp());
+            Instant deadline = measureFrom.plus(options.duration());
+            recorder.setRecording(false);
+            List<Future<?>> running = new ArrayList<>();
+            for (int i = 0; i < sessions.size(); i++) {
+                AccountantSession session = sessions.get(i);
+                long delay = options.rampUp().toMillis() * i / sessions.size();
+                running.add(executor.submit(() -> {
+                    Thread.sleep(delay);
+                    session.runUntil(deadline);
+                    return null;
+                }));
+            }
+            System.out.printf("Warming up for %ds, then recording for %ds%n",
+                    options.warmUp().toSeconds(), options.duration().toSeconds());
+            Thread.sleep(Duration.between(Instant.now(), measureFrom).toMillis());
+            recorder.setRecording(true);
+            for (Future<?> future : running) {
+                future.get(options.duration().toMillis() + 60_000, TimeUnit.MILLISECONDS);
+            }
+            recorder.setRecording(false);
+
+            Report report = new Report(recorder.results(options.duration()), recorder.failedStatuses());
+            report.print(System.out);
+            report.writeCsv(options.out());
+            System.out.println("Results written to " + options.out().toAbsolutePath());
+            if (options.baseline() != null && !report.compare(Report.readCsv(options.baseline()),
+                    options.tolerance(), System.out)) {
+                System.exit(1);
+            }
+        }
+    }
+
+    private static List<AccountantSession> setUp(AmsClient client, LoadTestOptions options, String runId,
+                                                 ExecutorService executor) throws Exception {
+        List<AccountantSession> sessions = new ArrayList<>();
+        List<Future<?>> setUps = new ArrayList<>();
+        for (int i = 0; i < options.users(); i++) {
+            AccountantSession session = new AccountantSession(client, options, runId, i);
+            sessions.add(session);
+            setUps.add(executor.submit(session::setUp));
+        }
+        for (Future<?> setUp : setUps) {
+            try {
+                setUp.get();
+            } catch (ExecutionException e) {
+                throw new IOException("Set-up failed, is the system running at " + options.baseUrl() + "? "
+                        + e.getCause().getMessage(), e.getCause());
+            }
+        }
+        return sessions;
+    }
+}
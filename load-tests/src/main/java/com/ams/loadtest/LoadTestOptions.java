@@ -0,0 +1,77 @@
+package com.ams.loadtest;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Command line options of {@link LoadTest}, given as {@code --name=value}.
+ *
+ * <ul>
+ *     <li>{@code --base-url} gateway address (default {@code http://localhost:8080})</li>
+ *     <li>{@code --users} concurrent accountants (default 20)</li>
+ *     <li>{@code --clients} clients created per accountant before the run (default 5)</li>
+ *     <li>{@code --ramp-up} time over which the accountants start (default 10s)</li>
+ *     <li>{@code --warm-up} initial time not recorded (default 15s)</li>
+ *     <li>{@code --duration} recorded time (default 60s)</li>
+ *     <li>{@code --think-time} pause between steps of one accountant (default 200ms)</li>
+ *     <li>{@code --document-size} bytes per uploaded document (default 65536)</li>
+ *     <li>{@code --out} CSV file for the results (default {@code target/load-test-results.csv})</li>
+ *     <li>{@code --baseline} CSV of an earlier run to compare against (optional)</li>
+ *     <li>{@code --tolerance} allowed p95 increase over the baseline (default 0.2, i.e. 20%)</li>
+ * </ul>
+ *
+ * <p>Durations accept {@code ms}, {@code s} and {@code m} suffixes.</p>
+ *
+ * @author Yosef Nago
+ */
+public record LoadTestOptions(URI baseUrl, int users, int clientsPerUser, Duration rampUp, Duration warmUp,
+                              Duration duration, Duration thinkTime, int documentSize, Path out, Path baseline,
+                              double tolerance) {
+
+    public static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            int split = arg.indexOf('=');
+            values.put(arg.substring(2, split), arg.substring(split + 1));
+        }
+        LoadTestOptions options = new LoadTestOptions(
+                URI.create(stripTrailingSlash(values.getOrDefault("base-url", "http://localhost:8080"))),
+                Integer.parseInt(values.getOrDefault("users", "20")),
+                Integer.parseInt(values.getOrDefault("clients", "5")),
+                duration(values.getOrDefault("ramp-up", "10s")),
+                duration(values.getOrDefault("warm-up", "15s")),
+                duration(values.getOrDefault("duration", "60s")),
+                duration(values.getOrDefault("think-time", "200ms")),
+                Integer.parseInt(values.getOrDefault("document-size", "65536")),
+                Path.of(values.getOrDefault("out", "target/load-test-results.csv")),
+                values.containsKey("baseline") ? Path.of(values.get("baseline")) : null,
+                Double.parseDouble(values.getOrDefault("tolerance", "0.2")));
+        if (options.users < 1 || options.clientsPerUser < 1) {
+            throw new IllegalArgumentException("--users and --clients must be at least 1");
+        }
+        return options;
+    }
+
+    static Duration duration(String value) {
+        if (value.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        }
+        if (value.endsWith("s")) {
+            return Duration.ofSeconds(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        if (value.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        throw new IllegalArgumentException("Duration needs a ms, s or m suffix: " + value);
+    }
+
+    private static String stripTrailingSlash(String url) {
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+}
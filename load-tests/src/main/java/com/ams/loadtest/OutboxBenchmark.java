@@ -0,0 +1,167 @@
+package com.ams.loadtest;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@code OutboxBenchmark} measures the throughput of client-service's transactional outbox and the delay
+ * until its relay has published an event.
+ *
+ * <p>
+ * It writes {@code --events} document events into {@code outbox_events} from {@code --writers} connections,
+ * {@code --events-per-tx} per transaction, with the same statement {@code OutboxService} uses, while a running
+ * client-service relays them. It reports the write rate, the rate at which the relay drained the events and
+ * percentiles of the publish lag ({@code published_at - created_at}). The events belong to a client id no
+ * accountant owns, so they do not show up in {@code /client/changes}.
+ * </p>
+ *
+ * <p>
+ * Compare runs with different {@code outbox.relay.batch-size} and {@code outbox.relay.interval-ms}, and with
+ * several client-service instances: only one relay publishes at a time, so the drain rate should not drop.
+ * </p>
+ *
+ * <pre>{@code
+ * mvn -pl load-tests exec:java -Dexec.mainClass=com.ams.loadtest.OutboxBenchmark -Dexec.args="--events=50000"
+ * }</pre>
+ *
+ * <p>
+ * Options: {@code --jdbc-url}, {@code --jdbc-user}, {@code --jdbc-password}, {@code --events} (default 20000),
+ * {@code --writers} (default 8), {@code --events-per-tx} (default 1) and {@code --timeout} (default 5m).
+ * </p>
+ *
+ * @author Yosef Nago
+ */
+public final class OutboxBenchmark {
+
+    private OutboxBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int split = arg.indexOf('=');
+            if (!arg.startsWith("--") || split < 0) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            options.put(arg.substring(2, split), arg.substring(split + 1));
+        }
+        String jdbcUrl = options.getOrDefault("jdbc-url", "jdbc:postgresql://localhost:5432/client-service");
+        String jdbcUser = options.getOrDefault("jdbc-user", "postgres");
+        String jdbcPassword = options.getOrDefault("jdbc-password", "1234");
+        int events = Integer.parseInt(options.getOrDefault("events", "20000"));
+        int writers = Integer.parseInt(options.getOrDefault("writers", "8"));
+        int perTransaction = Integer.parseInt(options.getOrDefault("events-per-tx", "1"));
+        Duration timeout = LoadTestOptions.duration(options.getOrDefault("timeout", "5m"));
+        String clientId = "outbox-bench-" + UUID.randomUUID().toString().substring(0, 8);
+
+        Instant start = Instant.now();
+        AtomicInteger next = new AtomicInteger();
+        try (ExecutorService executor = Executors.newFixedThreadPool(writers)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int w = 0; w < writers; w++) {
+                futures.add(executor.submit(() -> {
+                    write(jdbcUrl, jdbcUser, jdbcPassword, clientId, events, perTransaction, next);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        Duration writeTime = Duration.between(start, Instant.now());
+
+        try (Connection connection = DriverManager.getConnection(jdbcUrl, jdbcUser, jdbcPassword)) {
+            Duration drainTime = awaitPublished(connection, clientId, start, timeout);
+            System.out.printf(Locale.ROOT, "Events:  %d in transactions of %d from %d writers%n",
+                    events, perTransaction, writers);
+            System.out.printf(Locale.ROOT, "Written: %.1f s, %.0f events/s%n",
+                    seconds(writeTime), events / seconds(writeTime));
+            System.out.printf(Locale.ROOT, "Relayed: %.1f s after the first write, %.0f events/s%n",
+                    seconds(drainTime), events / seconds(drainTime));
+            printLag(connection, clientId);
+            try (PreparedStatement delete = connection.prepareStatement(
+                    "DELETE FROM outbox_events WHERE client_id = ?")) {
+                delete.setString(1, clientId);
+                delete.executeUpdate();
+            }
+        }
+    }
+
+    private static void write(String jdbcUrl, String user, String password, String clientId, int events,
+                              int perTransaction, AtomicInteger next) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(jdbcUrl, user, password);
+             PreparedStatement insert = connection.prepareStatement("INSERT INTO outbox_events (aggregate_type, " +
+                     "aggregate_id, event_type, client_id, created_at) VALUES ('DOCUMENT', ?, 'CREATED', ?, ?)")) {
+            connection.setAutoCommit(false);
+            for (int first = next.getAndAdd(perTransaction); first < events; first = next.getAndAdd(perTransaction)) {
+                for (int n = first; n < Math.min(first + perTransaction, events); n++) {
+                    insert.setString(1, String.valueOf(n));
+                    insert.setString(2, clientId);
+                    insert.setTimestamp(3, Timestamp.from(Instant.now()));
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+                connection.commit();
+            }
+        }
+    }
+
+    private static Duration awaitPublished(Connection connection, String clientId, Instant start, Duration timeout)
+            throws SQLException, InterruptedException {
+        Instant deadline = Instant.now().plus(timeout);
+        try (PreparedStatement select = connection.prepareStatement(
+                "SELECT count(*) FILTER (WHERE published_at IS NULL), max(published_at) FROM outbox_events " +
+                        "WHERE client_id = ?")) {
+            select.setString(1, clientId);
+            while (true) {
+                try (ResultSet rs = select.executeQuery()) {
+                    rs.next();
+                    if (rs.getLong(1) == 0) {
+                        return Duration.between(start, rs.getTimestamp(2).toInstant());
+                    }
+                    if (Instant.now().isAfter(deadline)) {
+                        throw new IllegalStateException(rs.getLong(1) + " events still unpublished after "
+                                + timeout + "; is client-service running against this database?");
+                    }
+                }
+                Thread.sleep(100);
+            }
+        }
+    }
+
+    private static void printLag(Connection connection, String clientId) throws SQLException {
+        try (PreparedStatement select = connection.prepareStatement("""
+                SELECT percentile_cont(ARRAY[0.5, 0.95, 0.99]) WITHIN GROUP (ORDER BY lag_ms), max(lag_ms)
+                FROM (SELECT extract(epoch FROM published_at - created_at) * 1000 AS lag_ms
+                      FROM outbox_events WHERE client_id = ?) lags
+                """)) {
+            select.setString(1, clientId);
+            try (ResultSet rs = select.executeQuery()) {
+                rs.next();
+                Double[] percentiles = (Double[]) rs.getArray(1).getArray();
+                System.out.printf(Locale.ROOT, "Publish lag ms: p50 %.0f, p95 %.0f, p99 %.0f, max %.0f%n",
+                        percentiles[0], percentiles[1], percentiles[2], rs.getDouble(2));
+            }
+        }
+    }
+
+    private static double seconds(Duration duration) {
+        return Math.max(duration.toNanos(), 1) / 1e9;
+    }
+}
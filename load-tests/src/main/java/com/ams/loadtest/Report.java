@@ -0,0 +1,103 @@
+package com.ams.loadtest;
+
+import com.ams.loadtest.LatencyRecorder.StepResult;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * {@code Report} prints the results of a run, stores them as CSV and compares them with an earlier run.
+ *
+ * <p>
+ * Keeping the CSV of each release (e.g. under {@code load-tests/results/<version>.csv}) and passing it as
+ * {@code --baseline} to the next run turns the load test into a regression check: a step whose p95 grew by
+ * more than the tolerance, or whose throughput dropped by more than it, fails the run.
+ * </p>
+ *
+ * @author Yosef Nago
+ */
+public class Report {
+
+    private static final String HEADER = "step,count,errors,throughput_rps,p50_ms,p90_ms,p95_ms,p99_ms,max_ms";
+
+    private final List<StepResult> results;
+    private final Map<Integer, Integer> failedStatuses;
+
+    public Report(List<StepResult> results, Map<Integer, Integer> failedStatuses) {
+        this.results = results;
+        this.failedStatuses = failedStatuses;
+    }
+
+    public void print(PrintStream out) {
+        out.printf("%n%-20s %8s %7s %9s %9s %9s %9s %9s %9s%n",
+                "step", "count", "errors", "req/s", "p50 ms", "p90 ms", "p95 ms", "p99 ms", "max ms");
+        for (StepResult r : results) {
+            out.printf(Locale.ROOT, "%-20s %8d %7d %9.1f %9.1f %9.1f %9.1f %9.1f %9.1f%n",
+                    r.step(), r.count(), r.errors(), r.throughput(), r.p50(), r.p90(), r.p95(), r.p99(), r.max());
+        }
+        if (!failedStatuses.isEmpty()) {
+            out.println("Failed requests by HTTP status (0 = no response): " + failedStatuses);
+        }
+    }
+
+    public void writeCsv(Path file) throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add(HEADER);
+        for (StepResult r : results) {
+            lines.add(String.format(Locale.ROOT, "%s,%d,%d,%.2f,%.2f,%.2f,%.2f,%.2f,%.2f",
+                    r.step(), r.count(), r.errors(), r.throughput(), r.p50(), r.p90(), r.p95(), r.p99(), r.max()));
+        }
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Files.write(file, lines);
+    }
+
+    public static List<StepResult> readCsv(Path file) throws IOException {
+        return Files.readAllLines(file).stream()
+                .skip(1)
+                .filter(line -> !line.isBlank())
+                .map(line -> line.split(","))
+                .map(f -> new StepResult(f[0], Integer.parseInt(f[1]), Integer.parseInt(f[2]),
+                        Double.parseDouble(f[3]), Double.parseDouble(f[4]), Double.parseDouble(f[5]),
+                        Double.parseDouble(f[6]), Double.parseDouble(f[7]), Double.parseDouble(f[8])))
+                .toList();
+    }
+
+    /**
+     * Compares this run with a baseline, step by step.
+     *
+     * @param tolerance allowed relative change, e.g. {@code 0.2} for 20%
+     * @return {@code true} if no step regressed
+     */
+    public boolean compare(List<StepResult> baseline, double tolerance, PrintStream out) {
+        Map<String, StepResult> previous = baseline.stream()
+                .collect(Collectors.toMap(StepResult::step, Function.identity(), (a, b) -> a, LinkedHashMap::new));
+        boolean passed = true;
+        out.printf("%nCompared with baseline (tolerance %.0f%%):%n", tolerance * 100);
+        for (StepResult current : results) {
+            StepResult before = previous.get(current.step());
+            if (before == null) {
+                out.printf("  %-20s new step%n", current.step());
+                continue;
+            }
+            boolean slower = current.p95() > before.p95() * (1 + tolerance);
+            boolean lessThroughput = current.throughput() < before.throughput() * (1 - tolerance);
+            passed &= !slower && !lessThroughput;
+            out.printf(Locale.ROOT, "  %-20s p95 %8.1f -> %8.1f ms   req/s %7.1f -> %7.1f   %s%n",
+                    current.step(), before.p95(), current.p95(), before.throughput(), current.throughput(),
+                    slower || lessThroughput ? "REGRESSION" : "ok");
+        }
+        return passed;
+    }
+}
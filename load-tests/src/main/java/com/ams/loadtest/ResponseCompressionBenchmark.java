@@ -0,0 +1,141 @@
+package com.ams.loadtest;
+
+import com.ams.dtos.registerDto.RegisterRequest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * {@code ResponseCompressionBenchmark} measures what the gateway's response compression saves on the wire and
+ * costs in latency and gateway CPU.
+ *
+ * <p>
+ * It registers an accountant through the gateway, seeds {@code --clients} clients for it (default 500) as in
+ * {@link SearchBenchmark}, then reads the client list and a search page {@code --requests} times each (default
+ * 200), once with {@code Accept-Encoding: identity} and once with {@code gzip}. The HTTP client does not
+ * decode the body, so the bytes read are the bytes on the wire. Requests are paced at {@code --rate} per
+ * second (default 15), below the gateway's per-user rate limit.
+ * </p>
+ *
+ * <pre>{@code
+ * mvn -pl load-tests exec:java -Dexec.mainClass=com.ams.loadtest.ResponseCompressionBenchmark
+ * }</pre>
+ *
+ * <p>
+ * Options: {@code --base-url} (default {@code http://localhost:8080}), {@code --jdbc-url},
+ * {@code --jdbc-user}, {@code --jdbc-password}, {@code --clients}, {@code --requests}, {@code --rate} and
+ * {@code --out}.
+ * </p>
+ *
+ * @author Yosef Nago
+ */
+public final class ResponseCompressionBenchmark {
+
+    private static final String PASSWORD = "LoadTest-1234";
+    private static final List<String> ENCODINGS = List.of("identity", "gzip");
+
+    private ResponseCompressionBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int split = arg.indexOf('=');
+            if (!arg.startsWith("--") || split < 0) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            options.put(arg.substring(2, split), arg.substring(split + 1));
+        }
+        URI baseUrl = URI.create(options.getOrDefault("base-url", "http://localhost:8080"));
+        int clients = Integer.parseInt(options.getOrDefault("clients", "500"));
+        int requests = Integer.parseInt(options.getOrDefault("requests", "200"));
+        long pauseNanos = (long) (1e9 / Double.parseDouble(options.getOrDefault("rate", "15")));
+        Path out = Path.of(options.getOrDefault("out", "target/response-compression-results.csv"));
+
+        HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        AmsClient client = new AmsClient(baseUrl, http, new LatencyRecorder());
+        String username = "rc-" + Long.toString(System.currentTimeMillis(), 36);
+        client.register(new RegisterRequest("Load", "Test", username, username + "@load.test", PASSWORD, "0500000000"));
+        String token = client.login(username, PASSWORD);
+        try (Connection connection = DriverManager.getConnection(
+                options.getOrDefault("jdbc-url", "jdbc:postgresql://localhost:5432/client-service"),
+                options.getOrDefault("jdbc-user", "postgres"),
+                options.getOrDefault("jdbc-password", "1234"))) {
+            SearchBenchmark.seed(connection, username, clients);
+        }
+
+        Map<String, String> paths = new LinkedHashMap<>();
+        paths.put("load-clients", "/client/load-clients");
+        paths.put("search", "/client/search?size=50&q=client1");
+
+        LatencyRecorder recorder = new LatencyRecorder();
+        Map<String, long[]> wireBytes = new LinkedHashMap<>();
+        long start = System.nanoTime();
+        try (ServerMetrics gateway = new ServerMetrics(baseUrl, http, List.of("process.cpu.usage"),
+                Duration.ofMillis(500))) {
+            for (String encoding : ENCODINGS) {
+                for (Map.Entry<String, String> path : paths.entrySet()) {
+                    String step = path.getKey() + "-" + encoding;
+                    long[] totals = wireBytes.computeIfAbsent(step, s -> new long[2]);
+                    for (int i = 0; i < requests; i++) {
+                        long sent = System.nanoTime();
+                        long bytes = read(http, baseUrl.resolve(path.getValue()), token, encoding, step, recorder);
+                        if (bytes >= 0) {
+                            totals[0] += bytes;
+                            totals[1]++;
+                        }
+                        Thread.sleep(Duration.ofNanos(Math.max(0, pauseNanos - (System.nanoTime() - sent))));
+                    }
+                }
+            }
+            gateway.print(System.out);
+        }
+
+        Report report = new Report(recorder.results(Duration.ofNanos(System.nanoTime() - start)),
+                recorder.failedStatuses());
+        report.print(System.out);
+        System.out.printf("%n%-24s %12s%n", "step", "wire bytes");
+        wireBytes.forEach((step, totals) -> System.out.printf(Locale.ROOT, "%-24s %,12d%n", step,
+                totals[1] == 0 ? 0 : totals[0] / totals[1]));
+        report.writeCsv(out);
+        System.out.println("Results written to " + out.toAbsolutePath());
+    }
+
+    /**
+     * @return the body bytes as received, or {@code -1} if the request failed
+     */
+    private static long read(HttpClient http, URI uri, String token, String encoding, String step,
+                             LatencyRecorder recorder) throws InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .header("Authorization", "Bearer " + token)
+                .header("Accept-Encoding", encoding)
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+        long start = System.nanoTime();
+        try {
+            HttpResponse<byte[]> response = http.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            String applied = response.headers().firstValue("Content-Encoding").orElse("identity");
+            // a response under the gateway's min-response-size is sent as is even when gzip was accepted
+            boolean ok = response.statusCode() == 200
+                    && (applied.equals(encoding) || applied.equals("identity"));
+            recorder.record(step, System.nanoTime() - start, response.statusCode(), ok);
+            return ok ? response.body().length : -1;
+        } catch (IOException e) {
+            recorder.record(step, System.nanoTime() - start, 0, false);
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.ams.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@code SearchBenchmark} measures {@code /client/search} on a large, seeded client list.
+ *
+ * <p>
+ * It first makes sure the benchmark accountant owns {@code --clients} rows in {@code client_details}
+ * (default 100,000), inserting the missing ones directly with SQL. It then sends {@code --queries} searches
+ * from {@code --concurrency} threads straight to client-service, bypassing the gateway so its per-user
+ * rate limit does not apply. The searches mix the kinds of input accountants type: name prefixes, full
+ * names, names with a typo, tax IDs and their prefixes, partial phone numbers and e-mail prefixes.
+ * Latency percentiles are reported per kind.
+ * </p>
+ *
+ * <pre>{@code
+ * mvn -pl load-tests exec:java -Dexec.mainClass=com.ams.loadtest.SearchBenchmark -Dexec.args="--clients=100000"
+ * }</pre>
+ *
+ * <p>
+ * Options: {@code --base-url} (default {@code http://localhost:8083}), {@code --jdbc-url},
+ * {@code --jdbc-user}, {@code --jdbc-password}, {@code --accountant} (default {@code search-bench}),
+ * {@code --clients}, {@code --queries} (default 5000), {@code --warm-up-queries} (default 500),
+ * {@code --concurrency} (default 8) and {@code --out}.
+ * </p>
+ *
+ * @author Yosef Nago
+ */
+public final class SearchBenchmark {
+
+    private static final String[] FAMILY_NAMES = {
+            "כהן", "לוי", "מזרחי", "פרץ", "ביטון", "דהן", "אברהם", "פרידמן", "אגבריה", "מלכה",
+            "אזולאי", "כץ", "יוסף", "דוד", "עמר", "אוחיון", "חדד", "גבאי", "בן דוד", "שפירא",
+            "Cohen", "Levi", "Goldberg", "Katz", "Stein"};
+    private static final String[] BUSINESS_WORDS = {
+            "הנדסה", "שיווק", "יזמות", "סחר", "בנייה", "מזון", "תוכנה", "ייעוץ", "הובלות", "אופנה",
+            "Tech", "Systems", "Trading", "Logistics", "Media"};
+
+    /** Seeds rows {@code from} (inclusive) to {@code to} (exclusive) of the accountant. */
+    private static final String SEED_SQL = """
+            INSERT INTO client_details (business_name, accountant_name, client_id, email, phone, contact_phone,
+                                        address, zip_code, business_type, version)
+            SELECT (?::text[])[1 + i %% %1$d] || ' ' || (?::text[])[1 + (i / %1$d) %% %2$d]
+                       || CASE WHEN i %% 3 = 0 THEN ' בע"מ' ELSE '' END,
+                   ?,
+                   lpad((300000000 + i)::text, 9, '0'),
+                   'client' || i || '@bench.co.il',
+                   '05' || (i %% 9) || '-' || lpad(((i::bigint * 7919) %% 10000000)::text, 7, '0'),
+                   NULL, 'הרצל ' || (i %% 200), lpad((i %% 99999)::text, 7, '0'), 'עוסק מורשה', 0
+            FROM generate_series(?, ? - 1) AS i
+            """.formatted(FAMILY_NAMES.length, BUSINESS_WORDS.length);
+
+    private SearchBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int split = arg.indexOf('=');
+            if (!arg.startsWith("--") || split < 0) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            options.put(arg.substring(2, split), arg.substring(split + 1));
+        }
+        URI baseUrl = URI.create(options.getOrDefault("base-url", "http://localhost:8083"));
+        String accountant = options.getOrDefault("accountant", "search-bench");
+        int clients = Integer.parseInt(options.getOrDefault("clients", "100000"));
+        int queries = Integer.parseInt(options.getOrDefault("queries", "5000"));
+        int warmUpQueries = Integer.parseInt(options.getOrDefault("warm-up-queries", "500"));
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "8"));
+        Path out = Path.of(options.getOrDefault("out", "target/search-benchmark-results.csv"));
+
+        try (Connection connection = DriverManager.getConnection(
+                options.getOrDefault("jdbc-url", "jdbc:postgresql://localhost:5432/client-service"),
+                options.getOrDefault("jdbc-user", "postgres"),
+                options.getOrDefault("jdbc-password", "1234"))) {
+            seed(connection, accountant, clients);
+        }
+
+        LatencyRecorder recorder = new LatencyRecorder();
+        HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        List<Search> searches = searches(clients, warmUpQueries + queries, new Random(42));
+
+        recorder.setRecording(false);
+        run(http, baseUrl, accountant, searches.subList(0, warmUpQueries), concurrency, recorder);
+        recorder.setRecording(true);
+        long start = System.nanoTime();
+        run(http, baseUrl, accountant, searches.subList(warmUpQueries, searches.size()), concurrency, recorder);
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        Report report = new Report(recorder.results(elapsed), recorder.failedStatuses());
+        report.print(System.out);
+        report.writeCsv(out);
+        System.out.println("Results written to " + out.toAbsolutePath());
+    }
+
+    static void seed(Connection connection, String accountant, int clients) throws SQLException {
+        int existing;
+        try (PreparedStatement count = connection.prepareStatement(
+                "SELECT count(*) FROM client_details WHERE accountant_name = ?")) {
+            count.setString(1, accountant);
+            try (ResultSet rs = count.executeQuery()) {
+                rs.next();
+                existing = rs.getInt(1);
+            }
+        }
+        if (existing >= clients) {
+            System.out.printf("%s already has %d clients%n", accountant, existing);
+            return;
+        }
+        System.out.printf("Seeding %d clients for %s%n", clients - existing, accountant);
+        try (PreparedStatement insert = connection.prepareStatement(SEED_SQL)) {
+            insert.setArray(1, connection.createArrayOf("text", FAMILY_NAMES));
+            insert.setArray(2, connection.createArrayOf("text", BUSINESS_WORDS));
+            insert.setString(3, accountant);
+            insert.setInt(4, existing);
+            insert.setInt(5, clients);
+            insert.executeUpdate();
+        }
+        try (Statement analyze = connection.createStatement()) {
+            analyze.execute("ANALYZE client_details");
+        }
+    }
+
+    record Search(String kind, String text) {
+    }
+
+    /**
+     * Builds a reproducible mix of searches over the seeded data.
+     */
+    static List<Search> searches(int clients, int count, Random random) {
+        List<Search> searches = new ArrayList<>(count);
+        for (int n = 0; n < count; n++) {
+            int i = random.nextInt(clients);
+            String family = FAMILY_NAMES[i % FAMILY_NAMES.length];
+            String word = BUSINESS_WORDS[(i / FAMILY_NAMES.length) % BUSINESS_WORDS.length];
+            String taxId = String.format("%09d", 300000000 + i);
+            String phoneDigits = "05" + (i % 9) + String.format("%07d", (i * 7919L) % 10000000);
+            searches.add(switch (n % 7) {
+                case 0 -> new Search("name-prefix", family.substring(0, Math.min(2, family.length())));
+                case 1 -> new Search("name-full", family + " " + word);
+                case 2 -> new Search("name-typo", typo(family + " " + word, random));
+                case 3 -> new Search("tax-id", taxId);
+                case 4 -> new Search("tax-id-prefix", taxId.substring(0, 6));
+                case 5 -> new Search("phone-partial", phoneDigits.substring(0, 3) + "-" + phoneDigits.substring(3, 7));
+                default -> new Search("email-prefix", "client" + i);
+            });
+        }
+        return searches;
+    }
+
+    private static String typo(String text, Random random) {
+        int at = 1 + random.nextInt(text.length() - 2);
+        char[] chars = text.toCharArray();
+        char swap = chars[at];
+        chars[at] = chars[at + 1];
+        chars[at + 1] = swap;
+        return new String(chars);
+    }
+
+    private static void run(HttpClient http, URI baseUrl, String accountant, List<Search> searches,
+                            int concurrency, LatencyRecorder recorder) throws Exception {
+        AtomicInteger next = new AtomicInteger();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int w = 0; w < concurrency; w++) {
+                workers.add(executor.submit(() -> {
+                    for (int n = next.getAndIncrement(); n < searches.size(); n = next.getAndIncrement()) {
+                        search(http, baseUrl, accountant, searches.get(n), recorder);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        }
+    }
+
+    private static void search(HttpClient http, URI baseUrl, String accountant, Search search,
+                               LatencyRecorder recorder) throws InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(baseUrl.resolve("/client/search?size=20&q="
+                        + URLEncoder.encode(search.text(), StandardCharsets.UTF_8)))
+                .header("X-User-Name", accountant)
+                .timeout(Duration.ofSeconds(10))
+                .GET()
+                .build();
+        long start = System.nanoTime();
+        try {
+            HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+            recorder.record(search.kind(), System.nanoTime() - start, response.statusCode(),
+                    response.statusCode() == 200);
+        } catch (IOException e) {
+            recorder.record(search.kind(), System.nanoTime() - start, 0, false);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.ams.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * {@code ServerMetrics} samples actuator metrics of the service under test while a benchmark runs and keeps
+ * the peak of each.
+ *
+ * <p>
+ * A metric is given as its actuator name with optional tags, e.g. {@code jvm.memory.used?tag=area:heap}.
+ * Metrics the service does not publish, e.g. the Hikari gauges of a service without JDBC, are reported as
+ * {@code n/a} rather than failing the run.
+ * </p>
+ *
+ * @author Yosef Nago
+ */
+public class ServerMetrics implements AutoCloseable {
+
+    private final URI baseUrl;
+    private final HttpClient http;
+    private final List<String> metrics;
+    private final Map<String, Double> peaks = new LinkedHashMap<>();
+    private final ObjectMapper json = new ObjectMapper();
+    private final Thread sampler;
+
+    /**
+     * Starts sampling every {@code interval}.
+     *
+     * @param baseUrl  address of the service, whose {@code /actuator/metrics} must be reachable
+     * @param metrics  the metrics to sample
+     * @param interval time between samples
+     */
+    public ServerMetrics(URI baseUrl, HttpClient http, List<String> metrics, Duration interval) {
+        this.baseUrl = baseUrl;
+        this.http = http;
+        this.metrics = metrics;
+        this.sampler = Thread.ofVirtual().name("server-metrics").start(() -> {
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    sample();
+                    Thread.sleep(interval);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+    }
+
+    private void sample() throws InterruptedException {
+        for (String metric : metrics) {
+            Double value = read(metric);
+            if (value != null) {
+                synchronized (peaks) {
+                    peaks.merge(metric, value, Math::max);
+                }
+            }
+        }
+    }
+
+    private Double read(String metric) throws InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(baseUrl.resolve("/actuator/metrics/" + metric))
+                .timeout(Duration.ofSeconds(5))
+                .GET()
+                .build();
+        try {
+            HttpResponse<byte[]> response = http.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            if (response.statusCode() != 200) {
+                return null;
+            }
+            for (JsonNode measurement : json.readTree(response.body()).path("measurements")) {
+                if ("VALUE".equals(measurement.path("statistic").asText())) {
+                    return measurement.path("value").asDouble();
+                }
+            }
+            return null;
+        } catch (IOException e) {
+            // a saturated server may not answer in time; the next sample tries again
+            return null;
+        }
+    }
+
+    /**
+     * @return the peak of every metric, in the order given; {@code null} for metrics never read
+     */
+    public Map<String, Double> peaks() {
+        Map<String, Double> result = new LinkedHashMap<>();
+        synchronized (peaks) {
+            metrics.forEach(metric -> result.put(metric, peaks.get(metric)));
+        }
+        return result;
+    }
+
+    public void print(PrintStream out) {
+        out.println("Server peaks:");
+        peaks().forEach((metric, peak) -> out.printf(Locale.ROOT, "  %-45s %s%n", metric,
+                peak == null ? "n/a" : String.format(Locale.ROOT, "%,.0f", peak)));
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        sampler.interrupt();
+        sampler.join();
+    }
+}
@@ -0,0 +1,149 @@
+package com.ams.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@code StreamBenchmark} compares client-service's JPA client list, {@code /client/load-clients}, with its
+ * R2DBC streaming counterpart, {@code /client/stream/load-clients}, on a large client list.
+ *
+ * <p>
+ * client-service must run with the {@code reactive} profile. The benchmark accountant owns {@code --clients}
+ * rows (default 100,000), seeded as in {@link SearchBenchmark}. Each endpoint is then read {@code --requests}
+ * times from {@code --concurrency} callers, one endpoint after the other, straight from client-service. Two
+ * latencies are recorded per request: until the first byte of the body arrives ({@code *-first-byte}) and
+ * until the whole body was read ({@code *-complete}). The JPA endpoint can only start writing once the whole
+ * list is loaded; the stream starts with the first fetch. The peak heap and CPU of the service are reported
+ * per endpoint as well.
+ * </p>
+ *
+ * <pre>{@code
+ * mvn -pl load-tests exec:java -Dexec.mainClass=com.ams.loadtest.StreamBenchmark -Dexec.args="--clients=100000"
+ * }</pre>
+ *
+ * <p>
+ * Options: {@code --base-url} (default {@code http://localhost:8083}), {@code --jdbc-url},
+ * {@code --jdbc-user}, {@code --jdbc-password}, {@code --accountant} (default {@code stream-bench}),
+ * {@code --clients}, {@code --requests} (default 200), {@code --warm-up-requests} (default 20),
+ * {@code --concurrency} (default 8) and {@code --out}.
+ * </p>
+ *
+ * @author Yosef Nago
+ */
+public final class StreamBenchmark {
+
+    private static final List<String> SERVER_METRICS = List.of(
+            "jvm.memory.used?tag=area:heap",
+            "process.cpu.usage");
+
+    private StreamBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int split = arg.indexOf('=');
+            if (!arg.startsWith("--") || split < 0) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            options.put(arg.substring(2, split), arg.substring(split + 1));
+        }
+        URI baseUrl = URI.create(options.getOrDefault("base-url", "http://localhost:8083"));
+        String accountant = options.getOrDefault("accountant", "stream-bench");
+        int clients = Integer.parseInt(options.getOrDefault("clients", "100000"));
+        int requests = Integer.parseInt(options.getOrDefault("requests", "200"));
+        int warmUpRequests = Integer.parseInt(options.getOrDefault("warm-up-requests", "20"));
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "8"));
+        Path out = Path.of(options.getOrDefault("out", "target/stream-benchmark-results.csv"));
+
+        try (Connection connection = DriverManager.getConnection(
+                options.getOrDefault("jdbc-url", "jdbc:postgresql://localhost:5432/client-service"),
+                options.getOrDefault("jdbc-user", "postgres"),
+                options.getOrDefault("jdbc-password", "1234"))) {
+            SearchBenchmark.seed(connection, accountant, clients);
+        }
+
+        HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        List<LatencyRecorder.StepResult> results = new ArrayList<>();
+        Map<Integer, Integer> failedStatuses = new TreeMap<>();
+        for (String variant : List.of("mvc", "stream")) {
+            URI uri = baseUrl.resolve(variant.equals("mvc") ? "/client/load-clients" : "/client/stream/load-clients");
+            LatencyRecorder recorder = new LatencyRecorder();
+            recorder.setRecording(false);
+            run(http, uri, accountant, variant, warmUpRequests, concurrency, recorder);
+            System.out.printf("%s: %d requests for %d clients%n", variant, requests, clients);
+            try (ServerMetrics server = new ServerMetrics(baseUrl, http, SERVER_METRICS, Duration.ofMillis(250))) {
+                recorder.setRecording(true);
+                long start = System.nanoTime();
+                run(http, uri, accountant, variant, requests, concurrency, recorder);
+                results.addAll(recorder.results(Duration.ofNanos(System.nanoTime() - start)));
+                server.print(System.out);
+            }
+            recorder.failedStatuses().forEach((status, count) -> failedStatuses.merge(status, count, Integer::sum));
+        }
+
+        Report report = new Report(results, failedStatuses);
+        report.print(System.out);
+        report.writeCsv(out);
+        System.out.println("Results written to " + out.toAbsolutePath());
+    }
+
+    private static void run(HttpClient http, URI uri, String accountant, String variant, int requests,
+                            int concurrency, LatencyRecorder recorder) throws Exception {
+        AtomicInteger remaining = new AtomicInteger(requests);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int w = 0; w < concurrency; w++) {
+                workers.add(executor.submit(() -> {
+                    while (remaining.getAndDecrement() > 0) {
+                        read(http, uri, accountant, variant, recorder);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        }
+    }
+
+    private static void read(HttpClient http, URI uri, String accountant, String variant, LatencyRecorder recorder)
+            throws InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .header("X-User-Name", accountant)
+                .timeout(Duration.ofSeconds(60))
+                .GET()
+                .build();
+        long start = System.nanoTime();
+        try {
+            HttpResponse<InputStream> response = http.send(request, HttpResponse.BodyHandlers.ofInputStream());
+            boolean ok = response.statusCode() == 200;
+            try (InputStream body = response.body()) {
+                body.read();
+                recorder.record(variant + "-first-byte", System.nanoTime() - start, response.statusCode(), ok);
+                body.transferTo(OutputStream.nullOutputStream());
+            }
+            recorder.record(variant + "-complete", System.nanoTime() - start, response.statusCode(), ok);
+        } catch (IOException e) {
+            recorder.record(variant + "-complete", System.nanoTime() - start, 0, false);
+        }
+    }
+}
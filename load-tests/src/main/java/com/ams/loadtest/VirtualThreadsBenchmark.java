@@ -0,0 +1,179 @@
+package com.ams.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code VirtualThreadsBenchmark} compares client-service with and without its {@code virtual-threads} profile
+ * under many concurrent users.
+ *
+ * <p>
+ * {@code --users} callers (default 2000) each repeat a closed loop against client-service: list the clients of
+ * the benchmark accountant, pause {@code --think-time}, search them, pause again. The accountant owns
+ * {@code --clients} rows (default 200), seeded as in {@link SearchBenchmark}. Requests go straight to
+ * client-service, bypassing the gateway so its rate and concurrency limits do not cap the load. Besides
+ * throughput and latency per step, it reports the peak of the service's live threads, heap, CPU and Hikari
+ * pool usage from its actuator.
+ * </p>
+ *
+ * <p>
+ * Run it once against client-service started without the profile and once with it, passing the CSV of the
+ * first run as {@code --baseline} of the second:
+ * </p>
+ *
+ * <pre>{@code
+ * mvn -pl load-tests exec:java -Dexec.mainClass=com.ams.loadtest.VirtualThreadsBenchmark -Dexec.args="--label=platform"
+ * # restart client-service with --spring.profiles.active=virtual-threads
+ * mvn -pl load-tests exec:java -Dexec.mainClass=com.ams.loadtest.VirtualThreadsBenchmark \
+ *     -Dexec.args="--label=virtual --baseline=target/virtual-threads-platform.csv"
+ * }</pre>
+ *
+ * <p>
+ * With platform threads, requests beyond the 200 Tomcat workers queue in the acceptor, which shows up as
+ * latency rather than errors; with virtual threads they queue for a Hikari connection instead and fail after
+ * its {@code connection-timeout}, which shows up as HTTP 500. Thread stacks are native memory, not heap, so
+ * also compare the resident size of the process, e.g. {@code ps -o rss -p <pid>}.
+ * </p>
+ *
+ * <p>
+ * Options: {@code --base-url} (default {@code http://localhost:8083}), {@code --jdbc-url},
+ * {@code --jdbc-user}, {@code --jdbc-password}, {@code --accountant} (default {@code vt-bench}),
+ * {@code --clients}, {@code --users}, {@code --ramp-up} (default 20s), {@code --warm-up} (default 15s),
+ * {@code --duration} (default 60s), {@code --think-time} (default 500ms), {@code --label} (default
+ * {@code run}), {@code --out} (default {@code target/virtual-threads-<label>.csv}), {@code --baseline} and
+ * {@code --tolerance} (default 0.2).
+ * </p>
+ *
+ * @author Yosef Nago
+ */
+public final class VirtualThreadsBenchmark {
+
+    static final List<String> SERVER_METRICS = List.of(
+            "jvm.threads.live",
+            "jvm.memory.used?tag=area:heap",
+            "jvm.memory.used?tag=area:nonheap",
+            "process.cpu.usage",
+            "hikaricp.connections.active",
+            "hikaricp.connections.pending");
+
+    private VirtualThreadsBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int split = arg.indexOf('=');
+            if (!arg.startsWith("--") || split < 0) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            options.put(arg.substring(2, split), arg.substring(split + 1));
+        }
+        URI baseUrl = URI.create(options.getOrDefault("base-url", "http://localhost:8083"));
+        String accountant = options.getOrDefault("accountant", "vt-bench");
+        int clients = Integer.parseInt(options.getOrDefault("clients", "200"));
+        int users = Integer.parseInt(options.getOrDefault("users", "2000"));
+        Duration rampUp = LoadTestOptions.duration(options.getOrDefault("ramp-up", "20s"));
+        Duration warmUp = LoadTestOptions.duration(options.getOrDefault("warm-up", "15s"));
+        Duration duration = LoadTestOptions.duration(options.getOrDefault("duration", "60s"));
+        Duration thinkTime = LoadTestOptions.duration(options.getOrDefault("think-time", "500ms"));
+        String label = options.getOrDefault("label", "run");
+        Path out = Path.of(options.getOrDefault("out", "target/virtual-threads-" + label + ".csv"));
+
+        try (Connection connection = DriverManager.getConnection(
+                options.getOrDefault("jdbc-url", "jdbc:postgresql://localhost:5432/client-service"),
+                options.getOrDefault("jdbc-user", "postgres"),
+                options.getOrDefault("jdbc-password", "1234"))) {
+            SearchBenchmark.seed(connection, accountant, clients);
+        }
+
+        LatencyRecorder recorder = new LatencyRecorder();
+        recorder.setRecording(false);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            HttpClient http = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .executor(executor)
+                    .build();
+
+            Instant measureFrom = Instant.now().plus(warmUp);
+            Instant deadline = measureFrom.plus(duration);
+            List<Future<?>> running = new ArrayList<>();
+            for (int i = 0; i < users; i++) {
+                long delay = rampUp.toMillis() * i / users;
+                running.add(executor.submit(() -> {
+                    Thread.sleep(delay);
+                    runUntil(http, baseUrl, accountant, thinkTime, deadline, recorder);
+                    return null;
+                }));
+            }
+            System.out.printf("%s: %d users against %s, warming up for %ds, then recording for %ds%n",
+                    label, users, baseUrl, warmUp.toSeconds(), duration.toSeconds());
+            Thread.sleep(Duration.between(Instant.now(), measureFrom).toMillis());
+
+            Report report;
+            try (ServerMetrics server = new ServerMetrics(baseUrl, http, SERVER_METRICS, Duration.ofSeconds(1))) {
+                recorder.setRecording(true);
+                for (Future<?> user : running) {
+                    user.get(duration.toMillis() + 60_000, TimeUnit.MILLISECONDS);
+                }
+                recorder.setRecording(false);
+                report = new Report(recorder.results(duration), recorder.failedStatuses());
+                report.print(System.out);
+                server.print(System.out);
+            }
+            report.writeCsv(out);
+            System.out.println("Results written to " + out.toAbsolutePath());
+            if (options.containsKey("baseline")) {
+                report.compare(Report.readCsv(Path.of(options.get("baseline"))),
+                        Double.parseDouble(options.getOrDefault("tolerance", "0.2")), System.out);
+            }
+        }
+    }
+
+    private static void runUntil(HttpClient http, URI baseUrl, String accountant, Duration thinkTime,
+                                 Instant deadline, LatencyRecorder recorder) throws InterruptedException {
+        while (Instant.now().isBefore(deadline)) {
+            get(http, baseUrl.resolve("/client/load-clients"), accountant, "load-clients", recorder);
+            Thread.sleep(thinkTime);
+            String prefix = "client" + ThreadLocalRandom.current().nextInt(10);
+            get(http, baseUrl.resolve("/client/search?size=20&q=" + URLEncoder.encode(prefix, StandardCharsets.UTF_8)),
+                    accountant, "search", recorder);
+            Thread.sleep(thinkTime);
+        }
+    }
+
+    private static void get(HttpClient http, URI uri, String accountant, String step, LatencyRecorder recorder)
+            throws InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .header("X-User-Name", accountant)
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+        long start = System.nanoTime();
+        try {
+            HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+            recorder.record(step, System.nanoTime() - start, response.statusCode(), response.statusCode() == 200);
+        } catch (IOException e) {
+            recorder.record(step, System.nanoTime() - start, 0, false);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.ams.loadtest;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LatencyRecorderTest {
+
+    private static final long MS = 1_000_000;
+
+    @Test
+    void percentilesUseNearestRank() {
+        LatencyRecorder recorder = new LatencyRecorder();
+        for (int i = 1; i <= 100; i++) {
+            recorder.record("login", i * MS, 200, true);
+        }
+
+        LatencyRecorder.StepResult result = recorder.results(Duration.ofSeconds(10)).get(0);
+
+        assertEquals(100, result.count());
+        assertEquals(10.0, result.throughput());
+        assertEquals(50.0, result.p50());
+        assertEquals(95.0, result.p95());
+        assertEquals(99.0, result.p99());
+        assertEquals(100.0, result.max());
+    }
+
+    @Test
+    void singleSampleIsEveryPercentile() {
+        assertEquals(7.0, LatencyRecorder.percentile(new long[]{7 * MS}, 0.5));
+        assertEquals(7.0, LatencyRecorder.percentile(new long[]{7 * MS}, 0.99));
+        assertEquals(0.0, LatencyRecorder.percentile(new long[0], 0.99));
+    }
+
+    @Test
+    void samplesOutsideRecordingAreDropped() {
+        LatencyRecorder recorder = new LatencyRecorder();
+        recorder.setRecording(false);
+        recorder.record("login", MS, 200, true);
+        recorder.setRecording(true);
+        recorder.record("login", 2 * MS, 429, false);
+
+        List<LatencyRecorder.StepResult> results = recorder.results(Duration.ofSeconds(1));
+
+        assertEquals(1, results.get(0).count());
+        assertEquals(1, results.get(0).errors());
+        assertEquals(Map.of(429, 1), recorder.failedStatuses());
+    }
+}
@@ -1,11 +1,15 @@
 package com.ams.ui.config;
 
+import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClient;
 import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import java.net.http.HttpClient;
+
 /**
  * {@code RestTemplateConfig} is a configuration class that provides application-wide beans
  * for HTTP communication between microservices and external REST APIs.
@@ -41,11 +45,27 @@ public class RestTemplateConfig {
      * registered with Eureka or external third-party APIs.
      * </p>
      *
-     * @return a plain {@link RestTemplate} instance
+     * <p>
+     * It is backed by the JDK {@link HttpClient} (HTTP/1.1), which unlike the default
+     * {@code HttpURLConnection} factory supports {@code PATCH}.
+     * </p>
+     *
+     * <p>
+     * Building it from Spring Boot's {@link RestTemplateBuilder} registers the Micrometer observation
+     * customizer, so every outgoing call is timed as {@code http.client.requests}.
+     * </p>
+     *
+     * @param builder the auto-configured builder
+     * @return a {@link RestTemplate} instance
      */
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate restTemplate(RestTemplateBuilder builder) {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .build();
+        return builder
+                .requestFactory(() -> new JdkClientHttpRequestFactory(httpClient))
+                .build();
     }
 
 }
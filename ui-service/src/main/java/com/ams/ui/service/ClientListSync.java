@@ -0,0 +1,125 @@
+package com.ams.ui.service;
+
+import com.ams.dtos.clientDto.ClientChangesResponse;
+import com.ams.dtos.clientDto.ClientGridDto;
+import com.vaadin.flow.server.VaadinSession;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.Serializable;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * {@code ClientListSync} keeps a per-session copy of the accountant's client list and refreshes it
+ * through the {@code /client/changes} delta endpoint.
+ *
+ * <p>
+ * The first refresh downloads a snapshot of the clients; later refreshes send the last sync token and only
+ * apply the returned upserts and tombstones, so an unchanged list costs a near-empty response. The view
+ * applies its own creates and deletes locally with {@link #upsert} and {@link #remove}; the same changes
+ * arriving again through the delta endpoint are harmless.
+ * </p>
+ *
+ * <p>The instance is stored as a {@link VaadinSession} attribute and is accessed under the session lock.</p>
+ *
+ * @author Yosef Nago
+ */
+public class ClientListSync implements Serializable {
+
+    private static final String CHANGES_URL = "http://localhost:8080/client/changes";
+
+    private final Map<String, ClientGridDto> clients = new LinkedHashMap<>();
+    private String accountantName;
+    private String token;
+
+    /**
+     * Returns the sync state stored in the given session, creating it on first use.
+     *
+     * @param session the current Vaadin session
+     * @return the session's {@code ClientListSync}
+     */
+    public static ClientListSync forSession(VaadinSession session) {
+        ClientListSync sync = session.getAttribute(ClientListSync.class);
+        if (sync == null) {
+            sync = new ClientListSync();
+            session.setAttribute(ClientListSync.class, sync);
+        }
+        return sync;
+    }
+
+    /**
+     * Brings the local copy up to date and returns it.
+     *
+     * @param restTemplate   the HTTP client
+     * @param jwt            the session's JWT
+     * @param accountantName the logged-in accountant; a different accountant resets the local copy
+     * @return the current client list
+     * @throws IllegalStateException if the backend reports a failure
+     */
+    public List<ClientGridDto> refresh(RestTemplate restTemplate, String jwt, String accountantName) {
+        if (!Objects.equals(this.accountantName, accountantName)) {
+            this.accountantName = accountantName;
+            this.token = null;
+            this.clients.clear();
+        }
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(jwt);
+        HttpEntity<Void> entity = new HttpEntity<>(headers);
+
+        ClientChangesResponse changes;
+        do {
+            String url = token == null ? CHANGES_URL
+                    : CHANGES_URL + "?since=" + URLEncoder.encode(token, StandardCharsets.UTF_8);
+            ResponseEntity<ClientChangesResponse> response =
+                    restTemplate.exchange(url, HttpMethod.GET, entity, ClientChangesResponse.class);
+            changes = response.getBody();
+            if (changes == null || !changes.success()) {
+                throw new IllegalStateException(changes == null ? "שגיאה בטעינת לקוחות" : changes.message());
+            }
+            apply(changes);
+        } while (changes.hasMore());
+
+        return List.copyOf(clients.values());
+    }
+
+    /**
+     * Adds or replaces a client in the local copy, e.g. right after this session created it.
+     *
+     * @param client the client's grid row
+     */
+    public void upsert(ClientGridDto client) {
+        clients.put(client.clientId(), client);
+    }
+
+    /**
+     * Removes a client from the local copy, e.g. right after this session deleted it.
+     *
+     * @param clientId the client's tax ID
+     * @return the removed row, or {@code null} if the copy did not hold it
+     */
+    public ClientGridDto remove(String clientId) {
+        return clients.remove(clientId);
+    }
+
+    private void apply(ClientChangesResponse changes) {
+        if (changes.fullResync()) {
+            clients.clear();
+        }
+        for (ClientGridDto client : changes.clients()) {
+            clients.put(client.clientId(), client);
+        }
+        for (String clientId : changes.deletedClientIds()) {
+            clients.remove(clientId);
+        }
+        token = changes.nextToken();
+    }
+}
@@ -3,7 +3,8 @@ package com.ams.ui.views;
 
 
 import com.ams.dtos.clientDto.LoadClientCaseDetailsRequest;
-import com.ams.dtos.clientDto.UpdateClientResponse;
+import com.ams.dtos.clientDto.PatchClientRequest;
+import com.ams.dtos.clientDto.PatchClientResponse;
 import com.ams.ui.layouts.ClientCaseLayout;
 import com.vaadin.flow.component.Component;
 import com.vaadin.flow.component.UI;
@@ -21,8 +22,10 @@ import com.vaadin.flow.router.PageTitle;
 import com.vaadin.flow.router.Route;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.*;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 import java.util.List;
+import java.util.Objects;
 
 
 /**
@@ -42,7 +45,7 @@ import java.util.List;
  * @see ClientCaseLayout
  * @see BeforeEnterObserver
  * @see com.ams.dtos.clientDto.LoadClientCaseDetailsRequest
- * @see com.ams.dtos.clientDto.UpdateClientResponse
+ * @see com.ams.dtos.clientDto.PatchClientRequest
  * @author Yosef Nago
  */
 @Route(value = "case/:clientId", layout = ClientCaseLayout.class)
@@ -62,6 +65,8 @@ public class ClientCaseView extends VerticalLayout implements BeforeEnterObserve
     private TextField bankBranchFiled;
     private TextField bankAccountNumberFiled;
     private final RestTemplate restTemplate;
+    private LoadClientCaseDetailsRequest loadedCase;
+    private String loadedVersion;
     VerticalLayout contentLayout;
     Button updateButton,saveButton;
     String msg;
@@ -185,6 +190,8 @@ public class ClientCaseView extends VerticalLayout implements BeforeEnterObserve
                             HttpMethod.GET, entity, LoadClientCaseDetailsRequest.class);
 
             if (requestEntity.getStatusCode().is2xxSuccessful() && requestEntity.getBody() != null) {
+                loadedCase = requestEntity.getBody();
+                loadedVersion = requestEntity.getHeaders().getETag();
                 businessNameFiled.setValue(requestEntity.getBody().businessName().toString());
                 clientIdFiled.setValue(requestEntity.getBody().clientId().toString());
                 emailFiled.setValue(requestEntity.getBody().email().toString());
@@ -227,46 +234,90 @@ public class ClientCaseView extends VerticalLayout implements BeforeEnterObserve
         return mainLayout;
     }
     /**
-     * Updates the client case by sending a PUT request to the backend using JWT authentication.
+     * Sends the edited fields to the backend as a PATCH request using JWT authentication.
+     * <p>
+     * Only fields that differ from the loaded values are sent, and nothing is sent if no field changed.
+     * The version loaded with the case is passed in {@code If-Match}; if another user saved the client
+     * in the meantime the backend answers 409 and the user is asked to reload.
+     * </p>
      */
     private void update(){
-        LoadClientCaseDetailsRequest request = new LoadClientCaseDetailsRequest(
-                clientIdFiled.getValue(),
-                businessNameFiled.getValue(),
-                emailFiled.getValue(),
-                phoneFiled.getValue(),
-                addressFiled.getValue(),
-                zipCodeFiled.getValue(),
-                businessTypeFiled.getValue(),
-                bankNameFiled.getValue(),
-                bankBranchFiled.getValue(),
-                bankAccountNumberFiled.getValue()
+        if (loadedCase == null || loadedVersion == null) {
+            Notification.show("יש לטעון את הלקוח מחדש", 3000, Notification.Position.MIDDLE);
+            return;
+        }
+
+        PatchClientRequest request = new PatchClientRequest(
+                changed(businessNameFiled, loadedCase.businessName()),
+                changed(emailFiled, loadedCase.email()),
+                changed(phoneFiled, loadedCase.phone()),
+                changed(addressFiled, loadedCase.address()),
+                changed(zipCodeFiled, loadedCase.zip()),
+                changed(businessTypeFiled, loadedCase.businessType()),
+                changed(bankNameFiled, loadedCase.bankName()),
+                changed(bankBranchFiled, loadedCase.bankBranch()),
+                changed(bankAccountNumberFiled, loadedCase.bankAccountNumber())
         );
+        if (request.isEmpty()) {
+            Notification.show("לא בוצעו שינויים", 3000, Notification.Position.MIDDLE);
+            saveButton.setVisible(false);
+            return;
+        }
+
         String token = (String) getUI().get().getSession().getAttribute("jwt");
         HttpHeaders headers = new HttpHeaders();
         headers.setBearerAuth(token);
         headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setIfMatch(loadedVersion);
 
-        HttpEntity<LoadClientCaseDetailsRequest> entity = new HttpEntity<>(request, headers);
+        HttpEntity<PatchClientRequest> entity = new HttpEntity<>(request, headers);
 
         try {
-            ResponseEntity<UpdateClientResponse> response = restTemplate.exchange(
-                    "http://localhost:8080/client/update",
-                    HttpMethod.PUT,
+            ResponseEntity<PatchClientResponse> response = restTemplate.exchange(
+                    "http://localhost:8080/client/update/" + clientId,
+                    HttpMethod.PATCH,
                     entity,
-                    UpdateClientResponse.class
+                    PatchClientResponse.class
             );
             msg = response.getBody().message();
             if (response.getStatusCode().is2xxSuccessful()) {
+                loadedVersion = response.getHeaders().getETag();
+                loadedCase = currentValues();
                 Notification.show(msg, 3000, Notification.Position.MIDDLE);
                 saveButton.setVisible(false);
             } else {
                 Notification.show(msg, 3000, Notification.Position.MIDDLE);
             }
+        } catch (HttpClientErrorException.Conflict e) {
+            Notification.show("הלקוח עודכן על ידי משתמש אחר, יש לטעון מחדש", 4000, Notification.Position.MIDDLE);
         } catch (Exception e) {
-            Notification.show(msg, 3000, Notification.Position.MIDDLE);
+            Notification.show("שגיאה בעדכון לקוח", 3000, Notification.Position.MIDDLE);
         }
     }
+    /**
+     * Returns the field's value if it differs from the loaded one, otherwise {@code null} ("unchanged").
+     */
+    private static String changed(TextField field, String loaded) {
+        String value = field.getValue();
+        return Objects.equals(value, loaded == null ? "" : loaded) ? null : value;
+    }
+    /**
+     * Captures the current form values in the same shape the case was loaded in.
+     */
+    private LoadClientCaseDetailsRequest currentValues() {
+        return new LoadClientCaseDetailsRequest(
+                clientIdFiled.getValue(),
+                businessNameFiled.getValue(),
+                emailFiled.getValue(),
+                phoneFiled.getValue(),
+                addressFiled.getValue(),
+                zipCodeFiled.getValue(),
+                businessTypeFiled.getValue(),
+                bankNameFiled.getValue(),
+                bankBranchFiled.getValue(),
+                bankAccountNumberFiled.getValue()
+        );
+    }
     /**
      * Enables or disables editing for all text fields based on current read-only state.
      */
@@ -5,7 +5,9 @@ import com.ams.dtos.clientDto.ClientGridDto;
 import com.ams.dtos.clientDto.CreateClientRequest;
 import com.ams.dtos.clientDto.CreateClientResponse;
 import com.ams.dtos.clientDto.LoadClientResponse;
+import com.ams.dtos.clientDto.SearchClientsResponse;
 import com.ams.ui.layouts.MainLayout;
+import com.ams.ui.service.ClientListSync;
 import com.vaadin.flow.component.Component;
 import com.vaadin.flow.component.UI;
 import com.vaadin.flow.component.button.Button;
@@ -23,6 +25,7 @@ import com.vaadin.flow.component.tabs.Tabs;
 import com.vaadin.flow.component.textfield.EmailField;
 import com.vaadin.flow.component.textfield.TextField;
 import com.vaadin.flow.data.binder.Binder;
+import com.vaadin.flow.data.value.ValueChangeMode;
 import com.vaadin.flow.data.validator.EmailValidator;
 import com.vaadin.flow.data.validator.StringLengthValidator;
 import com.vaadin.flow.router.BeforeEnterEvent;
@@ -38,8 +41,10 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
+import java.net.URI;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
+import java.util.List;
 
 /**
  * {@code ClientsView} is the main UI view for managing client records in the accounting management system.
@@ -47,6 +52,8 @@ import java.nio.charset.StandardCharsets;
  * This view allows the accountant to:
  * <ul>
  *   <li>View all clients in a sortable grid</li>
+ *   <li>Search clients by name, tax ID, e-mail or phone as you type via {@code /client/typeahead},
+ *   falling back to the typo-tolerant {@code /client/search}</li>
  *   <li>Create a new client via a tab-based dialog with form validation</li>
  *   <li>Delete an existing client after confirmation</li>
  *   <li>Navigate to a detailed client case view</li>
@@ -87,6 +94,12 @@ public class ClientsView extends VerticalLayout implements BeforeEnterObserver {
     private String clientIdSelected;
     private final JwtUtil jwtUtil;
     private String message;
+    private String username;
+
+    private static final String SEARCH_URL = "http://localhost:8080/client/search";
+    private static final String TYPEAHEAD_URL = "http://localhost:8080/client/typeahead";
+    private static final int SEARCH_PAGE_SIZE = 50;
+    private static final int SEARCH_DEBOUNCE_MS = 120;
 
     @Autowired
     public ClientsView(RestTemplate restTemplate, JwtUtil jwtUtil) {
@@ -117,7 +130,17 @@ public class ClientsView extends VerticalLayout implements BeforeEnterObserver {
         createClientButton.addClassNames(LumoUtility.BoxShadow.XSMALL,LumoUtility.Display.INLINE_FLEX,LumoUtility.TextColor.PRIMARY);
         deleteClientButton.getElement().getStyle().set("color", "var(--lumo-error-color)");
 
-        HorizontalLayout buttonsLayout = new HorizontalLayout( deleteClientButton,createClientButton);
+        TextField searchField = new TextField();
+        searchField.setPlaceholder("חיפוש לפי שם, ח.פ, טלפון או אימייל");
+        searchField.setPrefixComponent(VaadinIcon.SEARCH.create());
+        searchField.setClearButtonVisible(true);
+        searchField.setWidth("22em");
+        searchField.getElement().setAttribute("dir", "rtl");
+        searchField.setValueChangeMode(ValueChangeMode.LAZY);
+        searchField.setValueChangeTimeout(SEARCH_DEBOUNCE_MS);
+        searchField.addValueChangeListener(event -> searchClients(event.getValue()));
+
+        HorizontalLayout buttonsLayout = new HorizontalLayout( deleteClientButton,createClientButton,searchField);
         buttonsLayout.addClassNames(LumoUtility.Gap.MEDIUM,LumoUtility.AlignSelf.END);
 
         deleteClientButton.setVisible(false);
@@ -166,6 +189,50 @@ public class ClientsView extends VerticalLayout implements BeforeEnterObserver {
 
         add(buttonsLayout ,grid);
     }
+    /**
+     * Shows the clients matching the search text, or the full list again when the text is cleared.
+     * <p>
+     * Suggestions come from client-service's in-memory index ({@code /client/typeahead}), which answers
+     * without a database round-trip, so the grid can follow every keystroke. Only when it finds nothing,
+     * e.g. for a misspelled name, the typo-tolerant {@code /client/search} is asked. Both cover all of the
+     * accountant's clients, not just the ones loaded into the grid; the best {@value #SEARCH_PAGE_SIZE}
+     * matches are shown.
+     * </p>
+     *
+     * @param text the search text
+     */
+    private void searchClients(String text) {
+        String token = (String) VaadinSession.getCurrent().getAttribute("jwt");
+        if (token == null) {
+            return;
+        }
+        try {
+            if (text == null || text.isBlank()) {
+                grid.setItems(ClientListSync.forSession(VaadinSession.getCurrent()).refresh(restTemplate, token, username));
+                return;
+            }
+            HttpHeaders headers = new HttpHeaders();
+            headers.setBearerAuth(token);
+            String q = URLEncoder.encode(text.strip(), StandardCharsets.UTF_8);
+
+            ResponseEntity<LoadClientResponse> suggestions = restTemplate.exchange(
+                    URI.create(TYPEAHEAD_URL + "?limit=" + SEARCH_PAGE_SIZE + "&q=" + q),
+                    HttpMethod.GET, new HttpEntity<>(headers), LoadClientResponse.class);
+            LoadClientResponse suggested = suggestions.getBody();
+            if (suggested != null && suggested.success() && !suggested.clients().isEmpty()) {
+                grid.setItems(suggested.clients());
+                return;
+            }
+
+            ResponseEntity<SearchClientsResponse> response = restTemplate.exchange(
+                    URI.create(SEARCH_URL + "?size=" + SEARCH_PAGE_SIZE + "&q=" + q),
+                    HttpMethod.GET, new HttpEntity<>(headers), SearchClientsResponse.class);
+            SearchClientsResponse body = response.getBody();
+            grid.setItems(body != null && body.success() ? body.clients() : List.of());
+        } catch (Exception e) {
+            Notification.show("שגיאה בחיפוש לקוחות", 3000, Notification.Position.MIDDLE);
+        }
+    }
     /**
      * Opens a modal dialog with two-step tabs to register a new client.
      * <p>
@@ -382,6 +449,9 @@ public class ClientsView extends VerticalLayout implements BeforeEnterObserver {
                     );
                     message = response.getBody().message();
                     if (response.getStatusCode().is2xxSuccessful()) {
+                        ClientListSync.forSession(VaadinSession.getCurrent()).upsert(new ClientGridDto(
+                                clientRequest.businessName(), clientRequest.tax_id(),
+                                clientRequest.email(), clientRequest.phone()));
                         Notification.show(message, 3000, Notification.Position.MIDDLE);
                     } else {
 
@@ -407,7 +477,7 @@ public class ClientsView extends VerticalLayout implements BeforeEnterObserver {
 
         ConfirmDialog confirmDialog = new ConfirmDialog();
         confirmDialog.setHeader("אישור מחיקת לקוח");
-        confirmDialog.setText("?פעולה זו תמחק את נתוני הלקוח לצמיתות. האם לאשר מחיקה");
+        confirmDialog.setText("?הלקוח ומסמכיו יימחקו לצמיתות בעוד 7 ימים, ועד אז ניתן לשחזר אותו. האם לאשר מחיקה");
 
         confirmDialog.setCancelable(true);
         confirmDialog.addCancelListener(event -> {confirmDialog.close();});
@@ -436,7 +506,8 @@ public class ClientsView extends VerticalLayout implements BeforeEnterObserver {
             );
 
             if (response.getStatusCode().is2xxSuccessful()) {
-                Notification.show("הלקוח נמחק בהצלחה", 3000, Notification.Position.MIDDLE);
+                ClientGridDto removed = ClientListSync.forSession(VaadinSession.getCurrent()).remove(clientIdSelected);
+                showDeletedNotification(clientIdSelected, removed);
                 UI.getCurrent().refreshCurrentRoute(true);
                 confirmDialog.close();
             } else {
@@ -453,12 +524,48 @@ public class ClientsView extends VerticalLayout implements BeforeEnterObserver {
         return confirmDialog;
     }
 
+    /**
+     * Confirms a deletion and offers to undo it; client-service keeps deleted clients restorable for a while.
+     */
+    private void showDeletedNotification(String clientId, ClientGridDto removed) {
+        Notification notification = new Notification();
+        notification.setDuration(8000);
+        notification.setPosition(Notification.Position.MIDDLE);
+        Button undo = new Button("בטל מחיקה", e -> {
+            notification.close();
+            restoreClient(clientId, removed);
+        });
+        notification.add(new HorizontalLayout(new Span("הלקוח נמחק בהצלחה"), undo));
+        notification.open();
+    }
+
+    private void restoreClient(String clientId, ClientGridDto removed) {
+        String token = (String) VaadinSession.getCurrent().getAttribute("jwt");
+        if (token == null) {
+            return;
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(token);
+
+        try {
+            restTemplate.exchange("http://localhost:8080/client/restore/" + clientId,
+                    HttpMethod.POST, new HttpEntity<>(headers), Void.class);
+            if (removed != null) {
+                ClientListSync.forSession(VaadinSession.getCurrent()).upsert(removed);
+            }
+            Notification.show("הלקוח שוחזר", 3000, Notification.Position.MIDDLE);
+            UI.getCurrent().refreshCurrentRoute(true);
+        } catch (HttpClientErrorException e) {
+            Notification.show("לא ניתן לשחזר את הלקוח", 3000, Notification.Position.MIDDLE);
+        }
+    }
+
     /**
      * Called before the view is entered.
      * <p>
      * - Validates the JWT token from the session.
      * - If invalid or missing, redirects to the login page.
-     * - If valid, loads the list of clients for the logged-in accountant and displays them in the grid.
+     * - If valid, brings the session's copy of the client list up to date via {@link ClientListSync} and displays it in the grid.
      *
      * @param event the route change event
      */
@@ -471,28 +578,12 @@ public class ClientsView extends VerticalLayout implements BeforeEnterObserver {
         }
 
 
-        String username = jwtUtil.extractUsername(token);
-
-        HttpHeaders headers = new HttpHeaders();
-        headers.setBearerAuth(token);
-        HttpEntity<String> entity = new HttpEntity<>(headers);
-
+        username = jwtUtil.extractUsername(token);
 
         try {
-            ResponseEntity<LoadClientResponse> response = restTemplate.exchange(
-                    "http://localhost:8080/client/load-clients",
-                    HttpMethod.GET, entity, LoadClientResponse.class);
-            grid.setItems(response.getBody().clients());
-            message = response.getBody().message();
-
-            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-                grid.setItems(response.getBody().clients());
-            } else {
-                Notification.show(message, 3000, Notification.Position.MIDDLE);
-            }
-
+            grid.setItems(ClientListSync.forSession(VaadinSession.getCurrent()).refresh(restTemplate, token, username));
         } catch (Exception e) {
-            Notification.show(message, 3000, Notification.Position.MIDDLE);
+            Notification.show("שגיאה בטעינת לקוחות", 3000, Notification.Position.MIDDLE);
         }
 
     }
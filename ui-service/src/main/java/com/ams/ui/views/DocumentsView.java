@@ -3,25 +3,31 @@ package com.ams.ui.views;
 
 import com.ams.commonsecurity.utils.JwtUtil;
 import com.ams.dtos.clientDto.LoadClientResponse;
+import com.ams.dtos.documentDto.BatchUploadResponse;
+import com.ams.dtos.documentDto.DeleteDocumentsRequest;
+import com.ams.dtos.documentDto.DeleteDocumentsResponse;
 import com.ams.dtos.documentDto.DocumentGrid;
-import com.ams.dtos.documentDto.DocumentUploadRequest;
-import com.ams.dtos.documentDto.DocumentUploadResponse;
-import com.ams.dtos.documentDto.LoadDocumentsResponse;
+import com.ams.dtos.documentDto.SearchDocumentsResponse;
 import com.ams.ui.layouts.ClientCaseLayout;
 import com.vaadin.flow.component.Component;
 import com.vaadin.flow.component.UI;
 import com.vaadin.flow.component.button.Button;
+import com.vaadin.flow.component.combobox.ComboBox;
+import com.vaadin.flow.component.datepicker.DatePicker;
 import com.vaadin.flow.component.dialog.Dialog;
 import com.vaadin.flow.component.grid.Grid;
+import com.vaadin.flow.component.html.Span;
 import com.vaadin.flow.component.icon.VaadinIcon;
 import com.vaadin.flow.component.notification.Notification;
 import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
 import com.vaadin.flow.component.orderedlayout.VerticalLayout;
+import com.vaadin.flow.component.textfield.TextField;
 import com.vaadin.flow.component.upload.Upload;
 import com.vaadin.flow.router.BeforeEnterEvent;
 import com.vaadin.flow.router.BeforeEnterObserver;
 import com.vaadin.flow.router.Route;
 import com.vaadin.flow.component.upload.receivers.MultiFileMemoryBuffer;
+import com.vaadin.flow.data.value.ValueChangeMode;
 import com.vaadin.flow.server.VaadinSession;
 import com.vaadin.flow.theme.lumo.LumoUtility;
 import org.aspectj.weaver.ast.Not;
@@ -32,25 +38,60 @@ import org.springframework.http.*;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.util.UriComponentsBuilder;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
-
-
+import java.util.Map;
+import java.util.stream.Collectors;
+
+
+/**
+ * {@code DocumentsView} lists a client's documents and lets the accountant upload and delete them.
+ * <p>
+ * Filtering, sorting and paging happen in client-service ({@code /client/documents}): the grid shows the
+ * first {@value #PAGE_SIZE} matches and "load more" appends the next page by cursor, so a client with tens
+ * of thousands of documents opens as fast as one with a few.
+ * </p>
+ *
+ * @author Yosef Nago
+ */
 @Route(value = ":clientId/documents",layout = ClientCaseLayout.class)
 public class DocumentsView extends VerticalLayout implements BeforeEnterObserver {
 
+    private static final String DOCUMENTS_URL = "http://localhost:8080/client/documents";
+    private static final String UPLOAD_BATCH_URL = "http://localhost:8080/client/upload-batch";
+    private static final String DELETE_DOCUMENTS_URL = "http://localhost:8080/client/documents/delete";
+    private static final int PAGE_SIZE = 100;
+    private static final List<SortOption> SORT_OPTIONS = List.of(
+            new SortOption("חדשים תחילה", "UPLOADED_AT", true),
+            new SortOption("ישנים תחילה", "UPLOADED_AT", false),
+            new SortOption("לפי שם", "NAME", false));
+
     private Upload upload;
     private MultiFileMemoryBuffer buffer;
     private final JwtUtil jwtUtil;
     private final RestTemplate restTemplate;
     String clientId;
     private Grid<DocumentGrid> grid = new Grid<>();
-    String documentNameSelected;
+
+    private final List<DocumentGrid> loadedDocuments = new ArrayList<>();
+    private String nextCursor;
+    private final TextField nameFilter = new TextField();
+    private final ComboBox<String> statusFilter = new ComboBox<>();
+    private final DatePicker fromFilter = new DatePicker();
+    private final DatePicker toFilter = new DatePicker();
+    private final ComboBox<SortOption> sortSelect = new ComboBox<>();
+    private final Span totalLabel = new Span();
+    private final Button loadMoreButton = new Button("טען עוד");
+    private final Button deleteSelectedButton = new Button("מחיקת מסמכים נבחרים");
 
     @Autowired
     public DocumentsView(RestTemplate restTemplate, JwtUtil jwtUtil) {
@@ -87,22 +128,27 @@ public class DocumentsView extends VerticalLayout implements BeforeEnterObserver
         Button save = new Button("שמור");
         save.getStyle().setMarginRight("2px");
         save.addClickListener(event -> {
-            String uploadedFileName = buffer.getFiles().stream().findFirst().orElse(null);
-
+            List<String> fileNames = new ArrayList<>(buffer.getFiles());
+            if (fileNames.isEmpty()) {
+                return;
+            }
             try {
-
-                InputStream inputStream = buffer.getInputStream(uploadedFileName);
-                byte[] fileData = inputStream.readAllBytes();
-
+                Map<String, byte[]> files = new LinkedHashMap<>();
+                for (String fileName : fileNames) {
+                    try (InputStream inputStream = buffer.getInputStream(fileName)) {
+                        files.put(fileName, inputStream.readAllBytes());
+                    }
+                }
 
                 String status = "PENDING";
                 LocalDate date = LocalDate.now();
 
-                upload(uploadedFileName, fileData, clientId, status, date);
+                uploadBatch(files, clientId, status, date);
 
                 dialog.close();
+                reloadDocuments();
             } catch (IOException e) {
-
+                Notification.show("שגיאה בקריאת הקבצים", 3000, Notification.Position.MIDDLE);
             }
         });
 
@@ -114,7 +160,11 @@ public class DocumentsView extends VerticalLayout implements BeforeEnterObserver
         dialog.setOpened(true);
         return dialog;
     }
-    private void upload(String fileName, byte[] fileContent, String clientId,String status,LocalDate date){
+    /**
+     * Sends all files of a drop in one request to {@code /client/upload-batch} and reports the files that
+     * were not stored.
+     */
+    private void uploadBatch(Map<String, byte[]> files, String clientId, String status, LocalDate date){
 
 
         String token = (String)VaadinSession.getCurrent().getAttribute("jwt");
@@ -123,37 +173,46 @@ public class DocumentsView extends VerticalLayout implements BeforeEnterObserver
         headers.setContentType(MediaType.MULTIPART_FORM_DATA);
         headers.setBearerAuth(token);
 
-        DocumentUploadRequest request = new DocumentUploadRequest(fileName,fileContent,clientId,status,LocalDate.now());
         MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
-
-        ByteArrayResource fileAsResource = new ByteArrayResource(fileContent) {
+        files.forEach((fileName, fileContent) -> body.add("files", new ByteArrayResource(fileContent) {
             @Override
             public String getFilename() {
                 return fileName;
             }
-        };
-
-        body.add("file", fileAsResource);
+        }));
         body.add("clientId", clientId);
         body.add("status", status);
         body.add("uploadedAt", date.toString());
 
         HttpEntity<MultiValueMap<String, Object>> requestEntity = new HttpEntity<>(body, headers);
 
-        ResponseEntity<DocumentUploadResponse> response = restTemplate.exchange(
-                "http://localhost:8080/client/upload",
-                HttpMethod.POST,
-                requestEntity,
-                DocumentUploadResponse.class
-        );
-
-        if (response.getStatusCode().is2xxSuccessful()) {
-            Notification.show(response.getBody().message(), 3000, Notification.Position.MIDDLE);
-        } else {
-            Notification.show(response.getBody().message(), 3000, Notification.Position.MIDDLE);
+        try {
+            ResponseEntity<BatchUploadResponse> response = restTemplate.exchange(
+                    UPLOAD_BATCH_URL,
+                    HttpMethod.POST,
+                    requestEntity,
+                    BatchUploadResponse.class
+            );
+            showUploadResult(response.getBody());
+        } catch (HttpStatusCodeException e) {
+            BatchUploadResponse failed = e.getResponseBodyAs(BatchUploadResponse.class);
+            if (failed != null) {
+                showUploadResult(failed);
+            } else {
+                Notification.show("שגיאה בהעלאת קבצים", 3000, Notification.Position.MIDDLE);
+            }
         }
 
     }
+
+    private void showUploadResult(BatchUploadResponse response) {
+        String failures = response.results().stream()
+                .filter(result -> !result.success())
+                .map(result -> result.fileName() + ": " + result.message())
+                .collect(Collectors.joining("\n"));
+        String text = failures.isEmpty() ? response.message() : response.message() + "\n" + failures;
+        Notification.show(text, 5000, Notification.Position.MIDDLE);
+    }
     public Component body() {
         VerticalLayout layout = new VerticalLayout();
         layout.setSizeFull();
@@ -168,7 +227,10 @@ public class DocumentsView extends VerticalLayout implements BeforeEnterObserver
         uploadButton.addClickListener(e -> {
             uploadDialog();
         });
-        headerBody.add(uploadButton);
+        deleteSelectedButton.setEnabled(false);
+        deleteSelectedButton.addClickListener(e -> deleteDocuments(grid.getSelectedItems().stream()
+                .map(DocumentGrid::id).toList()));
+        headerBody.add(filters(), deleteSelectedButton, uploadButton);
 
 
         grid.addColumn(DocumentGrid::fileName).setHeader("שם מסמך");
@@ -178,14 +240,12 @@ public class DocumentsView extends VerticalLayout implements BeforeEnterObserver
 
         grid.setSizeFull();
         grid.getStyle().set("direction", "rtl");
-        grid.setSelectionMode(Grid.SelectionMode.SINGLE);
+        grid.setSelectionMode(Grid.SelectionMode.MULTI);
 
-        grid.getColumns().get(0).setSortable(true);
-        grid.getColumns().get(1).setSortable(true);
-        grid.getColumns().get(2).setSortable(true);
-        grid.getColumns().get(3).setSortable(true);
+        // sorting is done by the server over all documents, see sortSelect
+        grid.getColumns().forEach(column -> column.setSortable(false));
 
-        grid.addComponentColumn(client -> {
+        grid.addComponentColumn(document -> {
             HorizontalLayout actions = new HorizontalLayout();
 
             // Client view icon
@@ -196,7 +256,7 @@ public class DocumentsView extends VerticalLayout implements BeforeEnterObserver
 
             // edit icon
             Button editButton = new Button(VaadinIcon.TRASH.create(), e -> {
-                deleteDocument(documentNameSelected);
+                deleteDocuments(List.of(document.id()));
             });
             editButton.getElement().setProperty("title", "מחיקה");
 
@@ -208,64 +268,159 @@ public class DocumentsView extends VerticalLayout implements BeforeEnterObserver
 
         }).setHeader("פעולות").setAutoWidth(true).setFlexGrow(0);
 
-        grid.addSelectionListener(event -> {
-           documentNameSelected = event.getFirstSelectedItem().get().fileName();
-        });
+        grid.addSelectionListener(event -> deleteSelectedButton.setEnabled(!event.getAllSelectedItems().isEmpty()));
+
 
+        loadMoreButton.setVisible(false);
+        loadMoreButton.addClickListener(e -> loadNextPage());
 
-        layout.add(headerBody,grid);
+        layout.add(headerBody, grid, new HorizontalLayout(loadMoreButton, totalLabel));
 
         return layout;
     }
 
-    @Override
-    public void beforeEnter(BeforeEnterEvent event) {
-        clientId = event.getRouteParameters().get("clientId").orElse("");
+    /**
+     * Builds the filter bar; every change reloads the list from the first page.
+     */
+    private Component filters() {
+        nameFilter.setPlaceholder("שם מסמך");
+        nameFilter.setClearButtonVisible(true);
+        nameFilter.setValueChangeMode(ValueChangeMode.LAZY);
+        nameFilter.addValueChangeListener(e -> reloadDocuments());
+
+        statusFilter.setPlaceholder("סטטוס");
+        statusFilter.setItems("PENDING");
+        statusFilter.setAllowCustomValue(true);
+        statusFilter.addCustomValueSetListener(e -> statusFilter.setValue(e.getDetail()));
+        statusFilter.setClearButtonVisible(true);
+        statusFilter.addValueChangeListener(e -> reloadDocuments());
+
+        fromFilter.setPlaceholder("מתאריך");
+        fromFilter.setClearButtonVisible(true);
+        fromFilter.addValueChangeListener(e -> reloadDocuments());
+        toFilter.setPlaceholder("עד תאריך");
+        toFilter.setClearButtonVisible(true);
+        toFilter.addValueChangeListener(e -> reloadDocuments());
+
+        sortSelect.setItems(SORT_OPTIONS);
+        sortSelect.setItemLabelGenerator(SortOption::label);
+        sortSelect.setValue(SORT_OPTIONS.get(0));
+        sortSelect.addValueChangeListener(e -> {
+            if (e.getValue() != null) {
+                reloadDocuments();
+            }
+        });
+
+        HorizontalLayout filters = new HorizontalLayout(nameFilter, statusFilter, fromFilter, toFilter, sortSelect);
+        filters.getStyle().set("direction", "rtl");
+        return filters;
+    }
+
+    /**
+     * Clears the grid and loads the first page for the current filters, including the total count.
+     */
+    private void reloadDocuments() {
+        loadedDocuments.clear();
+        nextCursor = null;
+        fetchPage(true);
+    }
+
+    private void loadNextPage() {
+        if (nextCursor != null) {
+            fetchPage(false);
+        }
+    }
+
+    private void fetchPage(boolean first) {
         String token = (String) VaadinSession.getCurrent().getAttribute("jwt");
+        if (token == null || clientId == null) {
+            return;
+        }
+        SortOption sort = sortSelect.getValue() != null ? sortSelect.getValue() : SORT_OPTIONS.get(0);
+        UriComponentsBuilder uri = UriComponentsBuilder.fromHttpUrl(DOCUMENTS_URL)
+                .queryParam("size", PAGE_SIZE)
+                .queryParam("sort", sort.sort())
+                .queryParam("descending", sort.descending())
+                .queryParam("includeTotal", first);
+        if (!nameFilter.isEmpty()) {
+            uri.queryParam("name", nameFilter.getValue());
+        }
+        if (statusFilter.getValue() != null) {
+            uri.queryParam("status", statusFilter.getValue());
+        }
+        if (fromFilter.getValue() != null) {
+            uri.queryParam("from", fromFilter.getValue());
+        }
+        if (toFilter.getValue() != null) {
+            uri.queryParam("to", toFilter.getValue());
+        }
+        if (!first) {
+            uri.queryParam("cursor", nextCursor);
+        }
 
         HttpHeaders headers = new HttpHeaders();
         headers.setBearerAuth(token);
         headers.set("clientId", clientId);
         headers.setAccept(List.of(MediaType.APPLICATION_JSON));
 
-        HttpEntity<String> entity = new HttpEntity<>(headers);
-
         try {
-            ResponseEntity<LoadDocumentsResponse> response = restTemplate.exchange(
-                    "http://localhost:8080/client/load-documents",
-                    HttpMethod.GET, entity, LoadDocumentsResponse.class);
-
-            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-                grid.setItems(response.getBody().documentGrids());
-            } else {
-                grid.setItems(List.of());
+            ResponseEntity<SearchDocumentsResponse> response = restTemplate.exchange(
+                    uri.encode().build().toUri(), HttpMethod.GET, new HttpEntity<>(headers),
+                    SearchDocumentsResponse.class);
+            SearchDocumentsResponse body = response.getBody();
+            if (body == null || !body.success()) {
+                Notification.show("שגיאה בטעינת המסמכים", 3000, Notification.Position.MIDDLE);
+                return;
+            }
+            loadedDocuments.addAll(body.documents());
+            nextCursor = body.nextCursor();
+            grid.setItems(loadedDocuments);
+            loadMoreButton.setVisible(nextCursor != null);
+            if (body.total() != null) {
+                totalLabel.setText(body.total() + " מסמכים");
             }
-
         } catch (Exception e) {
             Notification.show("שגיאה בטעינת המסמכים: ", 3000, Notification.Position.MIDDLE);
-
         }
     }
-    private void deleteDocument(String documentNameSelected){
+
+    @Override
+    public void beforeEnter(BeforeEnterEvent event) {
+        clientId = event.getRouteParameters().get("clientId").orElse("");
+        reloadDocuments();
+    }
+    /**
+     * Deletes the client's documents with one request to {@code /client/documents/delete}.
+     */
+    private void deleteDocuments(List<Long> documentIds){
+        if (documentIds.isEmpty()) {
+            return;
+        }
         String token = (String)VaadinSession.getCurrent().getAttribute("jwt");
         HttpHeaders headers = new HttpHeaders();
         headers.setBearerAuth(token);
         headers.setContentType(MediaType.APPLICATION_JSON);
-        HttpEntity<Void> entity = new HttpEntity<>(headers);
-
-        String url = "http://localhost:8080/client/delete-document/" + documentNameSelected;
+        headers.set("clientId", clientId);
+        HttpEntity<DeleteDocumentsRequest> entity = new HttpEntity<>(new DeleteDocumentsRequest(documentIds), headers);
 
         try {
-            ResponseEntity<Void> response = restTemplate.exchange(
-                    url,
-                    HttpMethod.DELETE, entity, Void.class);
+            ResponseEntity<DeleteDocumentsResponse> response = restTemplate.exchange(
+                    DELETE_DOCUMENTS_URL,
+                    HttpMethod.POST, entity, DeleteDocumentsResponse.class);
 
-            if(response.getStatusCode().is2xxSuccessful()){
-                Notification.show("נמחק בהצלחה");
+            if(response.getStatusCode().is2xxSuccessful() && response.getBody() != null){
+                Notification.show(response.getBody().success() ? "נמחק בהצלחה" : response.getBody().message());
+                reloadDocuments();
             }
 
         }catch (HttpClientErrorException e){
             Notification.show("מחיקה נכשלה." , 3000, Notification.Position.MIDDLE);
         }
     }
+
+    /**
+     * An entry of the sort selector: the label and the matching {@code sort}/{@code descending} parameters.
+     */
+    private record SortOption(String label, String sort, boolean descending) {
+    }
 }
@@ -1,6 +1,8 @@
 package com.ams.accountantUser.config;
 
 
+import com.ams.commonsecurity.metrics.TimedPasswordEncoder;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -61,11 +63,17 @@ public class SecurityConfig {
      * making it effective against brute-force and rainbow table attacks.
      * </p>
      *
+     * <p>
+     * Because of that cost the encoder is wrapped in a {@link TimedPasswordEncoder}, which records
+     * hashing time as {@code ams.password.*}.
+     * </p>
+     *
+     * @param meterRegistry registry for the password hashing timers
      * @return a {@link PasswordEncoder} instance
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry) {
+        return new TimedPasswordEncoder(new BCryptPasswordEncoder(), meterRegistry);
     }
 
 }
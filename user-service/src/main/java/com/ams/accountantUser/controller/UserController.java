@@ -11,10 +11,12 @@ import com.ams.dtos.loginDto.LoginResponse;
 import com.ams.dtos.registerDto.RegisterRequest;
 import com.ams.dtos.registerDto.RegisterResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
+import java.time.Duration;
 import java.util.Optional;
 
 /**
@@ -74,7 +76,9 @@ public class UserController {
                     null)
             );
         }
-        return ResponseEntity.ok(new AccountantDetailsResponse(
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(Duration.ofSeconds(30)).cachePrivate())
+                .body(new AccountantDetailsResponse(
                 true,
                    "פרטים נטענו בהצלחה",
                 accountantUser.get().getUsername(),